@@ -0,0 +1,237 @@
+package org.apache.hadoop.hbase.generated.master;
+
+import javax.servlet.*;
+import javax.servlet.http.*;
+import javax.servlet.jsp.*;
+import java.util.*;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.hbase.HMaster;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HMaster.MetaRegion;
+import org.apache.hadoop.hbase.HBaseAdmin;
+import org.apache.hadoop.hbase.HServerInfo;
+import org.apache.hadoop.hbase.HServerLoad;
+import org.apache.hadoop.hbase.HServerAddress;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.hql.ShowCommand;
+import org.apache.hadoop.hbase.hql.TableFormatter;
+import org.apache.hadoop.hbase.hql.ReturnMsg;
+import org.apache.hadoop.hbase.hql.formatter.HtmlTableFormatter;
+import org.apache.hadoop.hbase.HTableDescriptor;
+
+public final class master_jsp extends org.apache.jasper.runtime.HttpJspBase
+    implements org.apache.jasper.runtime.JspSourceDependent {
+
+  private static java.util.Vector _jspx_dependants;
+
+  public java.util.List getDependants() {
+    return _jspx_dependants;
+  }
+
+  public void _jspService(HttpServletRequest request, HttpServletResponse response)
+        throws java.io.IOException, ServletException {
+
+    JspFactory _jspxFactory = null;
+    PageContext pageContext = null;
+    HttpSession session = null;
+    ServletContext application = null;
+    ServletConfig config = null;
+    JspWriter out = null;
+    Object page = this;
+    JspWriter _jspx_out = null;
+    PageContext _jspx_page_context = null;
+
+
+    try {
+      _jspxFactory = JspFactory.getDefaultFactory();
+      response.setContentType("text/html;charset=UTF-8");
+      pageContext = _jspxFactory.getPageContext(this, request, response,
+      			null, true, 8192, true);
+      _jspx_page_context = pageContext;
+      application = pageContext.getServletContext();
+      config = pageContext.getServletConfig();
+      session = pageContext.getSession();
+      out = pageContext.getOut();
+      _jspx_out = out;
+
+
+  HMaster master = (HMaster)getServletContext().getAttribute(HMaster.MASTER);
+  HBaseConfiguration conf = master.getConfiguration();
+  TableFormatter formatter = new HtmlTableFormatter(out);
+  ShowCommand show = new ShowCommand(out, formatter, "tables");
+  HServerAddress rootLocation = master.getRootRegionLocation();
+  Map<Text, MetaRegion> onlineRegions = master.getOnlineMetaRegions();
+  Map<String, HServerInfo> serverToServerInfos =
+    master.getServersToServerInfo();
+  int interval = conf.getInt("hbase.regionserver.msginterval", 6000)/1000;
+
+      out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Transitional//EN\" \n  \"http://www.w3.org/TR/xhtml1/DTD/xhtml1-transitional.dtd\"> \n<html xmlns=\"http://www.w3.org/1999/xhtml\">\n<head><meta http-equiv=\"Content-Type\" content=\"text/html;charset=UTF-8\"/>\n<title>HBase Master: ");
+      out.print( master.getMasterAddress());
+      out.write("</title>\n<link rel=\"stylesheet\" type=\"text/css\" href=\"/static/hbase.css\" />\n</head>\n\n<body>\n\n<a id=\"logo\" href=\"http://wiki.apache.org/lucene-hadoop/Hbase\"><img src=\"/static/hbase_logo_med.gif\" alt=\"HBase Logo\" title=\"HBase Logo\" /></a>\n<h1 id=\"page_title\">Master: ");
+      out.print(master.getMasterAddress());
+      out.write("</h1>\n<p id=\"links_menu\"><a href=\"/hql.jsp\">HQL</a>, <a href=\"/logs/\">Local logs</a>, <a href=\"/stacks\">Thread Dump</a>, <a href=\"/logLevel\">Log Level</a></p>\n<hr id=\"head_rule\" />\n\n<h2>Master Attributes</h2>\n<table>\n<tr><th>Attribute Name</th><th>Value</th><th>Description</th></tr>\n<tr><td>HBase Version</td><td>");
+      out.print( org.apache.hadoop.hbase.util.VersionInfo.getVersion() );
+      out.write(',');
+      out.write(' ');
+      out.write('r');
+      out.print( org.apache.hadoop.hbase.util.VersionInfo.getRevision() );
+      out.write("</td><td>HBase version and svn revision</td></tr>\n<tr><td>HBase Compiled</td><td>");
+      out.print( org.apache.hadoop.hbase.util.VersionInfo.getDate() );
+      out.write(',');
+      out.write(' ');
+      out.print( org.apache.hadoop.hbase.util.VersionInfo.getUser() );
+      out.write("</td><td>When HBase version was compiled and by whom</td></tr>\n<tr><td>Hadoop Version</td><td>");
+      out.print( org.apache.hadoop.util.VersionInfo.getVersion() );
+      out.write(',');
+      out.write(' ');
+      out.write('r');
+      out.print( org.apache.hadoop.util.VersionInfo.getRevision() );
+      out.write("</td><td>Hadoop version and svn revision</td></tr>\n<tr><td>Hadoop Compiled</td><td>");
+      out.print( org.apache.hadoop.util.VersionInfo.getDate() );
+      out.write(',');
+      out.write(' ');
+      out.print( org.apache.hadoop.util.VersionInfo.getUser() );
+      out.write("</td><td>When Hadoop version was compiled and by whom</td></tr>\n<tr><td>Filesystem</td><td>");
+      out.print( conf.get("fs.default.name") );
+      out.write("</td><td>Filesystem HBase is running on</td></tr>\n<tr><td>HBase Root Directory</td><td>");
+      out.print( master.getRootDir().toString() );
+      out.write("</td><td>Location of HBase home directory</td></tr>\n</table>\n\n<h2>Online META Regions</h2>\n");
+ if (rootLocation != null) { 
+      out.write("\n<table>\n<tr><th>Name</th><th>Server</th></tr>\n<tr><td>");
+      out.print( HConstants.ROOT_TABLE_NAME.toString() );
+      out.write("</td><td>");
+      out.print( rootLocation.toString() );
+      out.write("</td></tr>\n");
+
+  if (onlineRegions != null && onlineRegions.size() > 0) { 
+      out.write('\n');
+      out.write(' ');
+      out.write(' ');
+ for (Map.Entry<Text, HMaster.MetaRegion> e: onlineRegions.entrySet()) {
+    MetaRegion meta = e.getValue();
+  
+      out.write("\n  <tr><td>");
+      out.print( meta.getRegionName().toString() );
+      out.write("</td><td>");
+      out.print( meta.getServer().toString() );
+      out.write("</td></tr>\n  ");
+ }
+  } 
+      out.write("\n</table>\n");
+ } 
+      out.write("\n\n<h2>Tables</h2>\n");
+ ReturnMsg msg = show.execute(conf); 
+      out.write("\n<p>");
+      out.print(msg );
+      out.write("</p>\n\n<h2>Region Servers</h2>\n");
+ if (serverToServerInfos != null && serverToServerInfos.size() > 0) { 
+      out.write('\n');
+ int totalRegions = 0;
+   int totalRequests = 0; 
+   int totalMemcacheSizeMB = 0;
+   int totalStorefiles = 0;
+   int totalStorefileSizeMB = 0;
+   final Map<HServerLoad.RegionLoad, String> regionToServer =
+     new HashMap<HServerLoad.RegionLoad, String>();
+
+      out.write("\n\n<table>\n<tr><th rowspan=");
+      out.print( serverToServerInfos.size() + 1);
+      out.write("></th><th>Address</th><th>Start Code</th><th>Load</th><th>Memcache (MB)</th><th>Store Files</th><th>Store File Size (MB)</th></tr>\n\n");
+   for (Map.Entry<String, HServerInfo> e: serverToServerInfos.entrySet()) {
+       HServerInfo hsi = e.getValue();
+       String url = "http://" +
+         hsi.getServerAddress().getBindAddress().toString() + ":" +
+         hsi.getInfoPort() + "/";
+       String load = hsi.getLoad().toString();
+       totalRegions += hsi.getLoad().getNumberOfRegions();
+       totalRequests += hsi.getLoad().getNumberOfRequests();
+       totalMemcacheSizeMB += hsi.getLoad().getMemcacheSizeMB();
+       totalStorefiles += hsi.getLoad().getStorefiles();
+       totalStorefileSizeMB += hsi.getLoad().getStorefileSizeMB();
+       long startCode = hsi.getStartCode();
+       String address = hsi.getServerAddress().toString();
+       for (HServerLoad.RegionLoad rl: hsi.getLoad().getRegionLoad()) {
+         regionToServer.put(rl, address);
+       }
+
+      out.write("\n<tr><td><a href=\"");
+      out.print( url );
+      out.write('"');
+      out.write('>');
+      out.print( address );
+      out.write("</a></td><td>");
+      out.print( startCode );
+      out.write("</td><td>");
+      out.print( load );
+      out.write("</td><td>");
+      out.print( hsi.getLoad().getMemcacheSizeMB() );
+      out.write("</td><td>");
+      out.print( hsi.getLoad().getStorefiles() );
+      out.write("</td><td>");
+      out.print( hsi.getLoad().getStorefileSizeMB() );
+      out.write("</td></tr>\n");
+   } 
+      out.write("\n<tr><th>Total: </th><td>servers: ");
+      out.print( serverToServerInfos.size() );
+      out.write("</td><td>&nbsp;</td><td>requests: ");
+      out.print( totalRequests );
+      out.write(" regions: ");
+      out.print( totalRegions );
+      out.write("</td><td>");
+      out.print( totalMemcacheSizeMB );
+      out.write("</td><td>");
+      out.print( totalStorefiles );
+      out.write("</td><td>");
+      out.print( totalStorefileSizeMB );
+      out.write("</td></tr>\n</table>\n\n<p>Load is requests per <em>hbase.regionsserver.msginterval</em> (");
+      out.print(interval);
+      out.write(" second(s)) and count of regions loaded</p>\n\n<h2>Busiest Regions</h2>\n");
+ List<HServerLoad.RegionLoad> busiest =
+     new ArrayList<HServerLoad.RegionLoad>(regionToServer.keySet());
+   Collections.sort(busiest, new Comparator<HServerLoad.RegionLoad>() {
+     public int compare(HServerLoad.RegionLoad a, HServerLoad.RegionLoad b) {
+       int diff = b.getRequests() - a.getRequests();
+       return diff != 0? diff:
+         b.getBlockedUpdateMillis() - a.getBlockedUpdateMillis();
+     }
+   });
+   if (busiest.size() > 20) {
+     busiest = busiest.subList(0, 20);
+   }
+
+      out.write("\n<table>\n<tr><th>Name</th><th>Server</th><th>Reads</th><th>Writes</th><th>Memcache (MB)</th><th>Store Files</th><th>Store File Size (MB)</th><th>Blocked Updates (ms)</th></tr>\n");
+ for (HServerLoad.RegionLoad rl: busiest) { 
+      out.write("\n<tr><td>");
+      out.print( rl.getName().toString() );
+      out.write("</td><td>");
+      out.print( regionToServer.get(rl) );
+      out.write("</td><td>");
+      out.print( rl.getReadRequests() );
+      out.write("</td><td>");
+      out.print( rl.getWriteRequests() );
+      out.write("</td><td>");
+      out.print( rl.getMemcacheSizeMB() );
+      out.write("</td><td>");
+      out.print( rl.getStorefiles() );
+      out.write("</td><td>");
+      out.print( rl.getStorefileSizeMB() );
+      out.write("</td><td>");
+      out.print( rl.getBlockedUpdateMillis() );
+      out.write("</td></tr>\n");
+ } 
+      out.write("\n</table>\n\n<p>Reads, writes and time updates were blocked waiting on a memcache flush are per <em>hbase.regionsserver.msginterval</em></p>\n");
+ } 
+      out.write("\n</body>\n</html>\n");
+    } catch (Throwable t) {
+      if (!(t instanceof SkipPageException)){
+        out = _jspx_out;
+        if (out != null && out.getBufferSize() != 0)
+          out.clearBuffer();
+        if (_jspx_page_context != null) _jspx_page_context.handlePageException(t);
+      }
+    } finally {
+      if (_jspxFactory != null) _jspxFactory.releasePageContext(_jspx_page_context);
+    }
+  }
+}
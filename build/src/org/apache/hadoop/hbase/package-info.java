@@ -0,0 +1,6 @@
+/*
+ * Generated by src/saveVersion.sh
+ */
+@VersionAnnotation(version="0.1.4-dev", revision="", 
+                         user="root", date="Mon Oct 19 06:37:46 UTC 2026", url="")
+package org.apache.hadoop.hbase;
@@ -0,0 +1,667 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hbase.filter.RowFilterInterface;
+import org.apache.hadoop.hbase.io.BatchUpdate;
+import org.apache.hadoop.hbase.io.RowResult;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Asynchronous access to a single HBase table.  Methods return immediately
+ * with a {@link Future} and optionally call a {@link Callback} when the
+ * operation completes.
+ *
+ * <p>Operations run on a bounded pool of <code>hbase.client.async.threads</code>
+ * threads.  The RPC layer is synchronous so the pool size bounds how many
+ * calls are on the wire at once; further requests queue until a thread frees
+ * up.  At most <code>hbase.client.async.max.outstanding</code> requests may be
+ * queued or running; past this, calls block until an outstanding request
+ * completes.  Retries do not hold a pool thread while waiting out
+ * <code>hbase.client.pause</code>: they are rescheduled on a timer.
+ *
+ * <p>Callbacks run on pool threads and so should not block.
+ */
+public class AsyncHTable implements HConstants {
+  static final Log LOG = LogFactory.getLog(AsyncHTable.class);
+
+  /**
+   * Called when an asynchronous operation completes.
+   * @param <T> Type of the operation result.
+   */
+  public static interface Callback<T> {
+    /**
+     * Called when the operation succeeded.
+     * @param result Result of the operation.  May be null.
+     */
+    public void onSuccess(T result);
+
+    /**
+     * Called when the operation failed after all retries.
+     * @param e Exception the last attempt failed with.
+     */
+    public void onFailure(IOException e);
+  }
+
+  private final HTable table;
+  private final ExecutorService pool;
+  private final ScheduledExecutorService retryTimer;
+  private final Semaphore outstanding;
+  // Operations not yet completed, so close can fail them.
+  private final Set<Operation<?>> operations =
+    Collections.synchronizedSet(new HashSet<Operation<?>>());
+  private volatile boolean closed = false;
+
+  /**
+   * Creates an object to access a HBase table asynchronously.
+   *
+   * @param conf configuration object
+   * @param tableName name of the table
+   * @throws IOException
+   */
+  public AsyncHTable(HBaseConfiguration conf, Text tableName)
+  throws IOException {
+    this.table = new HTable(conf, tableName);
+    String name = "AsyncHTable-" + tableName;
+    this.pool = Executors.newFixedThreadPool(
+      conf.getInt("hbase.client.async.threads", 20),
+      new DaemonThreadFactory(name));
+    this.retryTimer = Executors.newSingleThreadScheduledExecutor(
+      new DaemonThreadFactory(name + "-retry"));
+    this.outstanding = new Semaphore(
+      conf.getInt("hbase.client.async.max.outstanding", 10000));
+  }
+
+  /** @return the table name */
+  public Text getTableName() {
+    return this.table.getTableName();
+  }
+
+  /**
+   * Releases resources associated with this table.  Outstanding operations,
+   * whether queued, waiting to retry, queued behind an earlier request
+   * against the same scanner or running, fail: their futures throw an
+   * {@link ExecutionException} wrapping an IOException and their callbacks'
+   * {@link Callback#onFailure(IOException)} is called on the closing thread.
+   */
+  public synchronized void close() {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    this.retryTimer.shutdownNow();
+    this.pool.shutdownNow();
+    List<Operation<?>> abandoned = null;
+    synchronized (this.operations) {
+      abandoned = new ArrayList<Operation<?>>(this.operations);
+    }
+    for (Operation<?> op: abandoned) {
+      op.complete(null, new IOException("table " + getTableName() +
+        " closed"));
+    }
+    this.table.close();
+  }
+
+  /**
+   * Get a single value for the specified row and column
+   *
+   * @param row row key
+   * @param column column name
+   * @param callback Called on completion.  Can be null.
+   * @return Future value for specified row/column
+   */
+  public Future<byte []> get(final Text row, final Text column,
+      final Callback<byte []> callback) {
+    return submit(new Operation<byte []>(row, callback) {
+      @Override
+      byte [] call() throws IOException {
+        return server.get(location.getRegionInfo().getRegionName(), row,
+          column);
+      }
+    });
+  }
+
+  /**
+   * Get the specified number of versions of the specified row and column
+   *
+   * @param row row key
+   * @param column column name
+   * @param numVersions number of versions to retrieve
+   * @param callback Called on completion.  Can be null.
+   * @return Future array of values
+   */
+  public Future<byte [][]> get(final Text row, final Text column,
+      final int numVersions, final Callback<byte [][]> callback) {
+    return get(row, column, LATEST_TIMESTAMP, numVersions, callback);
+  }
+
+  /**
+   * Get the specified number of versions of the specified row and column with
+   * the specified timestamp.
+   *
+   * @param row row key
+   * @param column column name
+   * @param timestamp timestamp
+   * @param numVersions number of versions to retrieve
+   * @param callback Called on completion.  Can be null.
+   * @return Future array of values that match the above criteria
+   */
+  public Future<byte [][]> get(final Text row, final Text column,
+      final long timestamp, final int numVersions,
+      final Callback<byte [][]> callback) {
+    return submit(new Operation<byte [][]>(row, callback) {
+      @Override
+      byte [][] call() throws IOException {
+        return server.get(location.getRegionInfo().getRegionName(), row,
+          column, timestamp, numVersions);
+      }
+    });
+  }
+
+  /**
+   * Get all the data for the specified row at the latest timestamp
+   *
+   * @param row row key
+   * @param callback Called on completion.  Can be null.
+   * @return Future map of columns to values.  Map is empty if row does not
+   * exist.
+   */
+  public Future<SortedMap<Text, byte []>> getRow(final Text row,
+      final Callback<SortedMap<Text, byte []>> callback) {
+    return getRow(row, LATEST_TIMESTAMP, callback);
+  }
+
+  /**
+   * Get all the data for the specified row at a specified timestamp
+   *
+   * @param row row key
+   * @param ts timestamp
+   * @param callback Called on completion.  Can be null.
+   * @return Future map of columns to values.  Map is empty if row does not
+   * exist.
+   */
+  public Future<SortedMap<Text, byte []>> getRow(final Text row,
+      final long ts, final Callback<SortedMap<Text, byte []>> callback) {
+    return submit(new Operation<SortedMap<Text, byte []>>(row, callback) {
+      @Override
+      SortedMap<Text, byte []> call() throws IOException {
+        RowResult r = server.getRowResult(
+          location.getRegionInfo().getRegionName(), row, ts);
+        return r == null ? new TreeMap<Text, byte []>() : r.getCells();
+      }
+    });
+  }
+
+  /**
+   * Commit a batch of updates to a single row.
+   *
+   * @param b Updates to apply.  Must not be changed until the returned future
+   * completes.
+   * @param callback Called on completion.  Can be null.
+   * @return Future that completes when the updates have been applied.
+   */
+  public Future<Boolean> batchUpdate(final BatchUpdate b,
+      final Callback<Boolean> callback) {
+    return batchUpdate(b, LATEST_TIMESTAMP, callback);
+  }
+
+  /**
+   * Commit a batch of updates to a single row.
+   *
+   * @param b Updates to apply.  Must not be changed until the returned future
+   * completes.
+   * @param timestamp time to associate with the change
+   * @param callback Called on completion.  Can be null.
+   * @return Future that completes when the updates have been applied.
+   */
+  public Future<Boolean> batchUpdate(final BatchUpdate b,
+      final long timestamp, final Callback<Boolean> callback) {
+    return submit(new Operation<Boolean>(b.getRow(), callback) {
+      @Override
+      Boolean call() throws IOException {
+        server.batchUpdate(location.getRegionInfo().getRegionName(),
+          timestamp, b);
+        return Boolean.TRUE;
+      }
+    });
+  }
+
+  /**
+   * Get a scanner on the current table starting at the specified row.
+   * Opening the scanner and fetching rows through it are done on the pool.
+   *
+   * @param columns columns to scan
+   * @param startRow starting row in table to scan
+   * @param timestamp only return results whose timestamp <= this value
+   * @param filter a row filter.  Can be null.
+   * @return scanner
+   */
+  public AsyncScanner obtainScanner(final Text [] columns,
+      final Text startRow, final long timestamp,
+      final RowFilterInterface filter) {
+    checkClosed();
+    return new AsyncScanner(columns, startRow, timestamp, filter);
+  }
+
+  private void checkClosed() {
+    if (this.closed) {
+      throw new IllegalStateException("table is closed");
+    }
+  }
+
+  /*
+   * Start an operation, waiting for one of the outstanding slots if all are
+   * taken.
+   * @param op
+   * @return Passed <code>op</code>.
+   */
+  private <T> Operation<T> submit(final Operation<T> op) {
+    checkClosed();
+    this.outstanding.acquireUninterruptibly();
+    op.holdsPermit = true;
+    this.operations.add(op);
+    execute(op);
+    return op;
+  }
+
+  /*
+   * Run an operation on the pool.
+   * @param op
+   * @return False if the pool rejected the operation because we were
+   * closed.  The operation has then failed.
+   */
+  private boolean execute(final Operation<?> op) {
+    try {
+      this.pool.execute(op);
+      return true;
+    } catch (RejectedExecutionException e) {
+      op.complete(null, new IOException("table " + getTableName() +
+        " closed"));
+      return false;
+    }
+  }
+
+  /*
+   * Future result of an operation against a region server.  Each attempt
+   * runs on the pool.  A failed attempt is rescheduled on the retry timer
+   * after <code>pause</code> so no pool thread sits idle waiting to retry.
+   */
+  private abstract class Operation<T> implements Future<T>, Runnable {
+    final Text row;
+    private final Callback<T> callback;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile boolean cancelled = false;
+    private T result = null;
+    private IOException exception = null;
+    private int tries = 0;
+    boolean holdsPermit = false;
+    HRegionLocation location;
+    HRegionInterface server;
+
+    Operation(final Text row, final Callback<T> callback) {
+      this.row = row;
+      this.callback = callback;
+    }
+
+    /**
+     * Run the operation against <code>server</code>.
+     * @return Result of the operation.
+     * @throws IOException
+     */
+    abstract T call() throws IOException;
+
+    /** {@inheritDoc} */
+    public void run() {
+      if (isDone()) {
+        return;
+      }
+      try {
+        this.location = table.getRegionLocation(this.row, this.tries != 0);
+        this.server = table.getConnection().
+          getHRegionConnection(this.location.getServerAddress());
+        complete(call(), null);
+      } catch (IOException e) {
+        e = RemoteExceptionHandler.checkIOException(e);
+        this.tries++;
+        if (this.tries >= table.numRetries || closed) {
+          complete(null, e);
+          return;
+        }
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("reloading table servers because: " + e.getMessage());
+        }
+        try {
+          retryTimer.schedule(new Runnable() {
+            public void run() {
+              execute(Operation.this);
+            }
+          }, table.pause, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ree) {
+          complete(null, e);
+        }
+      } catch (RuntimeException e) {
+        IOException ioe = new IOException(e.toString());
+        ioe.initCause(e);
+        complete(null, ioe);
+      }
+    }
+
+    void complete(final T r, final IOException e) {
+      synchronized (this) {
+        if (isDone()) {
+          return;
+        }
+        this.result = r;
+        this.exception = e;
+        this.done.countDown();
+      }
+      operations.remove(this);
+      releasePermit();
+      if (this.callback != null) {
+        try {
+          if (e == null) {
+            this.callback.onSuccess(r);
+          } else {
+            this.callback.onFailure(e);
+          }
+        } catch (RuntimeException re) {
+          LOG.warn("Callback threw exception", re);
+        }
+      }
+    }
+
+    private synchronized void releasePermit() {
+      if (this.holdsPermit) {
+        this.holdsPermit = false;
+        outstanding.release();
+      }
+    }
+
+    /**
+     * Cancel the operation.  An attempt already running is not interrupted
+     * but its result is discarded.  The callback is not called.
+     * @return False if the operation had already completed.
+     */
+    public boolean cancel(@SuppressWarnings("unused") boolean mayInterrupt) {
+      synchronized (this) {
+        if (isDone()) {
+          return false;
+        }
+        this.cancelled = true;
+        this.done.countDown();
+      }
+      operations.remove(this);
+      releasePermit();
+      return true;
+    }
+
+    /** {@inheritDoc} */
+    public boolean isCancelled() {
+      return this.cancelled;
+    }
+
+    /** {@inheritDoc} */
+    public boolean isDone() {
+      return this.done.getCount() == 0;
+    }
+
+    /** {@inheritDoc} */
+    public T get() throws InterruptedException, ExecutionException {
+      this.done.await();
+      return getResult();
+    }
+
+    /** {@inheritDoc} */
+    public T get(long timeout, TimeUnit unit)
+    throws InterruptedException, ExecutionException, TimeoutException {
+      if (!this.done.await(timeout, unit)) {
+        throw new TimeoutException();
+      }
+      return getResult();
+    }
+
+    private synchronized T getResult() throws ExecutionException {
+      if (this.cancelled) {
+        throw new CancellationException();
+      }
+      if (this.exception != null) {
+        throw new ExecutionException(this.exception);
+      }
+      return this.result;
+    }
+  }
+
+  /**
+   * Scanner whose rows are fetched on the pool.  Calls to {@link #next}
+   * are run one at a time in the order they were made.
+   */
+  public class AsyncScanner {
+    private final Text [] columns;
+    private final Text startRow;
+    private final long timestamp;
+    private final RowFilterInterface filter;
+    private HScannerInterface scanner = null;
+    // Requests waiting on an earlier request against this scanner.
+    private final LinkedList<Operation<?>> pending =
+      new LinkedList<Operation<?>>();
+    private boolean running = false;
+    private volatile boolean scannerClosed = false;
+
+    AsyncScanner(final Text [] columns, final Text startRow,
+        final long timestamp, final RowFilterInterface filter) {
+      this.columns = columns;
+      this.startRow = startRow;
+      this.timestamp = timestamp;
+      this.filter = filter;
+    }
+
+    /**
+     * Fetch the next row.
+     * @param callback Called on completion.  Can be null.
+     * @return Future row or null if the scanner is exhausted.
+     */
+    public Future<Map.Entry<HStoreKey, SortedMap<Text, byte []>>> next(
+        final Callback<Map.Entry<HStoreKey, SortedMap<Text, byte []>>>
+          callback) {
+      return enqueue(
+        new ScannerOperation<Map.Entry<HStoreKey, SortedMap<Text, byte []>>>(
+          callback) {
+        @Override
+        Map.Entry<HStoreKey, SortedMap<Text, byte []>> scan()
+        throws IOException {
+          final HStoreKey key = new HStoreKey();
+          final SortedMap<Text, byte []> results = new TreeMap<Text, byte []>();
+          if (!getScanner().next(key, results)) {
+            return null;
+          }
+          return new Map.Entry<HStoreKey, SortedMap<Text, byte[]>>() {
+            public HStoreKey getKey() {
+              return key;
+            }
+
+            public SortedMap<Text, byte[]> getValue() {
+              return results;
+            }
+
+            public SortedMap<Text, byte[]> setValue(@SuppressWarnings("unused")
+            SortedMap<Text, byte[]> value) {
+              throw new UnsupportedOperationException();
+            }
+          };
+        }
+      });
+    }
+
+    /**
+     * Close the scanner once all earlier requests against it have run.
+     * @param callback Called on completion.  Can be null.
+     * @return Future that completes when the scanner is closed.
+     */
+    public Future<Boolean> close(final Callback<Boolean> callback) {
+      return enqueue(new ScannerOperation<Boolean>(callback) {
+        @Override
+        Boolean scan() throws IOException {
+          scannerClosed = true;
+          if (scanner != null) {
+            scanner.close();
+          }
+          return Boolean.TRUE;
+        }
+      });
+    }
+
+    /*
+     * Scanner is opened on first use so opening happens on the pool too.
+     */
+    HScannerInterface getScanner() throws IOException {
+      if (this.scannerClosed) {
+        throw new IOException("scanner is closed");
+      }
+      if (this.scanner == null) {
+        this.scanner = table.obtainScanner(this.columns, this.startRow,
+          this.timestamp, this.filter);
+      }
+      return this.scanner;
+    }
+
+    private <T> Operation<T> enqueue(final Operation<T> op) {
+      checkClosed();
+      outstanding.acquireUninterruptibly();
+      op.holdsPermit = true;
+      operations.add(op);
+      synchronized (this.pending) {
+        if (this.running) {
+          this.pending.add(op);
+          return op;
+        }
+        this.running = true;
+      }
+      if (!execute(op)) {
+        runNext();
+      }
+      return op;
+    }
+
+    /*
+     * Called when a request against this scanner completes.  Runs the next
+     * request, if any.  Requests the pool rejects have failed; move on past
+     * them so the queue does not stall.
+     */
+    void runNext() {
+      while (true) {
+        Operation<?> next = null;
+        synchronized (this.pending) {
+          next = this.pending.poll();
+          if (next == null) {
+            this.running = false;
+            return;
+          }
+        }
+        if (execute(next)) {
+          return;
+        }
+      }
+    }
+
+    /*
+     * Scanner operations are not retried here: the scanner underneath
+     * already retries opening regions and a failed next cannot be
+     * repeated without skipping rows.
+     */
+    private abstract class ScannerOperation<T> extends Operation<T> {
+      ScannerOperation(final Callback<T> callback) {
+        super(startRow, callback);
+      }
+
+      abstract T scan() throws IOException;
+
+      @Override
+      T call() throws IOException {
+        return scan();
+      }
+
+      @Override
+      public void run() {
+        try {
+          if (!isDone()) {
+            T r = null;
+            IOException e = null;
+            try {
+              r = scan();
+            } catch (IOException ex) {
+              e = RemoteExceptionHandler.checkIOException(ex);
+            } catch (RuntimeException ex) {
+              e = new IOException(ex.toString());
+              e.initCause(ex);
+            }
+            complete(r, e);
+          }
+        } finally {
+          runNext();
+        }
+      }
+    }
+  }
+
+  /*
+   * Thread factory that makes named daemon threads.
+   */
+  private static class DaemonThreadFactory implements ThreadFactory {
+    private final String name;
+    private final AtomicInteger count = new AtomicInteger(0);
+
+    DaemonThreadFactory(final String name) {
+      this.name = name;
+    }
+
+    /** {@inheritDoc} */
+    public Thread newThread(Runnable r) {
+      Thread t = new Thread(r, this.name + "-" + this.count.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    }
+  }
+}
@@ -20,16 +20,24 @@
 package org.apache.hadoop.hbase;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.TreeMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.hadoop.hbase.io.HbaseMapWritable;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.io.RowResult;
 import org.apache.hadoop.hbase.util.Writables;
+import org.apache.hadoop.io.MapFile;
+import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.Text;
-import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.ipc.RemoteException;
 
 /**
@@ -38,6 +46,7 @@ import org.apache.hadoop.ipc.RemoteException;
 public class HBaseAdmin implements HConstants {
   protected final Log LOG = LogFactory.getLog(this.getClass().getName());
 
+  private final HBaseConfiguration conf;
   protected final HConnection connection;
   protected final long pause;
   protected final int numRetries;
@@ -50,6 +59,7 @@ public class HBaseAdmin implements HConstants {
    * @throws MasterNotRunningException
    */
   public HBaseAdmin(HBaseConfiguration conf) throws MasterNotRunningException {
+    this.conf = conf;
     this.connection = HConnectionManager.getConnection(conf);
     this.pause = conf.getLong("hbase.client.pause", 30 * 1000);
     this.numRetries = conf.getInt("hbase.client.retries.number", 5);
@@ -111,12 +121,44 @@ public class HBaseAdmin implements HConstants {
    */
   public void createTable(HTableDescriptor desc)
   throws IOException {
-    createTableAsync(desc);
+    createTable(desc, null);
+  }
+
+  /**
+   * Creates a new table made of one region per range between split keys so
+   * load on a new table is spread from the start.
+   * {@link org.apache.hadoop.hbase.util.Keying} can make evenly spaced split
+   * keys.
+   * 
+   * @param desc table descriptor for table
+   * @param splitKeys sorted, distinct, non-empty start keys of every region
+   * but the first.  If null or empty, the table has one region.
+   * 
+   * @throws IllegalArgumentException if the table name is reserved or the
+   * split keys are not sorted, distinct and non-empty
+   * @throws MasterNotRunningException if master is not running
+   * @throws NoServerForRegionException if root region is not being served
+   * @throws TableExistsException if table already exists (If concurrent
+   * threads, the table may have been created between test-for-existence
+   * and attempt-at-creation).
+   * @throws IOException
+   */
+  public void createTable(HTableDescriptor desc, Text [] splitKeys)
+  throws IOException {
+    createTableAsync(desc, splitKeys);
 
+    Text [] startKeys = new Text[splitKeys == null? 1: splitKeys.length + 1];
+    startKeys[0] = EMPTY_START_ROW;
+    for (int i = 1; i < startKeys.length; i++) {
+      startKeys[i] = splitKeys[i - 1];
+    }
+    int online = 0;
     for (int tries = 0; tries < numRetries; tries++) {
       try {
-        // Wait for new table to come on-line
-        connection.locateRegion(desc.getName(), EMPTY_START_ROW);
+        // Wait for every region of the new table to come on-line
+        for (; online < startKeys.length; online++) {
+          connection.locateRegion(desc.getName(), startKeys[online]);
+        }
         break;
         
       } catch (TableNotFoundException e) {
@@ -147,18 +189,81 @@ public class HBaseAdmin implements HConstants {
    * @throws IOException
    */
   public void createTableAsync(HTableDescriptor desc)
+  throws IOException {
+    createTableAsync(desc, null);
+  }
+
+  /**
+   * Creates a new table split at the passed keys but does not block and wait
+   * for it to come online.
+   * 
+   * @param desc table descriptor for table
+   * @param splitKeys sorted, distinct, non-empty start keys of every region
+   * but the first.  If null or empty, the table has one region.
+   * 
+   * @throws IllegalArgumentException if the table name is reserved
+   * @throws MasterNotRunningException if master is not running
+   * @throws NoServerForRegionException if root region is not being served
+   * @throws TableExistsException if table already exists (If concurrent
+   * threads, the table may have been created between test-for-existence
+   * and attempt-at-creation).
+   * @throws IOException
+   */
+  public void createTableAsync(HTableDescriptor desc, Text [] splitKeys)
   throws IOException {
     if (this.master == null) {
       throw new MasterNotRunningException("master has been shut down");
     }
     checkReservedTableName(desc.getName());
+    checkSplitKeys(splitKeys);
+    if (desc.isIndexed()) {
+      createIndexTable(desc.getName());
+    }
     try {
-      this.master.createTable(desc);
+      if (splitKeys == null || splitKeys.length == 0) {
+        this.master.createTable(desc);
+      } else {
+        this.master.createTable(desc, splitKeys);
+      }
     } catch (RemoteException e) {
       throw RemoteExceptionHandler.decodeRemoteException(e);
     }
   }
 
+  /*
+   * Create the index table of <code>tableName</code> unless it exists.
+   * Region servers write to it as soon as an indexed family is updated, so
+   * it is on-line before this method returns.  Rows already in the table
+   * are not entered in the index until {@link TableIndex#rebuild()} is run.
+   * @param tableName
+   * @throws IOException
+   */
+  private void createIndexTable(final Text tableName) throws IOException {
+    if (!tableExists(TableIndex.getIndexTableName(tableName))) {
+      createTable(TableIndex.getIndexTableDesc(tableName));
+    }
+  }
+
+  /*
+   * @param splitKeys
+   * @throws IllegalArgumentException if splitKeys are not sorted, distinct
+   * and non-empty
+   */
+  private void checkSplitKeys(final Text [] splitKeys) {
+    if (splitKeys == null) {
+      return;
+    }
+    for (int i = 0; i < splitKeys.length; i++) {
+      if (splitKeys[i] == null || splitKeys[i].getLength() == 0) {
+        throw new IllegalArgumentException("Empty split key");
+      }
+      if (i > 0 && splitKeys[i - 1].compareTo(splitKeys[i]) >= 0) {
+        throw new IllegalArgumentException("Split keys not sorted and " +
+          "distinct: " + splitKeys[i - 1] + " then " + splitKeys[i]);
+      }
+    }
+  }
+
   /**
    * Deletes a table
    * 
@@ -189,20 +294,17 @@ public class HBaseAdmin implements HConstants {
         scannerId =
           server.openScanner(firstMetaServer.getRegionInfo().getRegionName(),
             COL_REGIONINFO_ARRAY, tableName, HConstants.LATEST_TIMESTAMP, null);
-        HbaseMapWritable values = server.next(scannerId);
-        if (values == null || values.size() == 0) {
+        RowResult values = server.nextRow(scannerId);
+        if (values == null || values.isEmpty()) {
           break;
         }
         boolean found = false;
-        for (Map.Entry<Writable, Writable> e: values.entrySet()) {
-          HStoreKey key = (HStoreKey) e.getKey();
-          if (key.getColumn().equals(COL_REGIONINFO)) {
-            info = (HRegionInfo) Writables.getWritable(
-                  ((ImmutableBytesWritable) e.getValue()).get(), info);
-            
-            if (info.getTableDesc().getName().equals(tableName)) {
-              found = true;
-            }
+        byte [] bytes = values.get(COL_REGIONINFO);
+        if (bytes != null) {
+          info = (HRegionInfo) Writables.getWritable(bytes, info);
+          
+          if (info.getTableDesc().getName().equals(tableName)) {
+            found = true;
           }
         }
         if (!found) {
@@ -273,8 +375,8 @@ public class HBaseAdmin implements HConstants {
         boolean isenabled = false;
         
         while (true) {
-          HbaseMapWritable values = server.next(scannerId);
-          if (values == null || values.size() == 0) {
+          RowResult values = server.nextRow(scannerId);
+          if (values == null || values.isEmpty()) {
             if (valuesfound == 0) {
               throw new NoSuchElementException(
                   "table " + tableName + " not found");
@@ -282,15 +384,11 @@ public class HBaseAdmin implements HConstants {
             break;
           }
           valuesfound += 1;
-          for (Map.Entry<Writable, Writable> e: values.entrySet()) {
-            HStoreKey key = (HStoreKey) e.getKey();
-            if (key.getColumn().equals(COL_REGIONINFO)) {
-              info = (HRegionInfo) Writables.getWritable(
-                    ((ImmutableBytesWritable) e.getValue()).get(), info);
+          byte [] bytes = values.get(COL_REGIONINFO);
+          if (bytes != null) {
+            info = (HRegionInfo) Writables.getWritable(bytes, info);
             
-              isenabled = !info.isOffline();
-              break;
-            }
+            isenabled = !info.isOffline();
           }
           if (isenabled) {
             break;
@@ -374,23 +472,19 @@ public class HBaseAdmin implements HConstants {
         
         boolean disabled = false;
         while (true) {
-          HbaseMapWritable values = server.next(scannerId);
-          if (values == null || values.size() == 0) {
+          RowResult values = server.nextRow(scannerId);
+          if (values == null || values.isEmpty()) {
             if (valuesfound == 0) {
               throw new NoSuchElementException("table " + tableName + " not found");
             }
             break;
           }
           valuesfound += 1;
-          for (Map.Entry<Writable, Writable> e: values.entrySet()) {
-            HStoreKey key = (HStoreKey) e.getKey();
-            if (key.getColumn().equals(COL_REGIONINFO)) {
-              info = (HRegionInfo) Writables.getWritable(
-                    ((ImmutableBytesWritable) e.getValue()).get(), info);
+          byte [] bytes = values.get(COL_REGIONINFO);
+          if (bytes != null) {
+            info = (HRegionInfo) Writables.getWritable(bytes, info);
             
-              disabled = info.isOffline();
-              break;
-            }
+            disabled = info.isOffline();
           }
           if (disabled) {
             break;
@@ -449,6 +543,9 @@ public class HBaseAdmin implements HConstants {
     }
     
     checkReservedTableName(tableName);
+    if (column.isIndexed()) {
+      createIndexTable(tableName);
+    }
     try {
       this.master.addColumn(tableName, column);
       
@@ -495,6 +592,9 @@ public class HBaseAdmin implements HConstants {
     }
     
     checkReservedTableName(tableName);
+    if (descriptor.isIndexed()) {
+      createIndexTable(tableName);
+    }
     try {
       this.master.modifyColumn(tableName, columnName, descriptor);
       
@@ -503,6 +603,224 @@ public class HBaseAdmin implements HConstants {
     }
   }
 
+  /**
+   * Merge two adjacent regions of an enabled table.  The regions are closed
+   * and merged by the region server serving them and the new region is then
+   * assigned; this method returns once the master has accepted the request.
+   * 
+   * @param regionNameA name of a region
+   * @param regionNameB name of the region that follows it
+   * @throws IOException
+   */
+  public void mergeRegions(Text regionNameA, Text regionNameB)
+  throws IOException {
+    if (this.master == null) {
+      throw new MasterNotRunningException("master has been shut down");
+    }
+    
+    try {
+      this.master.mergeRegions(regionNameA, regionNameB);
+      
+    } catch (RemoteException e) {
+      throw RemoteExceptionHandler.decodeRemoteException(e);
+    }
+  }
+
+
+  /**
+   * Load store files written by
+   * {@link org.apache.hadoop.hbase.mapred.HStoreFileOutputFormat} into the
+   * regions of an enabled table.  Each region server moves the files of its
+   * regions into place; no cell goes through the write-ahead log.  Files
+   * that straddle region boundaries, because regions split since the files
+   * were written, are first rewritten into one file per region.  Indexed
+   * families can not be bulk loaded.
+   *
+   * @param tableName table to load into
+   * @param dir directory holding a subdirectory of MapFiles per column
+   * family.  Must be on the filesystem the table is stored on.  Loaded files
+   * are moved out of it.
+   * @throws IOException
+   */
+  public void bulkLoad(final Text tableName, final Path dir)
+  throws IOException {
+    HTableDescriptor desc = null;
+    for (HTableDescriptor d: listTables()) {
+      if (d.getName().equals(tableName)) {
+        desc = d;
+        break;
+      }
+    }
+    if (desc == null) {
+      throw new TableNotFoundException(tableName.toString());
+    }
+    FileSystem fs = dir.getFileSystem(this.conf);
+    List<BulkLoadFile> files = new ArrayList<BulkLoadFile>();
+    for (HColumnDescriptor hcd: desc.getFamilies().values()) {
+      Path familyDir = new Path(dir,
+        HStoreKey.extractFamily(hcd.getFamilyName()).toString());
+      if (!fs.exists(familyDir)) {
+        continue;
+      }
+      for (FileStatus s: fs.listStatus(familyDir)) {
+        files.add(new BulkLoadFile(hcd, s.getPath()));
+      }
+    }
+    for (int tries = 0; !files.isEmpty(); tries++) {
+      if (tries == this.numRetries) {
+        throw new IOException("Failed bulk load of " + files.size() +
+          " file(s) into " + tableName + " after " + tries + " attempts");
+      }
+      if (tries > 0) {
+        try {
+          Thread.sleep(this.pause);
+        } catch (InterruptedException e) {
+          // continue
+        }
+      }
+      files = tryBulkLoad(tableName, fs, files, tries > 0);
+    }
+  }
+
+  /*
+   * Hand files to the servers of the regions they belong in.
+   * @param tableName
+   * @param fs
+   * @param files
+   * @param reload True if cached region locations should be refreshed.
+   * @return Files that could not be loaded because their region moved or
+   * split in the meantime.
+   * @throws IOException
+   */
+  private List<BulkLoadFile> tryBulkLoad(final Text tableName,
+      final FileSystem fs, final List<BulkLoadFile> files,
+      final boolean reload)
+  throws IOException {
+    Map<Text, HRegionLocation> locations = new TreeMap<Text, HRegionLocation>();
+    Map<Text, List<BulkLoadFile>> regionFiles =
+      new TreeMap<Text, List<BulkLoadFile>>();
+    List<BulkLoadFile> todo = new LinkedList<BulkLoadFile>(files);
+    while (!todo.isEmpty()) {
+      BulkLoadFile f = todo.remove(0);
+      HStoreKey first = new HStoreKey();
+      HStoreKey last = new HStoreKey();
+      MapFile.Reader r = new MapFile.Reader(fs, f.path.toString(), this.conf);
+      try {
+        if (!r.next(first, new ImmutableBytesWritable())) {
+          LOG.warn("Skipping empty file " + f.path);
+          continue;
+        }
+        r.finalKey(last);
+      } finally {
+        r.close();
+      }
+      HRegionLocation location = reload?
+        this.connection.relocateRegion(tableName, first.getRow()):
+        this.connection.locateRegion(tableName, first.getRow());
+      HRegionInfo info = location.getRegionInfo();
+      if (!HRegion.rowIsInRange(info, last.getRow())) {
+        todo.addAll(splitBulkLoadFile(tableName, fs, f));
+        continue;
+      }
+      List<BulkLoadFile> l = regionFiles.get(info.getRegionName());
+      if (l == null) {
+        l = new ArrayList<BulkLoadFile>();
+        regionFiles.put(info.getRegionName(), l);
+        locations.put(info.getRegionName(), location);
+      }
+      l.add(f);
+    }
+    List<BulkLoadFile> failed = new ArrayList<BulkLoadFile>();
+    for (Map.Entry<Text, List<BulkLoadFile>> e: regionFiles.entrySet()) {
+      List<BulkLoadFile> l = e.getValue();
+      Text [] families = new Text[l.size()];
+      Text [] paths = new Text[l.size()];
+      for (int i = 0; i < l.size(); i++) {
+        families[i] = l.get(i).family.getFamilyName();
+        paths[i] = new Text(l.get(i).path.toString());
+      }
+      HRegionInterface server = this.connection.getHRegionConnection(
+        locations.get(e.getKey()).getServerAddress());
+      try {
+        server.bulkLoad(e.getKey(), families, paths);
+        LOG.info("Loaded " + l.size() + " file(s) into " + e.getKey());
+      } catch (IOException ex) {
+        ex = RemoteExceptionHandler.checkIOException(ex);
+        if (!(ex instanceof NotServingRegionException) &&
+            !(ex instanceof WrongRegionException)) {
+          throw ex;
+        }
+        LOG.debug("Will retry " + l.size() + " file(s) of " + e.getKey() +
+          ": " + ex.getMessage());
+        failed.addAll(l);
+      }
+    }
+    return failed;
+  }
+
+  /*
+   * Rewrite a file that spans several regions into a file per region.  The
+   * original file is deleted.
+   * @param tableName
+   * @param fs
+   * @param f
+   * @return The new files.
+   * @throws IOException
+   */
+  private List<BulkLoadFile> splitBulkLoadFile(final Text tableName,
+      final FileSystem fs, final BulkLoadFile f)
+  throws IOException {
+    SequenceFile.CompressionType compression =
+      SequenceFile.CompressionType.NONE;
+    if (f.family.getCompression() == HColumnDescriptor.CompressionType.BLOCK) {
+      compression = SequenceFile.CompressionType.BLOCK;
+    } else if (f.family.getCompression() ==
+        HColumnDescriptor.CompressionType.RECORD) {
+      compression = SequenceFile.CompressionType.RECORD;
+    }
+    List<BulkLoadFile> result = new ArrayList<BulkLoadFile>();
+    MapFile.Reader r = new MapFile.Reader(fs, f.path.toString(), this.conf);
+    MapFile.Writer w = null;
+    try {
+      HStoreKey key = new HStoreKey();
+      ImmutableBytesWritable value = new ImmutableBytesWritable();
+      HRegionInfo info = null;
+      while (r.next(key, value)) {
+        if (info == null || !HRegion.rowIsInRange(info, key.getRow())) {
+          if (w != null) {
+            w.close();
+          }
+          info = this.connection.locateRegion(tableName, key.getRow()).
+            getRegionInfo();
+          Path p = new Path(f.path.getParent(),
+            f.path.getName() + "." + result.size());
+          w = new HStoreFile.HbaseMapFile.HbaseWriter(this.conf, fs,
+            p.toString(), compression);
+          result.add(new BulkLoadFile(f.family, p));
+        }
+        w.append(key, value);
+      }
+    } finally {
+      if (w != null) {
+        w.close();
+      }
+      r.close();
+    }
+    fs.delete(f.path);
+    LOG.debug("Split " + f.path + " into " + result.size() + " file(s)");
+    return result;
+  }
+
+  /* A store file waiting to be bulk loaded */
+  private static class BulkLoadFile {
+    final HColumnDescriptor family;
+    final Path path;
+
+    BulkLoadFile(final HColumnDescriptor family, final Path path) {
+      this.family = family;
+      this.path = path;
+    }
+  }
   
   /** 
    * Shuts down the HBase instance 
@@ -42,7 +42,8 @@ import org.apache.hadoop.hbase.io.TextSequence;
 public class HColumnDescriptor implements WritableComparable {
   
   // For future backward compatibility
-  private static final byte COLUMN_DESCRIPTOR_VERSION = (byte)1;
+  // Version 2 adds whether the family is indexed.
+  private static final byte COLUMN_DESCRIPTOR_VERSION = (byte)2;
   
   /** Legal family names can only contain 'word characters' and end in a colon. */
   public static final Pattern LEGAL_FAMILY_NAME = Pattern.compile("\\w+:");
@@ -86,6 +87,11 @@ public class HColumnDescriptor implements WritableComparable {
    */
   public static final BloomFilterDescriptor DEFAULT_BLOOM_FILTER_DESCRIPTOR =
     null;
+
+  /**
+   * Default setting for whether values are indexed.
+   */
+  public static final boolean DEFAULT_INDEXED = false;
   
   // Column family name
   private Text name;
@@ -101,6 +107,8 @@ public class HColumnDescriptor implements WritableComparable {
   private boolean bloomFilterSpecified;
   // Descriptor of bloom filter
   private BloomFilterDescriptor bloomFilter;
+  // Values are indexed
+  private boolean indexed;
   // Version number of this class
   private byte versionNumber;
   // Family name without the ':'
@@ -145,6 +153,33 @@ public class HColumnDescriptor implements WritableComparable {
   public HColumnDescriptor(final Text name, final int maxVersions,
       final CompressionType compression, final boolean inMemory,
       final int maxValueLength, final BloomFilterDescriptor bloomFilter) {
+    this(name, maxVersions, compression, inMemory, maxValueLength,
+      bloomFilter, DEFAULT_INDEXED);
+  }
+
+  /**
+   * Constructor
+   * Specify all parameters.
+   * @param name Column family name
+   * @param maxVersions Maximum number of versions to keep
+   * @param compression Compression type
+   * @param inMemory If true, column data should be kept in an HRegionServer's
+   * cache
+   * @param maxValueLength Restrict values to &lt;= this value
+   * @param bloomFilter Enable the specified bloom filter for this column
+   * @param indexed If true, the latest value of every column of the family
+   * is entered in the index table of the table
+   * 
+   * @throws IllegalArgumentException if passed a family name that is made of 
+   * other than 'word' characters: i.e. <code>[a-zA-Z_0-9]</code> and does not
+   * end in a <code>:</code>
+   * @throws IllegalArgumentException if the number of versions is &lt;= 0
+   * @see TableIndex
+   */
+  public HColumnDescriptor(final Text name, final int maxVersions,
+      final CompressionType compression, final boolean inMemory,
+      final int maxValueLength, final BloomFilterDescriptor bloomFilter,
+      final boolean indexed) {
     String familyStr = name.toString();
     // Test name if not null (It can be null when deserializing after
     // construction but before we've read in the fields);
@@ -170,6 +205,7 @@ public class HColumnDescriptor implements WritableComparable {
     this.bloomFilterSpecified = this.bloomFilter == null ? false : true;
     this.versionNumber = COLUMN_DESCRIPTOR_VERSION;
     this.compressionType = compression;
+    this.indexed = indexed;
   }
   
   /** @return name of column family */
@@ -226,6 +262,15 @@ public class HColumnDescriptor implements WritableComparable {
     return this.bloomFilter;
   }
 
+  /**
+   * @return True if values of the family are entered in the index table of
+   * the table.
+   * @see TableIndex
+   */
+  public boolean isIndexed() {
+    return this.indexed;
+  }
+
   /** {@inheritDoc} */
   @Override
   public String toString() {
@@ -235,7 +280,8 @@ public class HColumnDescriptor implements WritableComparable {
       ", max versions: " + maxVersions +
       ", compression: " + this.compressionType + ", in memory: " + inMemory +
       ", max length: " + maxValueLength + ", bloom filter: " +
-      (bloomFilterSpecified ? bloomFilter.toString() : "none") + "}";
+      (bloomFilterSpecified ? bloomFilter.toString() : "none") +
+      ", indexed: " + indexed + "}";
   }
   
   /** {@inheritDoc} */
@@ -254,6 +300,7 @@ public class HColumnDescriptor implements WritableComparable {
     result ^= Integer.valueOf(this.maxValueLength).hashCode();
     result ^= Boolean.valueOf(this.bloomFilterSpecified).hashCode();
     result ^= Byte.valueOf(this.versionNumber).hashCode();
+    result ^= Boolean.valueOf(this.indexed).hashCode();
     if(this.bloomFilterSpecified) {
       result ^= this.bloomFilter.hashCode();
     }
@@ -277,6 +324,8 @@ public class HColumnDescriptor implements WritableComparable {
       bloomFilter = new BloomFilterDescriptor();
       bloomFilter.readFields(in);
     }
+
+    this.indexed = this.versionNumber >= 2? in.readBoolean(): DEFAULT_INDEXED;
   }
 
   /** {@inheritDoc} */
@@ -292,6 +341,10 @@ public class HColumnDescriptor implements WritableComparable {
     if(bloomFilterSpecified) {
       bloomFilter.write(out);
     }
+
+    if (this.versionNumber >= 2) {
+      out.writeBoolean(this.indexed);
+    }
   }
 
   // Comparable
@@ -346,6 +399,10 @@ public class HColumnDescriptor implements WritableComparable {
     if(result == 0 && this.bloomFilterSpecified) {
       result = this.bloomFilter.compareTo(other.bloomFilter);
     }
+
+    if(result == 0 && this.indexed != other.indexed) {
+      result = this.indexed? -1: 1;
+    }
     
     return result;
   }
@@ -27,18 +27,17 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
-import java.util.TreeMap;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.ipc.HbaseRPC;
 import org.apache.hadoop.hbase.util.Writables;
-import org.apache.hadoop.hbase.io.HbaseMapWritable;
+import org.apache.hadoop.hbase.io.RowResult;
 import org.apache.hadoop.io.Text;
-import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.ipc.RemoteException;
 
 /**
@@ -95,6 +94,17 @@ public class HConnectionManager implements HConstants {
     }    
   }
   
+  /*
+   * @param connection A connection got from {@link #getConnection}.
+   * @param tableName
+   * @return Count of region locations of <code>tableName</code> cached by
+   * <code>connection</code>.  Used by tests.
+   */
+  static int getCachedRegionCount(final HConnection connection,
+      final Text tableName) {
+    return ((TableServers)connection).getTableLocations(tableName).size();
+  }
+
   /* Encapsulates finding the servers for an HBase instance */
   private static class TableServers implements HConnection, HConstants {
     private static final Log LOG = LogFactory.getLog(TableServers.class);
@@ -107,9 +117,14 @@ public class HConnectionManager implements HConstants {
     private volatile HMasterInterface master;
     private volatile boolean masterChecked;
     
+ 
+    // Lookups of .META. and user regions do not lock.  Two threads missing
+    // on the same region may both go to the catalog; whichever caches last
+    // wins.  Only the root region lookup is serialized.
     private final Integer rootRegionLock = new Integer(0);
-    private final Integer metaRegionLock = new Integer(0);
-    private final Integer userRegionLock = new Integer(0);
+
+    // How many rows to read ahead out of a catalog table on a cache miss.
+    private final int prefetchLimit;
         
     private volatile HBaseConfiguration conf;
 
@@ -119,9 +134,13 @@ public class HConnectionManager implements HConstants {
     // Known region HServerAddress.toString() -> HRegionInterface 
     private Map<String, HRegionInterface> servers;
 
-    private HRegionLocation rootRegionLocation; 
+    private volatile HRegionLocation rootRegionLocation; 
     
-    private Map<Text, SortedMap<Text, HRegionLocation>> cachedRegionLocations;
+    // Cached region locations keyed by table name and then by region start
+    // key.
+    private final ConcurrentMap<Text, ConcurrentSkipListMap<Text, HRegionLocation>>
+      cachedRegionLocations =
+        new ConcurrentHashMap<Text, ConcurrentSkipListMap<Text, HRegionLocation>>();
     
     /** 
      * constructor
@@ -147,12 +166,11 @@ public class HConnectionManager implements HConstants {
 
       this.pause = conf.getLong("hbase.client.pause", 30 * 1000);
       this.numRetries = conf.getInt("hbase.client.retries.number", 5);
+      this.prefetchLimit = conf.getInt("hbase.client.prefetch.limit", 10);
       
       this.master = null;
       this.masterChecked = false;
 
-      this.cachedRegionLocations = 
-        new ConcurrentHashMap<Text, SortedMap<Text, HRegionLocation>>();
       this.closedTables = Collections.synchronizedSet(new HashSet<Text>());
       this.servers = new ConcurrentHashMap<String, HRegionInterface>();
     }
@@ -266,21 +284,18 @@ public class HConnectionManager implements HConstants {
 
             // iterate through the scanner, accumulating unique table names
             while (true) {
-              HbaseMapWritable values = server.next(scannerId);
-              if (values == null || values.size() == 0) {
+              RowResult values = server.nextRow(scannerId);
+              if (values == null || values.isEmpty()) {
                 break;
               }
-              for (Map.Entry<Writable, Writable> e: values.entrySet()) {
-                HStoreKey key = (HStoreKey) e.getKey();
-                if (key.getColumn().equals(COL_REGIONINFO)) {
-                  HRegionInfo info = new HRegionInfo();
-                  info = (HRegionInfo) Writables.getWritable(
-                      ((ImmutableBytesWritable) e.getValue()).get(), info);
-
-                  // Only examine the rows where the startKey is zero length   
-                  if (info.getStartKey().getLength() == 0) {
-                    uniqueTables.add(info.getTableDesc());
-                  }
+              byte [] bytes = values.get(COL_REGIONINFO);
+              if (bytes != null) {
+                HRegionInfo info = new HRegionInfo();
+                info = (HRegionInfo) Writables.getWritable(bytes, info);
+
+                // Only examine the rows where the startKey is zero length   
+                if (info.getStartKey().getLength() == 0) {
+                  uniqueTables.add(info.getTableDesc());
                 }
               }
             }
@@ -333,41 +348,17 @@ public class HConnectionManager implements HConstants {
           // second waits. The second thread will not do find.
           
           if (!useCache || rootRegionLocation == null) {
-            return locateRootRegion();
+            rootRegionLocation = locateRootRegion();
           }
           return rootRegionLocation;
         }        
       } else if (tableName.equals(META_TABLE_NAME)) {
-        synchronized (metaRegionLock) {
-          // This block guards against two threads trying to load the meta 
-          // region at the same time. The first will load the meta region and
-          // the second will use the value that the first one found.
-
-          return locateRegionInMeta(ROOT_TABLE_NAME, tableName, row, useCache);
-        }
+        return locateRegionInMeta(ROOT_TABLE_NAME, tableName, row, useCache);
       } else {
-        synchronized(userRegionLock){
-          return locateRegionInMeta(META_TABLE_NAME, tableName, row, useCache);
-        }
+        return locateRegionInMeta(META_TABLE_NAME, tableName, row, useCache);
       }
     }
 
-    /**
-      * Convenience method for turning a MapWritable into the underlying
-      * SortedMap we all know and love.
-      */
-    private SortedMap<Text, byte[]> sortedMapFromMapWritable(
-      HbaseMapWritable writable) {
-      SortedMap<Text, byte[]> results = new TreeMap<Text, byte[]>();
-      for (Map.Entry<Writable, Writable> e: writable.entrySet()) {
-        HStoreKey key = (HStoreKey) e.getKey();
-        results.put(key.getColumn(), 
-          ((ImmutableBytesWritable) e.getValue()).get());
-      }
-      
-      return results;
-    }
-
     /**
       * Search one of the meta tables (-ROOT- or .META.) for the HRegionLocation
       * info that contains the table and row we're seeking.
@@ -411,7 +402,7 @@ public class HConnectionManager implements HConstants {
             getHRegionConnection(metaLocation.getServerAddress());
 
           // query the root region for the location of the meta region
-          HbaseMapWritable regionInfoRow = server.getClosestRowBefore(
+          RowResult regionInfoRow = server.getClosestRowResultBefore(
             metaLocation.getRegionInfo().getRegionName(), metaKey);
 
           if (regionInfoRow == null) {
@@ -419,9 +410,7 @@ public class HConnectionManager implements HConstants {
               "' does not exist.");
           }
 
-          // convert the MapWritable into a Map we can use
-          SortedMap<Text, byte[]> results = 
-            sortedMapFromMapWritable(regionInfoRow);
+          SortedMap<Text, byte[]> results = regionInfoRow.getCells();
 
           byte[] bytes = results.get(COL_REGIONINFO);
 
@@ -460,6 +449,17 @@ public class HConnectionManager implements HConstants {
       
           cacheLocation(tableName, location);
 
+          // Clients usually go on to ask about neighbouring regions so read
+          // ahead a few catalog rows while we have the catalog server, unless
+          // this is the last region or the region after it is cached already.
+          Text endKey = regionInfo.getEndKey();
+          if (!parentTable.equals(ROOT_TABLE_NAME) &&
+              !endKey.equals(EMPTY_TEXT) &&
+              getCachedLocation(tableName, endKey) == null) {
+            prefetchRegionLocations(server, metaLocation, tableName,
+              regionInfo.getRegionName());
+          }
+
           return location;
         } catch (IllegalStateException e) {
           if (tries < numRetries - 1) {
@@ -493,119 +493,142 @@ public class HConnectionManager implements HConstants {
       }
     }
 
-    /** 
-      * Search the cache for a location that fits our table and row key.
-      * Return null if no suitable region is located. TODO: synchronization note
-      */
-    private HRegionLocation getCachedLocation(Text tableName, Text row) {
-      // find the map of cached locations for this table
-      SortedMap<Text, HRegionLocation> tableLocations = 
-        cachedRegionLocations.get(tableName);
+    /*
+     * Read up to <code>prefetchLimit</code> catalog rows starting at
+     * <code>regionName</code> in one call and cache the locations of the
+     * online regions of <code>tableName</code> found.  Failures are logged
+     * and otherwise ignored; the regions will be looked up one at a time when
+     * asked for.
+     * @param server Server hosting the catalog region.
+     * @param metaLocation Location of the catalog region.
+     * @param tableName Table whose regions we are looking for.
+     * @param regionName Catalog row to start at.
+     */
+    private void prefetchRegionLocations(final HRegionInterface server,
+        final HRegionLocation metaLocation, final Text tableName,
+        final Text regionName) {
+      if (this.prefetchLimit <= 1) {
+        return;
+      }
+      int cached = 0;
+      try {
+        RowResult [] rows = server.getRowResults(
+          metaLocation.getRegionInfo().getRegionName(), COLUMN_FAMILY_ARRAY,
+          regionName, this.prefetchLimit);
+        for (int i = 0; rows != null && i < rows.length; i++) {
+          SortedMap<Text, byte[]> results = rows[i].getCells();
+          byte [] bytes = results.get(COL_REGIONINFO);
+          if (bytes == null || bytes.length == 0) {
+            continue;
+          }
+          HRegionInfo info = (HRegionInfo) Writables.getWritable(bytes,
+            new HRegionInfo());
+          if (!info.getTableDesc().getName().equals(tableName)) {
+            // Went past the last region of the table.
+            break;
+          }
+          if (info.isOffline() || info.isSplit() ||
+              info.getRegionName().equals(regionName)) {
+            // The region looked up is cached already.
+            continue;
+          }
+          String serverAddress =
+            Writables.bytesToString(results.get(COL_SERVER));
+          if (serverAddress == null || serverAddress.length() == 0) {
+            continue;
+          }
+          cacheLocation(tableName, new HRegionLocation(info,
+            new HServerAddress(serverAddress)));
+          cached++;
+        }
+      } catch (IOException e) {
+        if (e instanceof RemoteException) {
+          e = RemoteExceptionHandler.checkIOException(e);
+        }
+        LOG.debug("Failed prefetch of region locations of " + tableName +
+          " after " + regionName, e);
+      }
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Prefetched " + cached + " region location(s) of " +
+          tableName + " starting at " + regionName);
+      }
+    }
 
-      // if tableLocations for this table isn't built yet, make one
+    /*
+     * @param tableName
+     * @return Cache of region locations of <code>tableName</code> keyed by
+     * region start key.  Made if not already present.
+     */
+    private ConcurrentSkipListMap<Text, HRegionLocation> getTableLocations(
+        final Text tableName) {
+      ConcurrentSkipListMap<Text, HRegionLocation> tableLocations =
+        this.cachedRegionLocations.get(tableName);
       if (tableLocations == null) {
-        tableLocations = new TreeMap<Text, HRegionLocation>();
-        cachedRegionLocations.put(tableName, tableLocations);
+        tableLocations = new ConcurrentSkipListMap<Text, HRegionLocation>();
+        ConcurrentSkipListMap<Text, HRegionLocation> existing =
+          this.cachedRegionLocations.putIfAbsent(tableName, tableLocations);
+        if (existing != null) {
+          tableLocations = existing;
+        }
       }
+      return tableLocations;
+    }
 
-      // start to examine the cache. we can only do cache actions
-      // if there's something in the cache for this table.
-      if (!tableLocations.isEmpty()) {
-        if (tableLocations.containsKey(row)) {
-          return tableLocations.get(row);
-        }
-        
-        // cut the cache so that we only get the part that could contain
-        // regions that match our key
-        SortedMap<Text, HRegionLocation> matchingRegions =
-          tableLocations.headMap(row);
-
-        // if that portion of the map is empty, then we're done. otherwise,
-        // we need to examine the cached location to verify that it is 
-        // a match by end key as well.
-        if (!matchingRegions.isEmpty()) {
-          HRegionLocation possibleRegion = 
-            matchingRegions.get(matchingRegions.lastKey());
-          
-          Text endKey = possibleRegion.getRegionInfo().getEndKey();
-          
-          // make sure that the end key is greater than the row we're looking 
-          // for, otherwise the row actually belongs in the next region, not 
-          // this one. the exception case is when the endkey is EMPTY_START_ROW,
-          // signifying that the region we're checking is actually the last 
-          // region in the table.
-          if (endKey.equals(EMPTY_TEXT) || endKey.compareTo(row) > 0) {
-            return possibleRegion;
-          }
-        }
+    /*
+     * @param tableLocations
+     * @param row
+     * @return Cache entry of the region that holds <code>row</code> or null
+     * if none cached.
+     */
+    private Map.Entry<Text, HRegionLocation> getCachedEntry(
+        final ConcurrentSkipListMap<Text, HRegionLocation> tableLocations,
+        final Text row) {
+      // The region holding the row is the one with the greatest start key
+      // that is less than or equal to the row...
+      Map.Entry<Text, HRegionLocation> e = tableLocations.floorEntry(row);
+      if (e == null) {
+        return null;
+      }
+      // ...as long as the row sorts before the region's end key.  An empty
+      // end key signifies the last region in the table.
+      Text endKey = e.getValue().getRegionInfo().getEndKey();
+      if (endKey.equals(EMPTY_TEXT) || endKey.compareTo(row) > 0) {
+        return e;
       }
-      
-      // passed all the way through, so we got nothin - complete cache miss
       return null;
     }
 
+    /** 
+      * Search the cache for a location that fits our table and row key.
+      * Return null if no suitable region is located.
+      */
+    private HRegionLocation getCachedLocation(Text tableName, Text row) {
+      Map.Entry<Text, HRegionLocation> e =
+        getCachedEntry(getTableLocations(tableName), row);
+      return e == null? null: e.getValue();
+    }
 
     /**
-      * Delete a cached location, if it satisfies the table name and row
-      * requirements.
+      * Delete the cached location of the region that holds <code>row</code>,
+      * if any.  Other cached regions of the table are left alone.
       */
     private void deleteCachedLocation(Text tableName, Text row){
-      // find the map of cached locations for this table
-      SortedMap<Text, HRegionLocation> tableLocations = 
-        cachedRegionLocations.get(tableName);
-
-      // if tableLocations for this table isn't built yet, make one
-      if (tableLocations == null) {
-        tableLocations = new TreeMap<Text, HRegionLocation>();
-        cachedRegionLocations.put(tableName, tableLocations);
+      ConcurrentSkipListMap<Text, HRegionLocation> tableLocations =
+        getTableLocations(tableName);
+      Map.Entry<Text, HRegionLocation> e = getCachedEntry(tableLocations, row);
+      if (e != null) {
+        // Only remove if nobody has replaced the entry in the meantime.
+        tableLocations.remove(e.getKey(), e.getValue());
       }
-
-      // start to examine the cache. we can only do cache actions
-      // if there's something in the cache for this table.
-      if (!tableLocations.isEmpty()) {
-        // cut the cache so that we only get the part that could contain
-        // regions that match our key
-        SortedMap<Text, HRegionLocation> matchingRegions =
-          tableLocations.headMap(row);
-
-        // if that portion of the map is empty, then we're done. otherwise,
-        // we need to examine the cached location to verify that it is 
-        // a match by end key as well.
-        if (!matchingRegions.isEmpty()) {
-          HRegionLocation possibleRegion = 
-            matchingRegions.get(matchingRegions.lastKey());
-          
-          Text endKey = possibleRegion.getRegionInfo().getEndKey();
-          
-          // by nature of the map, we know that the start key has to be < 
-          // otherwise it wouldn't be in the headMap. 
-          if (endKey.compareTo(row) <= 0) {
-            // delete any matching entry
-            tableLocations.remove(matchingRegions.lastKey());
-          }
-        }
-      }      
     }
 
-
     /**
       * Put a newly discovered HRegionLocation into the cache.
       */
     private void cacheLocation(Text tableName, HRegionLocation location){
-      Text startKey = location.getRegionInfo().getStartKey();
-      
-      // find the map of cached locations for this table
-      SortedMap<Text, HRegionLocation> tableLocations = 
-        cachedRegionLocations.get(tableName);
-
-      // if tableLocations for this table isn't built yet, make one
-      if (tableLocations == null) {
-        tableLocations = new TreeMap<Text, HRegionLocation>();
-        cachedRegionLocations.put(tableName, tableLocations);
-      }
-      
       // save the HRegionLocation under the startKey
-      tableLocations.put(startKey, location);
+      getTableLocations(tableName).put(location.getRegionInfo().getStartKey(),
+        location);
     }
     
     /** {@inheritDoc} */
@@ -664,6 +687,9 @@ public class HConnectionManager implements HConstants {
       if (cachedRegionLocations.containsKey(tableName)) {
         SortedMap<Text, HRegionLocation> tableServers = 
           cachedRegionLocations.remove(tableName);
+        if (tableServers == null) {
+          return;
+        }
 
         // Shut down connections to the HRegionServers
         synchronized (this.servers) {
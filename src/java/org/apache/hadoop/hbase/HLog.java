@@ -43,6 +43,7 @@ import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.SequenceFile.CompressionType;
 import org.apache.hadoop.io.SequenceFile.Reader;
+import org.apache.hadoop.hbase.metrics.Histogram;
 import org.apache.hadoop.hbase.util.FSUtils;
 
 /**
@@ -132,6 +133,11 @@ public class HLog implements HConstants {
   // during an update
   private final Integer updateLock = new Integer(0);
 
+  // Microseconds taken by appends, including the wait on updateLock, and by
+  // log rolls.
+  final Histogram appendTime = new Histogram();
+  final Histogram rollTime = new Histogram();
+
   /**
    * Create an edit log at the given <code>dir</code> location.
    *
@@ -216,6 +222,7 @@ public class HLog implements HConstants {
    * @throws IOException
    */
   public void rollWriter() throws IOException {
+    long start = System.nanoTime();
     this.cacheFlushLock.lock();
     try {
       if (closed) {
@@ -289,6 +296,7 @@ public class HLog implements HConstants {
       }
     } finally {
       this.cacheFlushLock.unlock();
+      this.rollTime.updateSince(start);
     }
   }
   
@@ -367,6 +375,7 @@ public class HLog implements HConstants {
     if (closed) {
       throw new IOException("Cannot append; log is closed");
     }
+    long start = System.nanoTime();
     synchronized (updateLock) {
       long seqNum[] = obtainSeqNum(edits.size());
       // The 'lastSeqWritten' map holds the sequence number of the oldest
@@ -393,6 +402,7 @@ public class HLog implements HConstants {
         this.numEntries++;
       }
     }
+    this.appendTime.updateSince(start);
     if (this.numEntries > this.maxlogentries) {
       requestLogRoll();
     }
@@ -431,7 +441,7 @@ public class HLog implements HConstants {
    * @param num number of sequence numbers to obtain
    * @return array of sequence numbers
    */
-  private long[] obtainSeqNum(int num) {
+  long[] obtainSeqNum(int num) {
     long[] results = new long[num];
     synchronized (this.sequenceLock) {
       for (int i = 0; i < num; i++) {
@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -53,7 +54,6 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.PathFilter;
 import org.apache.hadoop.hbase.io.BatchUpdate;
-import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.ipc.HbaseRPC;
 import org.apache.hadoop.hbase.util.FSUtils;
 import org.apache.hadoop.hbase.util.InfoServer;
@@ -61,6 +61,7 @@ import org.apache.hadoop.hbase.util.Sleeper;
 import org.apache.hadoop.hbase.util.Threads;
 import org.apache.hadoop.hbase.util.Writables;
 import org.apache.hadoop.hbase.io.HbaseMapWritable;
+import org.apache.hadoop.hbase.io.RowResult;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.ipc.RemoteException;
@@ -222,6 +223,9 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
       Map<HRegionInfo, SortedMap<Text, byte[]>> splitParents =
         new HashMap<HRegionInfo, SortedMap<Text, byte[]>>();
       List<Text> emptyRows = new ArrayList<Text>();
+      // Assigned regions of enabled user tables, in order.  After the scan
+      // we look for small neighbours among them to merge.
+      List<HRegionLocation> mergeCandidates = new ArrayList<HRegionLocation>();
       try {
         regionServer = connection.getHRegionConnection(region.getServer());
         scannerId =
@@ -230,8 +234,8 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
 
         int numberOfRegionsFound = 0;
         while (true) {
-          HbaseMapWritable values = regionServer.next(scannerId);
-          if (values == null || values.size() == 0) {
+          RowResult values = regionServer.nextRow(scannerId);
+          if (values == null || values.isEmpty()) {
             break;
           }
 
@@ -259,6 +263,11 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
           if (isSplitParent(info)) {
             splitParents.put(info, results);
           }
+          if (mergeMaxSize > 0 && !info.isMetaTable() && !info.isOffline() &&
+              !info.isSplit() && serverName.length() != 0) {
+            mergeCandidates.add(
+              new HRegionLocation(info, new HServerAddress(serverName)));
+          }
           numberOfRegionsFound += 1;
         }
         if (this.rootRegion) {
@@ -306,6 +315,10 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
           cleanupSplits(region.getRegionName(), regionServer, hri, e.getValue());
         }
       }
+
+      if (mergeCandidates.size() > 1) {
+        mergeSmallRegions(mergeCandidates);
+      }
       LOG.info(Thread.currentThread().getName() + " scan of meta region " +
         region.toString() + " complete");
     }
@@ -798,6 +811,12 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
   final MetaScanner metaScannerThread;
   final Integer metaScannerLock = new Integer(0);
 
+  final LoadBalancer balancerThread;
+
+  // Adjacent regions smaller than this together are merged; 0 disables.
+  final long mergeMaxSize;
+  final int maxMerges;
+
   /** The map of known server names to server info */
   volatile Map<String, HServerInfo> serversToServerInfo =
     new ConcurrentHashMap<String, HServerInfo>();
@@ -846,6 +865,37 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
   volatile Set<Text> killedRegions =
     Collections.synchronizedSet(new HashSet<Text>());
 
+  /**
+   * Regions the balancer is moving, by name of the server to close them on.
+   * Unlike the kill list, closed regions are reassigned.
+   */
+  volatile Map<String, Map<Text, HRegionInfo>> regionsToMove =
+    new ConcurrentHashMap<String, Map<Text, HRegionInfo>>();
+
+  /** Region name -> name of the server the balancer is moving it to */
+  volatile Map<Text, String> moveTargets =
+    new ConcurrentHashMap<Text, String>();
+
+  /** Region name -> when the balancer asked for it to be moved */
+  volatile Map<Text, Long> moveTimes = new ConcurrentHashMap<Text, Long>();
+
+  /**
+   * Moves not done after this many milliseconds are forgotten so a lost
+   * report does not keep the balancer waiting forever
+   */
+  final long moveTimeout;
+
+  /** Pairs of adjacent regions to merge, by name of the server serving both */
+  volatile Map<String, List<HRegionInfo []>> regionsToMerge =
+    new ConcurrentHashMap<String, List<HRegionInfo []>>();
+
+  /**
+   * Region name -> the region it is to be merged with once it has been moved
+   * to the server serving that region
+   */
+  volatile Map<Text, HRegionInfo> mergesAfterMove =
+    new ConcurrentHashMap<Text, HRegionInfo>();
+
   /** Set of tables currently in creation. */
   private volatile Set<Text> tableInCreation = 
     Collections.synchronizedSet(new HashSet<Text>());
@@ -966,6 +1016,15 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
 
     // Scans the meta table
     this.metaScannerThread = new MetaScanner();
+
+    // Moves regions off overloaded servers
+    this.balancerThread = new LoadBalancer(this,
+      conf.getInt("hbase.master.balancer.period", 5 * 60 * 1000));
+
+    this.mergeMaxSize = conf.getLong("hbase.hregion.merge.max.filesize", 0);
+    this.maxMerges = conf.getInt("hbase.master.merge.max.merges", 4);
+    this.moveTimeout =
+      conf.getLong("hbase.master.balancer.move.timeout", 10 * 60 * 1000);
     
     unassignRootRegion();
 
@@ -1173,6 +1232,13 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
     } catch(Exception iex) {
       LOG.warn("meta scanner", iex);
     }
+    try {
+      if (balancerThread.isAlive()) {
+        balancerThread.join();
+      }
+    } catch(Exception iex) {
+      LOG.warn("balancer", iex);
+    }
     LOG.info("HMaster main thread exiting");
   }
   
@@ -1190,6 +1256,8 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
         threadName + ".rootScanner");
       Threads.setDaemonThreadRunning(this.metaScannerThread,
         threadName + ".metaScanner");
+      Threads.setDaemonThreadRunning(this.balancerThread,
+        threadName + ".balancer");
       // Leases are not the same as Chore threads. Set name differently.
       this.serverLeases.setName(threadName + ".leaseChecker");
       this.serverLeases.start();
@@ -1645,6 +1713,13 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
               // meta table to be updated.
               pendingRegions.add(region.getRegionName());
 
+              // If the region was moved here to be merged, do it now.
+              HRegionInfo mergeWith =
+                mergesAfterMove.remove(region.getRegionName());
+              if (mergeWith != null) {
+                queueMerge(serverName, mergeWith, region);
+              }
+
               // Queue up an update to note the region location.
 
               try {
@@ -1675,6 +1750,10 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
           if (killedRegions.remove(region.getRegionName())) {
             reassignRegion = false;
           }
+          if (!reassignRegion) {
+            // Region is not coming back; it cannot be moved or merged.
+            forgetMove(region.getRegionName());
+          }
           if (region.isMetaTable()) {
             // Region is part of the meta table. Remove it from onlineMetaRegions
             onlineMetaRegions.remove(region.getStartKey());
@@ -1701,6 +1780,7 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
         addToUnassignedRegions(newRegionB);
         LOG.info("Region " + region.getRegionName() + " split; new regions: " +
           newRegionA.getRegionName() + ", " + newRegionB.getRegionName());
+        forgetMove(region.getRegionName());
 
         if (region.isMetaTable()) {
           // A meta region has split.
@@ -1709,6 +1789,17 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
         }
         break;
 
+      case HMsg.MSG_REPORT_MERGE:
+        HRegionInfo oldRegionA = incomingMsgs[++i].getRegionInfo();
+        HRegionInfo oldRegionB = incomingMsgs[++i].getRegionInfo();
+        forgetMove(oldRegionA.getRegionName());
+        forgetMove(oldRegionB.getRegionName());
+        addToUnassignedRegions(region);
+        LOG.info("Regions " + oldRegionA.getRegionName() + " and " +
+          oldRegionB.getRegionName() + " merged; new region: " +
+          region.getRegionName());
+        break;
+
       default:
         throw new IOException(
             "Impossible state during msg processing.  Instruction: " +
@@ -1725,11 +1816,213 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
       }
     }
 
+    // Close regions the balancer is moving off this server
+
+    Map<Text, HRegionInfo> regionsToClose = regionsToMove.remove(serverName);
+    if (regionsToClose != null) {
+      for (HRegionInfo i: regionsToClose.values()) {
+        returnMsgs.add(new HMsg(HMsg.MSG_REGION_CLOSE, i));
+      }
+    }
+
+    // Merge regions this server is serving
+
+    List<HRegionInfo []> merges = regionsToMerge.remove(serverName);
+    if (merges != null) {
+      for (HRegionInfo [] pair: merges) {
+        returnMsgs.add(new HMsg(HMsg.MSG_REGION_MERGE, pair[0]));
+        returnMsgs.add(new HMsg(HMsg.MSG_REGION_MERGE, pair[1]));
+      }
+    }
+
     // Figure out what the RegionServer ought to do, and write back.
     assignRegions(info, serverName, returnMsgs);
     return returnMsgs.toArray(new HMsg[returnMsgs.size()]);
   }
   
+  /*
+   * Move a region: close it on <code>from</code> and reopen it on
+   * <code>to</code>.
+   * @param from name of server now serving the region
+   * @param info region to move
+   * @param to name of server to open the region on
+   */
+  void moveRegion(final String from, final HRegionInfo info, final String to) {
+    this.moveTimes.put(info.getRegionName(),
+      Long.valueOf(System.currentTimeMillis()));
+    this.moveTargets.put(info.getRegionName(), to);
+    synchronized (this.regionsToMove) {
+      Map<Text, HRegionInfo> regions = this.regionsToMove.get(from);
+      if (regions == null) {
+        regions = new HashMap<Text, HRegionInfo>();
+        this.regionsToMove.put(from, regions);
+      }
+      regions.put(info.getRegionName(), info);
+    }
+  }
+
+  /*
+   * Merge two adjacent regions.  The merge is done by the server serving the
+   * first region.  If the second region is being served elsewhere it is
+   * moved there first and the merge asked for once it has been opened.
+   * @param a the first region and where it is served
+   * @param b the region that follows and where it is served
+   */
+  void mergeRegions(final HRegionLocation a, final HRegionLocation b) {
+    String serverA = a.getServerAddress().toString();
+    String serverB = b.getServerAddress().toString();
+    if (serverA.equals(serverB)) {
+      queueMerge(serverA, a.getRegionInfo(), b.getRegionInfo());
+      return;
+    }
+    LOG.info("Moving " + b.getRegionInfo().getRegionName() + " to " +
+      serverA + " for merge with " + a.getRegionInfo().getRegionName());
+    this.mergesAfterMove.put(b.getRegionInfo().getRegionName(),
+      a.getRegionInfo());
+    moveRegion(serverB, b.getRegionInfo(), serverA);
+  }
+
+  /*
+   * Tell a server to merge two adjacent regions it is serving on its next
+   * report.
+   * @param serverName
+   * @param a
+   * @param b
+   */
+  private void queueMerge(final String serverName, final HRegionInfo a,
+      final HRegionInfo b) {
+    LOG.info("Merging " + a.getRegionName() + " and " + b.getRegionName() +
+      " on " + serverName);
+    synchronized (this.regionsToMerge) {
+      List<HRegionInfo []> pairs = this.regionsToMerge.get(serverName);
+      if (pairs == null) {
+        pairs = new ArrayList<HRegionInfo []>();
+        this.regionsToMerge.put(serverName, pairs);
+      }
+      pairs.add(new HRegionInfo [] {a, b});
+    }
+  }
+
+  /*
+   * Merge neighbouring regions that together are smaller than
+   * hbase.hregion.merge.max.filesize, going by their last reported load.
+   * Regions on the move are left alone.
+   * @param regions Assigned regions found by a meta scan, in order
+   */
+  void mergeSmallRegions(final List<HRegionLocation> regions) {
+    Map<Text, HServerLoad.RegionLoad> loads =
+      new HashMap<Text, HServerLoad.RegionLoad>();
+    for (HServerLoad load: this.serversToLoad.values()) {
+      for (HServerLoad.RegionLoad l: load.getRegionLoad()) {
+        loads.put(l.getName(), l);
+      }
+    }
+    List<HRegionLocation> settled = new ArrayList<HRegionLocation>();
+    for (HRegionLocation l: regions) {
+      Text name = l.getRegionInfo().getRegionName();
+      if (!this.moveTargets.containsKey(name) &&
+          !this.mergesAfterMove.containsKey(name) &&
+          !this.unassignedRegions.containsKey(l.getRegionInfo())) {
+        settled.add(l);
+      }
+    }
+    for (HRegionLocation [] pair: planMerges(settled, loads,
+        this.mergeMaxSize / (1024 * 1024), this.maxMerges)) {
+      mergeRegions(pair[0], pair[1]);
+    }
+  }
+
+  /**
+   * Pick pairs of adjacent regions that together hold less than
+   * <code>maxSizeMB</code> of store files and memcache.  Regions whose load
+   * is not known are skipped.
+   * @param regions Regions in .META. order
+   * @param loads Last reported load of each region, by region name
+   * @param maxSizeMB
+   * @param maxMerges Most pairs to return
+   * @return Pairs to merge.  A region is in at most one pair.
+   */
+  static List<HRegionLocation []> planMerges(
+      final List<HRegionLocation> regions,
+      final Map<Text, HServerLoad.RegionLoad> loads, final long maxSizeMB,
+      final int maxMerges) {
+    List<HRegionLocation []> pairs = new ArrayList<HRegionLocation []>();
+    for (int i = 0; i + 1 < regions.size() && pairs.size() < maxMerges; i++) {
+      HRegionInfo a = regions.get(i).getRegionInfo();
+      HRegionInfo b = regions.get(i + 1).getRegionInfo();
+      if (!a.getTableDesc().getName().equals(b.getTableDesc().getName()) ||
+          a.getEndKey().getLength() == 0 ||
+          !a.getEndKey().equals(b.getStartKey())) {
+        continue;
+      }
+      HServerLoad.RegionLoad loadA = loads.get(a.getRegionName());
+      HServerLoad.RegionLoad loadB = loads.get(b.getRegionName());
+      if (loadA == null || loadB == null) {
+        continue;
+      }
+      long size = loadA.getStorefileSizeMB() + loadA.getMemcacheSizeMB() +
+        loadB.getStorefileSizeMB() + loadB.getMemcacheSizeMB();
+      if (size < maxSizeMB) {
+        pairs.add(new HRegionLocation [] {regions.get(i), regions.get(i + 1)});
+        // b is taken
+        i++;
+      }
+    }
+    return pairs;
+  }
+
+  /*
+   * Forget moves from or to servers that are no longer with us.  The shutdown
+   * processing of a dead server reassigns its regions.  Also forget moves
+   * that have taken longer than hbase.master.balancer.move.timeout; the
+   * region is then assigned like any other.
+   */
+  void clearDeadMoves() {
+    synchronized (this.regionsToMove) {
+      this.regionsToMove.keySet().retainAll(
+        this.serversToServerInfo.keySet());
+    }
+    this.moveTargets.values().retainAll(this.serversToServerInfo.keySet());
+    long oldest = System.currentTimeMillis() - this.moveTimeout;
+    for (Map.Entry<Text, Long> e: this.moveTimes.entrySet()) {
+      if (!this.moveTargets.containsKey(e.getKey()) &&
+          !this.mergesAfterMove.containsKey(e.getKey())) {
+        this.moveTimes.remove(e.getKey());
+      } else if (e.getValue().longValue() < oldest) {
+        LOG.warn("Move of " + e.getKey() + " timed out; forgetting it");
+        forgetMove(e.getKey());
+      }
+    }
+  }
+
+  /*
+   * Forget any move or merge-after-move of a region.  Called when the region
+   * splits, merges or closes for good, so the balancer does not wait on a
+   * move that will never finish.
+   * @param regionName
+   */
+  void forgetMove(final Text regionName) {
+    this.moveTargets.remove(regionName);
+    this.moveTimes.remove(regionName);
+    this.mergesAfterMove.remove(regionName);
+    // Merges waiting on another region's move to join this one
+    for (Map.Entry<Text, HRegionInfo> e: this.mergesAfterMove.entrySet()) {
+      if (e.getValue().getRegionName().equals(regionName)) {
+        this.mergesAfterMove.remove(e.getKey());
+      }
+    }
+    synchronized (this.regionsToMove) {
+      for (Iterator<Map<Text, HRegionInfo>> i =
+          this.regionsToMove.values().iterator(); i.hasNext();) {
+        Map<Text, HRegionInfo> regions = i.next();
+        regions.remove(regionName);
+        if (regions.isEmpty()) {
+          i.remove();
+        }
+      }
+    }
+  }
+
   /*
    * @param hri Add to unassigned regions but make sure its not in pending
    * else can end up double-assigning
@@ -1762,6 +2055,7 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
       
       long now = System.currentTimeMillis();
       Set<HRegionInfo> regionsToAssign = new HashSet<HRegionInfo>();
+      Set<HRegionInfo> regionsMovedHere = new HashSet<HRegionInfo>();
       for (Map.Entry<HRegionInfo, Long> e: this.unassignedRegions.entrySet()) {
         HRegionInfo i = e.getKey();
         if (numberOfMetaRegions.get() != onlineMetaRegions.size() &&
@@ -1772,9 +2066,25 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
         }
         long diff = now - e.getValue().longValue();
         if (diff > this.maxRegionOpenTime) {
+          String target = this.moveTargets.get(i.getRegionName());
+          if (target != null &&
+              this.serversToServerInfo.containsKey(target)) {
+            // The balancer is moving this region. Only give it to its target.
+            if (target.equals(serverName)) {
+              regionsMovedHere.add(i);
+            }
+            continue;
+          }
           regionsToAssign.add(e.getKey());
         }
       }
+      for (HRegionInfo regionInfo: regionsMovedHere) {
+        LOG.info("assigning region " + regionInfo.getRegionName() +
+          " to server " + serverName + " (balancer move)");
+        this.moveTargets.remove(regionInfo.getRegionName());
+        this.unassignedRegions.put(regionInfo, Long.valueOf(now));
+        returnMsgs.add(new HMsg(HMsg.MSG_REGION_OPEN, regionInfo));
+      }
       int nRegionsToAssign = regionsToAssign.size();
       if (nRegionsToAssign <= 0) {
         // No regions to assign.  Return.
@@ -2041,15 +2351,15 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
       List<Text> emptyRows = new ArrayList<Text>();
       try {
         while (true) {
-          HbaseMapWritable values = null;
+          RowResult values = null;
           try {
-            values = server.next(scannerId);
+            values = server.nextRow(scannerId);
           } catch (IOException e) {
             LOG.error("Shutdown scanning of meta region",
               RemoteExceptionHandler.checkIOException(e));
             break;
           }
-          if (values == null || values.size() == 0) {
+          if (values == null || values.isEmpty()) {
             break;
           }
           // TODO: Why does this have to be a sorted map?
@@ -2516,12 +2826,18 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
 
   /** {@inheritDoc} */
   public void createTable(HTableDescriptor desc)
+  throws IOException {
+    createTable(desc, null);
+  }
+
+  /** {@inheritDoc} */
+  public void createTable(HTableDescriptor desc, Text [] splitKeys)
   throws IOException {
     
     if (!isMasterRunning()) {
       throw new MasterNotRunningException();
     }
-    HRegionInfo newRegion = new HRegionInfo(desc, null, null);
+    HRegionInfo [] newRegions = getHRegionInfos(desc, splitKeys);
 
     for (int tries = 0; tries < numRetries; tries++) {
       try {
@@ -2530,8 +2846,9 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
         if (this.metaScannerThread.waitForMetaRegionsOrClose()) {
           break;
         }
-        createTable(newRegion);
-        LOG.info("created table " + desc.getName());
+        createTable(newRegions);
+        LOG.info("created table " + desc.getName() + " with " +
+          newRegions.length + " region(s)");
         break;
       
       } catch (IOException e) {
@@ -2543,7 +2860,57 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
     }
   }
 
-  private void createTable(final HRegionInfo newRegion) throws IOException {
+  /*
+   * @param desc
+   * @param splitKeys
+   * @return Infos of regions spanning the table, split at splitKeys
+   * @throws IllegalArgumentException if splitKeys are not sorted, distinct
+   * and non-empty
+   */
+  static HRegionInfo [] getHRegionInfos(final HTableDescriptor desc,
+      final Text [] splitKeys) {
+    if (splitKeys == null || splitKeys.length == 0) {
+      return new HRegionInfo [] {new HRegionInfo(desc, null, null)};
+    }
+    HRegionInfo [] infos = new HRegionInfo[splitKeys.length + 1];
+    Text startKey = null;
+    for (int i = 0; i < splitKeys.length; i++) {
+      if (splitKeys[i] == null || splitKeys[i].getLength() == 0) {
+        throw new IllegalArgumentException("Empty split key");
+      }
+      if (startKey != null && startKey.compareTo(splitKeys[i]) >= 0) {
+        throw new IllegalArgumentException("Split keys not sorted and " +
+          "distinct: " + startKey + " then " + splitKeys[i]);
+      }
+      infos[i] = new HRegionInfo(desc, startKey, splitKeys[i]);
+      startKey = splitKeys[i];
+    }
+    infos[splitKeys.length] = new HRegionInfo(desc, startKey, null);
+    return infos;
+  }
+
+  /*
+   * @param row
+   * @return Online meta region that holds, or would hold, <code>row</code>
+   */
+  private MetaRegion getMetaRegionFor(final Text row) {
+    synchronized (onlineMetaRegions) {
+      return onlineMetaRegions.size() == 1 ?
+        onlineMetaRegions.get(onlineMetaRegions.firstKey()) : 
+          (onlineMetaRegions.containsKey(row) ?
+            onlineMetaRegions.get(row) :
+              onlineMetaRegions.get(onlineMetaRegions.headMap(row).lastKey()));
+    }
+  }
+
+  /*
+   * Create the regions of a new table and get them assigned.
+   * @param newRegions Regions of the table, in order
+   * @throws IOException
+   */
+  private void createTable(final HRegionInfo [] newRegions)
+  throws IOException {
+    HRegionInfo newRegion = newRegions[0];
     Text tableName = newRegion.getTableDesc().getName();
     // TODO: Not thread safe check.
     if (tableInCreation.contains(tableName)) {
@@ -2557,36 +2924,26 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
       // for the table we want to create already exists, then table already
       // created. Throw already-exists exception.
       
-      MetaRegion m = null;
-      synchronized (onlineMetaRegions) {
-        m = (onlineMetaRegions.size() == 1 ?
-            onlineMetaRegions.get(onlineMetaRegions.firstKey()) : 
-              (onlineMetaRegions.containsKey(newRegion.getRegionName()) ?
-                  onlineMetaRegions.get(newRegion.getRegionName()) :
-                    onlineMetaRegions.get(onlineMetaRegions.headMap(
-                        newRegion.getTableDesc().getName()).lastKey())));
-      }
+      MetaRegion m = getMetaRegionFor(tableName);
           
       Text metaRegionName = m.getRegionName();
       HRegionInterface server = connection.getHRegionConnection(m.getServer());
       long scannerid = server.openScanner(metaRegionName, COL_REGIONINFO_ARRAY,
           tableName, HConstants.LATEST_TIMESTAMP, null);
       try {
-        HbaseMapWritable data = server.next(scannerid);
+        RowResult data = server.nextRow(scannerid);
             
         // Test data and that the row for the data is for our table. If table
         // does not exist, scanner will return row after where our table would
         // be inserted if it exists so look for exact match on table name.
             
-        if (data != null && data.size() > 0) {
-          for (Writable k: data.keySet()) {
-            if (HRegionInfo.getTableNameFromRegionName(
-                ((HStoreKey) k).getRow()).equals(tableName)) {
-          
-              // Then a region for this table already exists. Ergo table exists.
-                  
-              throw new TableExistsException(tableName.toString());
-            }
+        if (data != null && !data.isEmpty()) {
+          if (HRegionInfo.getTableNameFromRegionName(
+              data.getRow()).equals(tableName)) {
+        
+            // Then a region for this table already exists. Ergo table exists.
+                
+            throw new TableExistsException(tableName.toString());
           }
         }
             
@@ -2594,28 +2951,33 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
         server.close(scannerid);
       }
 
-      // 2. Create the HRegion
+      for (HRegionInfo i: newRegions) {
+        // 2. Create the HRegion
           
-      HRegion region =
-        HRegion.createHRegion(newRegion, this.rootdir, this.conf);
+        HRegion region = HRegion.createHRegion(i, this.rootdir, this.conf);
 
-      // 3. Insert into meta
+        // 3. Insert into meta.  Regions of a pre-split table may be in
+        // different meta regions.
           
-      HRegionInfo info = region.getRegionInfo();
-      Text regionName = region.getRegionName();
-      BatchUpdate b = new BatchUpdate(rand.nextLong());
-      long lockid = b.startUpdate(regionName);
-      b.put(lockid, COL_REGIONINFO, Writables.getBytes(info));
-      server.batchUpdate(metaRegionName, b);
+        Text regionName = region.getRegionName();
+        MetaRegion regionMeta = getMetaRegionFor(regionName);
+        BatchUpdate b = new BatchUpdate(rand.nextLong());
+        long lockid = b.startUpdate(regionName);
+        b.put(lockid, COL_REGIONINFO, Writables.getBytes(i));
+        connection.getHRegionConnection(regionMeta.getServer()).
+          batchUpdate(regionMeta.getRegionName(), b);
 
-      // 4. Close the new region to flush it to disk.  Close its log file too.
+        // 4. Close the new region to flush it to disk.  Close its log file too.
       
-      region.close();
-      region.getLog().closeAndDelete();
+        region.close();
+        region.getLog().closeAndDelete();
+      }
 
-      // 5. Get it assigned to a server
+      // 5. Get them assigned to servers all at once
 
-      this.unassignedRegions.put(info, ZERO_L);
+      for (HRegionInfo i: newRegions) {
+        this.unassignedRegions.put(i, ZERO_L);
+      }
 
     } finally {
       tableInCreation.remove(newRegion.getTableDesc().getName());
@@ -2657,6 +3019,71 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
     new ChangeTableState(tableName, false).process();
   }
 
+  /** {@inheritDoc} */
+  public void mergeRegions(Text regionNameA, Text regionNameB)
+  throws IOException {
+    if (!isMasterRunning()) {
+      throw new MasterNotRunningException();
+    }
+    HRegionLocation a = locateRegion(regionNameA);
+    HRegionLocation b = locateRegion(regionNameB);
+    if (b.getRegionInfo().getEndKey().getLength() != 0 &&
+        b.getRegionInfo().getEndKey().equals(
+          a.getRegionInfo().getStartKey())) {
+      HRegionLocation tmp = a;
+      a = b;
+      b = tmp;
+    }
+    HRegionInfo infoA = a.getRegionInfo();
+    HRegionInfo infoB = b.getRegionInfo();
+    if (!infoA.getTableDesc().getName().equals(
+        infoB.getTableDesc().getName())) {
+      throw new IOException("Regions do not belong to the same table");
+    }
+    if (infoA.getEndKey().getLength() == 0 ||
+        !infoA.getEndKey().equals(infoB.getStartKey())) {
+      throw new IOException("Cannot merge non-adjacent regions " +
+        infoA.getRegionName() + " and " + infoB.getRegionName());
+    }
+    if (infoA.isMetaTable()) {
+      throw new IOException("Cannot merge catalog regions");
+    }
+    if (infoA.isOffline() || infoB.isOffline()) {
+      throw new IOException("Table " + infoA.getTableDesc().getName() +
+        " is disabled");
+    }
+    mergeRegions(a, b);
+  }
+
+  /*
+   * Look up a region and the server serving it in .META.
+   * @param regionName
+   * @return location of the region
+   * @throws IOException if the region is not found or not assigned
+   */
+  private HRegionLocation locateRegion(final Text regionName)
+  throws IOException {
+    if (metaScannerThread.waitForMetaRegionsOrClose()) {
+      throw new MasterNotRunningException(); // We're shutting down.
+    }
+    MetaRegion m = getMetaRegionFor(regionName);
+    HRegionInterface server = connection.getHRegionConnection(m.getServer());
+    RowResult values = server.getRowResult(m.getRegionName(), regionName,
+      HConstants.LATEST_TIMESTAMP);
+    if (values == null || values.isEmpty()) {
+      throw new IOException("Region " + regionName + " not found");
+    }
+    SortedMap<Text, byte[]> results = toRowMap(values).getMap();
+    HRegionInfo info = getHRegionInfo(regionName, results);
+    byte [] serverBytes = results.get(COL_SERVER);
+    String serverName = serverBytes == null ? "" :
+      Writables.bytesToString(serverBytes);
+    if (info == null || !this.serversToServerInfo.containsKey(serverName)) {
+      throw new IOException("Region " + regionName + " is not assigned");
+    }
+    return new HRegionLocation(info, new HServerAddress(serverName));
+  }
+
   /** {@inheritDoc} */
   public HServerAddress findRootRegion() {
     return rootRegionLocation.get();
@@ -2724,8 +3151,8 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
               List<Text> emptyRows = new ArrayList<Text>();
               try {
                 while (true) {
-                  HbaseMapWritable values = server.next(scannerId);
-                  if(values == null || values.size() == 0) {
+                  RowResult values = server.nextRow(scannerId);
+                  if(values == null || values.isEmpty()) {
                     break;
                   }
                   RowMap rm = toRowMap(values);
@@ -3201,32 +3628,17 @@ public class HMaster extends Thread implements HConstants, HMasterInterface,
   }
   
   /*
-   * Convert an HbaseMapWritable to a Map keyed by column.
+   * Convert a RowResult to a Map keyed by column.
    * Utility method used scanning meta regions
-   * @param mw The MapWritable to convert.  Cannot be null.
+   * @param rr The RowResult to convert.  Cannot be null.
    * @return Returns a SortedMap currently.  TODO: This looks like it could
    * be a plain Map.
    */
-  protected RowMap toRowMap(final HbaseMapWritable mw) {
-    if (mw == null) {
-      throw new IllegalArgumentException("Passed MapWritable cannot be null");
-    }
-    SortedMap<Text, byte[]> m = new TreeMap<Text, byte[]>();
-    Text row = null;
-    for (Map.Entry<Writable, Writable> e: mw.entrySet()) {
-      HStoreKey key = (HStoreKey) e.getKey();
-      Text thisRow = key.getRow();
-      if (row == null) {
-        row = thisRow;
-      } else {
-        if (!row.equals(thisRow)) {
-          LOG.error("Multiple rows in same scanner result set. firstRow=" +
-            row + ", currentRow=" + thisRow);
-        }
-      }
-      m.put(key.getColumn(), ((ImmutableBytesWritable) e.getValue()).get());
+  protected RowMap toRowMap(final RowResult rr) {
+    if (rr == null) {
+      throw new IllegalArgumentException("Passed RowResult cannot be null");
     }
-    return new RowMap(row, m);
+    return new RowMap(rr.getRow(), rr.getCells());
   }
   
   /*
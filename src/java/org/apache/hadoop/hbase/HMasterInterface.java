@@ -35,9 +35,10 @@ public interface HMasterInterface extends VersionedProtocol {
    * Version was incremented to 2 when we brought the hadoop RPC local to hbase
    * -- HADOOP-2495 and then to 3 when we changed the RPC to send codes instead
    * of actual class names (HADOOP-2519).  Set to 4 for release of 0.1.0 so we
-   * cannot mistakenly connect with an hbase from 0.16.0 contrib.
+   * cannot mistakenly connect with an hbase from 0.16.0 contrib.  Set to 5
+   * when createTable with split keys was added and to 6 for mergeRegions.
    */
-  public static final long versionID = 4L;
+  public static final long versionID = 6L;
 
   /** @return true if master is available */
   public boolean isMasterRunning();
@@ -51,6 +52,16 @@ public interface HMasterInterface extends VersionedProtocol {
    */
   public void createTable(HTableDescriptor desc) throws IOException;
 
+  /**
+   * Creates a new table made of one region per range between split keys
+   * @param desc table descriptor
+   * @param splitKeys sorted, distinct, non-empty start keys of every region
+   * but the first.  If null or empty, the table has one region.
+   * @throws IOException
+   */
+  public void createTable(HTableDescriptor desc, Text [] splitKeys)
+  throws IOException;
+
   /**
    * Deletes a table
    * @param tableName
@@ -100,6 +111,17 @@ public interface HMasterInterface extends VersionedProtocol {
    * @throws IOException
    */
   public void disableTable(Text tableName) throws IOException;
+
+  /**
+   * Merge two adjacent regions of an enabled table.  The regions are closed,
+   * merged and the new region assigned in the background.
+   * 
+   * @param regionNameA name of a region
+   * @param regionNameB name of the region that follows it
+   * @throws IOException
+   */
+  public void mergeRegions(Text regionNameA, Text regionNameB)
+  throws IOException;
   
   /**
    * Shutdown an HBase cluster.
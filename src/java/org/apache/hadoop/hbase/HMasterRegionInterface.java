@@ -29,8 +29,14 @@ import org.apache.hadoop.ipc.VersionedProtocol;
  * goings-on and to obtain data-handling instructions from the HMaster.
  */
 public interface HMasterRegionInterface extends VersionedProtocol {
-  /** Interface version number */
-  public static final long versionID = 1L;
+  /**
+   * Interface version number.
+   * 1: initial version.
+   * 2: HServerLoad carries per-region load.
+   * 3: Per-region reads, writes, memcache size, store file count and blocked
+   * update time.
+   */
+  public static final long versionID = 3L;
   
   /**
    * Called when a region server first starts
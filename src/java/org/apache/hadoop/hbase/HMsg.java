@@ -52,6 +52,12 @@ public class HMsg implements Writable {
   /** Stop serving user regions */
   public static final byte MSG_REGIONSERVER_QUIESCE = 7;
 
+  /**
+   * Merge the specified region with the adjacent region of the message that
+   * immediately follows, which has the same code.
+   */
+  public static final byte MSG_REGION_MERGE = 8;
+
   // Messages sent from the region server to the master
   
   /** region server is now serving the specified region */
@@ -82,6 +88,15 @@ public class HMsg implements Writable {
   /** region server has closed all user regions but is still serving meta regions */
   public static final byte MSG_REPORT_QUIESCED = 105;
 
+  /**
+   * region server merged two regions into the region associated with this
+   * message.
+   * 
+   * note that this message is immediately followed by two MSG_REPORT_CLOSE
+   * messages, one for each of the regions that were merged
+   */
+  public static final byte MSG_REPORT_MERGE = 106;
+
   byte msg;
   HRegionInfo info;
 
@@ -158,6 +173,10 @@ public class HMsg implements Writable {
       message.append("MSG_REGIONSERVER_QUIESCE : ");
       break;
       
+    case MSG_REGION_MERGE:
+      message.append("MSG_REGION_MERGE : ");
+      break;
+      
     case MSG_REPORT_PROCESS_OPEN:
       message.append("MSG_REPORT_PROCESS_OPEN : ");
       break;
@@ -182,6 +201,10 @@ public class HMsg implements Writable {
       message.append("MSG_REPORT_QUIESCED : ");
       break;
       
+    case MSG_REPORT_MERGE:
+      message.append("MSG_REPORT_MERGE : ");
+      break;
+      
     default:
       message.append("unknown message code (");
       message.append(msg);
@@ -21,6 +21,9 @@ package org.apache.hadoop.hbase;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -42,10 +45,13 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.FileUtil;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hbase.filter.RowFilterInterface;
+import org.apache.hadoop.hbase.io.AggregateResult;
 import org.apache.hadoop.hbase.io.BatchOperation;
 import org.apache.hadoop.hbase.io.BatchUpdate;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.util.Writables;
 import org.apache.hadoop.hbase.NotServingRegionException;
+import org.apache.hadoop.io.MapFile;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.WritableUtils;
 import org.apache.hadoop.util.Progressable;
@@ -238,6 +244,180 @@ public class HRegion implements HConstants {
     return dstRegion;
   }
 
+  /**
+   * Merge two adjacent regions of an online table.  Unlike
+   * {@link #merge(HRegion, HRegion)}, no store files are rewritten or moved:
+   * the new region is given a reference to each store file of the two
+   * regions, as a split gives its daughters, so the merge costs little more
+   * than closing the two regions.  The two regions are left in place.  Once
+   * the caller has recorded them in .META. as split parents of the new
+   * region, the master removes them after the new region has compacted away
+   * its references.  Until then, the two regions can be reopened if the
+   * merge is abandoned.
+   *
+   * <p>Regions that still hold references to a split parent can not be
+   * merged; a reference can not refer to another reference.
+   *
+   * @param a the first region
+   * @param b the region that follows <code>a</code>
+   * @param listener May be null.
+   * @return the new region, closed, or null if the regions can not be merged
+   * at this time.  If null is returned and both regions are closed, the
+   * second region was closed by someone else after the first was closed
+   * here.
+   * @throws IOException if the regions are not adjacent or the merge fails
+   * after the regions are closed.  In the latter case, nothing is left of the
+   * new region.
+   */
+  static HRegion mergeOnline(final HRegion a, final HRegion b,
+      final RegionUnavailableListener listener)
+  throws IOException {
+    if (!a.getRegionInfo().getTableDesc().getName().equals(
+        b.getRegionInfo().getTableDesc().getName())) {
+      throw new IOException("Regions do not belong to the same table");
+    }
+    if (a.getEndKey().getLength() == 0 ||
+        !a.getEndKey().equals(b.getStartKey())) {
+      throw new IOException("Cannot merge non-adjacent regions " +
+        a.getRegionName() + " and " + b.getRegionName());
+    }
+    if (a.isClosed() || b.isClosed()) {
+      LOG.debug("Region closed, not merging");
+      return null;
+    }
+    if (a.hasReferences() || b.hasReferences()) {
+      LOG.debug("Region holds references, not merging " + a.getRegionName() +
+        " and " + b.getRegionName());
+      return null;
+    }
+    FileSystem fs = a.getFilesystem();
+    HBaseConfiguration conf = a.getConf();
+    HTableDescriptor tabledesc = a.getTableDesc();
+    Path basedir = a.getBaseDir();
+
+    // Region id can't be less than those of the merged regions else it'll
+    // sort ahead of them in .META.: see splitRegion.
+    long rid = Math.max(System.currentTimeMillis(),
+      Math.max(a.getRegionInfo().getRegionId(),
+        b.getRegionInfo().getRegionId()) + 1);
+    HRegionInfo newRegionInfo = new HRegionInfo(tabledesc, a.getStartKey(),
+      b.getEndKey(), false, rid);
+    String encodedRegionName = newRegionInfo.getEncodedName();
+    Path newRegionDir = HRegion.getRegionDir(basedir, encodedRegionName);
+    if (fs.exists(newRegionDir)) {
+      throw new IOException("Cannot merge; target file collision at " +
+        newRegionDir);
+    }
+    LOG.info("starting online merge of regions: " + a.getRegionName() +
+      " and " + b.getRegionName() + " into new region " +
+      newRegionInfo.getRegionName());
+
+    Map<Text, List<HStoreFile>> byFamily =
+      new TreeMap<Text, List<HStoreFile>>();
+    // Close returns null if the region was closed by someone else meantime.
+    List<HStoreFile> filesA = a.close(false, listener);
+    if (filesA == null) {
+      return null;
+    }
+    List<HStoreFile> filesB = b.close(false, listener);
+    if (filesB == null) {
+      LOG.warn(b.getRegionName() + " closed while merging with " +
+        a.getRegionName() + "; abandoning merge");
+      return null;
+    }
+    byFamily = filesByFamily(byFamily, filesA);
+    byFamily = filesByFamily(byFamily, filesB);
+    // Files of a hold keys below the end of a; those of b keys from there on.
+    HStoreKey midKey = new HStoreKey(a.getEndKey());
+    String encodedNameA = a.getRegionInfo().getEncodedName();
+    HRegion dstRegion = null;
+    try {
+      fs.mkdirs(newRegionDir);
+      for (HColumnDescriptor c: tabledesc.families().values()) {
+        makeColumnFamilyDirs(fs, basedir, encodedRegionName,
+          c.getFamilyName(), tabledesc);
+      }
+      for (Map.Entry<Text, List<HStoreFile>> es : byFamily.entrySet()) {
+        Text colFamily = es.getKey();
+        // Store files are keyed by sequence id so ids must stay unique once
+        // the files of both regions share a store.  Walk the files from
+        // newest to oldest, pushing any clash down below its predecessor.
+        // The new id goes in the reference; the file itself is not touched.
+        List<HStoreFile> srcFiles = es.getValue();
+        final Map<HStoreFile, Long> seqIds = new HashMap<HStoreFile, Long>();
+        for (HStoreFile hsf: srcFiles) {
+          seqIds.put(hsf, Long.valueOf(hsf.loadInfo(fs)));
+        }
+        Collections.sort(srcFiles, new Comparator<HStoreFile>() {
+          public int compare(HStoreFile l, HStoreFile r) {
+            return seqIds.get(r).compareTo(seqIds.get(l));
+          }
+        });
+        long previous = Long.MAX_VALUE;
+        for (HStoreFile hsf: srcFiles) {
+          long seqId = seqIds.get(hsf).longValue();
+          long referenceSeqId = -1;
+          if (seqId >= previous) {
+            if (LOG.isDebugEnabled()) {
+              LOG.debug("Adjusting sequence id of reference to storeFile " +
+                hsf + " from " + seqId + " to " + (previous - 1));
+            }
+            seqId = previous - 1;
+            referenceSeqId = seqId;
+          }
+          previous = seqId;
+          HStoreFile.Range range =
+            hsf.getEncodedRegionName().equals(encodedNameA)?
+              HStoreFile.Range.bottom: HStoreFile.Range.top;
+          HStoreFile dst = new HStoreFile(conf, fs, basedir, encodedRegionName,
+            colFamily, -1, new HStoreFile.Reference(
+              hsf.getEncodedRegionName(), hsf.getFileId(), midKey, range,
+              referenceSeqId));
+          if (LOG.isDebugEnabled()) {
+            LOG.debug("Writing reference " + dst);
+          }
+          dst.writeReferenceFiles(fs);
+        }
+      }
+      // Opening the new region checks its references can be read.
+      dstRegion = new HRegion(basedir, a.getLog(), fs, conf, newRegionInfo,
+        null, null);
+      dstRegion.close();
+    } catch (IOException e) {
+      // Nothing refers to the new region yet so it can simply go.  The two
+      // regions are as they were when closed.
+      LOG.error("Failed online merge of " + a.getRegionName() + " and " +
+        b.getRegionName() + "; removing " + newRegionDir, e);
+      if (dstRegion != null && !dstRegion.isClosed()) {
+        try {
+          dstRegion.close();
+        } catch (IOException ce) {
+          LOG.warn("Failed close of " + dstRegion.getRegionName(), ce);
+        }
+      }
+      deleteRegion(fs, newRegionDir);
+      throw e;
+    }
+    LOG.info("online merge completed. New region is " +
+      dstRegion.getRegionName());
+    return dstRegion;
+  }
+
+  /*
+   * @return True if any store of this region holds a reference to the store
+   * file of a split parent.
+   */
+  private boolean hasReferences() {
+    for (HStore store: stores.values()) {
+      for (HStoreFile hsf: store.getStorefiles().values()) {
+        if (hsf.isReference()) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   /*
    * Fills a map with a vector of store files keyed by column family. 
    * @param byFamily Map to fill.
@@ -301,6 +481,20 @@ public class HRegion implements HConstants {
 
   final AtomicLong memcacheSize = new AtomicLong(0);
 
+  // Load since the last report to the master; see HServerLoad.RegionLoad.
+  final AtomicInteger readRequests = new AtomicInteger(0);
+  final AtomicInteger writeRequests = new AtomicInteger(0);
+  final AtomicLong blockedUpdateTime = new AtomicLong(0);
+
+  // Row keys served; null unless load based splitting is enabled.
+  private final RowKeySampler loadSample;
+  private final float loadSplitThreshold;
+  private final long loadSplitWindow;
+  private volatile Text loadSplitKey = null;
+
+  // Keeps the index table up to date; null unless the table is indexed.
+  private final RegionIndexer indexer;
+
   final Path basedir;
   final HLog log;
   final FileSystem fs;
@@ -471,6 +665,21 @@ public class HRegion implements HConstants {
     this.desiredMaxFileSize =
       conf.getLong("hbase.hregion.max.filesize", DEFAULT_MAX_FILE_SIZE);
 
+    // Optionally split regions that stay busy.  Catalog regions are left to
+    // the size based policy.
+    this.loadSplitThreshold =
+      conf.getFloat("hbase.hregion.split.load.threshold", 0);
+    this.loadSplitWindow =
+      conf.getLong("hbase.hregion.split.load.window", 5 * 60 * 1000);
+    this.loadSample =
+      this.loadSplitThreshold > 0 && !this.regionInfo.isMetaRegion() ?
+        new RowKeySampler(
+          conf.getInt("hbase.hregion.split.load.sample.size", 1000)) :
+        null;
+
+    this.indexer = this.regionInfo.getTableDesc().isIndexed() ?
+      new RegionIndexer(conf, this.regionInfo.getTableDesc()) : null;
+
     // HRegion is ready to go!
     this.writestate.compacting = false;
     this.lastFlushTime = System.currentTimeMillis();
@@ -581,6 +790,10 @@ public class HRegion implements HConstants {
         // outstanding updates.
         waitOnRowLocks();
         LOG.debug("no more row locks outstanding on region " + regionName);
+
+        if (this.indexer != null) {
+          this.indexer.close(abort);
+        }
         
         if (listener != null) {
           // If there is a listener, let them know that we have now
@@ -591,7 +804,7 @@ public class HRegion implements HConstants {
         
         // Don't flush the cache if we are aborting
         if (!abort) {
-          internalFlushcache();
+          internalFlushcache(null);
         }
 
         List<HStoreFile> result = new ArrayList<HStoreFile>();
@@ -633,6 +846,73 @@ public class HRegion implements HConstants {
     return this.regionInfo.getRegionId();
   }
 
+  /** @return Total length of the store files of all stores. */
+  long getStorefilesSize() {
+    long size = 0;
+    for (HStore store: stores.values()) {
+      size += store.getStoreSize();
+    }
+    return size;
+  }
+
+  /** @return Count of store files in all stores. */
+  int getStorefilesCount() {
+    int count = 0;
+    for (HStore store: stores.values()) {
+      count += store.getStorefiles().size();
+    }
+    return count;
+  }
+
+  /*
+   * Add a row to the load sample, if load based splitting is enabled.
+   * @param row
+   */
+  private void sampleRow(final Text row) {
+    if (this.loadSample != null) {
+      this.loadSample.add(row);
+    }
+  }
+
+  /**
+   * Closes the current load sampling window if it has run its full length.
+   * If the region served more than hbase.hregion.split.load.threshold
+   * requests a second over the window, the sampled row key that best divides
+   * those requests becomes the split point used by the next
+   * {@link #needsSplit(Text)}.  Because a whole window must pass first,
+   * a region is only considered for a load split once per window, and a
+   * freshly opened daughter not before it has been busy for a whole window
+   * itself.
+   *
+   * @return true if the region should be split because of its load
+   */
+  boolean checkLoadSplit() {
+    if (this.loadSample == null || this.closed.get()) {
+      return false;
+    }
+    long now = System.currentTimeMillis();
+    long elapsed = now - this.loadSample.getStartTime();
+    if (elapsed < this.loadSplitWindow) {
+      return false;
+    }
+    float rate = this.loadSample.getCount() * 1000f / elapsed;
+    Text key = null;
+    if (rate >= this.loadSplitThreshold) {
+      key = this.loadSample.getMidKey(getStartKey(), getEndKey());
+      if (key == null) {
+        LOG.debug(getRegionName().toString() + " is busy (" + rate +
+          " requests/sec) but has no usable split point");
+      } else {
+        LOG.info(getRegionName().toString() + " served " + rate +
+          " requests/sec over last " + (elapsed / 1000) +
+          "sec; load split point is " + key);
+      }
+    }
+    this.loadSample.reset(now);
+    this.loadSplitKey = key;
+    return key != null;
+  }
+
   /** @return region name */
   public Text getRegionName() {
     return this.regionInfo.getRegionName();
@@ -709,6 +989,46 @@ public class HRegion implements HConstants {
     return biggest;
   }
   
+  /**
+   * Find rows that divide this region into <code>n</code> ranges holding
+   * about the same amount of data, e.g. to scan the region with
+   * <code>n</code> scanners in parallel.  Rows are sampled from the store
+   * file indices of the largest store; the memcache is not looked at.
+   * @param n Number of ranges wanted
+   * @return At most <code>n - 1</code> distinct rows in sort order, all
+   * after the region start key and before its end key.  Fewer if the region
+   * does not hold enough data to sample from.
+   * @throws IOException
+   */
+  public Text [] getSplitKeys(final int n) throws IOException {
+    List<Text> keys = new ArrayList<Text>();
+    splitsAndClosesLock.readLock().lock();
+    try {
+      if (this.closed.get()) {
+        throw new NotServingRegionException(getRegionName().toString());
+      }
+      HStore biggest = null;
+      for (HStore s: stores.values()) {
+        if (biggest == null || s.getStoreSize() > biggest.getStoreSize()) {
+          biggest = s;
+        }
+      }
+      List<Text> rows = biggest == null? new ArrayList<Text>():
+        biggest.sampleRows();
+      Text last = getStartKey();
+      for (int i = 1; i < n && !rows.isEmpty(); i++) {
+        Text k = rows.get((int)((long)i * rows.size() / n));
+        if (k.compareTo(last) > 0) {
+          keys.add(k);
+          last = k;
+        }
+      }
+    } finally {
+      splitsAndClosesLock.readLock().unlock();
+    }
+    return keys.toArray(new Text[keys.size()]);
+  }
+
   /*
    * Split the HRegion to create two brand-new ones.  This also closes
    * current HRegion.  Split should be fast since we don't rewrite store files
@@ -825,6 +1145,10 @@ public class HRegion implements HConstants {
    * Note that there is no need to do locking in this method because it calls
    * largestHStore which does the necessary locking.
    * 
+   * If the region is not big enough to split but {@link #checkLoadSplit()}
+   * found it has been busy, midKey is set to the row key that divides the
+   * sampled requests instead.
+   *
    * @param midKey midKey of the largest MapFile
    * @return true if the region should be split. midKey is set by this method.
    * Check it for a midKey value on return.
@@ -836,6 +1160,18 @@ public class HRegion implements HConstants {
       return false;
     }
     boolean split = (biggest.getAggregate() >= this.desiredMaxFileSize);
+    Text loadKey = this.loadSplitKey;
+    if (!split && loadKey != null) {
+      if (!biggest.isSplitable()) {
+        LOG.debug("Region " + getRegionName().toString() +
+          " is busy but NOT splitable");
+        return false;
+      }
+      LOG.info("Splitting " + getRegionName().toString() +
+        " at " + loadKey + " because of its request rate");
+      midKey.set(loadKey);
+      return true;
+    }
     if (split) {
       if (!biggest.isSplitable()) {
         LOG.warn("Region " + getRegionName().toString() +
@@ -1020,7 +1356,75 @@ public class HRegion implements HConstants {
       // Prevent splits and closes
       splitsAndClosesLock.readLock().lock();
       try {
-        return internalFlushcache();
+        return internalFlushcache(null);
+      } finally {
+        splitsAndClosesLock.readLock().unlock();
+      }
+    } finally {
+      synchronized (writestate) {
+        writestate.flushing = false;
+        writestate.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Adopt MapFiles written outside of the region, e.g. by
+   * {@link org.apache.hadoop.hbase.mapred.HStoreFileOutputFormat}, as store
+   * files.  The files are moved into the stores without passing through the
+   * log or the memcache.
+   *
+   * <p>All files are checked before any is moved: each must hold
+   * {@link HStoreKey}s of its family for rows inside this region only.  The
+   * memcache is then flushed so the loaded files can be given sequence ids
+   * that sort after everything already in the region and before any later
+   * edit; log replay after a crash neither skips nor double-applies edits.
+   * Each file is read through for its key bounds and bloom filter keys before
+   * flushes are held up, so only the moves wait on the flush.  Indexed
+   * families are refused: their index is kept up to date by updates only.
+   *
+   * @param families Column family of each file
+   * @param paths MapFile directories.  Must be on this region's filesystem.
+   * @throws IOException
+   */
+  public void bulkLoad(final Text [] families, final Path [] paths)
+  throws IOException {
+    if (families.length != paths.length) {
+      throw new IllegalArgumentException("Got " + families.length +
+        " families for " + paths.length + " files");
+    }
+    for (int i = 0; i < paths.length; i++) {
+      checkBulkLoadFile(HStoreKey.extractFamily(families[i]).toText(),
+        paths[i]);
+    }
+    // Read the files before holding up flushes; only the moves need the locks.
+    HStore.BulkLoadFile [] files = new HStore.BulkLoadFile[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      files[i] = stores.get(HStoreKey.extractFamily(families[i]).toText()).
+        prepareBulkLoad(paths[i]);
+    }
+    synchronized (writestate) {
+      while (writestate.flushing) {
+        try {
+          writestate.wait();
+        } catch (InterruptedException e) {
+          // continue
+        }
+      }
+      writestate.flushing = true;
+    }
+    try {
+      splitsAndClosesLock.readLock().lock();
+      try {
+        if (this.closed.get()) {
+          throw new NotServingRegionException(getRegionName().toString());
+        }
+        long [] ids = new long[paths.length];
+        internalFlushcache(ids);
+        for (int i = 0; i < paths.length; i++) {
+          stores.get(HStoreKey.extractFamily(families[i]).toText()).
+            bulkLoadStoreFile(files[i], ids[i]);
+        }
       } finally {
         splitsAndClosesLock.readLock().unlock();
       }
@@ -1030,6 +1434,56 @@ public class HRegion implements HConstants {
         writestate.notifyAll();
       }
     }
+    LOG.info("Bulk loaded " + paths.length + " file(s) into region " +
+      getRegionName());
+  }
+
+  /*
+   * Check a file can be bulk loaded into the store of <code>family</code>.
+   * @param family
+   * @param p MapFile directory
+   * @throws IOException
+   */
+  private void checkBulkLoadFile(final Text family, final Path p)
+  throws IOException {
+    if (!stores.containsKey(family)) {
+      throw new IOException("Column family " + family + " does not exist in " +
+        "region " + getRegionName() + " loading " + p);
+    }
+    if (this.indexer != null && this.indexer.getFamilies().contains(family)) {
+      throw new IOException("Column family " + family + " of region " +
+        getRegionName() + " is indexed; bulk loaded cells would be missing " +
+        "from the index.  Not loading " + p);
+    }
+    MapFile.Reader r = new MapFile.Reader(fs, p.toString(), conf);
+    try {
+      if (!HStoreKey.class.equals(r.getKeyClass()) ||
+          !ImmutableBytesWritable.class.equals(r.getValueClass())) {
+        throw new IOException(p + " is not a store file: keys are " +
+          r.getKeyClass().getName() + ", values " +
+          r.getValueClass().getName());
+      }
+      HStoreKey first = new HStoreKey();
+      if (!r.next(first, new ImmutableBytesWritable())) {
+        throw new IOException(p + " is empty");
+      }
+      HStoreKey last = new HStoreKey();
+      r.finalKey(last);
+      if (!HStoreKey.extractFamily(first.getColumn()).equals(family) ||
+          !HStoreKey.extractFamily(last.getColumn()).equals(family)) {
+        throw new IOException(p + " has cells outside column family " +
+          family);
+      }
+      if (!rowIsInRange(regionInfo, first.getRow()) ||
+          !rowIsInRange(regionInfo, last.getRow())) {
+        throw new WrongRegionException(p + " has rows " + first.getRow() +
+          " to " + last.getRow() + " outside region " + getRegionName() +
+          ", startKey='" + regionInfo.getStartKey() + "', endKey='" +
+          regionInfo.getEndKey() + "'");
+      }
+    } finally {
+      r.close();
+    }
   }
 
   /**
@@ -1058,13 +1512,18 @@ public class HRegion implements HConstants {
    * 
    * <p> This method may block for some time.
    * 
+   * @param reservedIds If not null, filled with sequence ids taken while
+   * updates are stopped.  They sort after the flushed memcache and before any
+   * later edit so can be given to files added to the stores alongside this
+   * flush.
    * @return true if the cache was flushed
    * 
    * @throws IOException
    * @throws DroppedSnapshotException Thrown when replay of hlog is required
    * because a Snapshot was not properly persisted.
    */
-  private boolean internalFlushcache() throws IOException {
+  private boolean internalFlushcache(final long [] reservedIds)
+  throws IOException {
     final long startTime = System.currentTimeMillis();
     // Clear flush flag.
     this.flushRequested = false;
@@ -1088,6 +1547,10 @@ public class HRegion implements HConstants {
         s.memcache.snapshot();
       }
       sequenceId = log.startCacheFlush();
+      if (reservedIds != null) {
+        long [] ids = log.obtainSeqNum(reservedIds.length);
+        System.arraycopy(ids, 0, reservedIds, 0, ids.length);
+      }
     } finally {
       updateLock.writeLock().unlock();
     }
@@ -1203,6 +1666,8 @@ public class HRegion implements HConstants {
 
     // Don't need a row lock for a simple get
     
+    readRequests.incrementAndGet();
+    sampleRow(row);
     HStoreKey key = new HStoreKey(row, column, timestamp);
     HStore targetStore = stores.get(HStoreKey.extractFamily(column));
     return targetStore.get(key, numVersions);
@@ -1242,6 +1707,8 @@ public class HRegion implements HConstants {
    * @throws IOException
    */
   public Map<Text, byte []> getFull(Text row, long ts) throws IOException {
+    readRequests.incrementAndGet();
+    sampleRow(row);
     HStoreKey key = new HStoreKey(row, ts);
     obtainRowLock(row);
     try {
@@ -1272,6 +1739,8 @@ public class HRegion implements HConstants {
     
     HStoreKey key = null;
     checkRow(row);
+    readRequests.incrementAndGet();
+    sampleRow(row);
     splitsAndClosesLock.readLock().lock();
     try {
       // examine each column family for the preceeding or matching key
@@ -1379,6 +1848,48 @@ public class HRegion implements HConstants {
     }
   }
 
+  /**
+   * Count the rows between <code>startRow</code> and <code>stopRow</code>
+   * that have any of the passed columns, and sum, min and max their numeric
+   * cell values.  The rows are read here in the region; only the totals go
+   * back to the client.
+   *
+   * @param cols columns to aggregate, as for
+   * {@link #getScanner(Text[], Text, long, RowFilterInterface)}
+   * @param startRow row to start at
+   * @param stopRow row to stop before.  If empty, go to the end of the region.
+   * @param timestamp only look at cells whose timestamp is <= this value
+   * @param filter row filter.  Can be null.
+   * @return totals over the rows of this region in range
+   * @throws IOException
+   * @see AggregateResult
+   */
+  public AggregateResult aggregate(final Text [] cols, final Text startRow,
+      final Text stopRow, final long timestamp,
+      final RowFilterInterface filter)
+  throws IOException {
+    AggregateResult result = new AggregateResult();
+    HScannerInterface scanner = getScanner(cols, startRow, timestamp, filter);
+    try {
+      HStoreKey key = new HStoreKey();
+      TreeMap<Text, byte []> cells = new TreeMap<Text, byte []>();
+      while (scanner.next(key, cells)) {
+        if (stopRow != null && stopRow.getLength() > 0 &&
+            key.getRow().compareTo(stopRow) >= 0) {
+          break;
+        }
+        result.addRow();
+        for (byte [] value: cells.values()) {
+          result.addValue(value);
+        }
+        cells.clear();
+      }
+    } finally {
+      scanner.close();
+    }
+    return result;
+  }
+
   //////////////////////////////////////////////////////////////////////////////
   // set() methods for client use.
   //////////////////////////////////////////////////////////////////////////////
@@ -1390,11 +1901,26 @@ public class HRegion implements HConstants {
    */
   public void batchUpdate(long timestamp, BatchUpdate b)
     throws IOException {
+    batchUpdate(timestamp, b, true);
+  }
+
+  /**
+   * @param timestamp
+   * @param b
+   * @param writeToLog If false, the edits go to the memcache only and are
+   * lost if the server crashes before they are flushed.
+   * @throws IOException
+   */
+  public void batchUpdate(long timestamp, BatchUpdate b,
+      final boolean writeToLog)
+  throws IOException {
     // Do a rough check that we have resources to accept a write.  The check is
     // 'rough' in that between the resource check and the call to obtain a 
     // read lock, resources may run out.  For now, the thought is that this
     // will be extremely rare; we'll deal with it when it happens.
     checkResources();
+    writeRequests.incrementAndGet();
+    sampleRow(b.getRow());
 
     // We obtain a per-row lock, so other clients will block while one client
     // performs an update. The read lock is released by the client calling
@@ -1402,12 +1928,14 @@ public class HRegion implements HConstants {
     // See HRegionServer#RegionListener for how the expire on HRegionServer
     // invokes a HRegion#abort.
     Text row = b.getRow();
+    RegionIndexer.Changes changes = null;
     long lockid = obtainRowLock(row);
 
     long commitTime =
       (timestamp == LATEST_TIMESTAMP) ? System.currentTimeMillis() : timestamp;
       
     try {
+      Map<Text, byte []> indexed = getIndexedCells(row);
       List<Text> deletes = null;
       for (BatchOperation op: b) {
         HStoreKey key = new HStoreKey(row, op.getColumn(), commitTime);
@@ -1435,7 +1963,7 @@ public class HRegion implements HConstants {
       TreeMap<HStoreKey, byte[]> edits =
         this.targetColumns.remove(Long.valueOf(lockid));
       if (edits != null && edits.size() > 0) {
-        update(edits);
+        update(edits, writeToLog);
       }
       
       if (deletes != null && deletes.size() > 0) {
@@ -1444,6 +1972,7 @@ public class HRegion implements HConstants {
           deleteMultiple(row, column, LATEST_TIMESTAMP, 1);
         }
       }
+      changes = updateIndex(row, indexed);
 
     } catch (IOException e) {
       this.targetColumns.remove(Long.valueOf(lockid));
@@ -1452,6 +1981,7 @@ public class HRegion implements HConstants {
     } finally {
       releaseRowLock(row);
     }
+    sendIndex(changes);
   }
   
   /*
@@ -1467,6 +1997,7 @@ public class HRegion implements HConstants {
    */
   private synchronized void checkResources() {
     boolean blocked = false;
+    long start = 0;
     
     while (this.memcacheSize.get() >= this.blockingMemcacheSize) {
       if (!blocked) {
@@ -1475,6 +2006,7 @@ public class HRegion implements HConstants {
             StringUtils.humanReadableInt(this.memcacheSize.get()) +
             " is >= than blocking " +
             StringUtils.humanReadableInt(this.blockingMemcacheSize) + " size");
+        start = System.currentTimeMillis();
       }
 
       blocked = true;
@@ -1485,6 +2017,7 @@ public class HRegion implements HConstants {
       }
     }
     if (blocked) {
+      this.blockedUpdateTime.addAndGet(System.currentTimeMillis() - start);
       LOG.info("Unblocking updates for region " + getRegionName() + " '" + 
         Thread.currentThread().getName() + "'");
     }
@@ -1501,12 +2034,18 @@ public class HRegion implements HConstants {
     throws IOException {
     
     checkColumn(column);
+    writeRequests.incrementAndGet();
+    sampleRow(row);
+    RegionIndexer.Changes changes = null;
     obtainRowLock(row);
     try {
+      Map<Text, byte []> indexed = getIndexedCells(row);
       deleteMultiple(row, column, ts, ALL_VERSIONS);
+      changes = updateIndex(row, indexed);
     } finally {
       releaseRowLock(row);
     }
+    sendIndex(changes);
   }
 
   /**
@@ -1518,9 +2057,13 @@ public class HRegion implements HConstants {
   public void deleteAll(final Text row, final long ts)
     throws IOException {
     
+    writeRequests.incrementAndGet();
+    sampleRow(row);
+    RegionIndexer.Changes changes = null;
     obtainRowLock(row);    
     
     try {
+      Map<Text, byte []> indexed = getIndexedCells(row);
       for(Map.Entry<Text, HStore> store : stores.entrySet()){
         List<HStoreKey> keys = store.getValue().getKeys(new HStoreKey(row, ts), ALL_VERSIONS);
 
@@ -1530,9 +2073,11 @@ public class HRegion implements HConstants {
         }
         update(edits);
       }
+      changes = updateIndex(row, indexed);
     } finally {
       releaseRowLock(row);
     }
+    sendIndex(changes);
   }
 
   /**
@@ -1546,9 +2091,13 @@ public class HRegion implements HConstants {
    */
   public void deleteFamily(Text row, Text family, long timestamp)
   throws IOException{
+    writeRequests.incrementAndGet();
+    sampleRow(row);
+    RegionIndexer.Changes changes = null;
     obtainRowLock(row);    
     
     try {
+      Map<Text, byte []> indexed = getIndexedCells(row);
       // find the HStore for the column family
       HStore store = stores.get(HStoreKey.extractFamily(family));
       // find all the keys that match our criteria
@@ -1560,9 +2109,60 @@ public class HRegion implements HConstants {
         edits.put(key, HLogEdit.deleteBytes.get());
       }
       update(edits);
+      changes = updateIndex(row, indexed);
     } finally {
       releaseRowLock(row);
     }
+    sendIndex(changes);
+  }
+
+  /*
+   * @param row Locked row.
+   * @return Latest cells of the indexed families of <code>row</code>, or
+   * null if the table is not indexed.
+   * @throws IOException
+   */
+  private Map<Text, byte []> getIndexedCells(final Text row)
+  throws IOException {
+    if (this.indexer == null) {
+      return null;
+    }
+    HStoreKey key = new HStoreKey(row, LATEST_TIMESTAMP);
+    TreeMap<Text, byte []> result = new TreeMap<Text, byte []>();
+    for (Text family: this.indexer.getFamilies()) {
+      this.stores.get(family).getFull(key, result);
+    }
+    return result;
+  }
+
+  /*
+   * Make the index changes for the changes made to the indexed cells of a
+   * row.  Pass them to {@link #sendIndex(RegionIndexer.Changes)} once the row
+   * is unlocked; see {@link RegionIndexer}.
+   * @param row Locked row.
+   * @param before What {@link #getIndexedCells(Text)} returned before the
+   * row was changed.
+   * @return Index changes to send, or null if there are none.
+   * @throws IOException
+   */
+  private RegionIndexer.Changes updateIndex(final Text row,
+      final Map<Text, byte []> before)
+  throws IOException {
+    return before == null? null:
+      this.indexer.update(row, before, getIndexedCells(row));
+  }
+
+  /*
+   * Send index changes made by {@link #updateIndex(Text, Map)}.  Call with
+   * the row unlocked.
+   * @param changes May be null.
+   * @throws IOException
+   */
+  private void sendIndex(final RegionIndexer.Changes changes)
+  throws IOException {
+    if (changes != null) {
+      this.indexer.send(changes);
+    }
   }
   
   /**
@@ -1625,6 +2225,20 @@ public class HRegion implements HConstants {
    * @throws IOException
    */
   private void update(final TreeMap<HStoreKey, byte []> updatesByColumn)
+  throws IOException {
+    update(updatesByColumn, true);
+  }
+
+  /* 
+   * Add updates first to the hlog, unless <code>writeToLog</code> is false,
+   * and then add values to memcache.
+   * Warning: Assumption is caller has lock on passed in row.
+   * @param updatesByColumn Cell updates by column
+   * @param writeToLog
+   * @throws IOException
+   */
+  private void update(final TreeMap<HStoreKey, byte []> updatesByColumn,
+      final boolean writeToLog)
   throws IOException {
     if (updatesByColumn == null || updatesByColumn.size() <= 0) {
       return;
@@ -1632,8 +2246,10 @@ public class HRegion implements HConstants {
     boolean flush = false;
     updateLock.readLock().lock();                      // prevent a cache flush
     try {
-      this.log.append(regionInfo.getRegionName(),
-        regionInfo.getTableDesc().getName(), updatesByColumn);
+      if (writeToLog) {
+        this.log.append(regionInfo.getRegionName(),
+          regionInfo.getTableDesc().getName(), updatesByColumn);
+      }
       long size = 0;
       for (Map.Entry<HStoreKey, byte[]> e: updatesByColumn.entrySet()) {
         HStoreKey key = e.getKey();
@@ -1942,6 +2558,9 @@ public class HRegion implements HConstants {
             closeScanner(i);
           }
         }
+      } else {
+        readRequests.incrementAndGet();
+        sampleRow(key.getRow());
       }
       
       return moreToFollow;
@@ -22,9 +22,11 @@ package org.apache.hadoop.hbase;
 import java.io.IOException;
 
 import org.apache.hadoop.hbase.filter.RowFilterInterface;
+import org.apache.hadoop.hbase.io.AggregateResult;
 import org.apache.hadoop.hbase.io.BatchUpdate;
 
 import org.apache.hadoop.hbase.io.HbaseMapWritable;
+import org.apache.hadoop.hbase.io.RowResult;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.ipc.VersionedProtocol;
 
@@ -32,8 +34,18 @@ import org.apache.hadoop.ipc.VersionedProtocol;
  * Clients interact with HRegionServers using a handle to the HRegionInterface.
  */
 public interface HRegionInterface extends VersionedProtocol {
-  /** initial version */
-  public static final long versionID = 1L;
+  /**
+   * Protocol version.
+   * 1: initial version.
+   * 2: added getRowResult, getClosestRowResultBefore and nextRow which return
+   * {@link RowResult}s.  Version 1 clients are still served.
+   * 3: added bulkLoad.
+   * 4: added getSplitKeys.
+   * 5: added batchUpdates.
+   * 6: added aggregate.
+   * 7: added getRowResults.
+   */
+  public static final long versionID = 7L;
 
   /** 
    * Get metainfo about an HRegion
@@ -95,7 +107,10 @@ public interface HRegionInterface extends VersionedProtocol {
    * @param row row key
    * @return map of values
    * @throws IOException
+   * @deprecated Use {@link #getRowResult(Text, Text, long)}.  Kept for
+   * version 1 clients.
    */
+  @Deprecated
   public HbaseMapWritable getRow(final Text regionName, final Text row)
   throws IOException;
 
@@ -106,10 +121,26 @@ public interface HRegionInterface extends VersionedProtocol {
    * @param row row key
    * @return map of values
    * @throws IOException
+   * @deprecated Use {@link #getRowResult(Text, Text, long)}.  Kept for
+   * version 1 clients.
    */
+  @Deprecated
   public HbaseMapWritable getRow(final Text regionName, final Text row, final long ts)
   throws IOException;
 
+  /**
+   * Get all the data for the specified row at a given timestamp
+   * 
+   * @param regionName region name
+   * @param row row key
+   * @param ts timestamp
+   * @return row values.  Empty if the row does not exist.
+   * @throws IOException
+   */
+  public RowResult getRowResult(final Text regionName, final Text row,
+    final long ts)
+  throws IOException;
+
   /**
    * Return all the data for the row that matches <i>row</i> exactly, 
    * or the one that immediately preceeds it.
@@ -118,10 +149,26 @@ public interface HRegionInterface extends VersionedProtocol {
    * @param row row key
    * @return map of values
    * @throws IOException
+   * @deprecated Use {@link #getClosestRowResultBefore(Text, Text)}.  Kept for
+   * version 1 clients.
    */
+  @Deprecated
   public HbaseMapWritable getClosestRowBefore(final Text regionName, final Text row)
   throws IOException;
 
+  /**
+   * Return all the data for the row that matches <i>row</i> exactly, 
+   * or the one that immediately preceeds it.
+   * 
+   * @param regionName region name
+   * @param row row key
+   * @return row values or null if there is no such row
+   * @throws IOException
+   */
+  public RowResult getClosestRowResultBefore(final Text regionName,
+    final Text row)
+  throws IOException;
+
   /**
    * Applies a batch of updates via one RPC
    * 
@@ -143,6 +190,24 @@ public interface HRegionInterface extends VersionedProtocol {
   public void batchUpdate(Text regionName, BatchUpdate b)
   throws IOException;
 
+  /**
+   * Applies updates to several rows via one RPC.  Rows are updated in order
+   * and the call stops at the first row the region does not hold, e.g.
+   * because it split since the client located it.
+   * 
+   * @param regionName name of the region to update
+   * @param timestamp the time to be associated with the changes
+   * @param b updates, one per row
+   * @param writeToLog false to not write the updates to the write-ahead log.
+   * They are then lost if the server crashes before they are flushed.
+   * @return number of updates applied.  Updates from this index on must be
+   * sent to other regions.
+   * @throws IOException
+   */
+  public int batchUpdates(Text regionName, long timestamp, BatchUpdate [] b,
+    boolean writeToLog)
+  throws IOException;
+
   /**
    * Delete all cells that match the passed row and column and whose
    * timestamp is equal-to or older than the passed timestamp.
@@ -181,6 +246,65 @@ public interface HRegionInterface extends VersionedProtocol {
     long timestamp)
   throws IOException;
 
+  /**
+   * Move MapFiles of {@link HStoreKey}s and
+   * {@link org.apache.hadoop.hbase.io.ImmutableBytesWritable}s into the
+   * stores of a region.  Files are checked to hold only rows of the region
+   * before any is moved.
+   *
+   * @param regionName name of the region to load into
+   * @param families column family of each file
+   * @param paths fully qualified MapFile directories on the hbase filesystem
+   * @throws IOException
+   */
+  public void bulkLoad(Text regionName, Text [] families, Text [] paths)
+  throws IOException;
+
+  /**
+   * Find rows that divide a region into ranges holding about the same
+   * amount of data.
+   *
+   * @param regionName name of the region
+   * @param numSplits number of ranges wanted
+   * @return at most <code>numSplits - 1</code> rows, sorted, strictly inside
+   * the region
+   * @throws IOException
+   */
+  public Text [] getSplitKeys(Text regionName, int numSplits)
+  throws IOException;
+
+  /**
+   * Count the rows in a range of a region that have any of the passed columns
+   * and sum, min and max their numeric cell values.  Rows are not returned.
+   *
+   * @param regionName name of the region
+   * @param columns columns to aggregate, as for openScanner
+   * @param startRow row to start at
+   * @param stopRow row to stop before.  If empty, the end of the region.
+   * @param timestamp only look at values whose timestamp is <= this value
+   * @param filter RowFilter for filtering rows.  Can be null.
+   * @return totals over the rows of the region in range
+   * @throws IOException
+   */
+  public AggregateResult aggregate(Text regionName, Text [] columns,
+      Text startRow, Text stopRow, long timestamp, RowFilterInterface filter)
+  throws IOException;
+
+  /**
+   * Read a few rows in one call, without opening a scanner.
+   * 
+   * @param regionName name of region to read
+   * @param columns columns to read, as for openScanner
+   * @param startRow row to start at
+   * @param count most rows to return
+   * @return up to <code>count</code> rows of the region at or after
+   * <code>startRow</code> that have values in <code>columns</code>
+   * @throws IOException
+   */
+  public RowResult [] getRowResults(Text regionName, Text [] columns,
+      Text startRow, int count)
+  throws IOException;
+
   
   //
   // remote scanner interface
@@ -212,8 +336,19 @@ public interface HRegionInterface extends VersionedProtocol {
    * @param scannerId clientId passed to openScanner
    * @return map of values
    * @throws IOException
+   * @deprecated Use {@link #nextRow(long)}.  Kept for version 1 clients.
    */
+  @Deprecated
   public HbaseMapWritable next(long scannerId) throws IOException;
+
+  /**
+   * Get the next row
+   * 
+   * @param scannerId clientId passed to openScanner
+   * @return row values or null if the scanner is exhausted
+   * @throws IOException
+   */
+  public RowResult nextRow(long scannerId) throws IOException;
   
   /**
    * Close a scanner
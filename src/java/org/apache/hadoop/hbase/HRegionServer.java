@@ -39,10 +39,16 @@ import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -52,15 +58,22 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hbase.filter.RowFilterInterface;
+import org.apache.hadoop.hbase.io.AggregateResult;
 import org.apache.hadoop.hbase.io.BatchUpdate;
+import org.apache.hadoop.hbase.io.BlockFSInputStream;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.ipc.HbaseRPC;
+import org.apache.hadoop.hbase.metrics.Gauge;
+import org.apache.hadoop.hbase.metrics.Histogram;
+import org.apache.hadoop.hbase.metrics.MetricsRegistry;
+import org.apache.hadoop.hbase.metrics.MetricsServlet;
 import org.apache.hadoop.hbase.util.FSUtils;
 import org.apache.hadoop.hbase.util.InfoServer;
 import org.apache.hadoop.hbase.util.Sleeper;
 import org.apache.hadoop.hbase.util.Threads;
 import org.apache.hadoop.hbase.util.Writables;
 import org.apache.hadoop.hbase.io.HbaseMapWritable;
+import org.apache.hadoop.hbase.io.RowResult;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.ipc.Server;
@@ -125,6 +138,18 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
   // Request counter
   private volatile AtomicInteger requestCount = new AtomicInteger();
 
+  // Metrics.  Latencies are in microseconds.  Default access so can be used
+  // by unit tests.
+  final MetricsRegistry metrics = new MetricsRegistry();
+  private final Histogram getTime = this.metrics.histogram("get");
+  private final Histogram getRowTime = this.metrics.histogram("getRow");
+  private final Histogram batchUpdateTime =
+    this.metrics.histogram("batchUpdate");
+  private final Histogram nextTime = this.metrics.histogram("next");
+  final Histogram flushTime = this.metrics.histogram("flush");
+  final Histogram compactionTime = this.metrics.histogram("compaction");
+  final Histogram splitTime = this.metrics.histogram("split");
+
   // Info server.  Default access so can be used by unit tests.  REGIONSERVER
   // is name of the webapp and the attribute name used stuffing this instance
   // into web context.
@@ -171,6 +196,8 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
     private HTable meta = null;
     private long startTime;
     private final long frequency;
+    private final boolean loadSplits;
+    private long lastLoadCheck = System.currentTimeMillis();
     private final ReentrantLock workingLock = new ReentrantLock();
     
     private final BlockingQueue<HRegion> compactionQueue =
@@ -178,12 +205,17 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
 
     private final HashSet<HRegion> regionsInQueue = new HashSet<HRegion>();
 
+    private final BlockingQueue<HRegionInfo []> mergeQueue =
+      new LinkedBlockingQueue<HRegionInfo []>();
+
     /** constructor */
     public CompactSplitThread() {
       super();
       this.frequency =
         conf.getLong("hbase.regionserver.thread.splitcompactcheckfrequency",
         20 * 1000);
+      this.loadSplits =
+        conf.getFloat("hbase.hregion.split.load.threshold", 0) > 0;
     }
     
     /** {@inheritDoc} */
@@ -200,13 +232,29 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
             workingLock.lock();
             try {
               // Don't interrupt us while we are working
-              if (r.compactStores()) {
+              long start = System.nanoTime();
+              boolean needsSplit = r.compactStores();
+              compactionTime.updateSince(start);
+              if (needsSplit) {
+                start = System.nanoTime();
                 split(r);
+                splitTime.updateSince(start);
               }
             } finally {
               workingLock.unlock();
             }
           }
+          r = null;
+          checkLoadSplits();
+          HRegionInfo [] pair = null;
+          while ((pair = mergeQueue.poll()) != null) {
+            workingLock.lock();
+            try {
+              merge(pair[0], pair[1]);
+            } finally {
+              workingLock.unlock();
+            }
+          }
         } catch (InterruptedException ex) {
           continue;
         } catch (IOException ex) {
@@ -227,9 +275,50 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
       }
       regionsInQueue.clear();
       compactionQueue.clear();
+      mergeQueue.clear();
       LOG.info(getName() + " exiting");
     }
     
+    /*
+     * Split the first online region found to have been busy over its last
+     * load sampling window.  At most one load split is done per check period
+     * so a hot table cannot set off a storm of splits on this server.
+     * @throws IOException
+     */
+    private void checkLoadSplits() throws IOException {
+      long now = System.currentTimeMillis();
+      if (!this.loadSplits || now - this.lastLoadCheck < this.frequency) {
+        return;
+      }
+      this.lastLoadCheck = now;
+      for (HRegion r: getRegionsToCheck()) {
+        if (!r.checkLoadSplit()) {
+          continue;
+        }
+        workingLock.lock();
+        try {
+          long start = System.nanoTime();
+          split(r);
+          splitTime.updateSince(start);
+        } finally {
+          workingLock.unlock();
+        }
+        break;
+      }
+    }
+
+    /**
+     * Queue a merge of two adjacent regions.  The merge is skipped if this
+     * server is not serving both regions by the time it is run.
+     * @param a
+     * @param b
+     */
+    public void mergeRequested(final HRegionInfo a, final HRegionInfo b) {
+      LOG.debug("Merge requested for regions: " + a.getRegionName() +
+        " and " + b.getRegionName());
+      mergeQueue.add(new HRegionInfo [] {a, b});
+    }
+
     /**
      * @param r HRegion store belongs to
      */
@@ -305,6 +394,131 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
       // Do not serve the new regions. Let the Master assign them.
     }
     
+    /*
+     * Merge two adjacent regions, record the merge in .META. and tell the
+     * master, which assigns the new region.  If the merge fails once the two
+     * regions are closed, the merge is undone and the master is told the two
+     * regions closed so it assigns them again.
+     * @param infoA
+     * @param infoB
+     * @throws IOException
+     */
+    private void merge(final HRegionInfo infoA, final HRegionInfo infoB)
+    throws IOException {
+      HRegion a = onlineRegions.get(infoA.getRegionName());
+      HRegion b = onlineRegions.get(infoB.getRegionName());
+      if (a == null || b == null || infoA.isMetaTable()) {
+        LOG.info("Not merging " + infoA.getRegionName() + " and " +
+          infoB.getRegionName() + "; not serving both or catalog region");
+        return;
+      }
+      long start = System.currentTimeMillis();
+      HRegion merged = null;
+      try {
+        merged = HRegion.mergeOnline(a, b, this);
+      } catch (IOException e) {
+        reportClosed(a, b);
+        throw e;
+      }
+      if (merged == null) {
+        if (a.isClosed() && b.isClosed()) {
+          // b was closed out from under the merge after a was closed here.
+          // Let the master reassign a.
+          reportClose(a.getRegionInfo());
+        }
+        return;
+      }
+      HRegionInfo newRegionInfo = merged.getRegionInfo();
+      if (this.meta == null) {
+        this.meta = new HTable(conf, META_TABLE_NAME);
+      }
+      // Mark the old regions as split parents of the new region, as a split
+      // does, so the master deletes them once the new region no longer
+      // references their files.  The new region goes in last: until it is
+      // in .META. the merge can be undone.  HTable does retries for us.
+      HRegionInfo [] parents = new HRegionInfo [] {
+        a.getRegionInfo(), b.getRegionInfo()};
+      int marked = 0;
+      try {
+        for (; marked < parents.length; marked++) {
+          HRegionInfo parent = copy(parents[marked]);
+          parent.setOffline(true);
+          parent.setSplit(true);
+          long lockid = this.meta.startUpdate(parent.getRegionName());
+          this.meta.put(lockid, COL_REGIONINFO, Writables.getBytes(parent));
+          this.meta.put(lockid, COL_SPLITA, Writables.getBytes(newRegionInfo));
+          this.meta.commit(lockid);
+        }
+        long lockid = this.meta.startUpdate(newRegionInfo.getRegionName());
+        this.meta.put(lockid, COL_REGIONINFO,
+          Writables.getBytes(newRegionInfo));
+        this.meta.commit(lockid);
+      } catch (IOException e) {
+        LOG.error("Failed update of " + this.meta.getTableName() +
+          " with merge of " + infoA.getRegionName() + " and " +
+          infoB.getRegionName() + "; undoing merge", e);
+        undoMerge(parents, marked, newRegionInfo);
+        reportClosed(a, b);
+        throw e;
+      }
+      reportMerge(infoA, infoB, newRegionInfo);
+      LOG.info("regions merged, META updated, and report to master all" +
+        " successful. Old regions=" + infoA.getRegionName() + ", " +
+        infoB.getRegionName() + ", new region: " +
+        newRegionInfo.getRegionName() + ". Merge took " +
+        StringUtils.formatTimeDiff(System.currentTimeMillis(), start));
+    }
+
+    /*
+     * Remove the merged region from .META., put back the rows of regions
+     * marked as merge parents and delete the merged region.  If .META. can
+     * not be put back, the merged region is kept as the parents' rows may
+     * still refer to it.
+     * @param parents
+     * @param marked Count of <code>parents</code> that may have been marked.
+     * @param merged
+     */
+    private void undoMerge(final HRegionInfo [] parents, final int marked,
+        final HRegionInfo merged) {
+      try {
+        this.meta.deleteAll(merged.getRegionName());
+        for (int i = 0; i < marked + 1 && i < parents.length; i++) {
+          long lockid = this.meta.startUpdate(parents[i].getRegionName());
+          this.meta.put(lockid, COL_REGIONINFO, Writables.getBytes(parents[i]));
+          this.meta.delete(lockid, COL_SPLITA);
+          this.meta.commit(lockid);
+        }
+      } catch (IOException e) {
+        LOG.fatal("Failed undo of merge in " + this.meta.getTableName() +
+          "; rows of " + parents[0].getRegionName() + " and " +
+          parents[1].getRegionName() + " need repair", e);
+        return;
+      }
+      try {
+        HRegion.deleteRegion(fs, rootDir, merged);
+      } catch (IOException e) {
+        LOG.warn("Failed delete of abandoned merged region " +
+          merged.getRegionName(), e);
+      }
+    }
+
+    /*
+     * Tell the master any of the passed regions closed here, so it assigns
+     * them again.
+     * @param regions
+     */
+    private void reportClosed(final HRegion... regions) {
+      for (HRegion r: regions) {
+        if (r.isClosed()) {
+          reportClose(r.getRegionInfo());
+        }
+      }
+    }
+
+    private HRegionInfo copy(final HRegionInfo info) throws IOException {
+      return Writables.getHRegionInfo(Writables.getBytes(info));
+    }
+
     /** {@inheritDoc} */
     public void closing(final Text regionName) {
       startTime = System.currentTimeMillis();
@@ -443,7 +657,10 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
         }
         workingLock.lock();
         try {
-          if (region.flushcache()) {
+          long start = System.nanoTime();
+          boolean needsCompaction = region.flushcache();
+          flushTime.updateSince(start);
+          if (needsCompaction) {
             compactSplitThread.compactionRequested(region);
           }
         } catch (DroppedSnapshotException ex) {
@@ -667,6 +884,8 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
 
     // Cache flushing thread.
     this.cacheFlusher = new Flusher();
+
+    registerGauges();
     
     // Compaction thread
     this.compactSplitThread = new CompactSplitThread();
@@ -675,7 +894,8 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
     this.logRoller = new LogRoller();
 
     // Task thread to process requests from Master
-    this.worker = new Worker();
+    this.worker =
+      new Worker(conf.getInt("hbase.regionserver.worker.threads", 10));
     this.workerThread = new Thread(worker);
 
     // Server to handle client requests
@@ -728,9 +948,7 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
           }
 
           try {
-            this.serverInfo.setLoad(new HServerLoad(requestCount.get(),
-                onlineRegions.size()));
-            this.requestCount.set(0);
+            this.serverInfo.setLoad(buildServerLoad());
             HMsg msgs[] =
               this.hbaseMaster.regionServerReport(serverInfo, outboundArray);
             lastMsg = System.currentTimeMillis();
@@ -782,6 +1000,14 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
                 }
                 break;
 
+              case HMsg.MSG_REGION_MERGE:
+                // The other region of the pair is in the next message.
+                if (fsOk && i + 1 < msgs.length) {
+                  compactSplitThread.mergeRequested(msgs[i].getRegionInfo(),
+                    msgs[++i].getRegionInfo());
+                }
+                break;
+
               case HMsg.MSG_REGIONSERVER_STOP:
                 LOG.info("Got regionserver stop message");
                 stopRequested.set(true);
@@ -845,6 +1071,7 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
     this.leases.closeAfterLeasesExpire();
     this.worker.stop();
     this.server.stop();
+    this.metrics.unregisterMBean();
     if (this.infoServer != null) {
       LOG.info("Stopping infoServer");
       try {
@@ -944,6 +1171,49 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
     }
   }
   
+  /*
+   * Add gauges sampled from region server state when metrics are read.
+   */
+  private void registerGauges() {
+    this.metrics.gauge("regions", new Gauge() {
+      public long getValue() {
+        return onlineRegions.size();
+      }
+    });
+    this.metrics.gauge("requests", new Gauge() {
+      public long getValue() {
+        return requestCount.get();
+      }
+    });
+    this.metrics.gauge("memcacheSize", new Gauge() {
+      public long getValue() {
+        long size = 0;
+        for (HRegion r: getRegionsToCheck()) {
+          size += r.memcacheSize.get();
+        }
+        return size;
+      }
+    });
+    this.metrics.gauge("storefiles", new Gauge() {
+      public long getValue() {
+        long count = 0;
+        for (HRegion r: getRegionsToCheck()) {
+          for (HStore store: r.stores.values()) {
+            count += store.getStorefiles().size();
+          }
+        }
+        return count;
+      }
+    });
+    this.metrics.gauge("blockCacheHitRatio", new Gauge() {
+      public long getValue() {
+        long hits = BlockFSInputStream.getCacheHits();
+        long total = hits + BlockFSInputStream.getCacheMisses();
+        return total == 0 ? 0 : (100 * hits) / total;
+      }
+    });
+  }
+
   private HLog setupHLog() throws RegionServerRunningException,
     IOException {
     
@@ -958,7 +1228,10 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
         "running at " + this.serverInfo.getServerAddress().toString() +
         " because logdir " + logdir.toString() + " exists");
     }
-    return new HLog(fs, logdir, conf, logRoller);
+    HLog newlog = new HLog(fs, logdir, conf, logRoller);
+    this.metrics.register("hlogAppend", newlog.appendTime);
+    this.metrics.register("hlogRoll", newlog.rollTime);
+    return newlog;
   }
   
   /*
@@ -998,8 +1271,14 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
       String a = this.conf.get("hbase.master.info.bindAddress", "0.0.0.0");
       this.infoServer = new InfoServer("regionserver", a, port, false);
       this.infoServer.setAttribute("regionserver", this);
+      this.infoServer.setAttribute(MetricsServlet.METRICS_ATTRIBUTE,
+        this.metrics);
+      this.infoServer.addServlet("metrics", "/metrics", MetricsServlet.class);
       this.infoServer.start();
     }
+    this.metrics.registerMBean("RegionServer", "RegionServerStatistics-" +
+      this.serverInfo.getServerAddress().getBindAddress() + "_" +
+      this.serverInfo.getServerAddress().getPort());
     // Start Server.  This service is like leases in that it internally runs
     // a thread.
     this.server.start();
@@ -1014,16 +1293,18 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
     // If the todo list has > 0 messages, iterate looking for open region
     // messages. Send the master a message that we're working on its
     // processing so it doesn't assign the region elsewhere.
-    if (this.toDo.size() <= 0) {
-      return;
-    }
     // This iterator is 'safe'.  We are guaranteed a view on state of the
-    // queue at time iterator was taken out.  Apparently goes from oldest.
+    // queue at time iterator was taken out.
     for (ToDoEntry e: this.toDo) {
       if (e.msg.getMsg() == HMsg.MSG_REGION_OPEN) {
         addProcessingMessage(e.msg.getRegionInfo());
       }
     }
+    for (ToDoEntry e: this.worker.getDeferred()) {
+      if (e.msg.getMsg() == HMsg.MSG_REGION_OPEN) {
+        addProcessingMessage(e.msg.getRegionInfo());
+      }
+    }
   }
 
   /** @return the HLog */
@@ -1155,67 +1436,163 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
     outboundMsgs.add(new HMsg(HMsg.MSG_REPORT_OPEN, newRegionB));
   }
 
+  void reportMerge(HRegionInfo oldRegionA, HRegionInfo oldRegionB,
+      HRegionInfo newRegion) {
+
+    outboundMsgs.add(new HMsg(HMsg.MSG_REPORT_MERGE, newRegion));
+    outboundMsgs.add(new HMsg(HMsg.MSG_REPORT_CLOSE, oldRegionA));
+    outboundMsgs.add(new HMsg(HMsg.MSG_REPORT_CLOSE, oldRegionB));
+  }
+
   //////////////////////////////////////////////////////////////////////////////
   // HMaster-given operations
   //////////////////////////////////////////////////////////////////////////////
 
-  private static class ToDoEntry {
+  /*
+   * Message from the master for the Worker.  Messages about catalog regions
+   * sort ahead of the rest so the catalog comes online first; otherwise
+   * messages are taken in order of arrival.
+   */
+  static class ToDoEntry implements Comparable<ToDoEntry> {
+    private static final AtomicLong sequence = new AtomicLong(0);
     int tries;
     HMsg msg;
+    private final long seqid;
+    private final boolean catalog;
     ToDoEntry(HMsg msg) {
       this.tries = 0;
       this.msg = msg;
+      this.seqid = sequence.incrementAndGet();
+      this.catalog = isRegionMessage() &&
+        msg.getRegionInfo().isMetaRegion();
+    }
+
+    /* @return True if message is to open or close a region */
+    boolean isRegionMessage() {
+      switch (this.msg.getMsg()) {
+      case HMsg.MSG_REGION_OPEN:
+      case HMsg.MSG_REGION_CLOSE:
+      case HMsg.MSG_REGION_CLOSE_WITHOUT_REPORT:
+        return true;
+      default:
+        return false;
+      }
+    }
+
+    /** {@inheritDoc} */
+    public int compareTo(ToDoEntry o) {
+      if (this.catalog != o.catalog) {
+        return this.catalog? -1: 1;
+      }
+      return this.seqid < o.seqid? -1: this.seqid == o.seqid? 0: 1;
     }
   }
   
-  final BlockingQueue<ToDoEntry> toDo = new LinkedBlockingQueue<ToDoEntry>();
+  final BlockingQueue<ToDoEntry> toDo =
+    new PriorityBlockingQueue<ToDoEntry>();
   private Worker worker;
   private Thread workerThread;
   
-  /** Thread that performs long running requests from the master */
+  /**
+   * Thread that performs long running requests from the master.  Region opens
+   * and closes are handed to a pool of <code>hbase.regionserver.worker.threads</code>
+   * threads so a server given many regions, on startup or after another
+   * server has failed, opens them in parallel.  Entries are only taken off
+   * <code>toDo</code> when a pool thread is free so catalog regions keep
+   * their place at the head of the queue and waiting opens keep being
+   * reported to the master by {@link HRegionServer#housekeeping()}.  Only
+   * one message per region is run at a time.
+   */
   class Worker implements Runnable {
+    private final int threads;
+    private final Semaphore permits;
+    private ExecutorService pool;
+    // Regions with an open or close running.
+    private final Set<Text> regionsInProcess = new HashSet<Text>();
+    // Messages for regions in regionsInProcess.  Put back on toDo when the
+    // running message for the region completes.
+    private final List<ToDoEntry> deferred = new ArrayList<ToDoEntry>();
+    // Set when a pool thread finds the file system gone.
+    private volatile boolean fileSystemFailed = false;
+
+    Worker(final int threads) {
+      this.threads = threads;
+      this.permits = new Semaphore(threads);
+    }
+
     void stop() {
       synchronized(toDo) {
         toDo.notifyAll();
       }
     }
+
+    /* @return Messages waiting on another message for the same region */
+    List<ToDoEntry> getDeferred() {
+      synchronized (this.regionsInProcess) {
+        return new ArrayList<ToDoEntry>(this.deferred);
+      }
+    }
     
     /** {@inheritDoc} */
     public void run() {
+      final String name = Thread.currentThread().getName();
+      final AtomicInteger threadCount = new AtomicInteger(0);
+      this.pool = Executors.newFixedThreadPool(this.threads,
+          new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(r, name + "-" + threadCount.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        }
+      });
       try {
-        while(!stopRequested.get()) {
+        while(!stopRequested.get() && !this.fileSystemFailed) {
           ToDoEntry e = null;
           try {
-            e = toDo.poll(threadWakeFrequency, TimeUnit.MILLISECONDS);
-            if(e == null || stopRequested.get()) {
+            if (!this.permits.tryAcquire(threadWakeFrequency,
+                TimeUnit.MILLISECONDS)) {
               continue;
             }
-            LOG.info(e.msg.toString());
-            switch(e.msg.getMsg()) {
-
-            case HMsg.MSG_REGIONSERVER_QUIESCE:
-              closeUserRegions();
-              break;
-
-            case HMsg.MSG_REGION_OPEN:
-              // Open a region
-              openRegion(e.msg.getRegionInfo());
-              break;
-
-            case HMsg.MSG_REGION_CLOSE:
-              // Close a region
-              closeRegion(e.msg.getRegionInfo(), true);
-              break;
+            boolean dispatched = false;
+            try {
+              e = toDo.poll(threadWakeFrequency, TimeUnit.MILLISECONDS);
+              if(e == null || stopRequested.get()) {
+                continue;
+              }
+              if (e.isRegionMessage()) {
+                if (startProcessing(e)) {
+                  try {
+                    this.pool.execute(new ToDoTask(e));
+                  } catch (RuntimeException ex) {
+                    finishProcessing(e);
+                    throw ex;
+                  }
+                  dispatched = true;
+                }
+                continue;
+              }
+              LOG.info(e.msg.toString());
+              switch(e.msg.getMsg()) {
 
-            case HMsg.MSG_REGION_CLOSE_WITHOUT_REPORT:
-              // Close a region, don't reply
-              closeRegion(e.msg.getRegionInfo(), false);
-              break;
+              case HMsg.MSG_REGIONSERVER_QUIESCE:
+                // Let running opens and closes finish first.
+                this.permits.acquire(this.threads - 1);
+                try {
+                  closeUserRegions();
+                } finally {
+                  this.permits.release(this.threads - 1);
+                }
+                break;
 
-            default:
-              throw new AssertionError(
-                  "Impossible state during msg processing.  Instruction: "
-                  + e.msg.toString());
+              default:
+                throw new AssertionError(
+                    "Impossible state during msg processing.  Instruction: "
+                    + e.msg.toString());
+              }
+            } finally {
+              if (!dispatched) {
+                this.permits.release();
+              }
             }
           } catch (InterruptedException ex) {
             // continue
@@ -1226,12 +1603,7 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
             if(e != null && e.tries < numRetries) {
               LOG.warn(ex);
               e.tries++;
-              try {
-                toDo.put(e);
-              } catch (InterruptedException ie) {
-                throw new RuntimeException("Putting into msgQueue was " +
-                    "interrupted.", ex);
-              }
+              toDo.add(e);
             } else {
               LOG.error("unable to process message" +
                   (e != null ? (": " + e.msg.toString()) : ""), ex);
@@ -1244,9 +1616,112 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
       } catch(Throwable t) {
         LOG.fatal("Unhandled exception", t);
       } finally {
+        this.pool.shutdown();
+        try {
+          // Let region opens and closes in progress complete.
+          while (!this.pool.awaitTermination(threadWakeFrequency,
+              TimeUnit.MILLISECONDS)) {
+            LOG.info("Waiting on region opens and closes");
+          }
+        } catch (InterruptedException e) {
+          // continue
+        }
         LOG.info("worker thread exiting");
       }
     }
+
+    /*
+     * @param e
+     * @return True if no other message for the region of <code>e</code> is
+     * running; else <code>e</code> is deferred until it completes.
+     */
+    private boolean startProcessing(final ToDoEntry e) {
+      synchronized (this.regionsInProcess) {
+        if (this.regionsInProcess.add(e.msg.getRegionInfo().getRegionName())) {
+          return true;
+        }
+        this.deferred.add(e);
+        return false;
+      }
+    }
+
+    /*
+     * Requeue messages that were waiting on the region of <code>e</code>.
+     * @param e
+     */
+    private void finishProcessing(final ToDoEntry e) {
+      Text regionName = e.msg.getRegionInfo().getRegionName();
+      synchronized (this.regionsInProcess) {
+        this.regionsInProcess.remove(regionName);
+        for (Iterator<ToDoEntry> i = this.deferred.iterator(); i.hasNext();) {
+          ToDoEntry d = i.next();
+          if (d.msg.getRegionInfo().getRegionName().equals(regionName)) {
+            i.remove();
+            toDo.add(d);
+          }
+        }
+      }
+    }
+
+    /*
+     * Runs a region open or close on a pool thread.
+     */
+    private class ToDoTask implements Runnable {
+      private final ToDoEntry e;
+
+      ToDoTask(final ToDoEntry e) {
+        this.e = e;
+      }
+
+      /** {@inheritDoc} */
+      public void run() {
+        try {
+          LOG.info(e.msg.toString());
+          switch(e.msg.getMsg()) {
+
+          case HMsg.MSG_REGION_OPEN:
+            // Open a region
+            openRegion(e.msg.getRegionInfo());
+            break;
+
+          case HMsg.MSG_REGION_CLOSE:
+            // Close a region
+            closeRegion(e.msg.getRegionInfo(), true);
+            break;
+
+          case HMsg.MSG_REGION_CLOSE_WITHOUT_REPORT:
+            // Close a region, don't reply
+            closeRegion(e.msg.getRegionInfo(), false);
+            break;
+
+          default:
+            throw new AssertionError(
+                "Impossible state during msg processing.  Instruction: "
+                + e.msg.toString());
+          }
+        } catch (Exception ex) {
+          if (ex instanceof IOException) {
+            ex = RemoteExceptionHandler.checkIOException((IOException) ex);
+          }
+          if(e.tries < numRetries) {
+            LOG.warn(ex);
+            e.tries++;
+            toDo.add(e);
+          } else {
+            LOG.error("unable to process message: " + e.msg.toString(), ex);
+            if (!checkFileSystem()) {
+              fileSystemFailed = true;
+            }
+          }
+        } catch (Throwable t) {
+          LOG.fatal("Unhandled exception", t);
+          abort();
+        } finally {
+          finishProcessing(e);
+          permits.release();
+        }
+      }
+    }
   }
   
   void openRegion(final HRegionInfo regionInfo) {
@@ -1396,12 +1871,15 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
 
     checkOpen();
     requestCount.incrementAndGet();
+    long start = System.nanoTime();
     try {
       return getRegion(regionName).get(row, column);
       
     } catch (IOException e) {
       checkFileSystem();
       throw e;
+    } finally {
+      this.getTime.updateSince(start);
     }
   }
 
@@ -1411,12 +1889,15 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
 
     checkOpen();
     requestCount.incrementAndGet();
+    long start = System.nanoTime();
     try {
       return getRegion(regionName).get(row, column, numVersions);
       
     } catch (IOException e) {
       checkFileSystem();
       throw e;
+    } finally {
+      this.getTime.updateSince(start);
     }
   }
 
@@ -1426,65 +1907,79 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
 
     checkOpen();
     requestCount.incrementAndGet();
+    long start = System.nanoTime();
     try {
       return getRegion(regionName).get(row, column, timestamp, numVersions);
       
     } catch (IOException e) {
       checkFileSystem();
       throw e;
+    } finally {
+      this.getTime.updateSince(start);
     }
   }
 
   /** {@inheritDoc} */
+  @Deprecated
   public HbaseMapWritable getRow(final Text regionName, final Text row)
     throws IOException {
     return getRow(regionName, row, HConstants.LATEST_TIMESTAMP);
   }
 
   /** {@inheritDoc} */
+  @Deprecated
   public HbaseMapWritable getRow(final Text regionName, final Text row, final long ts)
     throws IOException {
+    return toMapWritable(getRowResult(regionName, row, ts));
+  }
+
+  /** {@inheritDoc} */
+  public RowResult getRowResult(final Text regionName, final Text row,
+      final long ts)
+    throws IOException {
 
     checkOpen();
     requestCount.incrementAndGet();
+    long start = System.nanoTime();
     try {
       HRegion region = getRegion(regionName);
-      HbaseMapWritable result = new HbaseMapWritable();
-      Map<Text, byte[]> map = region.getFull(row, ts);
-      for (Map.Entry<Text, byte []> es: map.entrySet()) {
-        result.put(new HStoreKey(row, es.getKey()),
-            new ImmutableBytesWritable(es.getValue()));
-      }
-      return result;
+      return new RowResult(row, ts,
+        new TreeMap<Text, byte []>(region.getFull(row, ts)));
       
     } catch (IOException e) {
       checkFileSystem();
       throw e;
+    } finally {
+      this.getRowTime.updateSince(start);
     }
   }
 
   /** {@inheritDoc} */
+  @Deprecated
   public HbaseMapWritable getClosestRowBefore(final Text regionName, 
     final Text row)
   throws IOException {
+    RowResult result = getClosestRowResultBefore(regionName, row);
+    return result == null ? null : toMapWritable(result);
+  }
+
+  /** {@inheritDoc} */
+  public RowResult getClosestRowResultBefore(final Text regionName,
+    final Text row)
+  throws IOException {
 
     checkOpen();
     requestCount.incrementAndGet();
     try {
       // locate the region we're operating on
       HRegion region = getRegion(regionName);
-      HbaseMapWritable result = new HbaseMapWritable();
       // ask the region for all the data 
       Map<Text, byte[]> map = region.getClosestRowBefore(row);
-      // convert to a MapWritable
       if (map == null) {
         return null;
       }
-      for (Map.Entry<Text, byte []> es: map.entrySet()) {
-        result.put(new HStoreKey(row, es.getKey()),
-            new ImmutableBytesWritable(es.getValue()));
-      }
-      return result;
+      return new RowResult(row, HConstants.LATEST_TIMESTAMP,
+        new TreeMap<Text, byte []>(map));
       
     } catch (IOException e) {
       checkFileSystem();
@@ -1493,10 +1988,18 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
   }
 
   /** {@inheritDoc} */
+  @Deprecated
   public HbaseMapWritable next(final long scannerId) throws IOException {
+    RowResult result = nextRow(scannerId);
+    return result == null ? null : toMapWritable(result);
+  }
+
+  /** {@inheritDoc} */
+  public RowResult nextRow(final long scannerId) throws IOException {
 
     checkOpen();
     requestCount.incrementAndGet();
+    long start = System.nanoTime();
     try {
       String scannerName = String.valueOf(scannerId);
       HScannerInterface s = scanners.get(scannerName);
@@ -1505,32 +2008,41 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
       }
       this.leases.renewLease(scannerId, scannerId);
 
-      // Collect values to be returned here
-      HbaseMapWritable values = new HbaseMapWritable();
       HStoreKey key = new HStoreKey();
       TreeMap<Text, byte []> results = new TreeMap<Text, byte []>();
       while (s.next(key, results)) {
-        for(Map.Entry<Text, byte []> e: results.entrySet()) {
-          values.put(new HStoreKey(key.getRow(), e.getKey(), key.getTimestamp()),
-            new ImmutableBytesWritable(e.getValue()));
-        }
-
-        if(values.size() > 0) {
+        if (results.size() > 0) {
           // Row has something in it. Return the value.
-          break;
+          return new RowResult(key.getRow(), key.getTimestamp(), results);
         }
-
         // No data for this row, go get another.
         results.clear();
       }
-      return values.size() == 0 ? null : values;
+      return null;
       
     } catch (IOException e) {
       checkFileSystem();
       throw e;
+    } finally {
+      this.nextTime.updateSince(start);
     }
   }
 
+  /*
+   * Convert to the per-cell format version 1 clients expect.
+   * @param result
+   * @return Map of HStoreKey to ImmutableBytesWritable.
+   */
+  private HbaseMapWritable toMapWritable(final RowResult result) {
+    HbaseMapWritable values = new HbaseMapWritable();
+    for (Map.Entry<Text, byte []> e: result.getCells().entrySet()) {
+      values.put(new HStoreKey(result.getRow(), e.getKey(),
+          result.getTimestamp()),
+        new ImmutableBytesWritable(e.getValue()));
+    }
+    return values;
+  }
+
   /**
    * Used by master so it can add an update with the current time of this
    * server rather than current time on master
@@ -1547,14 +2059,49 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
     checkOpen();
     this.requestCount.incrementAndGet();
     HRegion region = getRegion(regionName);
+    long start = System.nanoTime();
     try {
       cacheFlusher.reclaimMemcacheMemory();
       region.batchUpdate(timestamp, b);
     } catch (IOException e) {
       checkFileSystem();
       throw e;
+    } finally {
+      this.batchUpdateTime.updateSince(start);
     }
   }
+
+  /** {@inheritDoc} */
+  public int batchUpdates(final Text regionName, final long timestamp,
+      final BatchUpdate [] b, final boolean writeToLog)
+  throws IOException {
+    checkOpen();
+    this.requestCount.addAndGet(b.length);
+    HRegion region = getRegion(regionName);
+    long start = System.nanoTime();
+    int i = 0;
+    try {
+      cacheFlusher.reclaimMemcacheMemory();
+      for (; i < b.length; i++) {
+        region.batchUpdate(timestamp, b[i], writeToLog);
+      }
+    } catch (WrongRegionException e) {
+      // Region split; client sends the rest again once it has found their
+      // region.
+      LOG.debug("Applied " + i + " of " + b.length + " updates: " +
+        e.getMessage());
+    } catch (NotServingRegionException e) {
+      // Region closed while we were at it.  Same as above.
+      LOG.debug("Applied " + i + " of " + b.length + " updates: " +
+        e.getMessage());
+    } catch (IOException e) {
+      checkFileSystem();
+      throw e;
+    } finally {
+      this.batchUpdateTime.updateSince(start);
+    }
+    return i;
+  }
   
   //
   // remote scanner interface
@@ -1678,6 +2225,87 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
     getRegion(regionName).deleteFamily(row, family, timestamp);
   }
 
+  /** {@inheritDoc} */
+  public void bulkLoad(final Text regionName, final Text [] families,
+      final Text [] paths)
+  throws IOException {
+    checkOpen();
+    this.requestCount.incrementAndGet();
+    HRegion region = getRegion(regionName);
+    Path [] p = new Path[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      p[i] = new Path(paths[i].toString());
+    }
+    try {
+      region.bulkLoad(families, p);
+    } catch (IOException e) {
+      checkFileSystem();
+      throw e;
+    }
+  }
+
+  /** {@inheritDoc} */
+  public Text [] getSplitKeys(final Text regionName, final int numSplits)
+  throws IOException {
+    checkOpen();
+    this.requestCount.incrementAndGet();
+    try {
+      return getRegion(regionName).getSplitKeys(numSplits);
+    } catch (IOException e) {
+      checkFileSystem();
+      throw e;
+    }
+  }
+
+  /** {@inheritDoc} */
+  public AggregateResult aggregate(final Text regionName,
+      final Text [] columns, final Text startRow, final Text stopRow,
+      final long timestamp, final RowFilterInterface filter)
+  throws IOException {
+    checkOpen();
+    this.requestCount.incrementAndGet();
+    try {
+      return getRegion(regionName).aggregate(columns, startRow, stopRow,
+        timestamp, filter);
+    } catch (IOException e) {
+      checkFileSystem();
+      throw e;
+    }
+  }
+
+  /** {@inheritDoc} */
+  public RowResult [] getRowResults(final Text regionName,
+      final Text [] columns, final Text startRow, final int count)
+  throws IOException {
+    checkOpen();
+    this.requestCount.incrementAndGet();
+    long start = System.nanoTime();
+    try {
+      List<RowResult> rows = new ArrayList<RowResult>();
+      HScannerInterface s = getRegion(regionName).getScanner(columns,
+        startRow, HConstants.LATEST_TIMESTAMP, null);
+      try {
+        HStoreKey key = new HStoreKey();
+        TreeMap<Text, byte []> results = new TreeMap<Text, byte []>();
+        while (rows.size() < count && s.next(key, results)) {
+          if (results.size() > 0) {
+            rows.add(new RowResult(new Text(key.getRow()), key.getTimestamp(),
+              results));
+            results = new TreeMap<Text, byte []>();
+          }
+        }
+      } finally {
+        s.close();
+      }
+      return rows.toArray(new RowResult[rows.size()]);
+    } catch (IOException e) {
+      checkFileSystem();
+      throw e;
+    } finally {
+      this.nextTime.updateSince(start);
+    }
+  }
+
 
   /**
    * @return Info on this server.
@@ -1703,6 +2331,24 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
     return this.cacheFlusher;
   }
   
+  /*
+   * Make the load to report to the master and reset request counts.
+   * @return load of this server and each of its online regions
+   */
+  private HServerLoad buildServerLoad() {
+    HServerLoad load = new HServerLoad(this.requestCount.getAndSet(0),
+      this.onlineRegions.size());
+    for (HRegion r: getRegionsToCheck()) {
+      load.addRegionLoad(new HServerLoad.RegionLoad(r.getRegionName(),
+        r.readRequests.getAndSet(0), r.writeRequests.getAndSet(0),
+        (int)(r.memcacheSize.get() / (1024 * 1024)),
+        r.getStorefilesCount(),
+        (int)(r.getStorefilesSize() / (1024 * 1024)),
+        (int)r.blockedUpdateTime.getAndSet(0)));
+    }
+    return load;
+  }
+
   /** 
    * Protected utility method for safely obtaining an HRegion handle.
    * @param regionName Name of online {@link HRegion} to return
@@ -1802,9 +2448,13 @@ public class HRegionServer implements HConstants, HRegionInterface, Runnable {
 
   /** {@inheritDoc} */
   public long getProtocolVersion(final String protocol, 
-      @SuppressWarnings("unused") final long clientVersion)
+      final long clientVersion)
   throws IOException {  
     if (protocol.equals(HRegionInterface.class.getName())) {
+      // Older clients still work: the methods they use are kept.
+      if (clientVersion >= 1L && clientVersion < HRegionInterface.versionID) {
+        return clientVersion;
+      }
       return HRegionInterface.versionID;
     }
     throw new IOException("Unknown protocol to name node: " + protocol);
@@ -22,8 +22,15 @@ package org.apache.hadoop.hbase;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableUtils;
 
 /**
  * This class encapsulates metrics for determining the load on a HRegionServer
@@ -31,19 +38,134 @@ import org.apache.hadoop.io.WritableComparable;
 public class HServerLoad implements WritableComparable {
   private int numberOfRequests;         // number of requests since last report
   private int numberOfRegions;          // number of regions being served
+  private List<RegionLoad> regionLoad = new ArrayList<RegionLoad>();
   
   /*
-   * TODO: Other metrics that might be considered when the master is actually
-   * doing load balancing instead of merely trying to decide where to assign
-   * a region:
+   * TODO: Other metrics that might be considered when the master is
+   * balancing:
    * <ul>
    *   <li># of CPUs, heap size (to determine the "class" of machine). For
    *       now, we consider them to be homogeneous.</li>
-   *   <li>#requests per region (Map<{String|HRegionInfo}, Integer>)</li>
    *   <li>#compactions and/or #splits (churn)</li>
    *   <li>server death rate (maybe there is something wrong with this server)</li>
    * </ul>
    */
+
+  /**
+   * Load of a single region since the last report.  Serialized with
+   * variable-length ints since most values are small.
+   */
+  public static class RegionLoad implements Writable {
+    private Text name;
+    private int readRequests;
+    private int writeRequests;
+    private int memcacheSizeMB;
+    private int storefiles;
+    private int storefileSizeMB;
+    private int blockedUpdateMillis;
+
+    /** default constructor (used by Writable) */
+    public RegionLoad() {
+      this(new Text(), 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * @param name region name
+     * @param readRequests gets and scanner nexts since last report
+     * @param writeRequests updates and deletes since last report
+     * @param memcacheSizeMB size of the memcache in MB
+     * @param storefiles count of store files
+     * @param storefileSizeMB size of store files in MB
+     * @param blockedUpdateMillis time updates spent waiting on a memcache
+     * flush since last report
+     */
+    public RegionLoad(final Text name, final int readRequests,
+        final int writeRequests, final int memcacheSizeMB,
+        final int storefiles, final int storefileSizeMB,
+        final int blockedUpdateMillis) {
+      this.name = name;
+      this.readRequests = readRequests;
+      this.writeRequests = writeRequests;
+      this.memcacheSizeMB = memcacheSizeMB;
+      this.storefiles = storefiles;
+      this.storefileSizeMB = storefileSizeMB;
+      this.blockedUpdateMillis = blockedUpdateMillis;
+    }
+
+    /** @return the region name */
+    public Text getName() {
+      return name;
+    }
+
+    /** @return reads plus writes since last report */
+    public int getRequests() {
+      return readRequests + writeRequests;
+    }
+
+    /** @return gets and scanner nexts since last report */
+    public int getReadRequests() {
+      return readRequests;
+    }
+
+    /** @return updates and deletes since last report */
+    public int getWriteRequests() {
+      return writeRequests;
+    }
+
+    /** @return size of the memcache in MB */
+    public int getMemcacheSizeMB() {
+      return memcacheSizeMB;
+    }
+
+    /** @return count of store files */
+    public int getStorefiles() {
+      return storefiles;
+    }
+
+    /** @return size of store files in MB */
+    public int getStorefileSizeMB() {
+      return storefileSizeMB;
+    }
+
+    /**
+     * @return time updates spent blocked waiting on a memcache flush since
+     * last report
+     */
+    public int getBlockedUpdateMillis() {
+      return blockedUpdateMillis;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+      return name + " reads: " + readRequests + " writes: " + writeRequests +
+        " memcacheSizeMB: " + memcacheSizeMB + " storefiles: " + storefiles +
+        " storefileSizeMB: " + storefileSizeMB + " blockedUpdateMillis: " +
+        blockedUpdateMillis;
+    }
+
+    /** {@inheritDoc} */
+    public void readFields(DataInput in) throws IOException {
+      name.readFields(in);
+      readRequests = WritableUtils.readVInt(in);
+      writeRequests = WritableUtils.readVInt(in);
+      memcacheSizeMB = WritableUtils.readVInt(in);
+      storefiles = WritableUtils.readVInt(in);
+      storefileSizeMB = WritableUtils.readVInt(in);
+      blockedUpdateMillis = WritableUtils.readVInt(in);
+    }
+
+    /** {@inheritDoc} */
+    public void write(DataOutput out) throws IOException {
+      name.write(out);
+      WritableUtils.writeVInt(out, readRequests);
+      WritableUtils.writeVInt(out, writeRequests);
+      WritableUtils.writeVInt(out, memcacheSizeMB);
+      WritableUtils.writeVInt(out, storefiles);
+      WritableUtils.writeVInt(out, storefileSizeMB);
+      WritableUtils.writeVInt(out, blockedUpdateMillis);
+    }
+  }
   
   /** default constructior (used by Writable) */
   public HServerLoad() {}
@@ -103,8 +225,50 @@ public class HServerLoad implements WritableComparable {
     return numberOfRequests;
   }
 
+  /**
+   * @return load of each region being served; empty if the server did not
+   * send region detail
+   */
+  public Collection<RegionLoad> getRegionLoad() {
+    return Collections.unmodifiableList(regionLoad);
+  }
+
+  /** @return size of the memcaches of all regions in MB */
+  public int getMemcacheSizeMB() {
+    int size = 0;
+    for (RegionLoad rl: regionLoad) {
+      size += rl.getMemcacheSizeMB();
+    }
+    return size;
+  }
+
+  /** @return count of store files of all regions */
+  public int getStorefiles() {
+    int count = 0;
+    for (RegionLoad rl: regionLoad) {
+      count += rl.getStorefiles();
+    }
+    return count;
+  }
+
+  /** @return size of the store files of all regions in MB */
+  public int getStorefileSizeMB() {
+    int size = 0;
+    for (RegionLoad rl: regionLoad) {
+      size += rl.getStorefileSizeMB();
+    }
+    return size;
+  }
+
   // Setters
   
+  /**
+   * @param load load of a region being served
+   */
+  public void addRegionLoad(RegionLoad load) {
+    regionLoad.add(load);
+  }
+  
   /**
    * @param numberOfRegions the numberOfRegions to set
    */
@@ -118,12 +282,23 @@ public class HServerLoad implements WritableComparable {
   public void readFields(DataInput in) throws IOException {
     numberOfRequests = in.readInt();
     numberOfRegions = in.readInt();
+    int count = WritableUtils.readVInt(in);
+    regionLoad = new ArrayList<RegionLoad>(count);
+    for (int i = 0; i < count; i++) {
+      RegionLoad rl = new RegionLoad();
+      rl.readFields(in);
+      regionLoad.add(rl);
+    }
   }
 
   /** {@inheritDoc} */
   public void write(DataOutput out) throws IOException {
     out.writeInt(numberOfRequests);
     out.writeInt(numberOfRegions);
+    WritableUtils.writeVInt(out, regionLoad.size());
+    for (RegionLoad rl: regionLoad) {
+      rl.write(out);
+    }
   }
   
   // Comparable
@@ -19,6 +19,8 @@
  */
 package org.apache.hadoop.hbase;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
@@ -35,6 +37,13 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -50,6 +59,7 @@ import org.apache.hadoop.hbase.HStoreFile.HbaseMapFile;
 import org.apache.hadoop.hbase.filter.RowFilterInterface;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.io.TextSequence;
+import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.MapFile;
 import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.Text;
@@ -61,6 +71,7 @@ import org.apache.hadoop.hbase.util.FSUtils;
 import org.onelab.filter.BloomFilter;
 import org.onelab.filter.CountingBloomFilter;
 import org.onelab.filter.Filter;
+import org.onelab.filter.Key;
 import org.onelab.filter.RetouchedBloomFilter;
 
 /**
@@ -713,14 +724,17 @@ public class HStore implements HConstants {
   final FileSystem fs;
   private final HBaseConfiguration conf;
   private final Path filterDir;
-  final Filter bloomFilter;
+  final LazyBloomFilter bloomFilter;
   private final Path compactionDir;
 
-  private final Integer compactLock = new Integer(0);
-  private final Integer flushLock = new Integer(0);
+  private final Object compactLock = new Object();
+  private final Object flushLock = new Object();
 
   private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
+  // Opens store files for all stores; see getOpenPool.
+  private static ExecutorService openPool = null;
+
   final String storeName;
 
   /*
@@ -729,6 +743,9 @@ public class HStore implements HConstants {
    */
   private final SortedMap<Long, HStoreFile> storefiles =
     Collections.synchronizedSortedMap(new TreeMap<Long, HStoreFile>());
+
+  /* Total length of the store files; updated when storefiles changes. */
+  private volatile long storeSize = 0;
   
   /*
    * Sorted Map of readers keyed by sequence id (Most recent should be last in
@@ -821,17 +838,19 @@ public class HStore implements HConstants {
       if (!fs.exists(filterDir)) {
         fs.mkdirs(filterDir);
       }
-      this.bloomFilter = loadOrCreateBloomFilter();
+      // Read from the filesystem on first use.
+      this.bloomFilter = new LazyBloomFilter();
     }
 
     // Go through the 'mapdir' and 'infodir' together, make sure that all 
     // MapFiles are in a reliable state.  Every entry in 'mapdir' must have a 
     // corresponding one in 'loginfodir'. Without a corresponding log info
-    // file, the entry in 'mapdir' must be deleted.
+    // file, the entry in 'mapdir' must be deleted.  Start up all the map
+    // readers as we go.
+    long startTime = System.currentTimeMillis();
     List<HStoreFile> hstoreFiles = loadHStoreFiles(infodir, mapdir);
-    for(HStoreFile hsf: hstoreFiles) {
-      this.storefiles.put(Long.valueOf(hsf.loadInfo(fs)), hsf);
-    }
+    updateStoreSize();
+    long loadTime = System.currentTimeMillis() - startTime;
 
     // Now go through all the HSTORE_LOGINFOFILEs and figure out the
     // most-recent log-seq-ID that's present.  The most-recent such ID means we
@@ -842,12 +861,15 @@ public class HStore implements HConstants {
     // means it was built prior to the previous run of HStore, and so it cannot 
     // contain any updates also contained in the log.
     
-    this.maxSeqId = getMaxSequenceId(hstoreFiles);
+    this.maxSeqId = this.storefiles.isEmpty() ||
+      this.storefiles.lastKey().longValue() <= 0?
+        -1: this.storefiles.lastKey().longValue();
     if (LOG.isDebugEnabled()) {
       LOG.debug("Loaded " + hstoreFiles.size() + " file(s) in hstore " +
         this.storeName + ", max sequence id " + this.maxSeqId);
     }
     
+    startTime = System.currentTimeMillis();
     try {
       doReconstructionLog(reconstructionLog, maxSeqId, reporter);
     } catch (EOFException e) {
@@ -877,11 +899,11 @@ public class HStore implements HConstants {
     // taking updates as soon as possible (Once online, can take updates even
     // during a compaction).
 
-    // Finally, start up all the map readers! (There could be more than one
-    // since we haven't compacted yet.)
-    for(Map.Entry<Long, HStoreFile> e: this.storefiles.entrySet()) {
-      this.readers.put(e.getKey(),
-        e.getValue().getReader(this.fs, this.bloomFilter));
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Opened hstore " + this.storeName + ": loaded " +
+        hstoreFiles.size() + " file(s) in " + loadTime +
+        "ms, reconstruction log in " +
+        (System.currentTimeMillis() - startTime) + "ms");
     }
   }
   
@@ -985,13 +1007,16 @@ public class HStore implements HConstants {
   }
   
   /*
-   * Creates a series of HStoreFiles loaded from the given directory.
+   * Creates a series of HStoreFiles loaded from the given directory and adds
+   * them and their readers to this store.
    * There must be a matching 'mapdir' and 'loginfo' pair of files.
    * If only one exists, we'll delete it.  Does other consistency tests
-   * checking files are not zero, etc.
+   * checking files are not zero, etc.  Files are checked and their readers
+   * opened, index included, concurrently in the pool shared by all stores.
    *
    * @param infodir qualified path for info file directory
    * @param mapdir qualified path for map file directory
+   * @return HStoreFiles loaded
    * @throws IOException
    */
   private List<HStoreFile> loadHStoreFiles(Path infodir, Path mapdir)
@@ -999,15 +1024,125 @@ public class HStore implements HConstants {
     // Look first at info files.  If a reference, these contain info we need
     // to create the HStoreFile.
     Path infofiles[] = fs.listPaths(new Path[] {infodir});
-    ArrayList<HStoreFile> results = new ArrayList<HStoreFile>(infofiles.length);
-    ArrayList<Path> mapfiles = new ArrayList<Path>(infofiles.length);
+    List<Future<StoreFileOpener>> futures =
+      new ArrayList<Future<StoreFileOpener>>(infofiles.length);
+    ExecutorService pool = getOpenPool(this.conf);
     for (Path p: infofiles) {
+      futures.add(pool.submit(new StoreFileOpener(p)));
+    }
+    // Wait on all opens, even if one fails, so none of the readers leak.
+    List<StoreFileOpener> opened =
+      new ArrayList<StoreFileOpener>(infofiles.length);
+    IOException failure = null;
+    for (Future<StoreFileOpener> f: futures) {
+      try {
+        StoreFileOpener o = getUninterruptibly(f);
+        if (o != null) {
+          opened.add(o);
+        }
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause() instanceof IOException?
+            (IOException)e.getCause():
+            (IOException)new IOException(e.getCause().toString()).
+              initCause(e.getCause());
+        }
+      }
+    }
+    if (failure != null) {
+      for (StoreFileOpener o: opened) {
+        o.reader.close();
+      }
+      throw failure;
+    }
+
+    ArrayList<HStoreFile> results = new ArrayList<HStoreFile>(opened.size());
+    ArrayList<Path> mapfiles = new ArrayList<Path>(opened.size());
+    for (StoreFileOpener o: opened) {
+      results.add(o.file);
+      // Keep list of sympathetic data mapfiles for cleaning info dir in next
+      // section.  Make sure path is fully qualified for compare.
+      mapfiles.add(o.file.getMapFilePath());
+      Long key = Long.valueOf(o.seqid);
+      this.storefiles.put(key, o.file);
+      MapFile.Reader displaced = this.readers.put(key, o.reader);
+      if (displaced != null) {
+        displaced.close();
+      }
+    }
+    
+    // List paths by experience returns fully qualified names -- at least when
+    // running on a mini hdfs cluster.
+    Path datfiles[] = fs.listPaths(new Path[] {mapdir});
+    for (int i = 0; i < datfiles.length; i++) {
+      // If does not have sympathetic info file, delete.
+      if (!mapfiles.contains(fs.makeQualified(datfiles[i]))) {
+        fs.delete(datfiles[i]);
+      }
+    }
+    return results;
+  }
+
+  /*
+   * @param f
+   * @return Result of <code>f</code>, waiting through interrupts.
+   * @throws ExecutionException
+   */
+  private static <T> T getUninterruptibly(final Future<T> f)
+  throws ExecutionException {
+    while (true) {
+      try {
+        return f.get();
+      } catch (InterruptedException e) {
+        // continue
+      }
+    }
+  }
+
+  /*
+   * @param conf
+   * @return Pool shared by all stores for opening store files.  Made on first
+   * use with <code>hbase.hstore.open.threads</code> threads.
+   */
+  private static synchronized ExecutorService getOpenPool(
+      final HBaseConfiguration conf) {
+    if (openPool == null) {
+      final AtomicInteger threadCount = new AtomicInteger(0);
+      openPool = Executors.newFixedThreadPool(
+          conf.getInt("hbase.hstore.open.threads", 10), new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(r, "HStore.opener-" +
+            threadCount.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        }
+      });
+    }
+    return openPool;
+  }
+
+  /*
+   * Checks a store file given its info file and opens a reader on it.
+   * Returns null if the file is broken and was cleaned up.
+   */
+  private class StoreFileOpener implements Callable<StoreFileOpener> {
+    private final Path p;
+    HStoreFile file;
+    long seqid;
+    MapFile.Reader reader;
+
+    StoreFileOpener(final Path p) {
+      this.p = p;
+    }
+
+    /** {@inheritDoc} */
+    public StoreFileOpener call() throws IOException {
       // Check for empty info file.  Should never be the case but can happen
       // after data loss in hdfs for whatever reason (upgrade, etc.): HBASE-646
-      if (this.fs.getFileStatus(p).getLen() <= 0) {
+      if (fs.getFileStatus(p).getLen() <= 0) {
         LOG.warn("Skipping " + p + " because its empty.  DATA LOSS?  Can " +
           "this scenario be repaired?  HBASE-646");
-        continue;
+        return null;
       }
 
       Matcher m = REF_NAME_PARSER.matcher(p.getName());
@@ -1035,22 +1170,22 @@ public class HStore implements HConstants {
         fs.delete(curfile.getInfoFilePath());
         LOG.warn("Mapfile " + mapfile.toString() + " does not exist. Cleaned " +
           "up info file.  Continuing...Probable DATA LOSS!!!");
-        continue;
+        return null;
       }
       if (isEmptyDataFile(mapfile)) {
         curfile.delete();
         // We can have empty data file if data loss in hdfs.
         LOG.warn("Mapfile " + mapfile.toString() + " has empty data. " +
           "Deleting.  Continuing...Probable DATA LOSS!!!  See HBASE-646.");
-        continue;
+        return null;
       }
       if (isEmptyIndexFile(mapfile)) {
         try {
           // Try fixing this file.. if we can.  Use the hbase version of fix.
           // Need to remove the old index file first else fix won't go ahead.
-          this.fs.delete(new Path(mapfile, MapFile.INDEX_FILE_NAME));
-          long count = MapFile.fix(this.fs, mapfile, HbaseMapFile.KEY_CLASS,
-            HbaseMapFile.VALUE_CLASS, false, this.conf);
+          fs.delete(new Path(mapfile, MapFile.INDEX_FILE_NAME));
+          long count = MapFile.fix(fs, mapfile, HbaseMapFile.KEY_CLASS,
+            HbaseMapFile.VALUE_CLASS, false, conf);
           if (LOG.isDebugEnabled()) {
             LOG.debug("Fixed index on " + mapfile.toString() + "; had " +
               count + " entries");
@@ -1058,33 +1193,22 @@ public class HStore implements HConstants {
         } catch (Exception e) {
           LOG.warn("Failed fix of " + mapfile.toString() +
             "...continuing; Probable DATA LOSS!!!", e);
-          continue;
+          return null;
         }
       }
 
       // TODO: Confirm referent exists.
 
-      // Found map and sympathetic info file.  Add this hstorefile to result.
-      results.add(curfile);
+      // Found map and sympathetic info file.
+      this.seqid = curfile.loadInfo(fs);
+      this.reader = curfile.getReader(fs, bloomFilter);
+      this.file = curfile;
       if (LOG.isDebugEnabled()) {
         LOG.debug("loaded " + FSUtils.getPath(p) + ", isReference=" +
           isReference);
       }
-      // Keep list of sympathetic data mapfiles for cleaning info dir in next
-      // section.  Make sure path is fully qualified for compare.
-      mapfiles.add(mapfile);
+      return this;
     }
-    
-    // List paths by experience returns fully qualified names -- at least when
-    // running on a mini hdfs cluster.
-    Path datfiles[] = fs.listPaths(new Path[] {mapdir});
-    for (int i = 0; i < datfiles.length; i++) {
-      // If does not have sympathetic info file, delete.
-      if (!mapfiles.contains(fs.makeQualified(datfiles[i]))) {
-        fs.delete(datfiles[i]);
-      }
-    }
-    return results;
   }
 
   /* 
@@ -1130,9 +1254,11 @@ public class HStore implements HConstants {
   //////////////////////////////////////////////////////////////////////////////
 
   /**
-   * Called by constructor if a bloom filter is enabled for this column family.
+   * Called on first use of the bloom filter for this column family.
    * If the HStore already exists, it will read in the bloom filter saved
-   * previously. Otherwise, it will create a new bloom filter.
+   * previously.  If there is none but there are store files, as when the
+   * filter could not be saved, it is rebuilt from their keys.  Otherwise, it
+   * will create a new bloom filter.
    */
   private Filter loadOrCreateBloomFilter() throws IOException {
     Path filterFile = new Path(filterDir, BLOOMFILTER_FILE_NAME);
@@ -1167,33 +1293,65 @@ public class HStore implements HConstants {
       try {
         bloomFilter.readFields(in);
       } finally {
-        fs.close();
+        in.close();
       }
+    } else if (!getStorefiles().isEmpty()) {
+      bloomFilter = rebuildBloomFilter();
     } else {
       if (LOG.isDebugEnabled()) {
         LOG.debug("creating bloom filter for " + this.storeName);
       }
+      bloomFilter = createBloomFilter();
+    }
+    return bloomFilter;
+  }
 
-      BloomFilterDescriptor.BloomFilterType type =
-        family.getBloomFilter().filterType;
+  /*
+   * @return A new, empty bloom filter of the type the family asks for.
+   */
+  private Filter createBloomFilter() {
+    BloomFilterDescriptor.BloomFilterType type =
+      family.getBloomFilter().filterType;
 
-      switch(type) {
-      
-      case BLOOMFILTER:
-        bloomFilter = new BloomFilter(family.getBloomFilter().vectorSize,
-            family.getBloomFilter().nbHash);
-        break;
-        
-      case COUNTING_BLOOMFILTER:
-        bloomFilter =
-          new CountingBloomFilter(family.getBloomFilter().vectorSize,
-            family.getBloomFilter().nbHash);
-        break;
-        
-      case RETOUCHED_BLOOMFILTER:
-        bloomFilter =
-          new RetouchedBloomFilter(family.getBloomFilter().vectorSize,
-            family.getBloomFilter().nbHash);
+    switch(type) {
+
+    case BLOOMFILTER:
+      return new BloomFilter(family.getBloomFilter().vectorSize,
+          family.getBloomFilter().nbHash);
+
+    case COUNTING_BLOOMFILTER:
+      return new CountingBloomFilter(family.getBloomFilter().vectorSize,
+          family.getBloomFilter().nbHash);
+
+    case RETOUCHED_BLOOMFILTER:
+      return new RetouchedBloomFilter(family.getBloomFilter().vectorSize,
+          family.getBloomFilter().nbHash);
+
+    default:
+      throw new IllegalArgumentException("unknown bloom filter type: " +
+          type);
+    }
+  }
+
+  /*
+   * Make a new bloom filter holding the keys of every store file.
+   * @return The rebuilt filter.
+   * @throws IOException
+   */
+  private Filter rebuildBloomFilter() throws IOException {
+    LOG.info("rebuilding bloom filter for " + this.storeName +
+      " from its store files");
+    Filter bloomFilter = createBloomFilter();
+    for (HStoreFile hsf: getStorefiles().values()) {
+      MapFile.Reader r = hsf.getReader(this.fs, null);
+      try {
+        HStoreKey key = new HStoreKey();
+        ImmutableBytesWritable value = new ImmutableBytesWritable();
+        while (r.next(key, value)) {
+          bloomFilter.add(HStoreFile.getBloomFilterKey(key));
+        }
+      } finally {
+        r.close();
       }
     }
     return bloomFilter;
@@ -1205,11 +1363,19 @@ public class HStore implements HConstants {
    * @throws IOException
    */
   private void flushBloomFilter() throws IOException {
+    Path filterFile = new Path(filterDir, BLOOMFILTER_FILE_NAME);
+    if (!bloomFilter.isAvailable()) {
+      // Do not leave an out of date filter behind; it is rebuilt from the
+      // store files on next open.
+      if (fs.exists(filterFile)) {
+        fs.delete(filterFile);
+      }
+      return;
+    }
     if (LOG.isDebugEnabled()) {
       LOG.debug("flushing bloom filter for " + this.storeName);
     }
-    FSDataOutputStream out =
-      fs.create(new Path(filterDir, BLOOMFILTER_FILE_NAME));
+    FSDataOutputStream out = fs.create(filterFile);
     try {
       bloomFilter.write(out);
     } finally {
@@ -1220,6 +1386,126 @@ public class HStore implements HConstants {
     }
   }
   
+  /*
+   * Bloom filter that is read in or created on first use rather than when
+   * the store opens.  If the saved filter cannot be read, it is rebuilt from
+   * the keys of the store files.  If that fails too, the filter is not used:
+   * membership tests answer maybe, additions are dropped and the saved
+   * filter is removed at the next flush so the next open rebuilds it.
+   */
+  class LazyBloomFilter extends Filter {
+    private Filter filter = null;
+    // Set if the filter could be neither read nor rebuilt.
+    private boolean unavailable = false;
+
+    /*
+     * @return The bloom filter, reading it in if this is the first use, or
+     * null if it cannot be had.
+     */
+    private synchronized Filter getFilter() {
+      if (this.filter == null && !this.unavailable) {
+        long startTime = System.currentTimeMillis();
+        try {
+          this.filter = loadOrCreateBloomFilter();
+        } catch (IOException e) {
+          LOG.warn("Failed read of bloom filter for " + storeName, e);
+          try {
+            this.filter = rebuildBloomFilter();
+          } catch (IOException ex) {
+            LOG.error("Failed rebuild of bloom filter for " + storeName +
+              "; not using it", ex);
+            this.unavailable = true;
+            return null;
+          }
+        }
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Bloom filter for " + storeName + " ready in " +
+            (System.currentTimeMillis() - startTime) + "ms");
+        }
+      }
+      return this.filter;
+    }
+
+    /** @return False if the filter could be neither read nor rebuilt */
+    boolean isAvailable() {
+      return getFilter() != null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void add(Key key) {
+      Filter f = getFilter();
+      if (f != null) {
+        f.add(key);
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean membershipTest(Key key) {
+      Filter f = getFilter();
+      return f == null || f.membershipTest(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void and(Filter f) {
+      Filter mine = getFilter();
+      if (mine != null) {
+        mine.and(f);
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void or(Filter f) {
+      Filter mine = getFilter();
+      if (mine != null) {
+        mine.or(f);
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void xor(Filter f) {
+      Filter mine = getFilter();
+      if (mine != null) {
+        mine.xor(f);
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void not() {
+      Filter mine = getFilter();
+      if (mine != null) {
+        mine.not();
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(DataOutput out) throws IOException {
+      Filter f = getFilter();
+      if (f == null) {
+        throw new IOException("bloom filter for " + storeName +
+          " unavailable");
+      }
+      f.write(out);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void readFields(DataInput in) throws IOException {
+      Filter f = getFilter();
+      if (f == null) {
+        throw new IOException("bloom filter for " + storeName +
+          " unavailable");
+      }
+      f.readFields(in);
+    }
+  }
+  
   //////////////////////////////////////////////////////////////////////////////
   // End bloom filters
   //////////////////////////////////////////////////////////////////////////////
@@ -1327,6 +1613,7 @@ public class HStore implements HConstants {
       // Related, looks like 'merging compactions' in BigTable paper interlaces
       // a memcache flush. We don't.
       int entries = 0;
+      HStoreFile.Bounds bounds = new HStoreFile.Bounds();
       try {
         for (Map.Entry<HStoreKey, byte []> es: cache.entrySet()) {
           HStoreKey curkey = es.getKey();
@@ -1334,6 +1621,7 @@ public class HStore implements HConstants {
           if (f.equals(this.family.getFamilyName())) {
             entries++;
             out.append(curkey, new ImmutableBytesWritable(es.getValue()));
+            bounds.add(curkey);
             flushed += HRegion.getEntrySize(curkey, es.getValue());
           }
         }
@@ -1343,7 +1631,8 @@ public class HStore implements HConstants {
 
       // B. Write out the log sequence number that corresponds to this output
       // MapFile. The MapFile is current up to and including the log seq num.
-      flushedFile.writeInfo(fs, logCacheFlushId);
+      // Key and timestamp bounds of the flushed cells go along with it.
+      flushedFile.writeInfo(fs, logCacheFlushId, bounds);
 
       // C. Flush the bloom filter if any
       if (bloomFilter != null) {
@@ -1378,6 +1667,7 @@ public class HStore implements HConstants {
       this.readers.put(flushid,
         flushedFile.getReader(this.fs, this.bloomFilter));
       this.storefiles.put(flushid, flushedFile);
+      this.storeSize += flushedFile.length();
       // Tell listeners of the change in readers.
       notifyChangedReadersObservers();
     } finally {
@@ -1385,6 +1675,84 @@ public class HStore implements HConstants {
     }
   }
   
+  /*
+   * What a bulk loaded file brings to the store: its key bounds and, if the
+   * family has a bloom filter, a filter holding the keys of the file.
+   */
+  static class BulkLoadFile {
+    final Path src;
+    final HStoreFile.Bounds bounds = new HStoreFile.Bounds();
+    Filter filter = null;
+
+    BulkLoadFile(final Path src) {
+      this.src = src;
+    }
+  }
+
+  /**
+   * Read through a MapFile about to be bulk loaded, noting its key bounds
+   * and adding its keys to a bloom filter of its own if the family has one.
+   * Takes no locks: call before {@link #bulkLoadStoreFile(BulkLoadFile, long)}
+   * so flushes and updates do not wait on the read.
+   *
+   * @param src Directory of the MapFile.  Keys must be {@link HStoreKey}s in
+   * this store's family and values {@link ImmutableBytesWritable}s.
+   * @return What to pass to {@link #bulkLoadStoreFile(BulkLoadFile, long)}
+   * @throws IOException
+   */
+  BulkLoadFile prepareBulkLoad(final Path src) throws IOException {
+    BulkLoadFile f = new BulkLoadFile(src);
+    if (this.bloomFilter != null) {
+      f.filter = createBloomFilter();
+    }
+    MapFile.Reader r = new MapFile.Reader(fs, src.toString(), conf);
+    try {
+      HStoreKey key = new HStoreKey();
+      ImmutableBytesWritable value = new ImmutableBytesWritable();
+      while (r.next(key, value)) {
+        if (f.filter != null) {
+          f.filter.add(HStoreFile.getBloomFilterKey(key));
+        }
+        f.bounds.add(key);
+      }
+    } finally {
+      r.close();
+    }
+    return f;
+  }
+
+  /**
+   * Adopt a MapFile written outside of the region as a store file.  The file
+   * is moved, not copied, into the store; its bounds and bloom filter keys
+   * come from {@link #prepareBulkLoad(Path)}.
+   *
+   * @param f File to adopt.  Must be on this store's filesystem.
+   * @param seqId Sequence id to give the new store file.  Must not be used by
+   * any other store file.
+   * @throws IOException
+   */
+  void bulkLoadStoreFile(final BulkLoadFile f, final long seqId)
+  throws IOException {
+    synchronized (flushLock) {
+      HStoreFile dst = new HStoreFile(conf, fs, basedir,
+          info.getEncodedName(), family.getFamilyName(), -1L, null);
+      if (!fs.rename(f.src, dst.getMapFilePath())) {
+        throw new IOException("Failed move of " + f.src + " to " +
+          dst.getMapFilePath());
+      }
+      if (this.bloomFilter != null) {
+        this.bloomFilter.or(f.filter);
+        flushBloomFilter();
+      }
+      dst.writeInfo(fs, seqId, f.bounds);
+      updateReaders(seqId, dst);
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Bulk loaded " + f.src + " as " +
+          FSUtils.getPath(dst.getMapFilePath()) + ", sequence id " + seqId);
+      }
+    }
+  }
+
   /*
    * Notify all observers that set of Readers has changed.
    * @throws IOException
@@ -1498,8 +1866,9 @@ public class HStore implements HConstants {
       }
       MapFile.Writer compactedOut = compactedOutputFile.getWriter(this.fs,
         this.compression, this.bloomFilter);
+      HStoreFile.Bounds bounds = new HStoreFile.Bounds();
       try {
-        compactHStoreFiles(compactedOut, filesToCompact);
+        compactHStoreFiles(compactedOut, filesToCompact, bounds);
       } finally {
         compactedOut.close();
       }
@@ -1507,7 +1876,7 @@ public class HStore implements HConstants {
       // Now, write out an HSTORE_LOGINFOFILE for the brand-new TreeMap.
       // Compute max-sequenceID seen in any of the to-be-compacted TreeMaps.
       long maxId = getMaxSequenceId(filesToCompact);
-      compactedOutputFile.writeInfo(fs, maxId);
+      compactedOutputFile.writeInfo(fs, maxId, bounds);
 
       // Move the compaction into place.
       completeCompaction(filesToCompact, compactedOutputFile);
@@ -1525,10 +1894,12 @@ public class HStore implements HConstants {
    * through them in parallel. We always increment the lowest-ranked one.
    * Updates to a single row/column will appear ranked by timestamp. This allows
    * us to throw out deleted values or obsolete versions. @param compactedOut
-   * @param toCompactFiles @throws IOException
+   * @param toCompactFiles @param bounds Gets the bounds of the keys written
+   * to <code>compactedOut</code> added to it. @throws IOException
    */
   private void compactHStoreFiles(final MapFile.Writer compactedOut,
-      final List<HStoreFile> toCompactFiles) throws IOException {
+      final List<HStoreFile> toCompactFiles, final HStoreFile.Bounds bounds)
+  throws IOException {
     
     int size = toCompactFiles.size();
     CompactionReader[] rdrs = new CompactionReader[size];
@@ -1613,6 +1984,7 @@ public class HStore implements HConstants {
             // Only write out objects which have a non-zero length key and
             // value
             compactedOut.append(sk, vals[smallestKey]);
+            bounds.add(sk);
           }
         }
 
@@ -1814,6 +2186,7 @@ public class HStore implements HConstants {
           // it is the only one.
           finalCompactedFile.getReader(this.fs, this.bloomFilter));
           this.storefiles.put(orderVal, finalCompactedFile);
+          updateStoreSize();
           // Tell observers that list of Readers has changed.
           notifyChangedReadersObservers();
           // Finally, delete old store files.
@@ -1855,7 +2228,7 @@ public class HStore implements HConstants {
     this.lock.readLock().lock();
     memcache.getFull(key, deletes, results);
     try {
-      MapFile.Reader[] maparray = getReaders();
+      MapFile.Reader[] maparray = getReaders(key.getRow(), key.getTimestamp());
       for (int i = maparray.length - 1; i >= 0; i--) {
         MapFile.Reader map = maparray[i];
         getFullFromMapFile(map, key, deletes, results);
@@ -1919,6 +2292,54 @@ public class HStore implements HConstants {
       toArray(new MapFile.Reader[this.readers.size()]);
   }
 
+  /*
+   * Caller must hold the read lock.
+   * @param row
+   * @param timestamp
+   * @return Readers of store files that may have cells in <code>row</code>
+   * at or older than <code>timestamp</code>; store files whose
+   * {@link HStoreFile.Bounds} exclude the cell are skipped.  Most recent
+   * store file is last.
+   */
+  private MapFile.Reader [] getReaders(final Text row, final long timestamp) {
+    List<MapFile.Reader> result =
+      new ArrayList<MapFile.Reader>(this.readers.size());
+    for (Map.Entry<Long, MapFile.Reader> e: this.readers.entrySet()) {
+      HStoreFile.Bounds b = getBounds(e.getKey());
+      if (b == null || b.mayContain(row, timestamp)) {
+        result.add(e.getValue());
+      }
+    }
+    return result.toArray(new MapFile.Reader[result.size()]);
+  }
+
+  /*
+   * Caller must hold the read lock.
+   * @param row
+   * @return Readers of store files that may have cells in rows at or before
+   * <code>row</code>.  Most recent store file is last.
+   */
+  private MapFile.Reader [] getReadersUpTo(final Text row) {
+    List<MapFile.Reader> result =
+      new ArrayList<MapFile.Reader>(this.readers.size());
+    for (Map.Entry<Long, MapFile.Reader> e: this.readers.entrySet()) {
+      HStoreFile.Bounds b = getBounds(e.getKey());
+      if (b == null || b.mayContainUpTo(row)) {
+        result.add(e.getValue());
+      }
+    }
+    return result.toArray(new MapFile.Reader[result.size()]);
+  }
+
+  /*
+   * @param seqid Sequence id of a store file.
+   * @return Bounds of the store file or null if not known.
+   */
+  private HStoreFile.Bounds getBounds(final Long seqid) {
+    HStoreFile hsf = this.storefiles.get(seqid);
+    return hsf == null? null: hsf.getBounds();
+  }
+
   /**
    * Get the value for the indicated HStoreKey.  Grab the target value and the 
    * previous 'numVersions-1' values, as well.
@@ -1953,7 +2374,7 @@ public class HStore implements HConstants {
       // values.  If memory usage becomes an issue, could redo as bloom filter.
       Map<Text, List<Long>> deletes = new HashMap<Text, List<Long>>();
       // This code below is very close to the body of the getKeys method.
-      MapFile.Reader[] maparray = getReaders();
+      MapFile.Reader[] maparray = getReaders(key.getRow(), key.getTimestamp());
       for(int i = maparray.length - 1; i >= 0; i--) {
         MapFile.Reader map = maparray[i];
         synchronized(map) {
@@ -2031,7 +2452,8 @@ public class HStore implements HConstants {
     // This code below is very close to the body of the get method.
     this.lock.readLock().lock();
     try {
-      MapFile.Reader[] maparray = getReaders();
+      MapFile.Reader[] maparray =
+        getReaders(origin.getRow(), origin.getTimestamp());
       for(int i = maparray.length - 1; i >= 0; i--) {
         MapFile.Reader map = maparray[i];
         synchronized(map) {
@@ -2100,7 +2522,7 @@ public class HStore implements HConstants {
     // obtain read lock
     this.lock.readLock().lock();
     try {
-      MapFile.Reader[] maparray = getReaders();
+      MapFile.Reader[] maparray = getReadersUpTo(row);
       
       // process each store file
       for(int i = maparray.length - 1; i >= 0; i--) {
@@ -2449,6 +2871,12 @@ public class HStore implements HConstants {
     try {
       HStoreFile.Reference r = new HStoreFile.Reference();
       r.readFields(in);
+      try {
+        // Only references made by a merge carry a sequence id.
+        r.setSequenceId(in.readLong());
+      } catch (EOFException e) {
+        // Uses that of the referenced file.
+      }
       return r;
     } finally {
       in.close();
@@ -2518,12 +2946,21 @@ public class HStore implements HConstants {
          }
        }
      }
-     // Open our own copies of the Readers here inside in the scanner.
-     this.sfsReaders = new MapFile.Reader[getStorefiles().size()];
+     // Open our own copies of the Readers here inside in the scanner.  Skip
+     // store files that hold nothing at or after firstRow or nothing as old
+     // as the scanner timestamp.
+     List<HStoreFile> files = new ArrayList<HStoreFile>();
+     for(HStoreFile curHSF: getStorefiles().values()) {
+       HStoreFile.Bounds b = curHSF.getBounds();
+       if (b == null || b.mayContainFrom(firstRow, this.timestamp)) {
+         files.add(curHSF);
+       }
+     }
+     this.sfsReaders = new MapFile.Reader[files.size()];
      
      // Most recent map file should be first
      int i = sfsReaders.length - 1;
-     for(HStoreFile curHSF: getStorefiles().values()) {
+     for(HStoreFile curHSF: files) {
        sfsReaders[i--] = curHSF.getReader(fs, bloomFilter);
      }
      
@@ -3035,4 +3472,59 @@ public class HStore implements HConstants {
       return copy;
     }
   }
+
+  /**
+   * Sample the rows of this store from the indices of its store files.  Each
+   * index entry stands for about the same number of cells so the sample can
+   * be used to divide the store into ranges of similar size.  Rows of
+   * referenced files that are outside this store's region are left out.
+   * @return Sorted sample of rows.  A row may be in it more than once.
+   * @throws IOException
+   */
+  @SuppressWarnings("unchecked")
+  List<Text> sampleRows() throws IOException {
+    List<Text> rows = new ArrayList<Text>();
+    this.lock.readLock().lock();
+    try {
+      for (HStoreFile hsf: this.storefiles.values()) {
+        SequenceFile.Reader r =
+          new SequenceFile.Reader(fs, hsf.getIndexFilePath(), conf);
+        try {
+          HStoreKey key = new HStoreKey();
+          LongWritable position = new LongWritable();
+          while (r.next(key, position)) {
+            if (HRegion.rowIsInRange(this.info, key.getRow())) {
+              rows.add(new Text(key.getRow()));
+            }
+          }
+        } finally {
+          r.close();
+        }
+      }
+    } finally {
+      this.lock.readLock().unlock();
+    }
+    Collections.sort(rows);
+    return rows;
+  }
+
+  /**
+   * @return Total length of the store files as of the last flush, compaction
+   * or open.
+   */
+  long getStoreSize() {
+    return this.storeSize;
+  }
+
+  /*
+   * Recalculate storeSize from the current store files.
+   * @throws IOException
+   */
+  private void updateStoreSize() throws IOException {
+    long size = 0;
+    for (HStoreFile hsf: getStorefiles().values()) {
+      size += hsf.length();
+    }
+    this.storeSize = size;
+  }
 }
@@ -25,6 +25,7 @@ import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
@@ -71,7 +72,10 @@ import org.onelab.filter.Key;
  * which is a 'mapfiles' and 'info' subdirectory.  In each will be found a
  * file named something like <code>1278437856009925445</code>, one to hold the
  * data in 'mapfiles' and one under 'info' that holds the sequence id for this
- * store file.
+ * store file.  Info files written by flushes and compactions also carry the
+ * {@link Bounds} of the store file: its first and last keys and the range of
+ * timestamps of the cells it holds.  Readers use these to skip store files
+ * that cannot hold the cells asked for.
  * 
  * <p>References to store files located over in some other region look like
  * this:
@@ -90,6 +94,7 @@ import org.onelab.filter.Key;
 public class HStoreFile implements HConstants {
   static final Log LOG = LogFactory.getLog(HStoreFile.class.getName());
   static final byte INFO_SEQ_NUM = 0;
+  static final byte INFO_BOUNDS = 1;
   static final String HSTORE_DATFILE_DIR = "mapfiles";
   static final String HSTORE_INFO_DIR = "info";
   static final String HSTORE_FILTER_DIR = "filter";
@@ -114,6 +119,7 @@ public class HStoreFile implements HConstants {
   private final HBaseConfiguration conf;
   private final FileSystem fs;
   private final Reference reference;
+  private volatile Bounds bounds = null;
 
   /**
    * Constructor that fully initializes the object
@@ -174,6 +180,18 @@ public class HStoreFile implements HConstants {
     return fileId;
   }
 
+  /**
+   * @return Key and timestamp bounds of this store file or null if not known
+   * (Info file was written by an older hbase or file has not been loaded).
+   * A reference is written without bounds, so one made by a split or merge
+   * has none and is never pruned.  Once loaded by {@link #loadInfo}, a
+   * reference has the bounds of the whole referenced file, which may be wider
+   * than the half it refers to.
+   */
+  Bounds getBounds() {
+    return this.bounds;
+  }
+
   // Build full filenames from those components
   
   /** @return path for MapFile */
@@ -185,6 +203,14 @@ public class HStoreFile implements HConstants {
     return getMapFilePath(encodedRegionName, fileId, null);
   }
 
+  /**
+   * @return path of the MapFile index.  If a reference, the index of the
+   * referenced file.
+   */
+  Path getIndexFilePath() {
+    return new Path(getMapFilePath(reference), MapFile.INDEX_FILE_NAME);
+  }
+
   private Path getMapFilePath(final Reference r) {
     if (r == null) {
       return getMapFilePath();
@@ -263,6 +289,9 @@ public class HStoreFile implements HConstants {
     FSDataOutputStream out = fs.create(p);
     try {
       reference.write(out);
+      if (reference.getSequenceId() >= 0) {
+        out.writeLong(reference.getSequenceId());
+      }
     } finally {
       out.close();
    }
@@ -279,10 +308,12 @@ public class HStoreFile implements HConstants {
   }
 
   /** 
-   * Reads in an info file
+   * Reads in an info file.  Also loads the {@link Bounds} of the store file
+   * if the info file carries them.
    *
    * @param fs file system
-   * @return The sequence id contained in the info file
+   * @return The sequence id contained in the info file, or that of the
+   * reference if it carries one
    * @throws IOException
    */
   long loadInfo(FileSystem fs) throws IOException {
@@ -297,7 +328,10 @@ public class HStoreFile implements HConstants {
     try {
       byte flag = in.readByte();
       if(flag == INFO_SEQ_NUM) {
-        return in.readLong();
+        long seqid = in.readLong();
+        this.bounds = readBounds(in);
+        return (isReference() && reference.getSequenceId() >= 0)?
+          reference.getSequenceId(): seqid;
       }
       throw new IOException("Cannot process log file: " + p);
     } finally {
@@ -305,22 +339,65 @@ public class HStoreFile implements HConstants {
     }
   }
   
+  /*
+   * @param in Stream positioned after the sequence id in an info file.
+   * @return Bounds or null if info file was written without them.
+   * @throws IOException
+   */
+  private Bounds readBounds(final DataInputStream in) throws IOException {
+    byte flag;
+    try {
+      flag = in.readByte();
+    } catch (EOFException e) {
+      // Info files written before bounds were added end after the seqid.
+      return null;
+    }
+    if (flag != INFO_BOUNDS) {
+      LOG.warn("Unrecognized info file entry " + flag + " in " + this);
+      return null;
+    }
+    Bounds b = new Bounds();
+    b.readFields(in);
+    return b;
+  }
+  
   /**
-   * Writes the file-identifier to disk
+   * Writes the file-identifier to disk.  Writes the {@link Bounds} of this
+   * store file, if known, after the file-identifier.
    * 
    * @param fs file system
    * @param infonum file id
    * @throws IOException
    */
   void writeInfo(FileSystem fs, long infonum) throws IOException {
+    writeInfo(fs, infonum, this.bounds);
+  }
+
+  /**
+   * Writes the file-identifier and the key and timestamp bounds of the
+   * store file to disk.
+   * 
+   * @param fs file system
+   * @param infonum file id
+   * @param b Bounds of the cells written to this store file.  Pass null or
+   * empty bounds if not known.
+   * @throws IOException
+   */
+  void writeInfo(FileSystem fs, long infonum, final Bounds b)
+  throws IOException {
     Path p = getInfoFilePath();
     FSDataOutputStream out = fs.create(p);
     try {
       out.writeByte(INFO_SEQ_NUM);
       out.writeLong(infonum);
+      if (b != null && !b.isEmpty()) {
+        out.writeByte(INFO_BOUNDS);
+        b.write(out);
+      }
     } finally {
       out.close();
     }
+    this.bounds = (b != null && !b.isEmpty())? b: null;
   }
   
   /**
@@ -476,13 +553,26 @@ public class HStoreFile implements HConstants {
     private long fileid;
     private Range region;
     private HStoreKey midkey;
+    // Not part of the Writable; saved after it in the info file.
+    private long sequenceId = -1;
     
     Reference(final String ern, final long fid, final HStoreKey m,
         final Range fr) {
+      this(ern, fid, m, fr, -1);
+    }
+
+    /*
+     * @param sequenceId Sequence id to use in place of that of the referenced
+     * file or -1.  Merged regions need this where both parents have a store
+     * file of the same id.
+     */
+    Reference(final String ern, final long fid, final HStoreKey m,
+        final Range fr, final long sequenceId) {
       this.encodedRegionName = ern;
       this.fileid = fid;
       this.region = fr;
       this.midkey = m;
+      this.sequenceId = sequenceId;
     }
     
     Reference() {
@@ -504,6 +594,14 @@ public class HStoreFile implements HConstants {
     String getEncodedRegionName() {
       return encodedRegionName;
     }
+
+    long getSequenceId() {
+      return sequenceId;
+    }
+
+    void setSequenceId(final long sequenceId) {
+      this.sequenceId = sequenceId;
+    }
    
     /** {@inheritDoc} */
     @Override
@@ -534,6 +632,136 @@ public class HStoreFile implements HConstants {
     }
   }
 
+  /**
+   * First and last keys plus oldest and newest timestamps of the cells in a
+   * store file.  Accumulated as cells are appended at flush and compaction
+   * time and saved to the info file.  Reads use them to skip store files that
+   * cannot hold the row or timestamp asked for.
+   */
+  static class Bounds implements Writable {
+    private HStoreKey firstKey = null;
+    private final HStoreKey lastKey = new HStoreKey();
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+
+    /**
+     * Add a key to the bounds.  Keys must be added in sort order, as they
+     * are appended to a store file.
+     * @param k
+     */
+    void add(final HStoreKey k) {
+      if (this.firstKey == null) {
+        this.firstKey = new HStoreKey(k);
+      }
+      // Passed key may be reused by caller so copy rather than keep a
+      // reference (HStoreKey#set does not copy).
+      this.lastKey.setRow(k.getRow());
+      this.lastKey.setColumn(k.getColumn());
+      this.lastKey.setVersion(k.getTimestamp());
+      long ts = k.getTimestamp();
+      if (ts < this.minTimestamp) {
+        this.minTimestamp = ts;
+      }
+      if (ts > this.maxTimestamp) {
+        this.maxTimestamp = ts;
+      }
+    }
+
+    /** @return True if no keys have been added. */
+    boolean isEmpty() {
+      return this.firstKey == null;
+    }
+
+    /** @return First key in the store file. */
+    HStoreKey getFirstKey() {
+      return this.firstKey;
+    }
+
+    /** @return Last key in the store file. */
+    HStoreKey getLastKey() {
+      return this.lastKey;
+    }
+
+    /** @return Oldest timestamp in the store file. */
+    long getMinTimestamp() {
+      return this.minTimestamp;
+    }
+
+    /** @return Newest timestamp in the store file. */
+    long getMaxTimestamp() {
+      return this.maxTimestamp;
+    }
+
+    /**
+     * @param row
+     * @param timestamp
+     * @return False if store file cannot have cells in <code>row</code>
+     * at or older than <code>timestamp</code>.
+     */
+    boolean mayContain(final Text row, final long timestamp) {
+      if (isEmpty()) {
+        return false;
+      }
+      return timestamp >= this.minTimestamp &&
+        row.compareTo(this.firstKey.getRow()) >= 0 &&
+        row.compareTo(this.lastKey.getRow()) <= 0;
+    }
+
+    /**
+     * @param row
+     * @param timestamp
+     * @return False if store file cannot have cells in rows at or after
+     * <code>row</code> that are at or older than <code>timestamp</code>.
+     */
+    boolean mayContainFrom(final Text row, final long timestamp) {
+      if (isEmpty()) {
+        return false;
+      }
+      return timestamp >= this.minTimestamp &&
+        (row == null || row.getLength() == 0 ||
+          row.compareTo(this.lastKey.getRow()) <= 0);
+    }
+
+    /**
+     * @param row
+     * @return False if store file cannot have cells in rows at or before
+     * <code>row</code>.
+     */
+    boolean mayContainUpTo(final Text row) {
+      if (isEmpty()) {
+        return false;
+      }
+      return row.compareTo(this.firstKey.getRow()) >= 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+      return "firstKey=" + this.firstKey + ", lastKey=" + this.lastKey +
+        ", minTimestamp=" + this.minTimestamp + ", maxTimestamp=" +
+        this.maxTimestamp;
+    }
+
+    // Writable
+
+    /** {@inheritDoc} */
+    public void write(DataOutput out) throws IOException {
+      this.firstKey.write(out);
+      this.lastKey.write(out);
+      out.writeLong(this.minTimestamp);
+      out.writeLong(this.maxTimestamp);
+    }
+
+    /** {@inheritDoc} */
+    public void readFields(DataInput in) throws IOException {
+      this.firstKey = new HStoreKey();
+      this.firstKey.readFields(in);
+      this.lastKey.readFields(in);
+      this.minTimestamp = in.readLong();
+      this.maxTimestamp = in.readLong();
+    }
+  }
+
   /**
    * Hbase customizations of MapFile.
    */
@@ -21,6 +21,7 @@ package org.apache.hadoop.hbase;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -28,17 +29,24 @@ import java.util.Random;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.hbase.filter.RowFilterInterface;
 import org.apache.hadoop.hbase.filter.StopRowFilter;
 import org.apache.hadoop.hbase.filter.WhileMatchRowFilter;
+import org.apache.hadoop.hbase.io.AggregateResult;
+import org.apache.hadoop.hbase.io.BatchOperation;
 import org.apache.hadoop.hbase.io.BatchUpdate;
-import org.apache.hadoop.hbase.io.HbaseMapWritable;
-import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.io.RowResult;
 import org.apache.hadoop.hbase.util.Writables;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
@@ -54,6 +62,9 @@ public class HTable implements HConstants {
   protected final Text tableName;
   protected final long pause;
   protected final int numRetries;
+  protected final int scannerPrefetch;
+  protected final int aggregateParallelism;
+  protected final int commitParallelism;
   protected Random rand;
   protected AtomicReference<BatchUpdate> batch;
 
@@ -86,6 +97,12 @@ public class HTable implements HConstants {
     this.tableName = tableName;
     this.pause = conf.getLong("hbase.client.pause", 10 * 1000);
     this.numRetries = conf.getInt("hbase.client.retries.number", 5);
+    this.scannerPrefetch =
+      conf.getInt("hbase.client.scanner.prefetch.rows", 100);
+    this.aggregateParallelism =
+      conf.getInt("hbase.client.aggregate.parallelism", 10);
+    this.commitParallelism =
+      conf.getInt("hbase.client.commit.parallelism", 10);
     this.rand = new Random();
     this.batch = new AtomicReference<BatchUpdate>();
     this.connection.locateRegion(tableName, EMPTY_START_ROW);
@@ -97,8 +114,9 @@ public class HTable implements HConstants {
    * Find region location hosting passed row using cached info
    * @param row Row to find.
    * @return Location of row.
+   * @throws IOException
    */
-  HRegionLocation getRegionLocation(Text row) throws IOException {
+  public HRegionLocation getRegionLocation(Text row) throws IOException {
     checkClosed();
     return this.connection.locateRegion(this.tableName, row);
   }
@@ -221,31 +239,28 @@ public class HTable implements HConstants {
         
         // iterate through the scanner, accumulating unique table names
         SCANNER_LOOP: while (true) {
-          HbaseMapWritable values = server.next(scannerId);
-          if (values == null || values.size() == 0) {
+          RowResult values = server.nextRow(scannerId);
+          if (values == null || values.isEmpty()) {
             break;
           }
-          for (Map.Entry<Writable, Writable> e: values.entrySet()) {
-            HStoreKey key = (HStoreKey) e.getKey();
-            if (key.getColumn().equals(COL_REGIONINFO)) {
-              HRegionInfo info = new HRegionInfo();
-              info = (HRegionInfo) Writables.getWritable(
-                  ((ImmutableBytesWritable) e.getValue()).get(), info);
-
-              if (!info.getTableDesc().getName().equals(this.tableName)) {
-                break SCANNER_LOOP;
-              }
-
-              if (info.isOffline()) {
-                continue SCANNER_LOOP;
-              }
-
-              if (info.isSplit()) {
-                continue SCANNER_LOOP;
-              }
-
-              keyList.add(info.getStartKey());
+          byte [] bytes = values.get(COL_REGIONINFO);
+          if (bytes != null) {
+            HRegionInfo info = new HRegionInfo();
+            info = (HRegionInfo) Writables.getWritable(bytes, info);
+
+            if (!info.getTableDesc().getName().equals(this.tableName)) {
+              break SCANNER_LOOP;
+            }
+
+            if (info.isOffline()) {
+              continue SCANNER_LOOP;
+            }
+
+            if (info.isSplit()) {
+              continue SCANNER_LOOP;
             }
+
+            keyList.add(info.getStartKey());
           }
         }
         
@@ -373,23 +388,16 @@ public class HTable implements HConstants {
   public SortedMap<Text, byte[]> getRow(final Text row, final long ts) 
   throws IOException {
     checkClosed();
-    HbaseMapWritable value = null;
+    RowResult value = null;
          
-    value = getRegionServerWithRetries(new ServerCallable<HbaseMapWritable>(row) {
-      public HbaseMapWritable call() throws IOException {
-        return server.getRow(location.getRegionInfo().getRegionName(), row, ts);
+    value = getRegionServerWithRetries(new ServerCallable<RowResult>(row) {
+      public RowResult call() throws IOException {
+        return server.getRowResult(location.getRegionInfo().getRegionName(),
+          row, ts);
       }
     });
     
-    SortedMap<Text, byte[]> results = new TreeMap<Text, byte[]>();
-    if (value != null && value.size() != 0) {
-      for (Map.Entry<Writable, Writable> e: value.entrySet()) {
-        HStoreKey key = (HStoreKey) e.getKey();
-        results.put(key.getColumn(),
-            ((ImmutableBytesWritable) e.getValue()).get());
-      }
-    }
-    return results;
+    return value == null ? new TreeMap<Text, byte[]>() : value.getCells();
   }
 
 
@@ -522,6 +530,205 @@ public class HTable implements HConstants {
     return new ClientScanner(columns, startRow, timestamp, filter);
   }
 
+  /** 
+   * Get a scanner on the current table starting at the specified row that
+   * scans up to <code>parallelism</code> regions at a time.
+   *
+   * @param columns columns to scan. If column name is a column family, all
+   * columns of the specified column family are returned.  Its also possible
+   * to pass a regex in the column qualifier.
+   * @param startRow starting row in table to scan
+   * @param parallelism maximum count of regions to scan at the same time
+   * @param ordered true if rows are to be returned in key order.  If false,
+   * rows are returned in the order the region servers produce them.
+   * @return scanner
+   * @throws IOException
+   * @see #obtainParallelScanner(Text[], Text, long, RowFilterInterface, int,
+   * boolean)
+   */
+  public HScannerInterface obtainParallelScanner(final Text[] columns,
+      final Text startRow, final int parallelism, final boolean ordered)
+  throws IOException {
+    return obtainParallelScanner(columns, startRow,
+      HConstants.LATEST_TIMESTAMP, null, parallelism, ordered);
+  }
+
+  /** 
+   * Get a scanner on the current table starting at the specified row that
+   * scans up to <code>parallelism</code> regions at a time.  Each region being
+   * scanned prefetches up to <code>hbase.client.scanner.prefetch.rows</code>
+   * rows.  Ordered scanners return rows in key order, as
+   * {@link #obtainScanner(Text[], Text, long, RowFilterInterface)} does.
+   * Unordered scanners return rows as soon as any region produces them and
+   * so keep all <code>parallelism</code> region servers busy.
+   *
+   * <p>The filter is run against each region separately.  Filters that limit
+   * the count of rows returned apply per region.
+   *
+   * @param columns columns to scan. If column name is a column family, all
+   * columns of the specified column family are returned.  Its also possible
+   * to pass a regex in the column qualifier.
+   * @param startRow starting row in table to scan
+   * @param timestamp only return results whose timestamp <= this value
+   * @param filter a row filter using row-key regexp and/or column data filter.
+   * @param parallelism maximum count of regions to scan at the same time
+   * @param ordered true if rows are to be returned in key order
+   * @return scanner
+   * @throws IOException
+   */
+  public HScannerInterface obtainParallelScanner(final Text[] columns,
+      final Text startRow, final long timestamp,
+      final RowFilterInterface filter, final int parallelism,
+      final boolean ordered)
+  throws IOException {
+    checkClosed();
+    return new ParallelScanner(this, columns, startRow, timestamp, filter,
+      parallelism, this.scannerPrefetch, ordered);
+  }
+
+  /**
+   * Count the rows of the table that have any of the passed columns and sum,
+   * min and max their numeric cell values.
+   *
+   * @param columns columns to aggregate
+   * @return totals over the table
+   * @throws IOException
+   * @see #aggregate(Text[], Text, Text, long, RowFilterInterface)
+   */
+  public AggregateResult aggregate(final Text [] columns)
+  throws IOException {
+    return aggregate(columns, EMPTY_START_ROW, EMPTY_TEXT, LATEST_TIMESTAMP,
+      null);
+  }
+
+  /**
+   * Count the rows from <code>startRow</code> up to <code>stopRow</code> that
+   * have any of the passed columns and sum, min and max their numeric cell
+   * values.  Each region in range works out its own totals and hands back
+   * only those; up to <code>hbase.client.aggregate.parallelism</code> regions
+   * are asked at a time.  No rows cross the wire.
+   *
+   * <p>The filter is run against each region separately.  Filters that limit
+   * the count of rows let through apply per region.
+   *
+   * @param columns columns to aggregate.  If column name is a column family,
+   * all columns of the family are aggregated.
+   * @param startRow row to start at
+   * @param stopRow row to stop before.  If empty, go to the end of the table.
+   * @param timestamp only look at values whose timestamp is <= this value
+   * @param filter row filter.  Can be null.
+   * @return totals over the range
+   * @throws IOException
+   * @see AggregateResult
+   */
+  public AggregateResult aggregate(final Text [] columns, final Text startRow,
+      final Text stopRow, final long timestamp,
+      final RowFilterInterface filter)
+  throws IOException {
+    checkClosed();
+    if (filter != null) {
+      filter.validate(columns);
+    }
+    // Work out the region ranges before fanning out.
+    List<Text []> ranges = new ArrayList<Text []>();
+    Text stop = stopRow == null? EMPTY_TEXT: stopRow;
+    Text key = startRow == null? EMPTY_START_ROW: startRow;
+    while (true) {
+      Text endKey = getRegionLocation(key).getRegionInfo().getEndKey();
+      if (endKey == null || endKey.getLength() == 0 ||
+          isPastStop(endKey, stop)) {
+        ranges.add(new Text [] {key, stop});
+        break;
+      }
+      ranges.add(new Text [] {key, endKey});
+      key = endKey;
+    }
+    final String name = "HTable.aggregate-" + this.tableName;
+    final AtomicInteger threadCount = new AtomicInteger(0);
+    ExecutorService pool = Executors.newFixedThreadPool(
+      Math.min(this.aggregateParallelism, ranges.size()), new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(r, name + "-" + threadCount.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        }
+      });
+    try {
+      List<Future<AggregateResult>> partials =
+        new ArrayList<Future<AggregateResult>>();
+      for (final Text [] range: ranges) {
+        partials.add(pool.submit(new Callable<AggregateResult>() {
+          public AggregateResult call() throws IOException {
+            return aggregateRange(columns, range[0], range[1], timestamp,
+              filter);
+          }
+        }));
+      }
+      AggregateResult result = new AggregateResult();
+      for (Future<AggregateResult> f: partials) {
+        try {
+          result.merge(f.get());
+        } catch (InterruptedException e) {
+          throw new IOException("Interrupted aggregating " + this.tableName);
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof IOException) {
+            throw (IOException)e.getCause();
+          }
+          throw new RuntimeException(e.getCause());
+        }
+      }
+      return result;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /*
+   * Aggregate the rows from <code>startRow</code> up to <code>stopRow</code>.
+   * Usually the range is that of a single region, but if regions have split
+   * or merged since we looked them up, we ask every region now covering it.
+   * @return totals over the range
+   * @throws IOException
+   */
+  private AggregateResult aggregateRange(final Text [] columns,
+      final Text startRow, final Text stopRow, final long timestamp,
+      final RowFilterInterface filter)
+  throws IOException {
+    AggregateResult result = new AggregateResult();
+    Text key = startRow;
+    while (true) {
+      final Text row = key;
+      final HRegionInfo[] region = new HRegionInfo[1];
+      result.merge(getRegionServerWithRetries(
+          new ServerCallable<AggregateResult>(row) {
+        public AggregateResult call() throws IOException {
+          region[0] = location.getRegionInfo();
+          Text endKey = region[0].getEndKey();
+          return server.aggregate(region[0].getRegionName(), columns, row,
+            endKey.getLength() == 0 || isPastStop(endKey, stopRow)?
+              stopRow: endKey,
+            timestamp, filter);
+        }
+      }));
+      Text endKey = region[0].getEndKey();
+      if (endKey.getLength() == 0 || isPastStop(endKey, stopRow)) {
+        return result;
+      }
+      key = endKey;
+    }
+  }
+
+  /*
+   * @param row
+   * @param stopRow
+   * @return True if <code>stopRow</code> is set and <code>row</code> is at or
+   * past it.
+   */
+  private static boolean isPastStop(final Text row, final Text stopRow) {
+    return stopRow != null && stopRow.getLength() > 0 &&
+      row.compareTo(stopRow) >= 0;
+  }
+
   /** 
    * Start an atomic row insertion/update.  No changes are committed until the 
    * call to commit() returns. A call to abort() will abandon any updates in
@@ -773,7 +980,246 @@ public class HTable implements HConstants {
       batch.set(null);
     }
   }
+
+  /**
+   * Commit a batch of updates to a single row.  Unlike the
+   * {@link #startUpdate(Text)}, {@link #commit(long)} sequence, this does not
+   * go through the one update this table can have in progress, so many
+   * threads can commit through the same HTable at once.
+   *
+   * @param b updates to apply
+   * @param timestamp time to associate with the change
+   * @throws IOException
+   */
+  public void commit(final BatchUpdate b, final long timestamp)
+  throws IOException {
+    checkClosed();
+    getRegionServerWithRetries(new ServerCallable<Boolean>(b.getRow()) {
+      public Boolean call() throws IOException {
+        server.batchUpdate(location.getRegionInfo().getRegionName(),
+          timestamp, b);
+        return null;
+      }
+    });
+  }
   
+  /**
+   * Commit updates to many rows.  Updates are grouped by the region holding
+   * their row and the updates of a region are sent in one call.  The regions
+   * of a server are sent one after another; servers are sent to in parallel.
+   * Updates whose region moved or split are located again and resent.
+   *
+   * @param updates one update per row, each made with its own
+   * {@link BatchUpdate}.  Updates to a region are applied in list order.
+   * @param writeToLog false to skip the write-ahead log on the region
+   * servers.  Faster, but updates are lost if a server crashes before they
+   * are flushed.
+   * @throws IOException
+   */
+  public void commit(final List<BatchUpdate> updates,
+      final boolean writeToLog)
+  throws IOException {
+    commit(updates, LATEST_TIMESTAMP, writeToLog);
+  }
+
+  /**
+   * Commit updates to many rows.
+   *
+   * <p>If <code>timestamp</code> is {@link HConstants#LATEST_TIMESTAMP}, the
+   * time of the commit is taken once, here, and used for every attempt, so
+   * an update resent after a partial apply writes the same versions again
+   * rather than new ones.  Updates holding deletes are the exception: they
+   * are sent with {@link HConstants#LATEST_TIMESTAMP}, which deletes the
+   * newest version of the cell.
+   *
+   * @param updates one update per row
+   * @param timestamp time to associate with the changes
+   * @param writeToLog false to skip the write-ahead log on the region
+   * servers
+   * @throws IOException
+   * @see #commit(List, boolean)
+   */
+  public void commit(final List<BatchUpdate> updates, final long timestamp,
+      final boolean writeToLog)
+  throws IOException {
+    checkClosed();
+    long commitTime = timestamp == LATEST_TIMESTAMP?
+      System.currentTimeMillis(): timestamp;
+    List<BatchUpdate> todo = updates;
+    for (int tries = 0; !todo.isEmpty(); tries++) {
+      if (tries > 0) {
+        try {
+          Thread.sleep(this.pause);
+        } catch (InterruptedException e) {
+          // continue
+        }
+      }
+      // Locate each region once per attempt; rows are usually sorted.
+      Map<HServerAddress, List<RegionBatch>> serverBatches =
+        new HashMap<HServerAddress, List<RegionBatch>>();
+      Map<Text, RegionBatch> lastBatches = new TreeMap<Text, RegionBatch>();
+      HRegionLocation location = null;
+      for (BatchUpdate b: todo) {
+        if (location == null ||
+            !HRegion.rowIsInRange(location.getRegionInfo(), b.getRow())) {
+          location = getRegionLocation(b.getRow(), tries > 0);
+        }
+        long ts = timestamp == LATEST_TIMESTAMP && hasDeletes(b)?
+          LATEST_TIMESTAMP: commitTime;
+        Text regionName = location.getRegionInfo().getRegionName();
+        RegionBatch rb = lastBatches.get(regionName);
+        if (rb == null || rb.timestamp != ts) {
+          // Keep list order within the region: a change of timestamp starts
+          // another call after this one.
+          rb = new RegionBatch(regionName, ts);
+          lastBatches.put(regionName, rb);
+          List<RegionBatch> l = serverBatches.get(location.getServerAddress());
+          if (l == null) {
+            l = new ArrayList<RegionBatch>();
+            serverBatches.put(location.getServerAddress(), l);
+          }
+          l.add(rb);
+        }
+        rb.updates.add(b);
+      }
+      List<BatchUpdate> failed =
+        commitToServers(serverBatches, writeToLog, tries == this.numRetries - 1);
+      if (!failed.isEmpty() && tries == this.numRetries - 1) {
+        throw new IOException("Failed to commit " + failed.size() +
+          " updates after " + this.numRetries + " attempts");
+      }
+      todo = failed;
+    }
+  }
+
+  /*
+   * Updates to one region sent in one call with the same timestamp.
+   */
+  private static class RegionBatch {
+    final Text regionName;
+    final long timestamp;
+    final List<BatchUpdate> updates = new ArrayList<BatchUpdate>();
+
+    RegionBatch(final Text regionName, final long timestamp) {
+      this.regionName = regionName;
+      this.timestamp = timestamp;
+    }
+  }
+
+  /*
+   * @param b
+   * @return True if <code>b</code> deletes a cell.
+   */
+  private static boolean hasDeletes(final BatchUpdate b) {
+    for (BatchOperation op: b) {
+      if (!op.isPut()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /*
+   * Send the region batches of each server, the servers in parallel.
+   * @param serverBatches
+   * @param writeToLog
+   * @param lastTry If true, a failed call is thrown rather than retried.
+   * @return Updates not applied, to be located again and resent.
+   * @throws IOException
+   */
+  private List<BatchUpdate> commitToServers(
+      final Map<HServerAddress, List<RegionBatch>> serverBatches,
+      final boolean writeToLog, final boolean lastTry)
+  throws IOException {
+    if (serverBatches.size() == 1) {
+      Map.Entry<HServerAddress, List<RegionBatch>> e =
+        serverBatches.entrySet().iterator().next();
+      return commitToServer(e.getKey(), e.getValue(), writeToLog, lastTry);
+    }
+    final String name = "HTable.commit-" + this.tableName;
+    final AtomicInteger threadCount = new AtomicInteger(0);
+    ExecutorService pool = Executors.newFixedThreadPool(
+      Math.min(this.commitParallelism, serverBatches.size()),
+      new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(r, name + "-" + threadCount.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        }
+      });
+    try {
+      List<Future<List<BatchUpdate>>> results =
+        new ArrayList<Future<List<BatchUpdate>>>();
+      for (final Map.Entry<HServerAddress, List<RegionBatch>> e:
+          serverBatches.entrySet()) {
+        results.add(pool.submit(new Callable<List<BatchUpdate>>() {
+          public List<BatchUpdate> call() throws IOException {
+            return commitToServer(e.getKey(), e.getValue(), writeToLog,
+              lastTry);
+          }
+        }));
+      }
+      List<BatchUpdate> failed = new ArrayList<BatchUpdate>();
+      IOException error = null;
+      for (Future<List<BatchUpdate>> f: results) {
+        try {
+          failed.addAll(f.get());
+        } catch (InterruptedException e) {
+          throw new IOException("Interrupted committing to " + this.tableName);
+        } catch (ExecutionException e) {
+          if (!(e.getCause() instanceof IOException)) {
+            throw new RuntimeException(e.getCause());
+          }
+          // Wait for the other servers before giving up.
+          if (error == null) {
+            error = (IOException)e.getCause();
+          }
+        }
+      }
+      if (error != null) {
+        throw error;
+      }
+      return failed;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /*
+   * Send the region batches of one server, one after another.
+   * @return Updates not applied, to be located again and resent.
+   * @throws IOException
+   */
+  private List<BatchUpdate> commitToServer(final HServerAddress address,
+      final List<RegionBatch> batches, final boolean writeToLog,
+      final boolean lastTry)
+  throws IOException {
+    List<BatchUpdate> failed = new ArrayList<BatchUpdate>();
+    for (RegionBatch rb: batches) {
+      BatchUpdate [] batch =
+        rb.updates.toArray(new BatchUpdate[rb.updates.size()]);
+      int applied = 0;
+      try {
+        HRegionInterface server =
+          this.connection.getHRegionConnection(address);
+        applied = server.batchUpdates(rb.regionName, rb.timestamp, batch,
+          writeToLog);
+      } catch (IOException ex) {
+        ex = RemoteExceptionHandler.checkIOException(ex);
+        if (lastTry) {
+          throw ex;
+        }
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("reloading table servers because: " + ex.getMessage());
+        }
+      }
+      for (int i = applied; i < batch.length; i++) {
+        failed.add(batch[i]);
+      }
+    }
+    return failed;
+  }
+
   /**
    * Implements the scanner interface for the HBase client.
    * If there are multiple regions in a table, this scanner will iterate
@@ -918,25 +1364,22 @@ public class HTable implements HConstants {
       if (this.closed) {
         return false;
       }
-      HbaseMapWritable values = null;
+      RowResult values = null;
       // Clear the results so we don't inherit any values from any previous
       // calls to next.
       results.clear();
       do {
-        values = server.next(scannerId);
-      } while ((values == null || values.size() == 0) && nextScanner());
-
-      if (values != null && values.size() != 0) {
-        for (Map.Entry<Writable, Writable> e: values.entrySet()) {
-          HStoreKey k = (HStoreKey) e.getKey();
-          key.setRow(k.getRow());
-          key.setVersion(k.getTimestamp());
-          key.setColumn(EMPTY_COLUMN);
-          results.put(k.getColumn(),
-              ((ImmutableBytesWritable) e.getValue()).get());
-        }
+        values = server.nextRow(scannerId);
+      } while ((values == null || values.isEmpty()) && nextScanner());
+
+      if (values == null || values.isEmpty()) {
+        return false;
       }
-      return values == null ? false : values.size() != 0;
+      key.setRow(values.getRow());
+      key.setVersion(values.getTimestamp());
+      key.setColumn(EMPTY_COLUMN);
+      results.putAll(values.getCells());
+      return true;
     }
 
     /**
@@ -148,6 +148,20 @@ public class HTableDescriptor implements WritableComparable {
     return families.containsKey(family);
   }
 
+  /**
+   * @return True if any family of the table is indexed, in which case the
+   * table has an index table.
+   * @see TableIndex
+   */
+  public boolean isIndexed() {
+    for (HColumnDescriptor family: this.families.values()) {
+      if (family.isIndexed()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /** 
    * All the column families in this table.
    * 
@@ -19,11 +19,16 @@
  */
 package org.apache.hadoop.hbase;
 
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import java.io.*;
-import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Leases
@@ -38,16 +43,26 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * <p>The Leases class is a general reusable class for this kind of pattern.
  * An instance of the Leases class will create a thread to do its dirty work.  
  * You should close() the instance if you want to clean up the thread properly.
+ *
+ * <p>Leases are held in a concurrent map.  Renewing a lease only sets its
+ * last update time so renewals, made on every scanner next, take no locks.
+ * The lease monitor keeps a {@link DelayQueue} of the times at which leases
+ * may expire.  When one comes due the monitor checks the lease's actual last
+ * update; if the lease was renewed meantime, it is requeued for its new
+ * expiry time rather than expired.
  */
 public class Leases {
   protected static final Log LOG = LogFactory.getLog(Leases.class.getName());
 
+  /* Lease lastUpdate value once a lease is expired or cancelled. */
+  private static final long DEAD = -1;
+
   protected final int leasePeriod;
   protected final int leaseCheckFrequency;
   private final Thread leaseMonitorThread;
-  protected final Map<LeaseName, Lease> leases =
-    new HashMap<LeaseName, Lease>();
-  protected final TreeSet<Lease> sortedLeases = new TreeSet<Lease>();
+  protected final ConcurrentHashMap<LeaseName, Lease> leases =
+    new ConcurrentHashMap<LeaseName, Lease>();
+  private final DelayQueue<Expiry> expiries = new DelayQueue<Expiry>();
   protected AtomicBoolean stop = new AtomicBoolean(false);
 
   /**
@@ -116,12 +131,8 @@ public class Leases {
         // Ignore
       }
     }
-    synchronized(leases) {
-      synchronized(sortedLeases) {
-        leases.clear();
-        sortedLeases.clear();
-      }
-    }
+    leases.clear();
+    expiries.clear();
     LOG.info(Thread.currentThread().getName() + " closed leases");
   }
 
@@ -138,18 +149,12 @@ public class Leases {
   public void createLease(final long holderId, final long resourceId,
       final LeaseListener listener)
   throws LeaseStillHeldException {
-    LeaseName name = null;
-    synchronized(leases) {
-      synchronized(sortedLeases) {
-        Lease lease = new Lease(holderId, resourceId, listener);
-        name = lease.getLeaseName();
-        if(leases.get(name) != null) {
-          throw new LeaseStillHeldException(name.toString());
-        }
-        leases.put(name, lease);
-        sortedLeases.add(lease);
-      }
+    Lease lease = new Lease(holderId, resourceId, listener);
+    LeaseName name = lease.getLeaseName();
+    if (leases.putIfAbsent(name, lease) != null) {
+      throw new LeaseStillHeldException(name.toString());
     }
+    expiries.add(new Expiry(lease, lease.lastUpdate.get() + leasePeriod));
 //    if (LOG.isDebugEnabled()) {
 //      LOG.debug("Created lease " + name);
 //    }
@@ -165,21 +170,13 @@ public class Leases {
    */
   public void renewLease(final long holderId, final long resourceId)
   throws IOException {
-    LeaseName name = null;
-    synchronized(leases) {
-      synchronized(sortedLeases) {
-        name = createLeaseName(holderId, resourceId);
-        Lease lease = leases.get(name);
-        if (lease == null) {
-          // It's possible that someone tries to renew the lease, but 
-          // it just expired a moment ago.  So fail.
-          throw new IOException("Cannot renew lease that is not held: " +
-            name);
-        }
-        sortedLeases.remove(lease);
-        lease.renew();
-        sortedLeases.add(lease);
-      }
+    LeaseName name = createLeaseName(holderId, resourceId);
+    Lease lease = leases.get(name);
+    if (lease == null || !lease.renew()) {
+      // It's possible that someone tries to renew the lease, but 
+      // it just expired a moment ago.  So fail.
+      throw new IOException("Cannot renew lease that is not held: " +
+        name);
     }
 //    if (LOG.isDebugEnabled()) {
 //      LOG.debug("Renewed lease " + name);
@@ -193,19 +190,11 @@ public class Leases {
    * @param resourceId id of resource being leased
    */
   public void cancelLease(final long holderId, final long resourceId) {
-    LeaseName name = null;
-    synchronized(leases) {
-      synchronized(sortedLeases) {
-        name = createLeaseName(holderId, resourceId);
-        Lease lease = leases.get(name);
-        if (lease == null) {
-          // It's possible that someone tries to renew the lease, but 
-          // it just expired a moment ago.  So just skip it.
-          return;
-        }
-        sortedLeases.remove(lease);
-        leases.remove(name);
-      }
+    LeaseName name = createLeaseName(holderId, resourceId);
+    Lease lease = leases.remove(name);
+    if (lease != null) {
+      // Its entry in expiries is dropped when it comes due.
+      lease.lastUpdate.set(DEAD);
     }
   }
 
@@ -225,23 +214,53 @@ public class Leases {
     /** {@inheritDoc} */
     @Override
     protected void chore() {
-      synchronized(leases) {
-        synchronized(sortedLeases) {
-          Lease top;
-          while((sortedLeases.size() > 0)
-              && ((top = sortedLeases.first()) != null)) {
-            if(top.shouldExpire()) {
-              leases.remove(top.getLeaseName());
-              sortedLeases.remove(top);
-              top.expired();
-            } else {
-              break;
-            }
-          }
+      Expiry e;
+      while ((e = expiries.poll()) != null) {
+        Lease lease = e.lease;
+        long last = lease.lastUpdate.get();
+        if (last == DEAD) {
+          // Cancelled.
+          continue;
         }
+        long expiresAt = last + leasePeriod;
+        if (expiresAt >= System.currentTimeMillis() ||
+            !lease.lastUpdate.compareAndSet(last, DEAD)) {
+          // Renewed since it was queued.
+          expiries.add(new Expiry(lease, lease.lastUpdate.get() +
+            leasePeriod));
+          continue;
+        }
+        leases.remove(lease.getLeaseName(), lease);
+        lease.expired();
       }
     }
   }
+
+  /*
+   * Time at which a lease may expire.  Immutable so the queue stays ordered
+   * while the lease itself is renewed.
+   */
+  private static class Expiry implements Delayed {
+    final Lease lease;
+    private final long time;
+
+    Expiry(final Lease lease, final long time) {
+      this.lease = lease;
+      this.time = time;
+    }
+
+    /** {@inheritDoc} */
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(this.time - System.currentTimeMillis(),
+        TimeUnit.MILLISECONDS);
+    }
+
+    /** {@inheritDoc} */
+    public int compareTo(Delayed o) {
+      long other = ((Expiry)o).time;
+      return this.time < other? -1: this.time == other? 0: 1;
+    }
+  }
   
   /*
    * A Lease name.
@@ -324,12 +343,12 @@ public class Leases {
   }
 
   /** This class tracks a single Lease. */
-  @SuppressWarnings("unchecked")
-  private class Lease implements Comparable {
+  private class Lease {
     final long holderId;
     final long resourceId;
     final LeaseListener listener;
-    long lastUpdate;
+    // Time of last renewal; DEAD once expired or cancelled.
+    final AtomicLong lastUpdate = new AtomicLong();
     private LeaseName leaseId;
 
     Lease(final long holderId, final long resourceId,
@@ -347,12 +366,20 @@ public class Leases {
       return this.leaseId;
     }
     
-    boolean shouldExpire() {
-      return (System.currentTimeMillis() - lastUpdate > leasePeriod);
-    }
-    
-    void renew() {
-      this.lastUpdate = System.currentTimeMillis();
+    /*
+     * @return False if the lease already expired or was cancelled.
+     */
+    boolean renew() {
+      long now = System.currentTimeMillis();
+      while (true) {
+        long last = this.lastUpdate.get();
+        if (last == DEAD) {
+          return false;
+        }
+        if (now <= last || this.lastUpdate.compareAndSet(last, now)) {
+          return true;
+        }
+      }
     }
     
     void expired() {
@@ -360,35 +387,5 @@ public class Leases {
         getLeaseName());
       listener.leaseExpired();
     }
-    
-    /** {@inheritDoc} */
-    @Override
-    public boolean equals(Object obj) {
-      return compareTo(obj) == 0;
-    }
-    
-    /** {@inheritDoc} */
-    @Override
-    public int hashCode() {
-      int result = this.getLeaseName().hashCode();
-      result ^= this.lastUpdate;
-      return result;
-    }
-    
-    //////////////////////////////////////////////////////////////////////////////
-    // Comparable
-    //////////////////////////////////////////////////////////////////////////////
-
-    /** {@inheritDoc} */
-    public int compareTo(Object o) {
-      Lease other = (Lease) o;
-      if(this.lastUpdate < other.lastUpdate) {
-        return -1;
-      } else if(this.lastUpdate > other.lastUpdate) {
-        return 1;
-      } else {
-        return this.getLeaseName().compareTo(other.getLeaseName());
-      }
-    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,277 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hbase.HServerLoad.RegionLoad;
+import org.apache.hadoop.hbase.util.Writables;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Chore run by the master that moves regions off overloaded region servers.
+ *
+ * <p>Each region is given a weight made up of equal parts region count,
+ * requests since the last report and store file size, normalized so the
+ * average region weighs 1.  A server's load is the sum of the weights of its
+ * regions.  Regions are moved off servers whose load is more than
+ * <code>hbase.master.balancer.slop</code> above the average onto the most
+ * lightly loaded servers, at most <code>hbase.master.balancer.max.moves</code>
+ * per round.  A region is moved by closing it and then only offering it to
+ * the chosen server on reassignment.
+ *
+ * <p>A round is skipped while the cluster is in flux: regions unassigned or
+ * pending, meta regions not all online, or moves from the previous round not
+ * yet done.  Catalog regions are never moved.
+ */
+class LoadBalancer extends Chore {
+  static final Log LOG = LogFactory.getLog(LoadBalancer.class.getName());
+
+  private final HMaster master;
+  private final float slop;
+  private final int maxMoves;
+
+  /**
+   * @param master
+   * @param period how often to run
+   */
+  LoadBalancer(final HMaster master, final int period) {
+    super(period, master.closed);
+    this.master = master;
+    this.slop = master.conf.getFloat("hbase.master.balancer.slop", 0.2f);
+    this.maxMoves = master.conf.getInt("hbase.master.balancer.max.moves", 10);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected void chore() {
+    if (!isStable()) {
+      return;
+    }
+    Map<String, HServerLoad> loads =
+      new HashMap<String, HServerLoad>(this.master.serversToLoad);
+    if (loads.size() < 2) {
+      return;
+    }
+    for (Move m: plan(loads, this.slop, this.maxMoves)) {
+      try {
+        HRegionInfo info = getRegionInfo(m.regionName);
+        if (info == null || info.isOffline()) {
+          continue;
+        }
+        LOG.info("Moving " + m.regionName + " from " + m.from + " to " + m.to);
+        this.master.moveRegion(m.from, info, m.to);
+      } catch (IOException e) {
+        LOG.warn("Failed lookup of " + m.regionName + "; not moving it",
+          RemoteExceptionHandler.checkIOException(e));
+      }
+    }
+  }
+
+  /*
+   * @return True if nothing is being assigned, opened, closed or moved.
+   */
+  private boolean isStable() {
+    this.master.clearDeadMoves();
+    return !this.master.closed.get() &&
+      this.master.rootRegionLocation.get() != null &&
+      this.master.numberOfMetaRegions.get() ==
+        this.master.onlineMetaRegions.size() &&
+      this.master.unassignedRegions.isEmpty() &&
+      this.master.pendingRegions.isEmpty() &&
+      this.master.killList.isEmpty() &&
+      this.master.killedRegions.isEmpty() &&
+      this.master.regionsToMove.isEmpty() &&
+      this.master.moveTargets.isEmpty();
+  }
+
+  /*
+   * Get a region's info from its meta region.
+   * @param regionName
+   * @return HRegionInfo or null if not found
+   * @throws IOException
+   */
+  private HRegionInfo getRegionInfo(final Text regionName) throws IOException {
+    HMaster.MetaRegion m = null;
+    synchronized (this.master.onlineMetaRegions) {
+      if (this.master.onlineMetaRegions.isEmpty()) {
+        return null;
+      }
+      m = this.master.onlineMetaRegions.size() == 1 ?
+        this.master.onlineMetaRegions.get(
+          this.master.onlineMetaRegions.firstKey()) :
+        this.master.onlineMetaRegions.containsKey(regionName) ?
+          this.master.onlineMetaRegions.get(regionName) :
+          this.master.onlineMetaRegions.get(
+            this.master.onlineMetaRegions.headMap(regionName).lastKey());
+    }
+    HRegionInterface server =
+      this.master.connection.getHRegionConnection(m.getServer());
+    return Writables.getHRegionInfoOrNull(server.get(m.getRegionName(),
+      regionName, HConstants.COL_REGIONINFO));
+  }
+
+  /** A region to move and where */
+  static class Move {
+    final Text regionName;
+    final String from;
+    final String to;
+
+    Move(final Text regionName, final String from, final String to) {
+      this.regionName = regionName;
+      this.from = from;
+      this.to = to;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+      return regionName + ": " + from + " -> " + to;
+    }
+  }
+
+  /**
+   * Work out which regions to move.
+   * @param loads load reported by each server
+   * @param slop fraction above the average load a server may carry before
+   * regions are moved off it
+   * @param maxMoves most regions to move
+   * @return Regions to move
+   */
+  static List<Move> plan(final Map<String, HServerLoad> loads,
+      final float slop, final int maxMoves) {
+    List<Move> moves = new ArrayList<Move>();
+    int regions = 0;
+    long requests = 0;
+    long size = 0;
+    for (HServerLoad load: loads.values()) {
+      for (RegionLoad rl: load.getRegionLoad()) {
+        regions++;
+        requests += rl.getRequests();
+        size += rl.getStorefileSizeMB();
+      }
+    }
+    if (regions == 0 || loads.size() < 2) {
+      return moves;
+    }
+
+    // Weigh regions and servers.
+    final Map<RegionLoad, Double> weights = new HashMap<RegionLoad, Double>();
+    final Map<String, Double> serverWeights = new HashMap<String, Double>();
+    double total = 0;
+    for (Map.Entry<String, HServerLoad> e: loads.entrySet()) {
+      double serverWeight = 0;
+      for (RegionLoad rl: e.getValue().getRegionLoad()) {
+        double w = (1.0 +
+          share(rl.getRequests(), requests, regions) +
+          share(rl.getStorefileSizeMB(), size, regions)) / 3.0;
+        weights.put(rl, Double.valueOf(w));
+        serverWeight += w;
+      }
+      serverWeights.put(e.getKey(), Double.valueOf(serverWeight));
+      total += serverWeight;
+    }
+    double average = total / loads.size();
+    double ceiling = average * (1.0 + slop);
+
+    // Heaviest servers first.
+    List<String> servers = new ArrayList<String>(loads.keySet());
+    Collections.sort(servers, new Comparator<String>() {
+      public int compare(String a, String b) {
+        return serverWeights.get(b).compareTo(serverWeights.get(a));
+      }
+    });
+    for (String heavy: servers) {
+      if (moves.size() >= maxMoves) {
+        break;
+      }
+      double heavyWeight = serverWeights.get(heavy).doubleValue();
+      if (heavyWeight <= ceiling) {
+        break;
+      }
+      // Try the heaviest regions first so fewer moves are needed.
+      List<RegionLoad> candidates = new ArrayList<RegionLoad>();
+      for (RegionLoad rl: loads.get(heavy).getRegionLoad()) {
+        if (!isCatalogRegion(rl.getName())) {
+          candidates.add(rl);
+        }
+      }
+      Collections.sort(candidates, new Comparator<RegionLoad>() {
+        public int compare(RegionLoad a, RegionLoad b) {
+          return weights.get(b).compareTo(weights.get(a));
+        }
+      });
+      for (RegionLoad rl: candidates) {
+        if (moves.size() >= maxMoves || heavyWeight <= ceiling) {
+          break;
+        }
+        double w = weights.get(rl).doubleValue();
+        String light = lightest(serverWeights);
+        double lightWeight = serverWeights.get(light).doubleValue();
+        if (light.equals(heavy) || lightWeight + w > ceiling ||
+            lightWeight + w >= heavyWeight) {
+          // Moving this region would overload the light server or just swap
+          // which is heavier; try a lighter region.
+          continue;
+        }
+        moves.add(new Move(rl.getName(), heavy, light));
+        heavyWeight -= w;
+        serverWeights.put(heavy, Double.valueOf(heavyWeight));
+        serverWeights.put(light, Double.valueOf(lightWeight + w));
+      }
+    }
+    return moves;
+  }
+
+  /*
+   * @return value / total scaled so the average of count values is 1, or 1
+   * if total is zero.
+   */
+  private static double share(final long value, final long total,
+      final int count) {
+    return total == 0 ? 1.0 : (double)value * count / total;
+  }
+
+  private static String lightest(final Map<String, Double> serverWeights) {
+    String result = null;
+    double min = Double.MAX_VALUE;
+    for (Map.Entry<String, Double> e: serverWeights.entrySet()) {
+      if (e.getValue().doubleValue() < min) {
+        min = e.getValue().doubleValue();
+        result = e.getKey();
+      }
+    }
+    return result;
+  }
+
+  private static boolean isCatalogRegion(final Text regionName) {
+    String name = regionName.toString();
+    return name.startsWith(HConstants.ROOT_TABLE_NAME.toString() + ",") ||
+      name.startsWith(HConstants.META_TABLE_NAME.toString() + ",");
+  }
+}
@@ -0,0 +1,445 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hbase.filter.RowFilterInterface;
+import org.apache.hadoop.hbase.io.RowResult;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.ipc.RemoteException;
+
+/**
+ * Client scanner that scans up to <code>parallelism</code> regions of a table
+ * at a time.  Each region is scanned by a pool thread that prefetches rows
+ * into a bounded queue.  In ordered mode, rows are handed back in key order:
+ * regions are drained one after the other while later regions prefetch.  In
+ * unordered mode, rows are handed back as soon as any region scanner produces
+ * them; use this mode when the order of rows does not matter, e.g. when
+ * aggregating.
+ *
+ * <p>The set of regions to scan is fixed when the scanner is made.  If a
+ * region splits or moves while we are scanning, its pool thread finds the
+ * regions now covering its key range.  A region scan blocked on a full
+ * queue for longer than <code>hbase.regionserver.lease.period</code> loses
+ * its server-side scanner; it reopens the scanner after the last row it
+ * queued.
+ *
+ * <p>Filters are evaluated per region on the server.  Filters that count
+ * rows, such as {@link org.apache.hadoop.hbase.filter.PageRowFilter}, apply
+ * to each region separately.
+ *
+ * @see HTable#obtainParallelScanner(Text[], Text, long, RowFilterInterface,
+ * int, boolean)
+ */
+class ParallelScanner implements HScannerInterface {
+  static final Log LOG = LogFactory.getLog(ParallelScanner.class);
+
+  // Put into a region queue after the last row of a region.
+  private static final Row END_OF_REGION = new Row(null, null, null);
+
+  private final HTable table;
+  private final Text[] columns;
+  private final long timestamp;
+  private final RowFilterInterface filter;
+  private final boolean ordered;
+  private final ExecutorService pool;
+  // If ordered, one queue per region in region order.  Otherwise, a single
+  // queue all region scanners put to.
+  private final List<BlockingQueue<Row>> queues =
+    new ArrayList<BlockingQueue<Row>>();
+  private int currentQueue = 0;
+  private int regionsRemaining;
+  private volatile boolean closed = false;
+
+  /**
+   * @param table Table to scan.
+   * @param columns Columns to return.
+   * @param startRow Row to start scanning at.
+   * @param timestamp Only return cells whose timestamp is <= this value.
+   * @param filter Row filter.  Can be null.
+   * @param parallelism Maximum count of regions to scan at a time.
+   * @param prefetch Count of rows to prefetch per region scanned.
+   * @param ordered True if rows are to be returned in key order.
+   * @throws IOException
+   */
+  ParallelScanner(final HTable table, final Text[] columns,
+      final Text startRow, final long timestamp,
+      final RowFilterInterface filter, final int parallelism,
+      final int prefetch, final boolean ordered)
+  throws IOException {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("parallelism must be > 0");
+    }
+    this.table = table;
+    this.columns = columns;
+    this.timestamp = timestamp;
+    this.filter = filter;
+    this.ordered = ordered;
+    if (filter != null) {
+      filter.validate(columns);
+    }
+    List<RegionScan> scans = getRegionScans(startRow, Math.max(prefetch, 1));
+    this.regionsRemaining = scans.size();
+    LOG.info("Creating " + (ordered? "ordered": "unordered") +
+      " parallel scanner over " + table.getTableName() + " starting at key " +
+      startRow + ": " + scans.size() + " region(s), parallelism " +
+      parallelism);
+    final String name = "ParallelScanner-" + table.getTableName();
+    final AtomicInteger threadCount = new AtomicInteger(0);
+    this.pool = Executors.newFixedThreadPool(Math.min(parallelism,
+        Math.max(scans.size(), 1)), new ThreadFactory() {
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, name + "-" + threadCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      }
+    });
+    // Pool runs scans in submission order.  Because we drain regions in the
+    // same order in ordered mode, the region we are draining always has a
+    // thread.
+    for (RegionScan s: scans) {
+      this.pool.execute(s);
+    }
+  }
+
+  /*
+   * Make a scan per region from <code>startRow</code> to the end of the table
+   * or the region beyond which the filter says stop.
+   * @param startRow
+   * @param prefetch
+   * @return List of region scans in key order.
+   * @throws IOException
+   */
+  private List<RegionScan> getRegionScans(final Text startRow,
+      final int prefetch)
+  throws IOException {
+    List<RegionScan> scans = new ArrayList<RegionScan>();
+    BlockingQueue<Row> shared = null;
+    Text key = startRow == null? HConstants.EMPTY_START_ROW: startRow;
+    while (true) {
+      HRegionLocation location = this.table.getRegionLocation(key);
+      Text endKey = location.getRegionInfo().getEndKey();
+      BlockingQueue<Row> q = null;
+      if (this.ordered) {
+        q = new ArrayBlockingQueue<Row>(prefetch);
+        this.queues.add(q);
+      } else {
+        if (shared == null) {
+          shared = new ArrayBlockingQueue<Row>(prefetch);
+          this.queues.add(shared);
+        }
+        q = shared;
+      }
+      scans.add(new RegionScan(key, endKey, q));
+      if (endKey == null || endKey.getLength() == 0 || filterSaysStop(endKey)) {
+        break;
+      }
+      key = endKey;
+    }
+    if (this.filter != null) {
+      // Undo any state changes made by filterSaysStop before the filter is
+      // sent out to the region servers.
+      this.filter.reset();
+    }
+    return scans;
+  }
+
+  /*
+   * @param endKey
+   * @return Returns true if the passed region endkey is judged beyond
+   * filter.
+   */
+  private boolean filterSaysStop(final Text endKey) {
+    if (this.filter == null) {
+      return false;
+    }
+    // Let the filter see current row.
+    this.filter.filter(endKey);
+    return this.filter.filterAllRemaining();
+  }
+
+  /** {@inheritDoc} */
+  public boolean next(HStoreKey key, SortedMap<Text, byte[]> results)
+  throws IOException {
+    this.table.checkClosed();
+    // Clear the results so we don't inherit any values from any previous
+    // calls to next.
+    results.clear();
+    while (!this.closed && this.regionsRemaining > 0) {
+      Row r = null;
+      try {
+        r = this.queues.get(this.currentQueue).take();
+      } catch (InterruptedException e) {
+        close();
+        throw new InterruptedIOException("Interrupted scanning " +
+          this.table.getTableName());
+      }
+      if (r == END_OF_REGION) {
+        this.regionsRemaining--;
+        if (this.ordered) {
+          this.currentQueue++;
+        }
+        continue;
+      }
+      if (r.error != null) {
+        close();
+        throw r.error;
+      }
+      key.setRow(r.key.getRow());
+      key.setVersion(r.key.getTimestamp());
+      key.setColumn(HConstants.EMPTY_TEXT);
+      results.putAll(r.results);
+      return true;
+    }
+    close();
+    return false;
+  }
+
+  /** {@inheritDoc} */
+  public void close() {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    // Interrupts region scans blocked on a full queue.  They close their
+    // server-side scanners on the way out.
+    this.pool.shutdownNow();
+  }
+
+  /** {@inheritDoc} */
+  public Iterator<Entry<HStoreKey, SortedMap<Text, byte[]>>> iterator() {
+    return new Iterator<Entry<HStoreKey, SortedMap<Text, byte[]>>>() {
+      HStoreKey key = null;
+      SortedMap<Text, byte []> value = null;
+
+      public boolean hasNext() {
+        boolean hasNext = false;
+        try {
+          this.key = new HStoreKey();
+          this.value = new TreeMap<Text, byte[]>();
+          hasNext = ParallelScanner.this.next(key, value);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+        return hasNext;
+      }
+
+      public Entry<HStoreKey, SortedMap<Text, byte[]>> next() {
+        return new Map.Entry<HStoreKey, SortedMap<Text, byte[]>>() {
+          public HStoreKey getKey() {
+            return key;
+          }
+
+          public SortedMap<Text, byte[]> getValue() {
+            return value;
+          }
+
+          public SortedMap<Text, byte[]> setValue(@SuppressWarnings("unused")
+          SortedMap<Text, byte[]> value) {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /*
+   * A row fetched by a region scan, or the exception a region scan failed
+   * with.
+   */
+  private static class Row {
+    final HStoreKey key;
+    final SortedMap<Text, byte []> results;
+    final IOException error;
+
+    Row(final HStoreKey k, final SortedMap<Text, byte []> r,
+        final IOException e) {
+      this.key = k;
+      this.results = r;
+      this.error = e;
+    }
+  }
+
+  /*
+   * Scans the rows from <code>startKey</code> up to but not including
+   * <code>endKey</code> into a queue.  Usually the range is that of a single
+   * region but if the region has split since we looked it up, we move on
+   * through the daughters.
+   */
+  private class RegionScan implements Runnable {
+    private final Text startKey;
+    private final Text endKey;
+    private final BlockingQueue<Row> queue;
+
+    RegionScan(final Text startKey, final Text endKey,
+        final BlockingQueue<Row> queue) {
+      this.startKey = startKey;
+      this.endKey = endKey;
+      this.queue = queue;
+    }
+
+    /** {@inheritDoc} */
+    public void run() {
+      try {
+        try {
+          scan();
+        } catch (IOException e) {
+          if (e instanceof RemoteException) {
+            try {
+              e = RemoteExceptionHandler.decodeRemoteException(
+                (RemoteException) e);
+            } catch (IOException ex) {
+              e = ex;
+            }
+          }
+          if (!closed) {
+            LOG.warn("Failed scanning " + table.getTableName() + " from " +
+              this.startKey + " to " + this.endKey, e);
+            this.queue.put(new Row(null, null, e));
+          }
+        }
+        this.queue.put(END_OF_REGION);
+      } catch (InterruptedException e) {
+        // Scanner was closed.
+      }
+    }
+
+    private void scan() throws IOException, InterruptedException {
+      Text key = this.startKey;
+      // Last row put on the queue.  Rows up to and including it are skipped
+      // when a scanner is reopened.
+      Text lastRow = null;
+      while (!closed) {
+        HRegionLocation location = table.getRegionLocation(key);
+        HRegionInterface server = null;
+        long scannerId = -1L;
+        for (int tries = 0; true; tries++) {
+          server = table.getConnection().
+            getHRegionConnection(location.getServerAddress());
+          try {
+            scannerId = server.openScanner(
+              location.getRegionInfo().getRegionName(), columns, key,
+              timestamp, filter);
+            break;
+          } catch (IOException e) {
+            if (e instanceof RemoteException) {
+              e = RemoteExceptionHandler.decodeRemoteException(
+                (RemoteException) e);
+            }
+            if (tries == table.numRetries - 1) {
+              // No more tries
+              throw e;
+            }
+            Thread.sleep(table.pause);
+            if (LOG.isDebugEnabled()) {
+              LOG.debug("reloading table servers because: " + e.getMessage());
+            }
+            location = table.getRegionLocation(key, true);
+          }
+        }
+        boolean expired = false;
+        try {
+          while (!closed) {
+            RowResult values = null;
+            try {
+              values = server.nextRow(scannerId);
+            } catch (IOException e) {
+              if (e instanceof RemoteException) {
+                e = RemoteExceptionHandler.decodeRemoteException(
+                  (RemoteException) e);
+              }
+              if (!(e instanceof UnknownScannerException)) {
+                throw e;
+              }
+              // The server-side scanner lease expired while we were blocked
+              // on a full queue.  Reopen from the last row we handed over.
+              expired = true;
+              break;
+            }
+            if (values == null || values.isEmpty()) {
+              break;
+            }
+            Row r = new Row(new HStoreKey(values.getRow(),
+              values.getTimestamp()), values.getCells(), null);
+            if (isPastEnd(r.key.getRow())) {
+              return;
+            }
+            if (lastRow != null && r.key.getRow().compareTo(lastRow) <= 0) {
+              continue;
+            }
+            this.queue.put(r);
+            lastRow = r.key.getRow();
+          }
+        } finally {
+          try {
+            server.close(scannerId);
+          } catch (IOException e) {
+            LOG.debug("Failed close of scanner on " +
+              location.getRegionInfo().getRegionName(), e);
+          }
+        }
+        if (expired) {
+          if (LOG.isDebugEnabled()) {
+            LOG.debug("Scanner on " + location.getRegionInfo().getRegionName() +
+              " expired; reopening at " + (lastRow == null? key: lastRow));
+          }
+          if (lastRow != null) {
+            key = lastRow;
+          }
+          continue;
+        }
+        Text regionEndKey = location.getRegionInfo().getEndKey();
+        if (regionEndKey == null || regionEndKey.getLength() == 0 ||
+            isPastEnd(regionEndKey)) {
+          return;
+        }
+        // Region has split since we looked up the regions to scan.  Go on to
+        // the daughter that holds the rest of our range.
+        key = regionEndKey;
+      }
+    }
+
+    private boolean isPastEnd(final Text row) {
+      return this.endKey != null && this.endKey.getLength() != 0 &&
+        row.compareTo(this.endKey) >= 0;
+    }
+  }
+}
@@ -0,0 +1,302 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hbase.io.BatchUpdate;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Keeps the index table of a table up to date with the indexed families of
+ * one of its regions.  The region passes the indexed cells of a row as they
+ * were before and after an update, with the row still locked; index rows of
+ * cells whose value changed are deleted and added.
+ *
+ * <p>Index changes are sent once the row is unlocked but before the update
+ * returns to the client, so a client whose update succeeded finds it in the
+ * index.  Changes to one row are sent in the order the region made them.
+ * The sends of all regions of a server go through a pool of
+ * <code>hbase.regionserver.index.handlers</code> threads, which bounds the
+ * load the server puts on the index table.  If a send fails, the update has
+ * already been applied to the region: the failure is logged and returned to
+ * the client, and {@link TableIndex#rebuild()} repairs the index.  Recovering
+ * the log of a dead region server does not index the cells recovered either.
+ *
+ * @see TableIndex
+ */
+class RegionIndexer {
+  static final Log LOG = LogFactory.getLog(RegionIndexer.class);
+
+  // Sends index changes for all regions; see getSendPool.
+  private static ExecutorService sendPool = null;
+
+  private final HBaseConfiguration conf;
+  private final Text indexTableName;
+  // Indexed families, without the colon, as the region's stores are keyed.
+  private final Set<Text> families = new HashSet<Text>();
+  // Latest changes made to each row and not yet sent.
+  private final Map<Text, Changes> inFlight = new HashMap<Text, Changes>();
+  private final long closeWait;
+  private HTable indexTable = null;
+
+  /**
+   * Index changes for one update of a row.
+   */
+  class Changes {
+    final Text row;
+    final List<BatchUpdate> updates;
+    // Changes made to the row before these and not sent when these were made.
+    final Changes previous;
+    final CountDownLatch sent = new CountDownLatch(1);
+
+    Changes(final Text row, final List<BatchUpdate> updates,
+        final Changes previous) {
+      this.row = row;
+      this.updates = updates;
+      this.previous = previous;
+    }
+  }
+
+  /**
+   * @param conf
+   * @param desc Descriptor of an indexed table.
+   */
+  RegionIndexer(final HBaseConfiguration conf, final HTableDescriptor desc) {
+    this.conf = conf;
+    this.indexTableName = TableIndex.getIndexTableName(desc.getName());
+    for (HColumnDescriptor family: desc.families().values()) {
+      if (family.isIndexed()) {
+        this.families.add(family.getFamilyName());
+      }
+    }
+    this.closeWait =
+      conf.getLong("hbase.regionserver.index.close.wait", 10 * 1000);
+  }
+
+  /** @return Indexed families, without the colon */
+  Set<Text> getFamilies() {
+    return this.families;
+  }
+
+  /**
+   * Make the index changes for the changes to the indexed cells of a row.
+   * Call with the row locked, then pass the result to {@link #send(Changes)}
+   * once the row is unlocked.
+   * @param row
+   * @param before Indexed cells of the row before the update.
+   * @param after Indexed cells of the row after the update.
+   * @return Changes to send, or null if the index does not change.
+   */
+  Changes update(final Text row, final Map<Text, byte []> before,
+      final Map<Text, byte []> after) {
+    List<BatchUpdate> updates = new ArrayList<BatchUpdate>();
+    for (Map.Entry<Text, byte []> e: before.entrySet()) {
+      byte [] value = after.get(e.getKey());
+      if (value == null || !Arrays.equals(value, e.getValue())) {
+        BatchUpdate b = new BatchUpdate(0);
+        long lockid =
+          b.startUpdate(TableIndex.getKey(e.getKey(), e.getValue(), row));
+        b.delete(lockid, TableIndex.ROW_COLUMN);
+        updates.add(b);
+      }
+    }
+    byte [] rowBytes = null;
+    for (Map.Entry<Text, byte []> e: after.entrySet()) {
+      byte [] value = before.get(e.getKey());
+      if (value == null || !Arrays.equals(value, e.getValue())) {
+        if (rowBytes == null) {
+          rowBytes = new byte[row.getLength()];
+          System.arraycopy(row.getBytes(), 0, rowBytes, 0, row.getLength());
+        }
+        BatchUpdate b = new BatchUpdate(0);
+        long lockid =
+          b.startUpdate(TableIndex.getKey(e.getKey(), e.getValue(), row));
+        b.put(lockid, TableIndex.ROW_COLUMN, rowBytes);
+        updates.add(b);
+      }
+    }
+    if (updates.isEmpty()) {
+      return null;
+    }
+    synchronized (this.inFlight) {
+      Text key = new Text(row);
+      Changes c = new Changes(key, updates, this.inFlight.get(key));
+      this.inFlight.put(key, c);
+      return c;
+    }
+  }
+
+  /**
+   * Send index changes made by {@link #update(Text, Map, Map)}, after any
+   * made earlier to the same row.  Returns once they are sent.
+   * @param changes May be null.
+   * @throws IOException If the index table did not take the changes.
+   */
+  void send(final Changes changes) throws IOException {
+    if (changes == null) {
+      return;
+    }
+    try {
+      if (changes.previous != null) {
+        awaitUninterruptibly(changes.previous.sent);
+      }
+      Future<Object> f = getSendPool(this.conf).submit(new Callable<Object>() {
+        public Object call() throws IOException {
+          commit(changes.updates);
+          return null;
+        }
+      });
+      getUninterruptibly(f);
+    } catch (ExecutionException e) {
+      LOG.error("Failed sending " + changes.updates.size() + " index " +
+        "changes for row " + changes.row + "; " + this.indexTableName +
+        " needs a rebuild", e.getCause());
+      throw e.getCause() instanceof IOException?
+        (IOException)e.getCause(): new IOException(e.getCause().toString());
+    } finally {
+      changes.sent.countDown();
+      synchronized (this.inFlight) {
+        if (this.inFlight.get(changes.row) == changes) {
+          this.inFlight.remove(changes.row);
+        }
+        this.inFlight.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Wait a while for index changes being sent.  The region no longer takes
+   * updates.
+   * @param abort If true, do not wait.
+   */
+  void close(final boolean abort) {
+    synchronized (this.inFlight) {
+      long end = System.currentTimeMillis() + (abort? 0: this.closeWait);
+      long now = System.currentTimeMillis();
+      while (!this.inFlight.isEmpty() && now < end) {
+        try {
+          this.inFlight.wait(end - now);
+        } catch (InterruptedException e) {
+          // continue
+        }
+        now = System.currentTimeMillis();
+      }
+      if (!this.inFlight.isEmpty()) {
+        LOG.warn("Closing with index changes for " + this.inFlight.size() +
+          " rows of " + this.indexTableName + " being sent");
+      }
+    }
+    synchronized (this) {
+      if (this.indexTable != null) {
+        this.indexTable.close();
+      }
+    }
+  }
+
+  /** @return Count of rows with index changes not yet sent */
+  int getInFlight() {
+    synchronized (this.inFlight) {
+      return this.inFlight.size();
+    }
+  }
+
+  /**
+   * Send index changes.
+   * @param updates
+   * @throws IOException
+   */
+  void commit(final List<BatchUpdate> updates) throws IOException {
+    getIndexTable().commit(updates, true);
+  }
+
+  /*
+   * @return The index table, opened on first use.
+   * @throws IOException
+   */
+  private synchronized HTable getIndexTable() throws IOException {
+    if (this.indexTable == null) {
+      this.indexTable = new HTable(this.conf, this.indexTableName);
+    }
+    return this.indexTable;
+  }
+
+  private static void awaitUninterruptibly(final CountDownLatch latch) {
+    while (true) {
+      try {
+        latch.await();
+        return;
+      } catch (InterruptedException e) {
+        // continue
+      }
+    }
+  }
+
+  private static <T> T getUninterruptibly(final Future<T> f)
+  throws ExecutionException {
+    while (true) {
+      try {
+        return f.get();
+      } catch (InterruptedException e) {
+        // continue
+      }
+    }
+  }
+
+  /*
+   * @param conf
+   * @return Pool shared by all regions for sending index changes.  Made on
+   * first use with <code>hbase.regionserver.index.handlers</code> threads.
+   */
+  private static synchronized ExecutorService getSendPool(
+      final HBaseConfiguration conf) {
+    if (sendPool == null) {
+      final AtomicInteger threadCount = new AtomicInteger(0);
+      sendPool = Executors.newFixedThreadPool(
+          conf.getInt("hbase.regionserver.index.handlers", 10),
+          new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(r, "RegionIndexer.sender-" +
+            threadCount.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        }
+      });
+    }
+    return sendPool;
+  }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.io.Text;
+
+/**
+ * Keeps a bounded, uniform sample of the row keys a region has served since
+ * the start of the current window, along with a count of all the requests
+ * seen.  Used by the load based split policy to find a split point that
+ * divides requests rather than bytes.
+ *
+ * <p>Sampling is done with reservoir sampling so the sample stays uniform
+ * however many requests come in during a window.  Counting a request is an
+ * atomic increment; the sample is only locked, and the row only copied, when
+ * the row is kept.
+ */
+class RowKeySampler {
+  private final Text[] sample;
+  private final long seed = new Random().nextLong();
+  private final AtomicLong count = new AtomicLong(0);
+  private volatile long startTime;
+
+  /**
+   * @param size maximum number of row keys to hold
+   */
+  RowKeySampler(final int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Sample size must be > 0: " + size);
+    }
+    this.sample = new Text[size];
+    this.startTime = System.currentTimeMillis();
+  }
+
+  /**
+   * Count a request against <code>row</code>, maybe adding it to the sample.
+   * @param row
+   */
+  void add(final Text row) {
+    long n = this.count.getAndIncrement();
+    long i = n;
+    if (n >= this.sample.length) {
+      // Keep the n-th request with probability size/(n + 1).
+      i = (mix(n ^ this.seed) >>> 1) % (n + 1);
+      if (i >= this.sample.length) {
+        return;
+      }
+    }
+    // Copy; callers reuse their keys.
+    Text copy = new Text(row);
+    synchronized (this.sample) {
+      this.sample[(int)i] = copy;
+    }
+  }
+
+  /*
+   * Scramble the bits of <code>z</code> so consecutive counts give
+   * independent looking values, without sharing a random number generator
+   * between request threads.
+   */
+  private static long mix(final long z) {
+    long x = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+    x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return x ^ (x >>> 33);
+  }
+
+  /** @return number of requests counted since the window started */
+  long getCount() {
+    return this.count.get();
+  }
+
+  /** @return time the current window started */
+  long getStartTime() {
+    return this.startTime;
+  }
+
+  /**
+   * Start a new window.
+   * @param now time the new window starts
+   */
+  void reset(final long now) {
+    synchronized (this.sample) {
+      for (int i = 0; i < this.sample.length; i++) {
+        this.sample[i] = null;
+      }
+      this.count.set(0);
+      this.startTime = now;
+    }
+  }
+
+  /**
+   * Find the sampled row key that divides requests most evenly and that can
+   * be used to split the range <code>[startKey, endKey)</code>; i.e. it sorts
+   * after <code>startKey</code> and before <code>endKey</code>.
+   * @param startKey region start key
+   * @param endKey region end key; empty means the last region of the table
+   * @return the split point or null if no sampled key can be used
+   */
+  Text getMidKey(final Text startKey, final Text endKey) {
+    List<Text> kept = new ArrayList<Text>(this.sample.length);
+    synchronized (this.sample) {
+      for (int i = 0; i < this.sample.length; i++) {
+        if (this.sample[i] != null) {
+          kept.add(this.sample[i]);
+        }
+      }
+    }
+    int n = kept.size();
+    if (n == 0) {
+      return null;
+    }
+    Text [] keys = kept.toArray(new Text[n]);
+    Arrays.sort(keys);
+    // Walk out from the median until we find a key that is strictly inside
+    // the region.
+    int mid = n / 2;
+    for (int d = 0; d < n; d++) {
+      for (int i: new int [] {mid + d, mid - d}) {
+        if (i >= 0 && i < n && inside(keys[i], startKey, endKey)) {
+          return keys[i];
+        }
+      }
+    }
+    return null;
+  }
+
+  private static boolean inside(final Text key, final Text startKey,
+      final Text endKey) {
+    return key.compareTo(startKey) > 0 &&
+      (endKey.getLength() == 0 || key.compareTo(endKey) < 0);
+  }
+}
@@ -0,0 +1,354 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.hadoop.hbase.io.BatchUpdate;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Layout of the table that indexes the values of the indexed families of
+ * another table.  Region servers keep the index up to date as rows are
+ * updated; see {@link HColumnDescriptor#isIndexed()}.
+ *
+ * <p>The index of table <code>t</code> is the table <code>t.index</code>.
+ * It has a row per indexed cell, keyed by the column, a zero byte, the
+ * value, another zero byte and the row of the cell.  Rows of the index are
+ * therefore sorted by column, then value, then row, so the rows having a
+ * column value in a range are found by scanning a range of the index.  The
+ * row of the cell is also stored in the {@link #ROW_COLUMN} of the index
+ * row.  Values are compared as unsigned bytes; values that themselves hold
+ * zero bytes may sort out of place.
+ *
+ * <p>An instance looks up the rows of a table by value with a range scan of
+ * its index, so a lookup reads only the index rows that match.  Region
+ * servers update the index after the table but before the update returns,
+ * so a lookup may miss a change still being made; changes the servers could
+ * not send are repaired with {@link #rebuild()}.
+ */
+public class TableIndex {
+  /** Suffix of the name of the index of a table */
+  public static final String TABLE_SUFFIX = ".index";
+
+  /** Family of the index table */
+  public static final Text FAMILY = new Text("row:");
+
+  /** Column of an index row holding the row of the indexed cell */
+  public static final Text ROW_COLUMN = FAMILY;
+
+  // Index rows sent in one commit by rebuild.
+  private static final int REBUILD_BATCH = 1000;
+
+  private final HBaseConfiguration conf;
+  private final Text tableName;
+  private final HTable indexTable;
+
+  /**
+   * @param conf
+   * @param tableName Name of a table having indexed families.
+   * @throws IOException
+   */
+  public TableIndex(final HBaseConfiguration conf, final Text tableName)
+  throws IOException {
+    this.conf = conf;
+    this.tableName = tableName;
+    this.indexTable = new HTable(conf, getIndexTableName(tableName));
+  }
+
+  /**
+   * Bring the index up to date with the table: add the index rows of all
+   * cells of indexed families, and delete index rows whose cell no longer
+   * holds the value.  Run it after a family of a table that already has rows
+   * is made indexed, and after index changes were lost: region servers log
+   * an error when they fail to send changes, and cells recovered from the
+   * log of a server that died are not indexed.  Rows updated while the rebuild runs may be left out
+   * of date; run it again if the table was busy.
+   * @return Count of index rows written or deleted.
+   * @throws IOException
+   */
+  public int rebuild() throws IOException {
+    HTable table = new HTable(this.conf, this.tableName);
+    try {
+      List<Text> columns = new ArrayList<Text>();
+      for (HColumnDescriptor family: table.getMetadata().families().values()) {
+        if (family.isIndexed()) {
+          columns.add(family.getName());
+        }
+      }
+      if (columns.isEmpty()) {
+        return 0;
+      }
+      int count = 0;
+      List<BatchUpdate> updates = new ArrayList<BatchUpdate>();
+      // Write the index row of every indexed cell.
+      HScannerInterface scanner = table.obtainScanner(
+        columns.toArray(new Text [columns.size()]), HConstants.EMPTY_START_ROW);
+      try {
+        HStoreKey key = new HStoreKey();
+        SortedMap<Text, byte []> results = new TreeMap<Text, byte []>();
+        while (scanner.next(key, results)) {
+          Text row = key.getRow();
+          byte [] rowBytes = new byte[row.getLength()];
+          System.arraycopy(row.getBytes(), 0, rowBytes, 0, row.getLength());
+          for (Map.Entry<Text, byte []> e: results.entrySet()) {
+            BatchUpdate b = new BatchUpdate(0);
+            long lockid = b.startUpdate(getKey(e.getKey(), e.getValue(), row));
+            b.put(lockid, ROW_COLUMN, rowBytes);
+            updates.add(b);
+          }
+          count += commit(updates, false);
+          results.clear();
+        }
+      } finally {
+        scanner.close();
+      }
+      count += commit(updates, true);
+      // Delete index rows of cells that changed or are gone.
+      scanner = this.indexTable.obtainScanner(new Text [] {ROW_COLUMN},
+        HConstants.EMPTY_START_ROW);
+      try {
+        HStoreKey key = new HStoreKey();
+        SortedMap<Text, byte []> results = new TreeMap<Text, byte []>();
+        while (scanner.next(key, results)) {
+          byte [] row = results.get(ROW_COLUMN);
+          if (row != null && !isCurrent(table, key.getRow(), new Text(row))) {
+            BatchUpdate b = new BatchUpdate(0);
+            // The scanner reuses the key; give the update its own row.
+            long lockid = b.startUpdate(new Text(key.getRow()));
+            b.delete(lockid, ROW_COLUMN);
+            updates.add(b);
+          }
+          count += commit(updates, false);
+          results.clear();
+        }
+      } finally {
+        scanner.close();
+      }
+      count += commit(updates, true);
+      return count;
+    } finally {
+      table.close();
+    }
+  }
+
+  /*
+   * @param table The indexed table.
+   * @param indexKey Key of an index row.
+   * @param row The row the index row refers to.
+   * @return True if <code>row</code> still holds the cell the index row was
+   * made for.
+   * @throws IOException
+   */
+  private static boolean isCurrent(final HTable table, final Text indexKey,
+      final Text row)
+  throws IOException {
+    // The key is the column, a zero byte, the value, a zero byte and the row.
+    byte [] key = indexKey.getBytes();
+    int valueEnd = indexKey.getLength() - row.getLength() - 1;
+    int columnEnd = 0;
+    while (columnEnd < valueEnd && key[columnEnd] != 0) {
+      columnEnd++;
+    }
+    if (columnEnd >= valueEnd) {
+      return false;
+    }
+    Text column = new Text();
+    column.set(key, 0, columnEnd);
+    byte [] value = new byte[valueEnd - columnEnd - 1];
+    System.arraycopy(key, columnEnd + 1, value, 0, value.length);
+    return Arrays.equals(value, table.get(row, column));
+  }
+
+  /*
+   * Commit <code>updates</code> to the index and clear it if it is full or
+   * <code>force</code> is set.
+   * @return Count of updates committed.
+   * @throws IOException
+   */
+  private int commit(final List<BatchUpdate> updates, final boolean force)
+  throws IOException {
+    if (updates.isEmpty() || (!force && updates.size() < REBUILD_BATCH)) {
+      return 0;
+    }
+    this.indexTable.commit(updates, true);
+    int count = updates.size();
+    updates.clear();
+    return count;
+  }
+
+  /**
+   * @param column Column of an indexed family.
+   * @param value
+   * @return Rows whose latest cell in <code>column</code> holds
+   * <code>value</code>, sorted.
+   * @throws IOException
+   */
+  public List<Text> getRows(final Text column, final byte [] value)
+  throws IOException {
+    return getRows(getStartKey(column, value),
+      getStopKeyInclusive(column, value));
+  }
+
+  /**
+   * @param column Column of an indexed family.
+   * @param startValue Least value, inclusive; null for no lower bound.
+   * @param stopValue Greatest value, exclusive; null for no upper bound.
+   * @return Rows whose latest cell in <code>column</code> holds a value in
+   * the range, sorted by value, then row.
+   * @throws IOException
+   */
+  public List<Text> getRows(final Text column, final byte [] startValue,
+      final byte [] stopValue)
+  throws IOException {
+    return getRows(getStartKey(column, startValue),
+      getStopKey(column, stopValue));
+  }
+
+  /*
+   * @return Rows held by the index rows from <code>startKey</code> up to
+   * <code>stopKey</code>.
+   * @throws IOException
+   */
+  private List<Text> getRows(final Text startKey, final Text stopKey)
+  throws IOException {
+    List<Text> rows = new ArrayList<Text>();
+    HScannerInterface scanner = this.indexTable.obtainScanner(
+      new Text[] {ROW_COLUMN}, startKey, stopKey);
+    try {
+      HStoreKey key = new HStoreKey();
+      SortedMap<Text, byte []> results = new TreeMap<Text, byte []>();
+      while (scanner.next(key, results)) {
+        byte [] row = results.get(ROW_COLUMN);
+        if (row != null) {
+          rows.add(new Text(row));
+        }
+        results.clear();
+      }
+    } finally {
+      scanner.close();
+    }
+    return rows;
+  }
+
+  /** Release the index table */
+  public void close() {
+    this.indexTable.close();
+  }
+
+  /**
+   * @param tableName
+   * @return Name of the index of <code>tableName</code>.
+   */
+  public static Text getIndexTableName(final Text tableName) {
+    return new Text(tableName.toString() + TABLE_SUFFIX);
+  }
+
+  /**
+   * @param tableName
+   * @return Descriptor of the index of <code>tableName</code>.
+   */
+  public static HTableDescriptor getIndexTableDesc(final Text tableName) {
+    HTableDescriptor desc =
+      new HTableDescriptor(getIndexTableName(tableName).toString());
+    desc.addFamily(new HColumnDescriptor(FAMILY, 1,
+      HColumnDescriptor.CompressionType.NONE, false, Integer.MAX_VALUE,
+      null));
+    return desc;
+  }
+
+  /**
+   * @param column
+   * @param value
+   * @param row
+   * @return Key of the index row of the cell of <code>row</code> in
+   * <code>column</code> holding <code>value</code>.
+   */
+  public static Text getKey(final Text column, final byte [] value,
+      final Text row) {
+    return key(column, (byte)0, value, (byte)0, row);
+  }
+
+  /**
+   * @param column
+   * @param value Null for the lowest value.
+   * @return First key of the index rows of <code>column</code> with values
+   * equal to or greater than <code>value</code>.
+   */
+  public static Text getStartKey(final Text column, final byte [] value) {
+    return key(column, (byte)0, value, null, null);
+  }
+
+  /**
+   * @param column
+   * @param value Null for no upper bound.
+   * @return Key past the index rows of <code>column</code> with values less
+   * than <code>value</code>.
+   */
+  public static Text getStopKey(final Text column, final byte [] value) {
+    return value == null? key(column, (byte)1, null, null, null):
+      key(column, (byte)0, value, null, null);
+  }
+
+  /**
+   * @param column
+   * @param value
+   * @return Key past the index rows of <code>column</code> holding
+   * <code>value</code>.
+   */
+  public static Text getStopKeyInclusive(final Text column,
+      final byte [] value) {
+    return key(column, (byte)0, value, Byte.valueOf((byte)1), null);
+  }
+
+  /*
+   * Concatenate the passed parts, skipping those that are null.
+   */
+  private static Text key(final Text column, final byte separator,
+      final byte [] value, final Byte endOfValue, final Text row) {
+    int length = column.getLength() + 1 +
+      (value == null? 0: value.length) + (endOfValue == null? 0: 1) +
+      (row == null? 0: row.getLength());
+    byte [] key = new byte[length];
+    int offset = 0;
+    System.arraycopy(column.getBytes(), 0, key, offset, column.getLength());
+    offset += column.getLength();
+    key[offset++] = separator;
+    if (value != null) {
+      System.arraycopy(value, 0, key, offset, value.length);
+      offset += value.length;
+    }
+    if (endOfValue != null) {
+      key[offset++] = endOfValue.byteValue();
+    }
+    if (row != null) {
+      System.arraycopy(row.getBytes(), 0, key, offset, row.getLength());
+    }
+    Text result = new Text();
+    result.set(key);
+    return result;
+  }
+}
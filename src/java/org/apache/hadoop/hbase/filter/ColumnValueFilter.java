@@ -0,0 +1,203 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.filter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SortedMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hbase.HLogEdit;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
+
+/**
+ * Implementation of RowFilterInterface that passes rows whose value in a
+ * column compares to a given value as asked.  Values are compared as
+ * unsigned bytes, lexicographically.  Rows without the column are filtered.
+ */
+public class ColumnValueFilter implements RowFilterInterface {
+  /** Comparison operators. */
+  public static enum CompareOp {
+    /** less than */
+    LESS,
+    /** less than or equal to */
+    LESS_OR_EQUAL,
+    /** equals */
+    EQUAL,
+    /** not equal */
+    NOT_EQUAL,
+    /** greater than or equal to */
+    GREATER_OR_EQUAL,
+    /** greater than */
+    GREATER;
+  }
+
+  static final Log LOG = LogFactory.getLog(ColumnValueFilter.class);
+
+  private Text column;
+  private CompareOp compareOp;
+  private byte [] value;
+
+  /**
+   * Default constructor, filters nothing. Required though for RPC
+   * deserialization.
+   */
+  public ColumnValueFilter() {
+    super();
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param column Column to compare.
+   * @param compareOp How the column value must compare to <code>value</code>
+   * for the row to pass.
+   * @param value Value to compare to.
+   */
+  public ColumnValueFilter(final Text column, final CompareOp compareOp,
+      final byte [] value) {
+    this.column = column;
+    this.compareOp = compareOp;
+    this.value = value;
+  }
+
+  /** {@inheritDoc} */
+  public void validate(final Text[] columns) {
+    if (this.column == null) {
+      return;
+    }
+    for (Text col : columns) {
+      if (col.equals(this.column)) {
+        return;
+      }
+    }
+    throw new InvalidRowFilterException(String.format(
+      "RowFilter contains criteria on column %s not in %s", this.column,
+      Arrays.toString(columns)));
+  }
+
+  /** {@inheritDoc} */
+  public void reset() {
+    // Nothing to reset
+  }
+
+  /** {@inheritDoc} */
+  public void rowProcessed(@SuppressWarnings("unused") boolean filtered,
+      @SuppressWarnings("unused") Text rowKey) {
+    // Doesn't care
+  }
+
+  /** {@inheritDoc} */
+  public boolean processAlways() {
+    return false;
+  }
+
+  /** {@inheritDoc} */
+  public boolean filterAllRemaining() {
+    return false;
+  }
+
+  /** {@inheritDoc} */
+  public boolean filter(@SuppressWarnings("unused") final Text rowKey) {
+    return false;
+  }
+
+  /** {@inheritDoc} */
+  public boolean filter(final Text rowKey, final Text colKey,
+      final byte[] data) {
+    if (this.column == null || !this.column.equals(colKey)) {
+      return false;
+    }
+    boolean result = !matches(data);
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("filter returning " + result + " for rowKey: " + rowKey +
+        " colKey: " + colKey);
+    }
+    return result;
+  }
+
+  /** {@inheritDoc} */
+  public boolean filterNotNull(final SortedMap<Text, byte[]> columns) {
+    if (this.column == null) {
+      return false;
+    }
+    byte [] data = columns.get(this.column);
+    return data == null || HLogEdit.isDeleted(data);
+  }
+
+  /*
+   * @param data
+   * @return True if <code>data</code> compares to our value as asked.
+   */
+  private boolean matches(final byte [] data) {
+    int c = WritableComparator.compareBytes(data, 0, data.length,
+      this.value, 0, this.value.length);
+    switch (this.compareOp) {
+      case LESS:
+        return c < 0;
+      case LESS_OR_EQUAL:
+        return c <= 0;
+      case EQUAL:
+        return c == 0;
+      case NOT_EQUAL:
+        return c != 0;
+      case GREATER_OR_EQUAL:
+        return c >= 0;
+      case GREATER:
+        return c > 0;
+      default:
+        throw new IllegalStateException("Unknown operator " + this.compareOp);
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void readFields(final DataInput in) throws IOException {
+    if (in.readBoolean()) {
+      this.column = new Text();
+      this.column.readFields(in);
+      this.compareOp = CompareOp.valueOf(in.readUTF());
+      this.value = new byte[in.readInt()];
+      in.readFully(this.value);
+    } else {
+      this.column = null;
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void write(final DataOutput out) throws IOException {
+    out.writeBoolean(this.column != null);
+    if (this.column != null) {
+      this.column.write(out);
+      out.writeUTF(this.compareOp.name());
+      out.writeInt(this.value.length);
+      out.write(this.value);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return this.column + " " + this.compareOp + " " + new String(this.value);
+  }
+}
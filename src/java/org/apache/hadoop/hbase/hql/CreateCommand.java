@@ -21,6 +21,7 @@ package org.apache.hadoop.hbase.hql;
 
 import java.io.Writer;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -38,6 +39,7 @@ import org.apache.hadoop.io.Text;
 public class CreateCommand extends SchemaModificationCommand {
   private Text tableName;
   private Map<String, Map<String, Object>> columnSpecMap = new HashMap<String, Map<String, Object>>();
+  private Text [] splitKeys = null;
 
   public CreateCommand(Writer o) {
     super(o);
@@ -61,7 +63,7 @@ public class CreateCommand extends SchemaModificationCommand {
 
       println("Creating table... Please wait.");
 
-      admin.createTable(tableDesc);
+      admin.createTable(tableDesc, splitKeys);
       return new ReturnMsg(0, "Table created successfully.");
     } catch (Exception e) {
       return new ReturnMsg(0, extractErrMsg(e));
@@ -86,6 +88,18 @@ public class CreateCommand extends SchemaModificationCommand {
     columnSpecMap.put(column, columnSpec);
   }
 
+  /**
+   * Sets keys at which to split the table into regions on creation.
+   * 
+   * @param keys Split keys, sorted
+   */
+  public void setSplitKeys(List<String> keys) {
+    splitKeys = new Text[keys.size()];
+    for (int i = 0; i < splitKeys.length; i++) {
+      splitKeys[i] = new Text(keys.get(i));
+    }
+  }
+
   @Override
   public CommandType getCommandType() {
     return CommandType.DDL;
@@ -91,7 +91,8 @@ public class HelpCommand extends BasicCommand {
                 "CREATE TABLE table_name (column_family_name [MAX_VERSIONS=n] "
                     + "[MAX_LENGTH=n] [COMPRESSION=NONE|RECORD|BLOCK] [IN_MEMORY] "
                     + "[BLOOMFILTER=NONE|BLOOMFILTER|COUNTING_BLOOMFILTER|RETOUCHED_BLOOMFILTER "
-                    + "VECTOR_SIZE=n NUM_HASH=n], " + "...)" });
+                    + "VECTOR_SIZE=n NUM_HASH=n], " + "...) "
+                    + "[SPLITS ('split_key', ...)]" });
     load.put("DROP", new String[] { "Drop tables",
         "DROP TABLE table_name [, table_name] ...;" });
 
@@ -109,9 +110,16 @@ public class HelpCommand extends BasicCommand {
     load.put("SELECT", new String[] {
         "Select values from table",
         "SELECT {column_name, [, column_name] ... | expr[alias] | * } FROM table_name "
-            + "[WHERE row='row_key' | STARTING FROM 'row-key' [UNTIL 'stop-key']] "
+            + "[WHERE condition [AND condition] ... | "
+            + "STARTING FROM 'row-key' [UNTIL 'stop-key']] "
             + "[NUM_VERSIONS = version_count] " + "[TIMESTAMP 'timestamp'] "
-            + "[LIMIT = row_count] " + "[INTO FILE 'file_name'];" });
+            + "[LIMIT = row_count] " + "[INTO FILE 'file_name'];  "
+            + "A condition is {row | column_name} {= | != | < | <= | > | >=} "
+            + "'value' or row LIKE 'regex'." });
+
+    load.put("EXPLAIN", new String[] {
+        "Show how a select would be run without running it",
+        "EXPLAIN SELECT ...;" });
 
     load.put("ALTER", new String[] {
         "Alter structure of table",
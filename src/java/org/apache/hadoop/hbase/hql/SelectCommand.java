@@ -24,9 +24,12 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.regex.Pattern;
 
 import org.apache.hadoop.hbase.HBaseAdmin;
 import org.apache.hadoop.hbase.HBaseConfiguration;
@@ -38,7 +41,12 @@ import org.apache.hadoop.hbase.HStoreKey;
 import org.apache.hadoop.hbase.HTable;
 import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.Shell;
+import org.apache.hadoop.hbase.filter.ColumnValueFilter;
+import org.apache.hadoop.hbase.filter.InclusiveStopRowFilter;
+import org.apache.hadoop.hbase.filter.PageRowFilter;
+import org.apache.hadoop.hbase.filter.RegExpRowFilter;
 import org.apache.hadoop.hbase.filter.RowFilterInterface;
+import org.apache.hadoop.hbase.filter.RowFilterSet;
 import org.apache.hadoop.hbase.filter.StopRowFilter;
 import org.apache.hadoop.hbase.filter.WhileMatchRowFilter;
 import org.apache.hadoop.hbase.hql.generated.HQLParser;
@@ -47,6 +55,11 @@ import org.apache.hadoop.io.Text;
 
 /**
  * Selects values from tables.
+ * 
+ * <p>WHERE conditions on the row key and on column values are turned into a
+ * start row and row filters that run on the region servers, as is LIMIT, so
+ * only matching rows come back to the client.  Prefix the select with
+ * EXPLAIN to see how each condition is run.
  */
 public class SelectCommand extends BasicCommand {
   private Text tableName;
@@ -58,10 +71,17 @@ public class SelectCommand extends BasicCommand {
   // Count of versions to return.
   private int version;
   private boolean countFunction = false;
-  private boolean whereClause = false;
+  private boolean explain = false;
+  // WHERE conditions as {column, operator, value}; column is null for row.
+  private final List<String []> conditions = new ArrayList<String []>();
+  // Columns filtered on that the query did not ask for.  They must be
+  // scanned for the filters to see them but are not printed.
+  private final List<Text> filterColumns = new ArrayList<Text>();
   private static final String[] HEADER_ROW_CELL = new String[] { "Row", "Cell" };
   private static final String[] HEADER_COLUMN_CELL = new String[] { "Column", "Cell" };
   private static final String[] HEADER = new String[] { "Row", "Column", "Cell" };
+  private static final String[] HEADER_EXPLAIN =
+    new String[] { "Condition", "Evaluated" };
   private static final String ASTERISK = "*";
 
   private final TableFormatter formatter;
@@ -81,6 +101,25 @@ public class SelectCommand extends BasicCommand {
     if (tableName.equals("") || rowKey == null || columns.size() == 0) {
       return new ReturnMsg(0, "Syntax error : Please check 'Select' syntax.");
     }
+    // Columns with an equality condition.
+    Set<String> equalColumns = new HashSet<String>();
+    for (String [] c : conditions) {
+      if (c[0] == null) {
+        continue;
+      }
+      if (c[1].equals("like")) {
+        return new ReturnMsg(0,
+          "Syntax error : 'like' only applies to the row key.");
+      }
+      if (!c[0].contains(":")) {
+        return new ReturnMsg(0, "Syntax error : '" + c[0] + "' is not a " +
+          "column; name columns in conditions as family:qualifier.");
+      }
+      if (c[1].equals("=") && !equalColumns.add(c[0])) {
+        return new ReturnMsg(0, "Syntax error : more than one '=' " +
+          "condition on column '" + c[0] + "'.");
+      }
+    }
     try {
       HConnection conn = HConnectionManager.getConnection(conf);
       if (!conn.tableExists(tableName) && !isMetaTable()) {
@@ -90,7 +129,10 @@ public class SelectCommand extends BasicCommand {
       HTable table = new HTable(conf, tableName);
       HBaseAdmin admin = new HBaseAdmin(conf);
       int count = 0;
-      if (whereClause) {
+      if (explain) {
+        return explainPrint();
+      }
+      if (isRowLookup()) {
         if (countFunction) {
           count = 1;
         } else {
@@ -106,6 +148,187 @@ public class SelectCommand extends BasicCommand {
     }
   }
 
+  /*
+   * @return True if the only condition is an equality on the row, so we
+   * get the row rather than scan.
+   */
+  private boolean isRowLookup() {
+    return conditions.size() == 1 && conditions.get(0)[0] == null &&
+      conditions.get(0)[1].equals("=");
+  }
+
+  /*
+   * Print how each condition would be run.
+   */
+  private ReturnMsg explainPrint() throws IOException {
+    List<String []> plan = new ArrayList<String []>();
+    if (isRowLookup()) {
+      plan.add(new String [] {describe(conditions.get(0)),
+        "server: get of a single row"});
+    } else {
+      getFilter(plan);
+      plan.add(new String [] {"columns " + columns, "server: scanned columns" +
+        (filterColumns.isEmpty() ? "" : ", plus " + filterColumns +
+          " for filters")});
+      if (limit > 0) {
+        plan.add(new String [] {"limit = " + limit,
+          "server: PageRowFilter per region; client: stops at limit"});
+      }
+    }
+    if (version != 0) {
+      plan.add(new String [] {"num_versions = " + version,
+        "server: versions fetched per column"});
+    }
+    if (timestamp != 0) {
+      plan.add(new String [] {"timestamp = " + timestamp,
+        "server: newest cells at or before timestamp"});
+    }
+    formatter.header(HEADER_EXPLAIN);
+    for (String [] p : plan) {
+      formatter.row(p);
+    }
+    formatter.footer();
+    return new ReturnMsg(1, Integer.toString(plan.size()) +
+      " condition(s) explained.");
+  }
+
+  private static String describe(final String [] condition) {
+    return (condition[0] == null ? "row" : condition[0]) + " " +
+      condition[1] + " '" + condition[2] + "'";
+  }
+
+  /*
+   * Turn the WHERE conditions, UNTIL and LIMIT into a start row, set in
+   * <code>rowKey</code>, and a filter to scan with.  Columns filtered on are
+   * added to <code>filterColumns</code>.
+   * @param plan If not null, gets a {condition, how run} pair per condition.
+   * @return Filter, or null if no filtering is needed.
+   */
+  RowFilterInterface getFilter(final List<String []> plan) {
+    Set<RowFilterInterface> filters = new HashSet<RowFilterInterface>();
+    RegExpRowFilter equals = null;
+    filterColumns.clear();
+    for (String [] c : conditions) {
+      String how = null;
+      Text value = new Text(c[2]);
+      if (c[0] == null) {
+        if (c[1].equals("=") || c[1].equals(">=") || c[1].equals(">")) {
+          if (c[1].equals(">")) {
+            // Smallest row greater than the value.
+            value = new Text(c[2] + "\u0000");
+          }
+          if (value.compareTo(rowKey) > 0) {
+            rowKey = value;
+          }
+          how = "server: start row";
+        }
+        if (c[1].equals("=")) {
+          filters.add(new WhileMatchRowFilter(new InclusiveStopRowFilter(
+            new Text(c[2]))));
+          how += ", InclusiveStopRowFilter";
+        } else if (c[1].equals("<")) {
+          filters.add(new WhileMatchRowFilter(new StopRowFilter(value)));
+          how = "server: StopRowFilter";
+        } else if (c[1].equals("<=")) {
+          filters.add(new WhileMatchRowFilter(
+            new InclusiveStopRowFilter(value)));
+          how = "server: InclusiveStopRowFilter";
+        } else if (c[1].equals("!=")) {
+          filters.add(new RegExpRowFilter("(?!" + Pattern.quote(c[2]) +
+            "$).*"));
+          how = "server: RegExpRowFilter";
+        } else if (c[1].equals("like")) {
+          filters.add(new RegExpRowFilter(c[2]));
+          how = "server: RegExpRowFilter";
+        }
+      } else {
+        Text column = new Text(c[0]);
+        // Text's backing array may be longer than the value.
+        byte [] bytes = Arrays.copyOf(value.getBytes(), value.getLength());
+        if (!filterColumns.contains(column)) {
+          filterColumns.add(column);
+        }
+        if (c[1].equals("=")) {
+          if (equals == null) {
+            equals = new RegExpRowFilter();
+            filters.add(equals);
+          }
+          equals.setColumnFilter(column, bytes);
+          how = "server: RegExpRowFilter column filter";
+        } else {
+          filters.add(new ColumnValueFilter(column, getCompareOp(c[1]),
+            bytes));
+          how = "server: ColumnValueFilter";
+        }
+      }
+      if (plan != null) {
+        plan.add(new String [] {describe(c), how});
+      }
+    }
+    if (stopRow.getLength() > 0) {
+      filters.add(new WhileMatchRowFilter(new StopRowFilter(stopRow)));
+      if (plan != null) {
+        plan.add(new String [] {"until '" + stopRow + "'",
+          "server: StopRowFilter"});
+      }
+    }
+    if (limit > 0 && !countFunction) {
+      filters.add(new PageRowFilter(limit));
+    }
+    if (filters.isEmpty()) {
+      return null;
+    }
+    return filters.size() == 1 ? filters.iterator().next() :
+      new RowFilterSet(RowFilterSet.Operator.MUST_PASS_ALL, filters);
+  }
+
+  private static ColumnValueFilter.CompareOp getCompareOp(final String op) {
+    if (op.equals("<")) {
+      return ColumnValueFilter.CompareOp.LESS;
+    } else if (op.equals("<=")) {
+      return ColumnValueFilter.CompareOp.LESS_OR_EQUAL;
+    } else if (op.equals(">")) {
+      return ColumnValueFilter.CompareOp.GREATER;
+    } else if (op.equals(">=")) {
+      return ColumnValueFilter.CompareOp.GREATER_OR_EQUAL;
+    } else if (op.equals("!=")) {
+      return ColumnValueFilter.CompareOp.NOT_EQUAL;
+    }
+    return ColumnValueFilter.CompareOp.EQUAL;
+  }
+
+  /*
+   * @param cols Columns the query asked for.
+   * @return <code>cols</code> plus the columns filtered on.
+   */
+  private Text [] withFilterColumns(final List<Text> cols) {
+    List<Text> result = new ArrayList<Text>(cols);
+    for (Text c : filterColumns) {
+      if (!result.contains(c)) {
+        result.add(c);
+      }
+    }
+    return result.toArray(new Text[result.size()]);
+  }
+
+  /*
+   * @param column
+   * @return True if the query asked for <code>column</code>, as opposed to
+   * it being scanned only so a filter can see it.
+   */
+  private boolean isRequested(final Text column) {
+    if (filterColumns.isEmpty() || columns.contains(ASTERISK)) {
+      return true;
+    }
+    String name = column.toString();
+    for (String c : columns) {
+      if (c.contains(":") ? name.equals(c) : name.startsWith(c + ":")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private boolean isMetaTable() {
     return (tableName.equals(HConstants.ROOT_TABLE_NAME) || tableName
         .equals(HConstants.META_TABLE_NAME)) ? true : false;
@@ -210,22 +433,17 @@ public class SelectCommand extends BasicCommand {
   }
 
   private int scanPrint(HTable table, HBaseAdmin admin) {
+    if (countFunction) {
+      return countRows(table, admin);
+    }
     int count = 0;
     HScannerInterface scan = null;
     try {
       ParsedColumns parsedColumns = getColumns(admin, true);
-      Text[] cols = parsedColumns.getColumns().toArray(new Text[] {});
-      if (timestamp == 0) {
-        scan = table.obtainScanner(cols, rowKey);
-      } else {
-        scan = table.obtainScanner(cols, rowKey, timestamp);
-      }
-
-      if (this.stopRow.toString().length() > 0) {
-        RowFilterInterface filter = new WhileMatchRowFilter(new StopRowFilter(
-            stopRow));
-        scan = table.obtainScanner(cols, rowKey, filter);
-      }
+      RowFilterInterface filter = getFilter(null);
+      Text[] cols = withFilterColumns(parsedColumns.getColumns());
+      scan = table.obtainScanner(cols, rowKey,
+        timestamp == 0 ? HConstants.LATEST_TIMESTAMP : timestamp, filter);
 
       HStoreKey key = new HStoreKey();
       TreeMap<Text, byte[]> results = new TreeMap<Text, byte[]>();
@@ -239,6 +457,9 @@ public class SelectCommand extends BasicCommand {
 
         if (!countFunction) {
           for (Text columnKey : results.keySet()) {
+            if (!isRequested(columnKey)) {
+              continue;
+            }
             String cellData = toString(columnKey, results.get(columnKey));
             if (parsedColumns.isMultiple()) {
               formatter.row(new String[] { r.toString(), columnKey.toString(),
@@ -270,6 +491,30 @@ public class SelectCommand extends BasicCommand {
     return count;
   }
 
+  /*
+   * Count rows without bringing them back: the region servers do the
+   * counting.
+   * @return Count of rows in range, no more than the limit if one was set.
+   */
+  private int countRows(HTable table, HBaseAdmin admin) {
+    long count = 0;
+    try {
+      ParsedColumns parsedColumns = getColumns(admin, true);
+      RowFilterInterface filter = getFilter(null);
+      Text[] cols = withFilterColumns(parsedColumns.getColumns());
+      count = table.aggregate(cols, rowKey, stopRow,
+        timestamp == 0 ? HConstants.LATEST_TIMESTAMP : timestamp,
+        filter).getRowCount();
+      if (limit > 0) {
+        count = Math.min(count, limit);
+      }
+      formatter.footer();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    return (int) Math.min(count, Integer.MAX_VALUE);
+  }
+
   /**
    * Make sense of the supplied list of columns.
    * 
@@ -335,9 +580,28 @@ public class SelectCommand extends BasicCommand {
     this.limit = limit;
   }
 
-  public void setWhere(boolean isWhereClause) {
-    if (isWhereClause)
-      this.whereClause = true;
+  /**
+   * Add a WHERE condition.
+   * @param column Column compared, or null to compare the row key.  A bare
+   * family name is refused when the command runs, as is a second '=' on the
+   * same column.
+   * @param operator One of =, !=, &lt;, &lt;=, &gt;, &gt;= or like.  Like
+   * matches the row key against a regular expression.
+   * @param value Value compared to.
+   */
+  public void addCondition(String column, String operator, String value) {
+    this.conditions.add(new String [] {column, operator, value});
+    if (column == null && operator.equals("=")) {
+      this.rowKey = new Text(value);
+    }
+  }
+
+  /**
+   * @param explain True if we are to show how the query would be run rather
+   * than run it.
+   */
+  public void setExplain(boolean explain) {
+    this.explain = explain;
   }
 
   public void setTimestamp(String timestamp) {
@@ -73,9 +73,10 @@ public class HQLParser implements HQLParserConstants {
     case INSERT:
     case DELETE:
     case SELECT:
+    case EXPLAIN:
     case ENABLE:
     case DISABLE:
-    case 68:
+    case 71:
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
       case HELP:
       case ALTER:
@@ -92,6 +93,7 @@ public class HQLParser implements HQLParserConstants {
       case INSERT:
       case DELETE:
       case SELECT:
+      case EXPLAIN:
       case ENABLE:
       case DISABLE:
         statement = cmdStatement();
@@ -100,7 +102,7 @@ public class HQLParser implements HQLParserConstants {
         jj_la1[0] = jj_gen;
         ;
       }
-      jj_consume_token(68);
+      jj_consume_token(71);
       break;
     case 0:
       jj_consume_token(0);
@@ -151,6 +153,9 @@ public class HQLParser implements HQLParserConstants {
     case SELECT:
       cmd = selectCommand();
       break;
+    case EXPLAIN:
+      cmd = explainCommand();
+      break;
     case ENABLE:
       cmd = enableCommand();
       break;
@@ -282,6 +287,7 @@ public class HQLParser implements HQLParserConstants {
     case INSERT:
     case DELETE:
     case SELECT:
+    case EXPLAIN:
     case ID:
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
       case SHOW:
@@ -308,6 +314,9 @@ public class HQLParser implements HQLParserConstants {
       case SELECT:
         t = jj_consume_token(SELECT);
         break;
+      case EXPLAIN:
+        t = jj_consume_token(EXPLAIN);
+        break;
       case ALTER:
         t = jj_consume_token(ALTER);
         break;
@@ -493,6 +502,7 @@ public class HQLParser implements HQLParserConstants {
   String table = null;
   Map<String, Object> columnSpec = null;
   String column = null;
+  List<String> splitKeys = null;
     jj_consume_token(CREATE);
     jj_consume_token(TABLE);
     table = identifier();
@@ -517,6 +527,16 @@ public class HQLParser implements HQLParserConstants {
         createCommand.addColumnSpec(column, columnSpec);
     }
     jj_consume_token(RPAREN);
+    switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+    case SPLITS:
+      jj_consume_token(SPLITS);
+      splitKeys = getLiteralValues();
+      createCommand.setSplitKeys(splitKeys);
+      break;
+    default:
+      jj_la1[16] = jj_gen;
+      ;
+    }
     {if (true) return createCommand;}
     throw new Error("Missing return statement in function");
   }
@@ -552,7 +572,7 @@ public class HQLParser implements HQLParserConstants {
             ;
             break;
           default:
-            jj_la1[16] = jj_gen;
+            jj_la1[17] = jj_gen;
             break label_5;
           }
           jj_consume_token(COMMA);
@@ -576,7 +596,7 @@ public class HQLParser implements HQLParserConstants {
       alterCommand.addColumnSpec(column, columnSpec);
         break;
       default:
-        jj_la1[17] = jj_gen;
+        jj_la1[18] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -623,7 +643,7 @@ public class HQLParser implements HQLParserConstants {
       t = jj_consume_token(QUOTED_IDENTIFIER);
       break;
     default:
-      jj_la1[18] = jj_gen;
+      jj_la1[19] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -635,7 +655,7 @@ public class HQLParser implements HQLParserConstants {
        in.setTimestamp(timestamp);
       break;
     default:
-      jj_la1[19] = jj_gen;
+      jj_la1[20] = jj_gen;
       ;
     }
     {if (true) return in;}
@@ -666,14 +686,14 @@ public class HQLParser implements HQLParserConstants {
         t = jj_consume_token(QUOTED_IDENTIFIER);
         break;
       default:
-        jj_la1[20] = jj_gen;
+        jj_la1[21] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
      deleteCommand.setRow(t.image.substring(1, t.image.length()-1));
       break;
     default:
-      jj_la1[21] = jj_gen;
+      jj_la1[22] = jj_gen;
       ;
     }
     {if (true) return deleteCommand;}
@@ -704,7 +724,7 @@ public class HQLParser implements HQLParserConstants {
       columns = columnList();
       break;
     default:
-      jj_la1[22] = jj_gen;
+      jj_la1[23] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -718,21 +738,32 @@ public class HQLParser implements HQLParserConstants {
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
       case WHERE:
         jj_consume_token(WHERE);
-        jj_consume_token(ROW);
-        jj_consume_token(EQUALS);
-       select.setWhere(true);
+        whereCondition(select);
+        label_6:
+        while (true) {
+          switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+          case AND:
+            ;
+            break;
+          default:
+            jj_la1[24] = jj_gen;
+            break label_6;
+          }
+          jj_consume_token(AND);
+          whereCondition(select);
+        }
         break;
       case STARTING:
         jj_consume_token(STARTING);
         jj_consume_token(FROM);
+        rowKey = getStringLiteral();
+         select.setRowKey(rowKey);
         break;
       default:
-        jj_la1[23] = jj_gen;
+        jj_la1[25] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
-      rowKey = getStringLiteral();
-       select.setRowKey(rowKey);
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
       case UNTIL:
         jj_consume_token(UNTIL);
@@ -740,12 +771,12 @@ public class HQLParser implements HQLParserConstants {
       select.setStopRow(stopRow);
         break;
       default:
-        jj_la1[24] = jj_gen;
+        jj_la1[26] = jj_gen;
         ;
       }
       break;
     default:
-      jj_la1[25] = jj_gen;
+      jj_la1[27] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
@@ -755,7 +786,7 @@ public class HQLParser implements HQLParserConstants {
        select.setTimestamp(timestamp);
       break;
     default:
-      jj_la1[26] = jj_gen;
+      jj_la1[28] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
@@ -766,7 +797,7 @@ public class HQLParser implements HQLParserConstants {
         select.setVersion(numVersion);
       break;
     default:
-      jj_la1[27] = jj_gen;
+      jj_la1[29] = jj_gen;
       ;
     }
     switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
@@ -781,13 +812,97 @@ public class HQLParser implements HQLParserConstants {
       }
       break;
     default:
-      jj_la1[28] = jj_gen;
+      jj_la1[30] = jj_gen;
       ;
     }
     {if (true) return select;}
     throw new Error("Missing return statement in function");
   }
 
+  final public void whereCondition(SelectCommand select) throws ParseException {
+  String column = null;
+  String operator = null;
+  String value = null;
+    switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+    case ROW:
+      jj_consume_token(ROW);
+      break;
+    case ASTERISK:
+    case ID:
+    case INTEGER_LITERAL:
+    case QUOTED_IDENTIFIER:
+    case STRING_LITERAL:
+      column = getColumn();
+      break;
+    default:
+      jj_la1[31] = jj_gen;
+      jj_consume_token(-1);
+      throw new ParseException();
+    }
+    operator = comparison();
+    value = getStringLiteral();
+    select.addCondition(column, operator, value);
+  }
+
+  final public String comparison() throws ParseException {
+  String operator = null;
+    switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+    case EQUALS:
+      jj_consume_token(EQUALS);
+                 operator = "=";
+      break;
+    case NOTEQUAL:
+      jj_consume_token(NOTEQUAL);
+                   operator = "!=";
+      break;
+    case LCOMP:
+      jj_consume_token(LCOMP);
+                operator = ">";
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case EQUALS:
+        jj_consume_token(EQUALS);
+                                               operator = ">=";
+        break;
+      default:
+        jj_la1[32] = jj_gen;
+        ;
+      }
+      break;
+    case RCOMP:
+      jj_consume_token(RCOMP);
+                operator = "<";
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case EQUALS:
+        jj_consume_token(EQUALS);
+                                               operator = "<=";
+        break;
+      default:
+        jj_la1[33] = jj_gen;
+        ;
+      }
+      break;
+    case LIKE:
+      jj_consume_token(LIKE);
+               operator = "like";
+      break;
+    default:
+      jj_la1[34] = jj_gen;
+      jj_consume_token(-1);
+      throw new ParseException();
+    }
+    {if (true) return operator;}
+    throw new Error("Missing return statement in function");
+  }
+
+  final public SelectCommand explainCommand() throws ParseException {
+  SelectCommand select = null;
+    jj_consume_token(EXPLAIN);
+    select = selectCommand();
+    select.setExplain(true);
+    {if (true) return select;}
+    throw new Error("Missing return statement in function");
+  }
+
   final public EnableCommand enableCommand() throws ParseException {
   EnableCommand enableCommand = new EnableCommand(this.out);
   String table = null;
@@ -821,15 +936,15 @@ public class HQLParser implements HQLParserConstants {
     jj_consume_token(LPAREN);
     literal = getStringLiteral();
     if(literal != null) values.add(literal);
-    label_6:
+    label_7:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
       case COMMA:
         ;
         break;
       default:
-        jj_la1[29] = jj_gen;
-        break label_6;
+        jj_la1[35] = jj_gen;
+        break label_7;
       }
       jj_consume_token(COMMA);
            literal = getStringLiteral();
@@ -854,7 +969,7 @@ public class HQLParser implements HQLParserConstants {
         s = jj_consume_token(QUOTED_IDENTIFIER);
         break;
       default:
-        jj_la1[30] = jj_gen;
+        jj_la1[36] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -875,7 +990,7 @@ public class HQLParser implements HQLParserConstants {
         s = jj_consume_token(ASTERISK);
         break;
       default:
-        jj_la1[31] = jj_gen;
+        jj_la1[37] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -883,7 +998,7 @@ public class HQLParser implements HQLParserConstants {
      {if (true) return value;}
       break;
     default:
-      jj_la1[32] = jj_gen;
+      jj_la1[38] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -907,7 +1022,7 @@ public class HQLParser implements HQLParserConstants {
         col = jj_consume_token(ASTERISK);
         break;
       default:
-        jj_la1[33] = jj_gen;
+        jj_la1[39] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -923,14 +1038,14 @@ public class HQLParser implements HQLParserConstants {
         col = jj_consume_token(STRING_LITERAL);
         break;
       default:
-        jj_la1[34] = jj_gen;
+        jj_la1[40] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
         {if (true) return col.image.substring(1,col.image.toString().length() - 1);}
       break;
     default:
-      jj_la1[35] = jj_gen;
+      jj_la1[41] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -943,15 +1058,15 @@ public class HQLParser implements HQLParserConstants {
     jj_consume_token(LPAREN);
    literal = getColumn();
  if(literal != null) values.add(literal);
-    label_7:
+    label_8:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
       case COMMA:
         ;
         break;
       default:
-        jj_la1[36] = jj_gen;
-        break label_7;
+        jj_la1[42] = jj_gen;
+        break label_8;
       }
       jj_consume_token(COMMA);
         literal = getColumn();
@@ -967,15 +1082,15 @@ public class HQLParser implements HQLParserConstants {
   String table = null;
     table = identifier();
                          tableList.add(table);
-    label_8:
+    label_9:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
       case COMMA:
         ;
         break;
       default:
-        jj_la1[37] = jj_gen;
-        break label_8;
+        jj_la1[43] = jj_gen;
+        break label_9;
       }
       jj_consume_token(COMMA);
       table = identifier();
@@ -994,15 +1109,15 @@ public class HQLParser implements HQLParserConstants {
       } else {
         {if (true) return columnList;}
       }
-    label_9:
+    label_10:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
       case COMMA:
         ;
         break;
       default:
-        jj_la1[38] = jj_gen;
-        break label_9;
+        jj_la1[44] = jj_gen;
+        break label_10;
       }
       jj_consume_token(COMMA);
       column = getColumn();
@@ -1023,7 +1138,7 @@ public class HQLParser implements HQLParserConstants {
       t = jj_consume_token(INTEGER_LITERAL);
       break;
     default:
-      jj_la1[39] = jj_gen;
+      jj_la1[45] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -1052,14 +1167,14 @@ public class HQLParser implements HQLParserConstants {
         t = jj_consume_token(STRING_LITERAL);
         break;
       default:
-        jj_la1[40] = jj_gen;
+        jj_la1[46] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
        {if (true) return t.image.substring(1,t.image.toString().length() - 1);}
       break;
     default:
-      jj_la1[41] = jj_gen;
+      jj_la1[47] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -1080,33 +1195,33 @@ public class HQLParser implements HQLParserConstants {
     finally { jj_save(0, xla); }
   }
 
-  final private boolean jj_3R_11() {
+  final private boolean jj_3R_12() {
     if (jj_scan_token(ID)) return true;
     return false;
   }
 
-  final private boolean jj_3R_10() {
+  final private boolean jj_3R_11() {
     Token xsp;
     xsp = jj_scanpos;
-    if (jj_3R_11()) {
+    if (jj_3R_12()) {
     jj_scanpos = xsp;
-    if (jj_3R_12()) return true;
+    if (jj_3R_13()) return true;
     }
     return false;
   }
 
   final private boolean jj_3_1() {
     if (jj_scan_token(ADD)) return true;
-    if (jj_3R_10()) return true;
+    if (jj_3R_11()) return true;
     return false;
   }
 
-  final private boolean jj_3R_12() {
+  final private boolean jj_3R_13() {
     Token xsp;
     xsp = jj_scanpos;
-    if (jj_scan_token(66)) {
+    if (jj_scan_token(69)) {
     jj_scanpos = xsp;
-    if (jj_scan_token(67)) return true;
+    if (jj_scan_token(70)) return true;
     }
     return false;
   }
@@ -1120,7 +1235,7 @@ public class HQLParser implements HQLParserConstants {
   public boolean lookingAhead = false;
   private boolean jj_semLA;
   private int jj_gen;
-  final private int[] jj_la1 = new int[42];
+  final private int[] jj_la1 = new int[48];
   static private int[] jj_la1_0;
   static private int[] jj_la1_1;
   static private int[] jj_la1_2;
@@ -1130,13 +1245,13 @@ public class HQLParser implements HQLParserConstants {
       jj_la1_2();
    }
    private static void jj_la1_0() {
-      jj_la1_0 = new int[] {0xf3ffe0,0xf3ffe1,0xf3ffe0,0x0,0x0,0x0,0x0,0x33dbc0,0x33dbc0,0x0,0x600,0x0,0x0,0x0,0x0,0x0,0x0,0x1000,0x0,0x80000000,0x0,0x2000000,0x0,0x3000000,0x8000000,0x3000000,0x80000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,};
+      jj_la1_0 = new int[] {0x1f3ffe0,0x1f3ffe1,0x1f3ffe0,0x0,0x0,0x0,0x0,0x73dbc0,0x73dbc0,0x0,0x600,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x1000,0x0,0x0,0x0,0x4000000,0x0,0x0,0x6000000,0x10000000,0x6000000,0x0,0x0,0x0,0x20000000,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,};
    }
    private static void jj_la1_1() {
-      jj_la1_1 = new int[] {0x0,0x0,0x0,0x40000000,0xc0000000,0xc0000000,0x40000000,0x40000000,0x40000000,0x40000000,0x0,0x731c000,0xe0000,0xe00000,0x731c000,0x10,0x10,0x18000000,0x0,0x0,0x0,0x0,0xe0002000,0x0,0x0,0x0,0x0,0x1,0x2,0x10,0x0,0xc0002000,0xc0002000,0xc0002000,0x0,0xc0002000,0x10,0x10,0x10,0xc0000000,0x0,0x40000000,};
+      jj_la1_1 = new int[] {0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x1cc70000,0x380000,0x3800000,0x1cc70000,0x20,0x80000000,0x20,0x60000000,0x0,0x1,0x0,0x0,0x8000,0x8,0x0,0x0,0x0,0x1,0x2,0x4,0x8000,0x100,0x100,0x5700,0x20,0x0,0x8000,0x8000,0x8000,0x0,0x8000,0x20,0x20,0x20,0x0,0x0,0x0,};
    }
    private static void jj_la1_2() {
-      jj_la1_2 = new int[] {0x0,0x10,0x0,0x0,0x1,0x1,0xc,0x0,0x0,0xc,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xc,0x0,0xc,0x0,0xc,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0xc,0x0,0xc,0x0,0xc,0xc,0x0,0x0,0x0,0x0,0xc,0xc,};
+      jj_la1_2 = new int[] {0x0,0x80,0x0,0x2,0xe,0xe,0x62,0x2,0x2,0x62,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x60,0x0,0x60,0x0,0x67,0x0,0x0,0x0,0x0,0x0,0x0,0x0,0x66,0x0,0x0,0x0,0x0,0x60,0x6,0x66,0x6,0x60,0x66,0x0,0x0,0x0,0x6,0x60,0x62,};
    }
   final private JJCalls[] jj_2_rtns = new JJCalls[1];
   private boolean jj_rescan = false;
@@ -1151,7 +1266,7 @@ public class HQLParser implements HQLParserConstants {
     token = new Token();
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 42; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 48; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1164,7 +1279,7 @@ public class HQLParser implements HQLParserConstants {
     token = new Token();
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 42; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 48; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1174,7 +1289,7 @@ public class HQLParser implements HQLParserConstants {
     token = new Token();
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 42; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 48; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1184,7 +1299,7 @@ public class HQLParser implements HQLParserConstants {
     token = new Token();
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 42; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 48; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1193,7 +1308,7 @@ public class HQLParser implements HQLParserConstants {
     token = new Token();
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 42; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 48; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1202,7 +1317,7 @@ public class HQLParser implements HQLParserConstants {
     token = new Token();
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 42; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 48; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1313,15 +1428,15 @@ public class HQLParser implements HQLParserConstants {
 
   public ParseException generateParseException() {
     jj_expentries.removeAllElements();
-    boolean[] la1tokens = new boolean[69];
-    for (int i = 0; i < 69; i++) {
+    boolean[] la1tokens = new boolean[72];
+    for (int i = 0; i < 72; i++) {
       la1tokens[i] = false;
     }
     if (jj_kind >= 0) {
       la1tokens[jj_kind] = true;
       jj_kind = -1;
     }
-    for (int i = 0; i < 42; i++) {
+    for (int i = 0; i < 48; i++) {
       if (jj_la1[i] == jj_gen) {
         for (int j = 0; j < 32; j++) {
           if ((jj_la1_0[i] & (1<<j)) != 0) {
@@ -1336,7 +1451,7 @@ public class HQLParser implements HQLParserConstants {
         }
       }
     }
-    for (int i = 0; i < 69; i++) {
+    for (int i = 0; i < 72; i++) {
       if (la1tokens[i]) {
         jj_expentry = new int[1];
         jj_expentry[0] = i;
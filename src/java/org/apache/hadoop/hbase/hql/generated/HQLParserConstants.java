@@ -21,52 +21,55 @@ public interface HQLParserConstants {
   int TABLE = 19;
   int DELETE = 20;
   int SELECT = 21;
-  int ENABLE = 22;
-  int DISABLE = 23;
-  int STARTING = 24;
-  int WHERE = 25;
-  int FROM = 26;
-  int UNTIL = 27;
-  int ROW = 28;
-  int VALUES = 29;
-  int COLUMNFAMILIES = 30;
-  int TIMESTAMP = 31;
-  int NUM_VERSIONS = 32;
-  int LIMIT = 33;
-  int AND = 34;
-  int OR = 35;
-  int COMMA = 36;
-  int LPAREN = 37;
-  int RPAREN = 38;
-  int EQUALS = 39;
-  int LCOMP = 40;
-  int RCOMP = 41;
-  int NOT = 42;
-  int IN = 43;
-  int NOTEQUAL = 44;
-  int ASTERISK = 45;
-  int MAX_VERSIONS = 46;
-  int MAX_LENGTH = 47;
-  int COMPRESSION = 48;
-  int NONE = 49;
-  int BLOCK = 50;
-  int RECORD = 51;
-  int IN_MEMORY = 52;
-  int BLOOMFILTER = 53;
-  int COUNTING_BLOOMFILTER = 54;
-  int RETOUCHED_BLOOMFILTER = 55;
-  int VECTOR_SIZE = 56;
-  int NUM_HASH = 57;
-  int NUM_ENTRIES = 58;
-  int ADD = 59;
-  int CHANGE = 60;
-  int COUNT = 61;
-  int ID = 62;
-  int INTEGER_LITERAL = 63;
-  int FLOATING_POINT_LITERAL = 64;
-  int EXPONENT = 65;
-  int QUOTED_IDENTIFIER = 66;
-  int STRING_LITERAL = 67;
+  int EXPLAIN = 22;
+  int ENABLE = 23;
+  int DISABLE = 24;
+  int STARTING = 25;
+  int WHERE = 26;
+  int FROM = 27;
+  int UNTIL = 28;
+  int ROW = 29;
+  int VALUES = 30;
+  int COLUMNFAMILIES = 31;
+  int TIMESTAMP = 32;
+  int NUM_VERSIONS = 33;
+  int LIMIT = 34;
+  int AND = 35;
+  int OR = 36;
+  int COMMA = 37;
+  int LPAREN = 38;
+  int RPAREN = 39;
+  int EQUALS = 40;
+  int LCOMP = 41;
+  int RCOMP = 42;
+  int NOT = 43;
+  int LIKE = 44;
+  int IN = 45;
+  int NOTEQUAL = 46;
+  int ASTERISK = 47;
+  int MAX_VERSIONS = 48;
+  int MAX_LENGTH = 49;
+  int COMPRESSION = 50;
+  int NONE = 51;
+  int BLOCK = 52;
+  int RECORD = 53;
+  int IN_MEMORY = 54;
+  int BLOOMFILTER = 55;
+  int COUNTING_BLOOMFILTER = 56;
+  int RETOUCHED_BLOOMFILTER = 57;
+  int VECTOR_SIZE = 58;
+  int NUM_HASH = 59;
+  int NUM_ENTRIES = 60;
+  int ADD = 61;
+  int CHANGE = 62;
+  int SPLITS = 63;
+  int COUNT = 64;
+  int ID = 65;
+  int INTEGER_LITERAL = 66;
+  int FLOATING_POINT_LITERAL = 67;
+  int EXPONENT = 68;
+  int QUOTED_IDENTIFIER = 69;
+  int STRING_LITERAL = 70;
 
   int DEFAULT = 0;
 
@@ -93,6 +96,7 @@ public interface HQLParserConstants {
     "\"table\"",
     "\"delete\"",
     "\"select\"",
+    "\"explain\"",
     "\"enable\"",
     "\"disable\"",
     "\"starting\"",
@@ -114,6 +118,7 @@ public interface HQLParserConstants {
     "\">\"",
     "\"<\"",
     "\"not\"",
+    "\"like\"",
     "\"in\"",
     "\"!=\"",
     "\"*\"",
@@ -132,6 +137,7 @@ public interface HQLParserConstants {
     "\"num_entries\"",
     "\"add\"",
     "\"change\"",
+    "\"splits\"",
     "\"count\"",
     "<ID>",
     "<INTEGER_LITERAL>",
@@ -40,197 +40,197 @@ private final int jjStopStringLiteralDfa_0(int pos, long active0, long active1)
    switch (pos)
    {
       case 0:
-         if ((active0 & 0x3fffcc0fffffffe0L) != 0L)
+         if ((active0 & 0xffff381fffffffe0L) != 0L || (active1 & 0x1L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             return 1;
          }
          return -1;
       case 1:
-         if ((active0 & 0x3fefc407fff9bfe0L) != 0L)
+         if ((active0 & 0xffbf180ffff9bfe0L) != 0L || (active1 & 0x1L) != 0L)
          {
             if (jjmatchedPos != 1)
             {
-               jjmatchedKind = 62;
+               jjmatchedKind = 65;
                jjmatchedPos = 1;
             }
             return 1;
          }
-         if ((active0 & 0x10080800064000L) != 0L)
+         if ((active0 & 0x40201000064000L) != 0L)
             return 1;
          return -1;
       case 2:
-         if ((active0 & 0x37ffc003efff3fe0L) != 0L)
+         if ((active0 & 0xdfff1007dfff3fe0L) != 0L || (active1 & 0x1L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 2;
             return 1;
          }
-         if ((active0 & 0x800040410008000L) != 0L)
+         if ((active0 & 0x2000080820008000L) != 0L)
             return 1;
          return -1;
       case 3:
-         if ((active0 & 0x37fdc003ebfa28c0L) != 0L)
+         if ((active0 & 0xdff70007d7fa28c0L) != 0L || (active1 & 0x1L) != 0L)
          {
             if (jjmatchedPos != 3)
             {
-               jjmatchedKind = 62;
+               jjmatchedKind = 65;
                jjmatchedPos = 3;
             }
             return 1;
          }
-         if ((active0 & 0x2000004051720L) != 0L)
+         if ((active0 & 0x8100008051720L) != 0L)
             return 1;
          return -1;
       case 4:
-         if ((active0 & 0x17b9c001e1f22a00L) != 0L)
+         if ((active0 & 0xdee70003c3f22a00L) != 0L)
          {
             if (jjmatchedPos != 4)
             {
-               jjmatchedKind = 62;
+               jjmatchedKind = 65;
                jjmatchedPos = 4;
             }
             return 1;
          }
-         if ((active0 & 0x204400020a0800c0L) != 0L)
+         if ((active0 & 0x1100004140800c0L) != 0L || (active1 & 0x1L) != 0L)
             return 1;
          return -1;
       case 5:
-         if ((active0 & 0x1008000020720800L) != 0L)
-            return 1;
-         if ((active0 & 0x7f1c001c1802200L) != 0L)
+         if ((active0 & 0x1fc7000383402200L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 5;
             return 1;
          }
+         if ((active0 & 0xc020000040b20800L) != 0L)
+            return 1;
          return -1;
       case 6:
-         if ((active0 & 0x800000L) != 0L)
+         if ((active0 & 0x1400000L) != 0L)
             return 1;
-         if ((active0 & 0x7f1c001c1002200L) != 0L)
+         if ((active0 & 0x1fc7000382002200L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 6;
             return 1;
          }
          return -1;
       case 7:
-         if ((active0 & 0x200000001002200L) != 0L)
+         if ((active0 & 0x800000002002200L) != 0L)
             return 1;
-         if ((active0 & 0x5f1c001c0000000L) != 0L)
+         if ((active0 & 0x17c7000380000000L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 7;
             return 1;
          }
          return -1;
       case 8:
-         if ((active0 & 0x10000080000000L) != 0L)
+         if ((active0 & 0x40000100000000L) != 0L)
             return 1;
-         if ((active0 & 0x5e1c00140000000L) != 0L)
+         if ((active0 & 0x1787000280000000L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 8;
             return 1;
          }
          return -1;
       case 9:
-         if ((active0 & 0x800000000000L) != 0L)
+         if ((active0 & 0x2000000000000L) != 0L)
             return 1;
-         if ((active0 & 0x5e1400140000000L) != 0L)
+         if ((active0 & 0x1785000280000000L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 9;
             return 1;
          }
          return -1;
       case 10:
-         if ((active0 & 0x521000000000000L) != 0L)
+         if ((active0 & 0x1484000000000000L) != 0L)
             return 1;
-         if ((active0 & 0xc0400140000000L) != 0L)
+         if ((active0 & 0x301000280000000L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 10;
             return 1;
          }
          return -1;
       case 11:
-         if ((active0 & 0x400100000000L) != 0L)
+         if ((active0 & 0x1000200000000L) != 0L)
             return 1;
-         if ((active0 & 0xc0000040000000L) != 0L)
+         if ((active0 & 0x300000080000000L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 11;
             return 1;
          }
          return -1;
       case 12:
-         if ((active0 & 0xc0000040000000L) != 0L)
+         if ((active0 & 0x300000080000000L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 12;
             return 1;
          }
          return -1;
       case 13:
-         if ((active0 & 0x40000000L) != 0L)
+         if ((active0 & 0x80000000L) != 0L)
             return 1;
-         if ((active0 & 0xc0000000000000L) != 0L)
+         if ((active0 & 0x300000000000000L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 13;
             return 1;
          }
          return -1;
       case 14:
-         if ((active0 & 0xc0000000000000L) != 0L)
+         if ((active0 & 0x300000000000000L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 14;
             return 1;
          }
          return -1;
       case 15:
-         if ((active0 & 0xc0000000000000L) != 0L)
+         if ((active0 & 0x300000000000000L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 15;
             return 1;
          }
          return -1;
       case 16:
-         if ((active0 & 0xc0000000000000L) != 0L)
+         if ((active0 & 0x300000000000000L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 16;
             return 1;
          }
          return -1;
       case 17:
-         if ((active0 & 0xc0000000000000L) != 0L)
+         if ((active0 & 0x300000000000000L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 17;
             return 1;
          }
          return -1;
       case 18:
-         if ((active0 & 0xc0000000000000L) != 0L)
+         if ((active0 & 0x300000000000000L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 18;
             return 1;
          }
          return -1;
       case 19:
-         if ((active0 & 0x80000000000000L) != 0L)
+         if ((active0 & 0x200000000000000L) != 0L)
          {
-            jjmatchedKind = 62;
+            jjmatchedKind = 65;
             jjmatchedPos = 19;
             return 1;
          }
-         if ((active0 & 0x40000000000000L) != 0L)
+         if ((active0 & 0x100000000000000L) != 0L)
             return 1;
          return -1;
       default :
@@ -260,131 +260,134 @@ private final int jjMoveStringLiteralDfa0_0()
    switch(curChar)
    {
       case 33:
-         return jjMoveStringLiteralDfa1_0(0x100000000000L);
+         return jjMoveStringLiteralDfa1_0(0x400000000000L, 0x0L);
       case 40:
-         return jjStopAtPos(0, 37);
-      case 41:
          return jjStopAtPos(0, 38);
+      case 41:
+         return jjStopAtPos(0, 39);
       case 42:
-         return jjStopAtPos(0, 45);
+         return jjStopAtPos(0, 47);
       case 44:
-         return jjStopAtPos(0, 36);
+         return jjStopAtPos(0, 37);
       case 59:
-         return jjStopAtPos(0, 68);
+         return jjStopAtPos(0, 71);
       case 60:
-         return jjStopAtPos(0, 41);
+         return jjStopAtPos(0, 42);
       case 61:
-         return jjStopAtPos(0, 39);
-      case 62:
          return jjStopAtPos(0, 40);
+      case 62:
+         return jjStopAtPos(0, 41);
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa1_0(0x800000400000040L);
+         return jjMoveStringLiteralDfa1_0(0x2000000800000040L, 0x0L);
       case 66:
       case 98:
-         return jjMoveStringLiteralDfa1_0(0x24000000000000L);
+         return jjMoveStringLiteralDfa1_0(0x90000000000000L, 0x0L);
       case 67:
       case 99:
-         return jjMoveStringLiteralDfa1_0(0x3041000040000880L);
+         return jjMoveStringLiteralDfa1_0(0x4104000080000880L, 0x1L);
       case 68:
       case 100:
-         return jjMoveStringLiteralDfa1_0(0x901600L);
+         return jjMoveStringLiteralDfa1_0(0x1101600L, 0x0L);
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa1_0(0x410000L);
+         return jjMoveStringLiteralDfa1_0(0xc10000L, 0x0L);
       case 70:
       case 102:
-         return jjMoveStringLiteralDfa1_0(0x4004000L);
+         return jjMoveStringLiteralDfa1_0(0x8004000L, 0x0L);
       case 72:
       case 104:
-         return jjMoveStringLiteralDfa1_0(0x20L);
+         return jjMoveStringLiteralDfa1_0(0x20L, 0x0L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa1_0(0x10080000060000L);
+         return jjMoveStringLiteralDfa1_0(0x40200000060000L, 0x0L);
       case 74:
       case 106:
-         return jjMoveStringLiteralDfa1_0(0x8000L);
+         return jjMoveStringLiteralDfa1_0(0x8000L, 0x0L);
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa1_0(0x200000000L);
+         return jjMoveStringLiteralDfa1_0(0x100400000000L, 0x0L);
       case 77:
       case 109:
-         return jjMoveStringLiteralDfa1_0(0xc00000000000L);
+         return jjMoveStringLiteralDfa1_0(0x3000000000000L, 0x0L);
       case 78:
       case 110:
-         return jjMoveStringLiteralDfa1_0(0x602040100000000L);
+         return jjMoveStringLiteralDfa1_0(0x1808080200000000L, 0x0L);
       case 79:
       case 111:
-         return jjMoveStringLiteralDfa1_0(0x800000000L);
+         return jjMoveStringLiteralDfa1_0(0x1000000000L, 0x0L);
       case 82:
       case 114:
-         return jjMoveStringLiteralDfa1_0(0x88000010000000L);
+         return jjMoveStringLiteralDfa1_0(0x220000020000000L, 0x0L);
       case 83:
       case 115:
-         return jjMoveStringLiteralDfa1_0(0x1200100L);
+         return jjMoveStringLiteralDfa1_0(0x8000000002200100L, 0x0L);
       case 84:
       case 116:
-         return jjMoveStringLiteralDfa1_0(0x80082000L);
+         return jjMoveStringLiteralDfa1_0(0x100082000L, 0x0L);
       case 85:
       case 117:
-         return jjMoveStringLiteralDfa1_0(0x8000000L);
+         return jjMoveStringLiteralDfa1_0(0x10000000L, 0x0L);
       case 86:
       case 118:
-         return jjMoveStringLiteralDfa1_0(0x100000020000000L);
+         return jjMoveStringLiteralDfa1_0(0x400000040000000L, 0x0L);
       case 87:
       case 119:
-         return jjMoveStringLiteralDfa1_0(0x2000000L);
+         return jjMoveStringLiteralDfa1_0(0x4000000L, 0x0L);
       default :
          return jjMoveNfa_0(0, 0);
    }
 }
-private final int jjMoveStringLiteralDfa1_0(long active0)
+private final int jjMoveStringLiteralDfa1_0(long active0, long active1)
 {
    try { curChar = input_stream.readChar(); }
    catch(java.io.IOException e) {
-      jjStopStringLiteralDfa_0(0, active0, 0L);
+      jjStopStringLiteralDfa_0(0, active0, active1);
       return 1;
    }
    switch(curChar)
    {
       case 61:
-         if ((active0 & 0x100000000000L) != 0L)
-            return jjStopAtPos(1, 44);
+         if ((active0 & 0x400000000000L) != 0L)
+            return jjStopAtPos(1, 46);
          break;
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa2_0(active0, 0xc00020088000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x3000040088000L, active1, 0L);
       case 68:
       case 100:
-         return jjMoveStringLiteralDfa2_0(active0, 0x800000000000000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x2000000000000000L, active1, 0L);
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa2_0(active0, 0x188000000300620L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x620000000300620L, active1, 0L);
       case 72:
       case 104:
-         return jjMoveStringLiteralDfa2_0(active0, 0x1000000002000100L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x4000000004000100L, active1, 0L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa2_0(active0, 0x280800000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x100501000000L, active1, 0L);
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa2_0(active0, 0x240000000000c0L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x900000000000c0L, active1, 0L);
       case 78:
       case 110:
-         if ((active0 & 0x80000000000L) != 0L)
+         if ((active0 & 0x200000000000L) != 0L)
          {
-            jjmatchedKind = 43;
+            jjmatchedKind = 45;
             jjmatchedPos = 1;
          }
-         return jjMoveStringLiteralDfa2_0(active0, 0x10000408460000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x40000810860000L, active1, 0L);
       case 79:
       case 111:
-         return jjMoveStringLiteralDfa2_0(active0, 0x2043040050000000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x10c0800a0000000L, active1, 0x1L);
+      case 80:
+      case 112:
+         return jjMoveStringLiteralDfa2_0(active0, 0x8000000000000000L, active1, 0L);
       case 82:
       case 114:
-         if ((active0 & 0x800000000L) != 0L)
-            return jjStartNfaWithStates_0(1, 35, 1);
-         return jjMoveStringLiteralDfa2_0(active0, 0x4003800L);
+         if ((active0 & 0x1000000000L) != 0L)
+            return jjStartNfaWithStates_0(1, 36, 1);
+         return jjMoveStringLiteralDfa2_0(active0, 0x8003800L, active1, 0L);
       case 83:
       case 115:
          if ((active0 & 0x4000L) != 0L)
@@ -392,65 +395,71 @@ private final int jjMoveStringLiteralDfa1_0(long active0)
          break;
       case 84:
       case 116:
-         return jjMoveStringLiteralDfa2_0(active0, 0x1000000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x2000000L, active1, 0L);
       case 85:
       case 117:
-         return jjMoveStringLiteralDfa2_0(active0, 0x600000100000000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x1800000200000000L, active1, 0L);
       case 88:
       case 120:
-         return jjMoveStringLiteralDfa2_0(active0, 0x10000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x410000L, active1, 0L);
       default :
          break;
    }
-   return jjStartNfa_0(0, active0, 0L);
+   return jjStartNfa_0(0, active0, active1);
 }
-private final int jjMoveStringLiteralDfa2_0(long old0, long active0)
+private final int jjMoveStringLiteralDfa2_0(long old0, long active0, long old1, long active1)
 {
-   if (((active0 &= old0)) == 0L)
-      return jjStartNfa_0(0, old0, 0L);
+   if (((active0 &= old0) | (active1 &= old1)) == 0L)
+      return jjStartNfa_0(0, old0, old1); 
    try { curChar = input_stream.readChar(); }
    catch(java.io.IOException e) {
-      jjStopStringLiteralDfa_0(1, active0, 0L);
+      jjStopStringLiteralDfa_0(1, active0, active1);
       return 2;
    }
    switch(curChar)
    {
       case 95:
-         return jjMoveStringLiteralDfa3_0(active0, 0x10000000000000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x40000000000000L, active1, 0L);
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa3_0(active0, 0x1000000001400000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x4000000002800000L, active1, 0L);
       case 66:
       case 98:
-         return jjMoveStringLiteralDfa3_0(active0, 0x80000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x80000L, active1, 0L);
       case 67:
       case 99:
-         return jjMoveStringLiteralDfa3_0(active0, 0x108000000000000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x420000000000000L, active1, 0L);
       case 68:
       case 100:
-         if ((active0 & 0x400000000L) != 0L)
-            return jjStartNfaWithStates_0(2, 34, 1);
-         else if ((active0 & 0x800000000000000L) != 0L)
-            return jjStartNfaWithStates_0(2, 59, 1);
+         if ((active0 & 0x800000000L) != 0L)
+            return jjStartNfaWithStates_0(2, 35, 1);
+         else if ((active0 & 0x2000000000000000L) != 0L)
+            return jjStartNfaWithStates_0(2, 61, 1);
          break;
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa3_0(active0, 0x2000880L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x4000880L, active1, 0L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa3_0(active0, 0x10000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x10000L, active1, 0L);
+      case 75:
+      case 107:
+         return jjMoveStringLiteralDfa3_0(active0, 0x100000000000L, active1, 0L);
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa3_0(active0, 0x60300020L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x80000000c0300020L, active1, 0L);
       case 77:
       case 109:
-         return jjMoveStringLiteralDfa3_0(active0, 0x601000380000000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x1804000700000000L, active1, 0L);
       case 78:
       case 110:
-         return jjMoveStringLiteralDfa3_0(active0, 0x2000000000000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x8000000000000L, active1, 0L);
       case 79:
       case 111:
-         return jjMoveStringLiteralDfa3_0(active0, 0x24000004001100L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x90000008001100L, active1, 0L);
+      case 80:
+      case 112:
+         return jjMoveStringLiteralDfa3_0(active0, 0x400000L, active1, 0L);
       case 82:
       case 114:
          if ((active0 & 0x8000L) != 0L)
@@ -458,47 +467,47 @@ private final int jjMoveStringLiteralDfa2_0(long old0, long active0)
          break;
       case 83:
       case 115:
-         return jjMoveStringLiteralDfa3_0(active0, 0x820600L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x1020600L, active1, 0L);
       case 84:
       case 116:
-         if ((active0 & 0x40000000000L) != 0L)
-            return jjStartNfaWithStates_0(2, 42, 1);
-         return jjMoveStringLiteralDfa3_0(active0, 0x80000008040040L);
+         if ((active0 & 0x80000000000L) != 0L)
+            return jjStartNfaWithStates_0(2, 43, 1);
+         return jjMoveStringLiteralDfa3_0(active0, 0x200000010040040L, active1, 0L);
       case 85:
       case 117:
-         return jjMoveStringLiteralDfa3_0(active0, 0x2040000000002000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x100000000002000L, active1, 0x1L);
       case 87:
       case 119:
-         if ((active0 & 0x10000000L) != 0L)
-            return jjStartNfaWithStates_0(2, 28, 1);
+         if ((active0 & 0x20000000L) != 0L)
+            return jjStartNfaWithStates_0(2, 29, 1);
          break;
       case 88:
       case 120:
-         return jjMoveStringLiteralDfa3_0(active0, 0xc00000000000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x3000000000000L, active1, 0L);
       default :
          break;
    }
-   return jjStartNfa_0(1, active0, 0L);
+   return jjStartNfa_0(1, active0, active1);
 }
-private final int jjMoveStringLiteralDfa3_0(long old0, long active0)
+private final int jjMoveStringLiteralDfa3_0(long old0, long active0, long old1, long active1)
 {
-   if (((active0 &= old0)) == 0L)
-      return jjStartNfa_0(1, old0, 0L);
+   if (((active0 &= old0) | (active1 &= old1)) == 0L)
+      return jjStartNfa_0(1, old0, old1); 
    try { curChar = input_stream.readChar(); }
    catch(java.io.IOException e) {
-      jjStopStringLiteralDfa_0(2, active0, 0L);
+      jjStopStringLiteralDfa_0(2, active0, active1);
       return 3;
    }
    switch(curChar)
    {
       case 95:
-         return jjMoveStringLiteralDfa4_0(active0, 0x600c00100000000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x1803000200000000L, active1, 0L);
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa4_0(active0, 0x800880L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x1000880L, active1, 0L);
       case 66:
       case 98:
-         return jjMoveStringLiteralDfa4_0(active0, 0x400000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x800000L, active1, 0L);
       case 67:
       case 99:
          if ((active0 & 0x400L) != 0L)
@@ -506,49 +515,51 @@ private final int jjMoveStringLiteralDfa3_0(long old0, long active0)
             jjmatchedKind = 10;
             jjmatchedPos = 3;
          }
-         return jjMoveStringLiteralDfa4_0(active0, 0x4000000000200L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x10000000000200L, active1, 0L);
       case 69:
       case 101:
-         if ((active0 & 0x2000000000000L) != 0L)
-            return jjStartNfaWithStates_0(3, 49, 1);
-         return jjMoveStringLiteralDfa4_0(active0, 0x80320040L);
+         if ((active0 & 0x100000000000L) != 0L)
+            return jjStartNfaWithStates_0(3, 44, 1);
+         else if ((active0 & 0x8000000000000L) != 0L)
+            return jjStartNfaWithStates_0(3, 51, 1);
+         return jjMoveStringLiteralDfa4_0(active0, 0x100320040L, active1, 0L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa4_0(active0, 0x208000000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x8000000410000000L, active1, 0L);
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa4_0(active0, 0x80000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x480000L, active1, 0L);
       case 77:
       case 109:
-         if ((active0 & 0x4000000L) != 0L)
-            return jjStartNfaWithStates_0(3, 26, 1);
-         return jjMoveStringLiteralDfa4_0(active0, 0x10000000000000L);
+         if ((active0 & 0x8000000L) != 0L)
+            return jjStartNfaWithStates_0(3, 27, 1);
+         return jjMoveStringLiteralDfa4_0(active0, 0x40000000000000L, active1, 0L);
       case 78:
       case 110:
-         return jjMoveStringLiteralDfa4_0(active0, 0x3040000000002000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x4100000000002000L, active1, 0x1L);
       case 79:
       case 111:
          if ((active0 & 0x40000L) != 0L)
             return jjStartNfaWithStates_0(3, 18, 1);
-         return jjMoveStringLiteralDfa4_0(active0, 0xa8000000000000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x2a0000000000000L, active1, 0L);
       case 80:
       case 112:
          if ((active0 & 0x20L) != 0L)
             return jjStartNfaWithStates_0(3, 5, 1);
          else if ((active0 & 0x1000L) != 0L)
             return jjStartNfaWithStates_0(3, 12, 1);
-         return jjMoveStringLiteralDfa4_0(active0, 0x1000000000000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x4000000000000L, active1, 0L);
       case 82:
       case 114:
-         return jjMoveStringLiteralDfa4_0(active0, 0x3000000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x6000000L, active1, 0L);
       case 84:
       case 116:
          if ((active0 & 0x10000L) != 0L)
             return jjStartNfaWithStates_0(3, 16, 1);
-         return jjMoveStringLiteralDfa4_0(active0, 0x100000000000000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x400000000000000L, active1, 0L);
       case 85:
       case 117:
-         return jjMoveStringLiteralDfa4_0(active0, 0x60000000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0xc0000000L, active1, 0L);
       case 87:
       case 119:
          if ((active0 & 0x100L) != 0L)
@@ -557,89 +568,92 @@ private final int jjMoveStringLiteralDfa3_0(long old0, long active0)
       default :
          break;
    }
-   return jjStartNfa_0(2, active0, 0L);
+   return jjStartNfa_0(2, active0, active1);
 }
-private final int jjMoveStringLiteralDfa4_0(long old0, long active0)
+private final int jjMoveStringLiteralDfa4_0(long old0, long active0, long old1, long active1)
 {
-   if (((active0 &= old0)) == 0L)
-      return jjStartNfa_0(2, old0, 0L);
+   if (((active0 &= old0) | (active1 &= old1)) == 0L)
+      return jjStartNfa_0(2, old0, old1); 
    try { curChar = input_stream.readChar(); }
    catch(java.io.IOException e) {
-      jjStopStringLiteralDfa_0(3, active0, 0L);
+      jjStopStringLiteralDfa_0(3, active0, active1);
       return 4;
    }
    switch(curChar)
    {
+      case 65:
+      case 97:
+         return jjMoveStringLiteralDfa5_0(active0, 0x400000L, active1, 0L);
       case 66:
       case 98:
-         return jjMoveStringLiteralDfa5_0(active0, 0x800000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x1000000L, active1, 0L);
       case 67:
       case 99:
-         return jjMoveStringLiteralDfa5_0(active0, 0x202000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x202000L, active1, 0L);
       case 69:
       case 101:
          if ((active0 & 0x80000L) != 0L)
             return jjStartNfaWithStates_0(4, 19, 1);
-         else if ((active0 & 0x2000000L) != 0L)
-            return jjStartNfaWithStates_0(4, 25, 1);
-         return jjMoveStringLiteralDfa5_0(active0, 0x410000020000000L);
+         else if ((active0 & 0x4000000L) != 0L)
+            return jjStartNfaWithStates_0(4, 26, 1);
+         return jjMoveStringLiteralDfa5_0(active0, 0x1040000040000000L, active1, 0L);
       case 71:
       case 103:
-         return jjMoveStringLiteralDfa5_0(active0, 0x1000000000000000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x4000000000000000L, active1, 0L);
       case 72:
       case 104:
-         return jjMoveStringLiteralDfa5_0(active0, 0x200000000000000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x800000000000000L, active1, 0L);
       case 75:
       case 107:
-         if ((active0 & 0x4000000000000L) != 0L)
-            return jjStartNfaWithStates_0(4, 50, 1);
+         if ((active0 & 0x10000000000000L) != 0L)
+            return jjStartNfaWithStates_0(4, 52, 1);
          break;
       case 76:
       case 108:
-         if ((active0 & 0x8000000L) != 0L)
-            return jjStartNfaWithStates_0(4, 27, 1);
-         return jjMoveStringLiteralDfa5_0(active0, 0x800000400000L);
+         if ((active0 & 0x10000000L) != 0L)
+            return jjStartNfaWithStates_0(4, 28, 1);
+         return jjMoveStringLiteralDfa5_0(active0, 0x2000000800000L, active1, 0L);
       case 77:
       case 109:
-         return jjMoveStringLiteralDfa5_0(active0, 0x20000040000000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x80000080000000L, active1, 0L);
       case 79:
       case 111:
-         return jjMoveStringLiteralDfa5_0(active0, 0x100000000000000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x400000000000000L, active1, 0L);
       case 82:
       case 114:
          if ((active0 & 0x40L) != 0L)
             return jjStartNfaWithStates_0(4, 6, 1);
          else if ((active0 & 0x80L) != 0L)
             return jjStartNfaWithStates_0(4, 7, 1);
-         return jjMoveStringLiteralDfa5_0(active0, 0x9000000020200L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x24000000020200L, active1, 0L);
       case 83:
       case 115:
-         return jjMoveStringLiteralDfa5_0(active0, 0x80000000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x100000000L, active1, 0L);
       case 84:
       case 116:
-         if ((active0 & 0x200000000L) != 0L)
-            return jjStartNfaWithStates_0(4, 33, 1);
-         else if ((active0 & 0x2000000000000000L) != 0L)
+         if ((active0 & 0x400000000L) != 0L)
+            return jjStartNfaWithStates_0(4, 34, 1);
+         else if ((active1 & 0x1L) != 0L)
          {
-            jjmatchedKind = 61;
+            jjmatchedKind = 64;
             jjmatchedPos = 4;
          }
-         return jjMoveStringLiteralDfa5_0(active0, 0x40000001100800L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x8100000002100800L, active1, 0L);
       case 85:
       case 117:
-         return jjMoveStringLiteralDfa5_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x200000000000000L, active1, 0L);
       case 86:
       case 118:
-         return jjMoveStringLiteralDfa5_0(active0, 0x400100000000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x1000200000000L, active1, 0L);
       default :
          break;
    }
-   return jjStartNfa_0(3, active0, 0L);
+   return jjStartNfa_0(3, active0, active1);
 }
-private final int jjMoveStringLiteralDfa5_0(long old0, long active0)
+private final int jjMoveStringLiteralDfa5_0(long old0, long active0, long old1, long active1)
 {
-   if (((active0 &= old0)) == 0L)
-      return jjStartNfa_0(3, old0, 0L);
+   if (((active0 &= old0) | (active1 &= old1)) == 0L)
+      return jjStartNfa_0(3, old0, old1); 
    try { curChar = input_stream.readChar(); }
    catch(java.io.IOException e) {
       jjStopStringLiteralDfa_0(4, active0, 0L);
@@ -649,14 +663,14 @@ private final int jjMoveStringLiteralDfa5_0(long old0, long active0)
    {
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa6_0(active0, 0x200000000002000L);
+         return jjMoveStringLiteralDfa6_0(active0, 0x800000000002000L);
       case 67:
       case 99:
-         return jjMoveStringLiteralDfa6_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa6_0(active0, 0x200000000000000L);
       case 68:
       case 100:
-         if ((active0 & 0x8000000000000L) != 0L)
-            return jjStartNfaWithStates_0(5, 51, 1);
+         if ((active0 & 0x20000000000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 53, 1);
          break;
       case 69:
       case 101:
@@ -664,33 +678,35 @@ private final int jjMoveStringLiteralDfa5_0(long old0, long active0)
             return jjStartNfaWithStates_0(5, 11, 1);
          else if ((active0 & 0x100000L) != 0L)
             return jjStartNfaWithStates_0(5, 20, 1);
-         else if ((active0 & 0x400000L) != 0L)
-            return jjStartNfaWithStates_0(5, 22, 1);
-         else if ((active0 & 0x1000000000000000L) != 0L)
-            return jjStartNfaWithStates_0(5, 60, 1);
-         return jjMoveStringLiteralDfa6_0(active0, 0x1c00100000000L);
+         else if ((active0 & 0x800000L) != 0L)
+            return jjStartNfaWithStates_0(5, 23, 1);
+         else if ((active0 & 0x4000000000000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 62, 1);
+         return jjMoveStringLiteralDfa6_0(active0, 0x7000200000000L);
       case 70:
       case 102:
-         return jjMoveStringLiteralDfa6_0(active0, 0x20000000000000L);
+         return jjMoveStringLiteralDfa6_0(active0, 0x80000000000000L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa6_0(active0, 0x40000001000200L);
+         return jjMoveStringLiteralDfa6_0(active0, 0x100000002400200L);
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa6_0(active0, 0x800000L);
+         return jjMoveStringLiteralDfa6_0(active0, 0x1000000L);
       case 77:
       case 109:
-         return jjMoveStringLiteralDfa6_0(active0, 0x10000000000000L);
+         return jjMoveStringLiteralDfa6_0(active0, 0x40000000000000L);
       case 78:
       case 110:
-         return jjMoveStringLiteralDfa6_0(active0, 0x400000040000000L);
+         return jjMoveStringLiteralDfa6_0(active0, 0x1000000080000000L);
       case 82:
       case 114:
-         return jjMoveStringLiteralDfa6_0(active0, 0x100000000000000L);
+         return jjMoveStringLiteralDfa6_0(active0, 0x400000000000000L);
       case 83:
       case 115:
-         if ((active0 & 0x20000000L) != 0L)
-            return jjStartNfaWithStates_0(5, 29, 1);
+         if ((active0 & 0x40000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 30, 1);
+         else if ((active0 & 0x8000000000000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 63, 1);
          break;
       case 84:
       case 116:
@@ -698,7 +714,7 @@ private final int jjMoveStringLiteralDfa5_0(long old0, long active0)
             return jjStartNfaWithStates_0(5, 17, 1);
          else if ((active0 & 0x200000L) != 0L)
             return jjStartNfaWithStates_0(5, 21, 1);
-         return jjMoveStringLiteralDfa6_0(active0, 0x80000000L);
+         return jjMoveStringLiteralDfa6_0(active0, 0x100000000L);
       default :
          break;
    }
@@ -716,42 +732,44 @@ private final int jjMoveStringLiteralDfa6_0(long old0, long active0)
    switch(curChar)
    {
       case 95:
-         return jjMoveStringLiteralDfa7_0(active0, 0x100000000000000L);
+         return jjMoveStringLiteralDfa7_0(active0, 0x400000000000000L);
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa7_0(active0, 0x80000000L);
+         return jjMoveStringLiteralDfa7_0(active0, 0x100000000L);
       case 66:
       case 98:
          return jjMoveStringLiteralDfa7_0(active0, 0x200L);
       case 69:
       case 101:
-         if ((active0 & 0x800000L) != 0L)
-            return jjStartNfaWithStates_0(6, 23, 1);
+         if ((active0 & 0x1000000L) != 0L)
+            return jjStartNfaWithStates_0(6, 24, 1);
          break;
       case 70:
       case 102:
-         return jjMoveStringLiteralDfa7_0(active0, 0x40000000L);
+         return jjMoveStringLiteralDfa7_0(active0, 0x80000000L);
       case 72:
       case 104:
-         return jjMoveStringLiteralDfa7_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa7_0(active0, 0x200000000000000L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa7_0(active0, 0x20000000000000L);
+         return jjMoveStringLiteralDfa7_0(active0, 0x80000000000000L);
       case 78:
       case 110:
-         return jjMoveStringLiteralDfa7_0(active0, 0x40800001000000L);
+         if ((active0 & 0x400000L) != 0L)
+            return jjStartNfaWithStates_0(6, 22, 1);
+         return jjMoveStringLiteralDfa7_0(active0, 0x102000002000000L);
       case 79:
       case 111:
-         return jjMoveStringLiteralDfa7_0(active0, 0x10000000000000L);
+         return jjMoveStringLiteralDfa7_0(active0, 0x40000000000000L);
       case 82:
       case 114:
-         return jjMoveStringLiteralDfa7_0(active0, 0x400100000000L);
+         return jjMoveStringLiteralDfa7_0(active0, 0x1000200000000L);
       case 83:
       case 115:
-         return jjMoveStringLiteralDfa7_0(active0, 0x201000000000000L);
+         return jjMoveStringLiteralDfa7_0(active0, 0x804000000000000L);
       case 84:
       case 116:
-         return jjMoveStringLiteralDfa7_0(active0, 0x400000000002000L);
+         return jjMoveStringLiteralDfa7_0(active0, 0x1000000000002000L);
       default :
          break;
    }
@@ -770,36 +788,36 @@ private final int jjMoveStringLiteralDfa7_0(long old0, long active0)
    {
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa8_0(active0, 0x40000000L);
+         return jjMoveStringLiteralDfa8_0(active0, 0x80000000L);
       case 69:
       case 101:
          if ((active0 & 0x200L) != 0L)
             return jjStartNfaWithStates_0(7, 9, 1);
          else if ((active0 & 0x2000L) != 0L)
             return jjStartNfaWithStates_0(7, 13, 1);
-         return jjMoveStringLiteralDfa8_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa8_0(active0, 0x200000000000000L);
       case 71:
       case 103:
-         if ((active0 & 0x1000000L) != 0L)
-            return jjStartNfaWithStates_0(7, 24, 1);
-         return jjMoveStringLiteralDfa8_0(active0, 0x40800000000000L);
+         if ((active0 & 0x2000000L) != 0L)
+            return jjStartNfaWithStates_0(7, 25, 1);
+         return jjMoveStringLiteralDfa8_0(active0, 0x102000000000000L);
       case 72:
       case 104:
-         if ((active0 & 0x200000000000000L) != 0L)
-            return jjStartNfaWithStates_0(7, 57, 1);
+         if ((active0 & 0x800000000000000L) != 0L)
+            return jjStartNfaWithStates_0(7, 59, 1);
          break;
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa8_0(active0, 0x20000000000000L);
+         return jjMoveStringLiteralDfa8_0(active0, 0x80000000000000L);
       case 77:
       case 109:
-         return jjMoveStringLiteralDfa8_0(active0, 0x80000000L);
+         return jjMoveStringLiteralDfa8_0(active0, 0x100000000L);
       case 82:
       case 114:
-         return jjMoveStringLiteralDfa8_0(active0, 0x410000000000000L);
+         return jjMoveStringLiteralDfa8_0(active0, 0x1040000000000000L);
       case 83:
       case 115:
-         return jjMoveStringLiteralDfa8_0(active0, 0x101400100000000L);
+         return jjMoveStringLiteralDfa8_0(active0, 0x405000200000000L);
       default :
          break;
    }
@@ -817,28 +835,28 @@ private final int jjMoveStringLiteralDfa8_0(long old0, long active0)
    switch(curChar)
    {
       case 95:
-         return jjMoveStringLiteralDfa9_0(active0, 0x40000000000000L);
+         return jjMoveStringLiteralDfa9_0(active0, 0x100000000000000L);
       case 68:
       case 100:
-         return jjMoveStringLiteralDfa9_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa9_0(active0, 0x200000000000000L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa9_0(active0, 0x501400100000000L);
+         return jjMoveStringLiteralDfa9_0(active0, 0x1405000200000000L);
       case 77:
       case 109:
-         return jjMoveStringLiteralDfa9_0(active0, 0x40000000L);
+         return jjMoveStringLiteralDfa9_0(active0, 0x80000000L);
       case 80:
       case 112:
-         if ((active0 & 0x80000000L) != 0L)
-            return jjStartNfaWithStates_0(8, 31, 1);
+         if ((active0 & 0x100000000L) != 0L)
+            return jjStartNfaWithStates_0(8, 32, 1);
          break;
       case 84:
       case 116:
-         return jjMoveStringLiteralDfa9_0(active0, 0x20800000000000L);
+         return jjMoveStringLiteralDfa9_0(active0, 0x82000000000000L);
       case 89:
       case 121:
-         if ((active0 & 0x10000000000000L) != 0L)
-            return jjStartNfaWithStates_0(8, 52, 1);
+         if ((active0 & 0x40000000000000L) != 0L)
+            return jjStartNfaWithStates_0(8, 54, 1);
          break;
       default :
          break;
@@ -857,27 +875,27 @@ private final int jjMoveStringLiteralDfa9_0(long old0, long active0)
    switch(curChar)
    {
       case 95:
-         return jjMoveStringLiteralDfa10_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa10_0(active0, 0x200000000000000L);
       case 66:
       case 98:
-         return jjMoveStringLiteralDfa10_0(active0, 0x40000000000000L);
+         return jjMoveStringLiteralDfa10_0(active0, 0x100000000000000L);
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa10_0(active0, 0x420000000000000L);
+         return jjMoveStringLiteralDfa10_0(active0, 0x1080000000000000L);
       case 72:
       case 104:
-         if ((active0 & 0x800000000000L) != 0L)
-            return jjStartNfaWithStates_0(9, 47, 1);
+         if ((active0 & 0x2000000000000L) != 0L)
+            return jjStartNfaWithStates_0(9, 49, 1);
          break;
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa10_0(active0, 0x40000000L);
+         return jjMoveStringLiteralDfa10_0(active0, 0x80000000L);
       case 79:
       case 111:
-         return jjMoveStringLiteralDfa10_0(active0, 0x1400100000000L);
+         return jjMoveStringLiteralDfa10_0(active0, 0x5000200000000L);
       case 90:
       case 122:
-         return jjMoveStringLiteralDfa10_0(active0, 0x100000000000000L);
+         return jjMoveStringLiteralDfa10_0(active0, 0x400000000000000L);
       default :
          break;
    }
@@ -896,29 +914,29 @@ private final int jjMoveStringLiteralDfa10_0(long old0, long active0)
    {
       case 66:
       case 98:
-         return jjMoveStringLiteralDfa11_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa11_0(active0, 0x200000000000000L);
       case 69:
       case 101:
-         if ((active0 & 0x100000000000000L) != 0L)
-            return jjStartNfaWithStates_0(10, 56, 1);
+         if ((active0 & 0x400000000000000L) != 0L)
+            return jjStartNfaWithStates_0(10, 58, 1);
          break;
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa11_0(active0, 0x40000040000000L);
+         return jjMoveStringLiteralDfa11_0(active0, 0x100000080000000L);
       case 78:
       case 110:
-         if ((active0 & 0x1000000000000L) != 0L)
-            return jjStartNfaWithStates_0(10, 48, 1);
-         return jjMoveStringLiteralDfa11_0(active0, 0x400100000000L);
+         if ((active0 & 0x4000000000000L) != 0L)
+            return jjStartNfaWithStates_0(10, 50, 1);
+         return jjMoveStringLiteralDfa11_0(active0, 0x1000200000000L);
       case 82:
       case 114:
-         if ((active0 & 0x20000000000000L) != 0L)
-            return jjStartNfaWithStates_0(10, 53, 1);
+         if ((active0 & 0x80000000000000L) != 0L)
+            return jjStartNfaWithStates_0(10, 55, 1);
          break;
       case 83:
       case 115:
-         if ((active0 & 0x400000000000000L) != 0L)
-            return jjStartNfaWithStates_0(10, 58, 1);
+         if ((active0 & 0x1000000000000000L) != 0L)
+            return jjStartNfaWithStates_0(10, 60, 1);
          break;
       default :
          break;
@@ -938,19 +956,19 @@ private final int jjMoveStringLiteralDfa11_0(long old0, long active0)
    {
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa12_0(active0, 0x40000000L);
+         return jjMoveStringLiteralDfa12_0(active0, 0x80000000L);
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa12_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa12_0(active0, 0x200000000000000L);
       case 79:
       case 111:
-         return jjMoveStringLiteralDfa12_0(active0, 0x40000000000000L);
+         return jjMoveStringLiteralDfa12_0(active0, 0x100000000000000L);
       case 83:
       case 115:
-         if ((active0 & 0x100000000L) != 0L)
-            return jjStartNfaWithStates_0(11, 32, 1);
-         else if ((active0 & 0x400000000000L) != 0L)
-            return jjStartNfaWithStates_0(11, 46, 1);
+         if ((active0 & 0x200000000L) != 0L)
+            return jjStartNfaWithStates_0(11, 33, 1);
+         else if ((active0 & 0x1000000000000L) != 0L)
+            return jjStartNfaWithStates_0(11, 48, 1);
          break;
       default :
          break;
@@ -970,10 +988,10 @@ private final int jjMoveStringLiteralDfa12_0(long old0, long active0)
    {
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa13_0(active0, 0x40000000L);
+         return jjMoveStringLiteralDfa13_0(active0, 0x80000000L);
       case 79:
       case 111:
-         return jjMoveStringLiteralDfa13_0(active0, 0xc0000000000000L);
+         return jjMoveStringLiteralDfa13_0(active0, 0x300000000000000L);
       default :
          break;
    }
@@ -992,14 +1010,14 @@ private final int jjMoveStringLiteralDfa13_0(long old0, long active0)
    {
       case 77:
       case 109:
-         return jjMoveStringLiteralDfa14_0(active0, 0x40000000000000L);
+         return jjMoveStringLiteralDfa14_0(active0, 0x100000000000000L);
       case 79:
       case 111:
-         return jjMoveStringLiteralDfa14_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa14_0(active0, 0x200000000000000L);
       case 83:
       case 115:
-         if ((active0 & 0x40000000L) != 0L)
-            return jjStartNfaWithStates_0(13, 30, 1);
+         if ((active0 & 0x80000000L) != 0L)
+            return jjStartNfaWithStates_0(13, 31, 1);
          break;
       default :
          break;
@@ -1019,10 +1037,10 @@ private final int jjMoveStringLiteralDfa14_0(long old0, long active0)
    {
       case 70:
       case 102:
-         return jjMoveStringLiteralDfa15_0(active0, 0x40000000000000L);
+         return jjMoveStringLiteralDfa15_0(active0, 0x100000000000000L);
       case 77:
       case 109:
-         return jjMoveStringLiteralDfa15_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa15_0(active0, 0x200000000000000L);
       default :
          break;
    }
@@ -1041,10 +1059,10 @@ private final int jjMoveStringLiteralDfa15_0(long old0, long active0)
    {
       case 70:
       case 102:
-         return jjMoveStringLiteralDfa16_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa16_0(active0, 0x200000000000000L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa16_0(active0, 0x40000000000000L);
+         return jjMoveStringLiteralDfa16_0(active0, 0x100000000000000L);
       default :
          break;
    }
@@ -1063,10 +1081,10 @@ private final int jjMoveStringLiteralDfa16_0(long old0, long active0)
    {
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa17_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa17_0(active0, 0x200000000000000L);
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa17_0(active0, 0x40000000000000L);
+         return jjMoveStringLiteralDfa17_0(active0, 0x100000000000000L);
       default :
          break;
    }
@@ -1085,10 +1103,10 @@ private final int jjMoveStringLiteralDfa17_0(long old0, long active0)
    {
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa18_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa18_0(active0, 0x200000000000000L);
       case 84:
       case 116:
-         return jjMoveStringLiteralDfa18_0(active0, 0x40000000000000L);
+         return jjMoveStringLiteralDfa18_0(active0, 0x100000000000000L);
       default :
          break;
    }
@@ -1107,10 +1125,10 @@ private final int jjMoveStringLiteralDfa18_0(long old0, long active0)
    {
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa19_0(active0, 0x40000000000000L);
+         return jjMoveStringLiteralDfa19_0(active0, 0x100000000000000L);
       case 84:
       case 116:
-         return jjMoveStringLiteralDfa19_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa19_0(active0, 0x200000000000000L);
       default :
          break;
    }
@@ -1129,11 +1147,11 @@ private final int jjMoveStringLiteralDfa19_0(long old0, long active0)
    {
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa20_0(active0, 0x80000000000000L);
+         return jjMoveStringLiteralDfa20_0(active0, 0x200000000000000L);
       case 82:
       case 114:
-         if ((active0 & 0x40000000000000L) != 0L)
-            return jjStartNfaWithStates_0(19, 54, 1);
+         if ((active0 & 0x100000000000000L) != 0L)
+            return jjStartNfaWithStates_0(19, 56, 1);
          break;
       default :
          break;
@@ -1153,8 +1171,8 @@ private final int jjMoveStringLiteralDfa20_0(long old0, long active0)
    {
       case 82:
       case 114:
-         if ((active0 & 0x80000000000000L) != 0L)
-            return jjStartNfaWithStates_0(20, 55, 1);
+         if ((active0 & 0x200000000000000L) != 0L)
+            return jjStartNfaWithStates_0(20, 57, 1);
          break;
       default :
          break;
@@ -1216,14 +1234,14 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 0:
                   if ((0x3ff000000000000L & l) != 0L)
                   {
-                     if (kind > 63)
-                        kind = 63;
+                     if (kind > 66)
+                        kind = 66;
                      jjCheckNAddStates(0, 6);
                   }
                   else if ((0x400e00000000000L & l) != 0L)
                   {
-                     if (kind > 62)
-                        kind = 62;
+                     if (kind > 65)
+                        kind = 65;
                      jjCheckNAdd(1);
                   }
                   else if (curChar == 39)
@@ -1236,8 +1254,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 1:
                   if ((0x7ffe00000000000L & l) == 0L)
                      break;
-                  if (kind > 62)
-                     kind = 62;
+                  if (kind > 65)
+                     kind = 65;
                   jjCheckNAdd(1);
                   break;
                case 2:
@@ -1247,8 +1265,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 3:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 64)
-                     kind = 64;
+                  if (kind > 67)
+                     kind = 67;
                   jjCheckNAddTwoStates(3, 4);
                   break;
                case 5:
@@ -1258,8 +1276,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 6:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 64)
-                     kind = 64;
+                  if (kind > 67)
+                     kind = 67;
                   jjCheckNAdd(6);
                   break;
                case 7:
@@ -1271,8 +1289,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                      jjCheckNAddTwoStates(8, 9);
                   break;
                case 9:
-                  if (curChar == 34 && kind > 66)
-                     kind = 66;
+                  if (curChar == 34 && kind > 69)
+                     kind = 69;
                   break;
                case 10:
                   if (curChar == 39)
@@ -1295,21 +1313,21 @@ private final int jjMoveNfa_0(int startState, int curPos)
                      jjCheckNAddStates(10, 12);
                   break;
                case 15:
-                  if (curChar == 39 && kind > 67)
-                     kind = 67;
+                  if (curChar == 39 && kind > 70)
+                     kind = 70;
                   break;
                case 16:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 63)
-                     kind = 63;
+                  if (kind > 66)
+                     kind = 66;
                   jjCheckNAddStates(0, 6);
                   break;
                case 17:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 63)
-                     kind = 63;
+                  if (kind > 66)
+                     kind = 66;
                   jjCheckNAdd(17);
                   break;
                case 18:
@@ -1323,8 +1341,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 20:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 64)
-                     kind = 64;
+                  if (kind > 67)
+                     kind = 67;
                   jjCheckNAddTwoStates(20, 21);
                   break;
                case 22:
@@ -1334,8 +1352,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 23:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 64)
-                     kind = 64;
+                  if (kind > 67)
+                     kind = 67;
                   jjCheckNAdd(23);
                   break;
                case 24:
@@ -1349,15 +1367,15 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 27:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 64)
-                     kind = 64;
+                  if (kind > 67)
+                     kind = 67;
                   jjCheckNAdd(27);
                   break;
                case 28:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 64)
-                     kind = 64;
+                  if (kind > 67)
+                     kind = 67;
                   jjCheckNAddTwoStates(28, 29);
                   break;
                case 30:
@@ -1367,8 +1385,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 31:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 64)
-                     kind = 64;
+                  if (kind > 67)
+                     kind = 67;
                   jjCheckNAdd(31);
                   break;
                default : break;
@@ -1386,8 +1404,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 1:
                   if ((0x47fffffe87fffffeL & l) == 0L)
                      break;
-                  if (kind > 62)
-                     kind = 62;
+                  if (kind > 65)
+                     kind = 65;
                   jjCheckNAdd(1);
                   break;
                case 4:
@@ -1463,15 +1481,15 @@ static final int[] jjnextStates = {
 public static final String[] jjstrLiteralImages = {
 "", null, null, null, null, null, null, null, null, null, null, null, null, 
 null, null, null, null, null, null, null, null, null, null, null, null, null, null, 
-null, null, null, null, null, null, null, null, null, "\54", "\50", "\51", "\75", 
-"\76", "\74", null, null, "\41\75", "\52", null, null, null, null, null, null, null, 
+null, null, null, null, null, null, null, null, null, null, "\54", "\50", "\51", 
+"\75", "\76", "\74", null, null, null, "\41\75", "\52", null, null, null, null, null, 
 null, null, null, null, null, null, null, null, null, null, null, null, null, null, 
-null, "\73", };
+null, null, null, null, "\73", };
 public static final String[] lexStateNames = {
    "DEFAULT", 
 };
 static final long[] jjtoToken = {
-   0xffffffffffffffe1L, 0x1dL, 
+   0xffffffffffffffe1L, 0xefL, 
 };
 static final long[] jjtoSkip = {
    0x1eL, 0x0L, 
@@ -0,0 +1,162 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+
+import org.apache.hadoop.io.Writable;
+
+/**
+ * Count, sum, min and max of the cells found over a range of rows.
+ *
+ * Rows are counted if they have any of the columns aggregated.  Cell values
+ * are numeric if they are a decimal integer written as a UTF-8 string, the way
+ * the shell writes them; other values are counted as rows but are not part of
+ * the sum, min or max.  Partial results, e.g. one per region, are combined
+ * with {@link #merge(AggregateResult)}.
+ */
+public class AggregateResult implements Writable {
+  private long rows = 0;
+  private long values = 0;
+  private long sum = 0;
+  private long min = Long.MAX_VALUE;
+  private long max = Long.MIN_VALUE;
+
+  /** Makes an empty result */
+  public AggregateResult() {
+    super();
+  }
+
+  /** Count a row */
+  public void addRow() {
+    this.rows++;
+  }
+
+  /**
+   * Add a cell value.
+   * @param value
+   * @return True if <code>value</code> was numeric and so was added.
+   */
+  public boolean addValue(final byte [] value) {
+    if (value == null || value.length == 0 || value.length > 20) {
+      return false;
+    }
+    long v = 0;
+    try {
+      v = Long.parseLong(new String(value, "UTF-8").trim());
+    } catch (NumberFormatException e) {
+      return false;
+    } catch (UnsupportedEncodingException e) {
+      return false;
+    }
+    addValue(v);
+    return true;
+  }
+
+  /**
+   * Add a numeric value.
+   * @param v
+   */
+  public void addValue(final long v) {
+    this.values++;
+    this.sum += v;
+    this.min = Math.min(this.min, v);
+    this.max = Math.max(this.max, v);
+  }
+
+  /**
+   * Add in another partial result.
+   * @param other
+   */
+  public void merge(final AggregateResult other) {
+    this.rows += other.rows;
+    if (other.values == 0) {
+      return;
+    }
+    this.values += other.values;
+    this.sum += other.sum;
+    this.min = Math.min(this.min, other.min);
+    this.max = Math.max(this.max, other.max);
+  }
+
+  /** @return Count of rows that had any of the columns aggregated */
+  public long getRowCount() {
+    return this.rows;
+  }
+
+  /** @return Count of numeric values */
+  public long getValueCount() {
+    return this.values;
+  }
+
+  /** @return Sum of the numeric values */
+  public long getSum() {
+    return this.sum;
+  }
+
+  /**
+   * @return Smallest numeric value.  Only meaningful if
+   * {@link #getValueCount()} is not zero.
+   */
+  public long getMin() {
+    return this.min;
+  }
+
+  /**
+   * @return Largest numeric value.  Only meaningful if
+   * {@link #getValueCount()} is not zero.
+   */
+  public long getMax() {
+    return this.max;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return "rows=" + this.rows + ", values=" + this.values + ", sum=" +
+      this.sum + (this.values == 0? "":
+        ", min=" + this.min + ", max=" + this.max);
+  }
+
+  //
+  // Writable
+  //
+
+  /** {@inheritDoc} */
+  public void readFields(final DataInput in) throws IOException {
+    this.rows = in.readLong();
+    this.values = in.readLong();
+    this.sum = in.readLong();
+    this.min = in.readLong();
+    this.max = in.readLong();
+  }
+
+  /** {@inheritDoc} */
+  public void write(final DataOutput out) throws IOException {
+    out.writeLong(this.rows);
+    out.writeLong(this.values);
+    out.writeLong(this.sum);
+    out.writeLong(this.min);
+    out.writeLong(this.max);
+  }
+}
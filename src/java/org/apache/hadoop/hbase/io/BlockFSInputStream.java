@@ -22,6 +22,7 @@ package org.apache.hadoop.hbase.io;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.collections.map.ReferenceMap;
 import org.apache.commons.logging.Log;
@@ -38,6 +39,10 @@ import org.apache.hadoop.io.DataInputBuffer;
 public class BlockFSInputStream extends FSInputStream {
   
   static final Log LOG = LogFactory.getLog(BlockFSInputStream.class);
+
+  // Block cache lookups across all streams in this process.
+  private static final AtomicLong cacheHits = new AtomicLong(0);
+  private static final AtomicLong cacheMisses = new AtomicLong(0);
   
   private final InputStream in;
 
@@ -76,8 +81,10 @@ public class BlockFSInputStream extends FSInputStream {
         Object value = super.get(key);
         if (value == null) {
           misses++;
+          cacheMisses.incrementAndGet();
         } else {
           hits++;
+          cacheHits.incrementAndGet();
         }
         if (LOG.isDebugEnabled() && ((hits + misses) % 10000) == 0) {
           long hitRate = (100 * hits) / (hits + misses);
@@ -88,6 +95,16 @@ public class BlockFSInputStream extends FSInputStream {
     };
   }
 
+  /** @return count of block cache hits across all streams */
+  public static long getCacheHits() {
+    return cacheHits.get();
+  }
+
+  /** @return count of block cache misses across all streams */
+  public static long getCacheMisses() {
+    return cacheMisses.get();
+  }
+
   @Override
   public synchronized long getPos() throws IOException {
     return pos;
@@ -114,6 +114,10 @@ public class HbaseObjectWritable implements Writable, Configurable {
     } catch (ClassNotFoundException e) {
       e.printStackTrace();
     }
+    addToMap(RowResult.class, code++);
+    addToMap(BatchUpdate [].class, code++);
+    addToMap(AggregateResult.class, code++);
+    addToMap(RowResult [].class, code++);
   }
   
   private Class<?> declaredClass;
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * The cells of a single row as returned by region server gets and scanners.
+ *
+ * Row and timestamp are serialized once followed by the column/value pairs.
+ * Compare to an {@link HbaseMapWritable} of HStoreKey to value where the row,
+ * timestamp and class codes go out again for every cell.
+ */
+public class RowResult implements Writable {
+  private Text row;
+  private long timestamp;
+  private SortedMap<Text, byte []> cells;
+
+  /** Default constructor used by Writable */
+  public RowResult() {
+    this(new Text(), HConstants.LATEST_TIMESTAMP,
+      new TreeMap<Text, byte []>());
+  }
+
+  /**
+   * @param row row key
+   * @param timestamp timestamp of the cells
+   * @param cells map of column to value
+   */
+  public RowResult(final Text row, final long timestamp,
+      final SortedMap<Text, byte []> cells) {
+    this.row = row;
+    this.timestamp = timestamp;
+    this.cells = cells;
+  }
+
+  /** @return the row key */
+  public Text getRow() {
+    return this.row;
+  }
+
+  /** @return the timestamp */
+  public long getTimestamp() {
+    return this.timestamp;
+  }
+
+  /** @return map of column to value */
+  public SortedMap<Text, byte []> getCells() {
+    return this.cells;
+  }
+
+  /**
+   * @param column column name
+   * @return value of the passed column or null if none
+   */
+  public byte [] get(final Text column) {
+    return this.cells.get(column);
+  }
+
+  /** @return count of cells */
+  public int size() {
+    return this.cells.size();
+  }
+
+  /** @return true if there are no cells */
+  public boolean isEmpty() {
+    return this.cells.isEmpty();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return "row=" + this.row + ", timestamp=" + this.timestamp + ", columns=" +
+      this.cells.keySet();
+  }
+
+  //
+  // Writable
+  //
+
+  public void readFields(final DataInput in) throws IOException {
+    this.row.readFields(in);
+    this.timestamp = in.readLong();
+    this.cells.clear();
+    int count = WritableUtils.readVInt(in);
+    for (int i = 0; i < count; i++) {
+      Text column = new Text();
+      column.readFields(in);
+      byte [] value = new byte[WritableUtils.readVInt(in)];
+      in.readFully(value);
+      this.cells.put(column, value);
+    }
+  }
+
+  public void write(final DataOutput out) throws IOException {
+    this.row.write(out);
+    out.writeLong(this.timestamp);
+    WritableUtils.writeVInt(out, this.cells.size());
+    for (Map.Entry<Text, byte []> e: this.cells.entrySet()) {
+      e.getKey().write(out);
+      WritableUtils.writeVInt(out, e.getValue().length);
+      out.write(e.getValue());
+    }
+  }
+}
@@ -19,11 +19,15 @@
  */
 package org.apache.hadoop.hbase.mapred;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HConstants;
@@ -47,13 +51,31 @@ import org.apache.hadoop.mapred.JobConf;
  * <li>The index build process is done in the reduce phase. Users can use
  * the map phase to join rows from different tables or to pre-parse/analyze
  * column content, etc.</li>
+ * <li>With <code>-incremental</code>, the index is updated rather than
+ * rebuilt: only rows changed since the last run are indexed again, and
+ * documents of deleted rows are removed.  See
+ * {@link #updateIndex(Configuration, int, int, String, String, String)}.
+ * </li>
  * </ul>
  */
 public class BuildTableIndex {
   private static final String USAGE = "Usage: BuildTableIndex " +
     "-m <numMapTasks> -r <numReduceTasks>\n  -indexConf <iconfFile> " +
-    "-indexDir <indexDir>\n  -table <tableName> -columns <columnName1> " +
-    "[<columnName2> ...]";
+    "-indexDir <indexDir> [-incremental]\n  -table <tableName> " +
+    "-columns <columnName1> [<columnName2> ...]";
+
+  /**
+   * Name of the file under an incrementally maintained index directory
+   * holding the timestamp of the latest complete index.
+   */
+  public static final String CHECKPOINT = "checkpoint";
+
+  /**
+   * Milliseconds before the last checkpoint rows are looked at again when
+   * updating an index, to catch cells written with a lagging clock or still
+   * in flight when the table was last read.  Defaults to one minute.
+   */
+  public static final String UPDATE_SLACK = "hbase.index.update.slack";
 
   private static void printUsage(String message) {
     System.err.println(message);
@@ -76,9 +98,17 @@ public class BuildTableIndex {
     String indexDir = null;
     String tableName = null;
     StringBuffer columnNames = null;
+    boolean incremental = false;
 
     // parse args
-    for (int i = 0; i < args.length - 1; i++) {
+    for (int i = 0; i < args.length; i++) {
+      if ("-incremental".equals(args[i])) {
+        incremental = true;
+        continue;
+      }
+      if (i == args.length - 1) {
+        printUsage("Missing value for " + args[i]);
+      }
       if ("-m".equals(args[i])) {
         numMapTasks = Integer.parseInt(args[++i]);
       } else if ("-r".equals(args[i])) {
@@ -115,11 +145,118 @@ public class BuildTableIndex {
       conf.set("hbase.index.conf", content);
     }
 
+    if (incremental) {
+      updateIndex(conf, numMapTasks, numReduceTasks, indexDir, tableName,
+        columnNames.toString());
+      return;
+    }
     JobConf jobConf = createJob(conf, numMapTasks, numReduceTasks, indexDir,
       tableName, columnNames.toString());
     JobClient.runJob(jobConf);
   }
 
+  /**
+   * Bring the index under <code>indexDir</code> up to date with the table,
+   * building it if there is none.  Meant to be run every few minutes.
+   *
+   * <p>Each run reads the table as of its start time and writes a new copy
+   * of the index to a directory under <code>indexDir</code> named for that
+   * time.  Rows whose newest cell is older than the previous run are sent
+   * from map to reduce as a digest of their columns only, and keep their
+   * document unless the digest no longer matches it, as after a column is
+   * deleted; such rows are read from the table again.  Documents of rows no
+   * longer in the table are dropped.  Once the job succeeds, the {@link #CHECKPOINT} file is pointed
+   * at the new copy and the previous one is deleted.  Searchers should open
+   * the copy the checkpoint names.
+   *
+   * <p>The number of indexes is that of the previous run whatever
+   * <code>numReduceTasks</code> says, so rows stay in the same index.
+   *
+   * @param conf
+   * @param numMapTasks
+   * @param numReduceTasks Number of indexes to build if there are none yet.
+   * @param indexDir
+   * @param tableName
+   * @param columnNames
+   * @throws IOException
+   */
+  public void updateIndex(Configuration conf, int numMapTasks,
+      int numReduceTasks, String indexDir, String tableName,
+      String columnNames)
+  throws IOException {
+    FileSystem fs = FileSystem.get(conf);
+    Path dir = new Path(indexDir);
+    long checkpoint = readCheckpoint(fs, dir);
+    long now = System.currentTimeMillis();
+    Path output = new Path(dir, Long.toString(now));
+    JobConf jobConf = createJob(conf, numMapTasks, numReduceTasks,
+      output.toString(), tableName, columnNames);
+    jobConf.setJobName("update index for table " + tableName);
+    jobConf.setMapperClass(IndexUpdateTableMap.class);
+    jobConf.setLong(TableInputFormat.TIMESTAMP, now);
+    Path base = null;
+    if (checkpoint >= 0) {
+      base = new Path(dir, Long.toString(checkpoint));
+      jobConf.set(IndexOutputFormat.BASE, base.toString());
+      jobConf.setLong(IndexUpdateTableMap.SINCE,
+        checkpoint - conf.getLong(UPDATE_SLACK, 60 * 1000));
+      jobConf.setNumReduceTasks(fs.globPaths(new Path(base, "part-*")).length);
+    }
+    JobClient.runJob(jobConf);
+    writeCheckpoint(fs, dir, now);
+    if (base != null) {
+      fs.delete(base);
+    }
+  }
+
+  /*
+   * @param fs
+   * @param dir
+   * @return Timestamp of the latest complete index under <code>dir</code>,
+   * or -1 if there is none.
+   * @throws IOException
+   */
+  private long readCheckpoint(final FileSystem fs, final Path dir)
+  throws IOException {
+    Path p = new Path(dir, CHECKPOINT);
+    if (!fs.exists(p)) {
+      return -1;
+    }
+    BufferedReader in =
+      new BufferedReader(new InputStreamReader(fs.open(p),
+        HConstants.UTF8_ENCODING));
+    try {
+      return Long.parseLong(in.readLine().trim());
+    } finally {
+      in.close();
+    }
+  }
+
+  /*
+   * Write the checkpoint to a new file then move it into place.
+   * @param fs
+   * @param dir
+   * @param timestamp
+   * @throws IOException
+   */
+  private void writeCheckpoint(final FileSystem fs, final Path dir,
+      final long timestamp)
+  throws IOException {
+    Path p = new Path(dir, CHECKPOINT);
+    Path tmp = new Path(dir, CHECKPOINT + ".tmp");
+    FSDataOutputStream out = fs.create(tmp, true);
+    try {
+      out.write((Long.toString(timestamp) + "\n").getBytes(
+        HConstants.UTF8_ENCODING));
+    } finally {
+      out.close();
+    }
+    fs.delete(p);
+    if (!fs.rename(tmp, p)) {
+      throw new IOException("Failed rename of " + tmp + " to " + p);
+    }
+  }
+
   public JobConf createJob(Configuration conf, int numMapTasks,
       int numReduceTasks, String indexDir, String tableName,
       String columnNames) {
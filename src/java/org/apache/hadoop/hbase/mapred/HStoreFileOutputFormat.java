@@ -0,0 +1,254 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.mapred;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HStoreKey;
+import org.apache.hadoop.hbase.HTable;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.io.MapFile;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.FileAlreadyExistsException;
+import org.apache.hadoop.mapred.InvalidJobConfException;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.OutputFormatBase;
+import org.apache.hadoop.mapred.RecordWriter;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.util.Progressable;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Write Map/Reduce output as store files of an HBase table rather than
+ * through the table's region servers.  Once the job is done, load the files
+ * into the table with
+ * {@link org.apache.hadoop.hbase.HBaseAdmin#bulkLoad(Text, Path)}.  Cells
+ * loaded this way never go through the write-ahead log or the memcache.
+ *
+ * <p>Keys are row keys and must reach the record writer in sort order, as
+ * they do out of a reduce.  Values are maps of column name to
+ * {@link ImmutableBytesWritable}, as for {@link TableOutputFormat}.  All
+ * cells of a row are given the time the row was written as timestamp.
+ *
+ * <p>Each task writes one MapFile per column family and region of the table
+ * at the time the job started, under
+ * <code>${mapred.output.dir}/${family}/</code>.  Regions that split or merge
+ * before the files are loaded are handled by the loader.
+ */
+public class HStoreFileOutputFormat
+  extends OutputFormatBase<Text, MapWritable> {
+
+  /** JobConf parameter that specifies the table to write store files of */
+  public static final String OUTPUT_TABLE = TableOutputFormat.OUTPUT_TABLE;
+
+  static final Logger LOG =
+    Logger.getLogger(HStoreFileOutputFormat.class.getName());
+
+  /**
+   * Writes rows into a MapFile per column family, starting new files when
+   * rows cross into the next region.
+   */
+  protected static class HStoreFileRecordWriter
+    implements RecordWriter<Text, MapWritable> {
+    private final JobConf job;
+    private final FileSystem fs;
+    private final Path dir;
+    private final String name;
+    private final Progressable progress;
+    private final Text [] startKeys;
+    private final SortedMap<Text, HColumnDescriptor> families;
+    private final Map<Text, MapFile.Writer> writers =
+      new HashMap<Text, MapFile.Writer>();
+    private final HStoreKey key = new HStoreKey();
+    private Text lastRow = null;
+    private int region = -1;
+    private int fileCount = 0;
+
+    /**
+     * @param job
+     * @param fs filesystem of <code>dir</code>
+     * @param dir directory to write family directories into
+     * @param name unique name of the task
+     * @param progress
+     * @param startKeys sorted start keys of the regions of the table
+     * @param families column families of the table
+     */
+    public HStoreFileRecordWriter(final JobConf job, final FileSystem fs,
+        final Path dir, final String name, final Progressable progress,
+        final Text [] startKeys,
+        final SortedMap<Text, HColumnDescriptor> families) {
+      this.job = job;
+      this.fs = fs;
+      this.dir = dir;
+      this.name = name;
+      this.progress = progress;
+      this.startKeys = startKeys;
+      this.families = families;
+    }
+
+    /** {@inheritDoc} */
+    public void write(Text row, MapWritable value) throws IOException {
+      if (this.lastRow != null && row.compareTo(this.lastRow) <= 0) {
+        throw new IOException("Rows must be written in sort order: " + row +
+          " after " + this.lastRow);
+      }
+      this.lastRow = new Text(row);
+      int r = findRegion(row);
+      if (r != this.region) {
+        closeWriters();
+        this.region = r;
+      }
+      // Columns of a row must be appended in sort order too.
+      SortedMap<Text, ImmutableBytesWritable> cells =
+        new TreeMap<Text, ImmutableBytesWritable>();
+      for (Map.Entry<Writable, Writable> e: value.entrySet()) {
+        cells.put((Text)e.getKey(), (ImmutableBytesWritable)e.getValue());
+      }
+      long now = System.currentTimeMillis();
+      for (Map.Entry<Text, ImmutableBytesWritable> e: cells.entrySet()) {
+        this.key.setRow(row);
+        this.key.setColumn(e.getKey());
+        this.key.setVersion(now);
+        getWriter(HStoreKey.extractFamily(e.getKey(), true).toText()).
+          append(this.key, e.getValue());
+      }
+    }
+
+    /** {@inheritDoc} */
+    public void close(@SuppressWarnings("unused") Reporter reporter)
+    throws IOException {
+      closeWriters();
+    }
+
+    /*
+     * @param row
+     * @return Index of the region <code>row</code> belongs to.
+     */
+    private int findRegion(final Text row) {
+      int i = Arrays.binarySearch(this.startKeys, row);
+      // Not a start key: the region is the one whose start key sorts just
+      // before the insertion point.
+      return i >= 0? i: -(i + 1) - 1;
+    }
+
+    /*
+     * @param family Family name with the colon.
+     * @return Writer for the current region of <code>family</code>.
+     * @throws IOException
+     */
+    private MapFile.Writer getWriter(final Text family) throws IOException {
+      MapFile.Writer w = this.writers.get(family);
+      if (w != null) {
+        return w;
+      }
+      HColumnDescriptor hcd = this.families.get(family);
+      if (hcd == null) {
+        throw new IOException("No column family " + family);
+      }
+      Path p = new Path(new Path(this.dir, getFamilyDirName(family)),
+        this.name + "-" + this.fileCount++);
+      w = new MapFile.Writer(this.job, this.fs, p.toString(),
+        HStoreKey.class, ImmutableBytesWritable.class,
+        getCompression(hcd), this.progress);
+      w.setIndexInterval(this.job.getInt("hbase.io.index.interval", 128));
+      this.writers.put(family, w);
+      return w;
+    }
+
+    private void closeWriters() throws IOException {
+      for (MapFile.Writer w: this.writers.values()) {
+        w.close();
+      }
+      this.writers.clear();
+    }
+  }
+
+  /**
+   * @param family Family name with the colon.
+   * @return Name of the directory holding the store files of
+   * <code>family</code>: the family name without the colon.
+   */
+  public static String getFamilyDirName(final Text family) {
+    String f = family.toString();
+    return f.endsWith(":")? f.substring(0, f.length() - 1): f;
+  }
+
+  /*
+   * @param hcd
+   * @return MapFile compression matching that of <code>hcd</code>.
+   */
+  private static SequenceFile.CompressionType getCompression(
+      final HColumnDescriptor hcd) {
+    if (hcd.getCompression() == HColumnDescriptor.CompressionType.BLOCK) {
+      return SequenceFile.CompressionType.BLOCK;
+    } else if (hcd.getCompression() ==
+        HColumnDescriptor.CompressionType.RECORD) {
+      return SequenceFile.CompressionType.RECORD;
+    }
+    return SequenceFile.CompressionType.NONE;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @SuppressWarnings("unchecked")
+  public RecordWriter getRecordWriter(
+      @SuppressWarnings("unused") FileSystem ignored,
+      JobConf job,
+      String name,
+      Progressable progress) throws IOException {
+    Text tableName = new Text(job.get(OUTPUT_TABLE));
+    HTable table = null;
+    try {
+      table = new HTable(new HBaseConfiguration(job), tableName);
+    } catch(IOException e) {
+      LOG.error(e);
+      throw e;
+    }
+    Text [] startKeys = table.getStartKeys();
+    HTableDescriptor desc = table.getMetadata();
+    Path dir = job.getOutputPath();
+    return new HStoreFileRecordWriter(job, dir.getFileSystem(job), dir, name,
+      progress, startKeys, desc.getFamilies());
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void checkOutputSpecs(FileSystem ignored, JobConf job)
+  throws FileAlreadyExistsException, InvalidJobConfException, IOException {
+    if (job.get(OUTPUT_TABLE) == null) {
+      throw new IOException("Must specify table name");
+    }
+    super.checkOutputSpecs(ignored, job);
+  }
+}
@@ -19,13 +19,25 @@
  */
 package org.apache.hadoop.hbase.mapred;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FileUtil;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HScannerInterface;
+import org.apache.hadoop.hbase.HStoreKey;
+import org.apache.hadoop.hbase.HTable;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.io.MapWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.OutputFormatBase;
@@ -34,20 +46,48 @@ import org.apache.hadoop.mapred.Reporter;
 import org.apache.hadoop.util.Progressable;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.MapFieldSelector;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.index.TermEnum;
 import org.apache.lucene.search.Similarity;
+import org.apache.lucene.store.FSDirectory;
 
 /**
  * Create a local index, unwrap Lucene documents created by reduce, add them to
  * the index, and copy the index to the destination.
+ *
+ * <p>If {@link #BASE} is set, the index of the same name under it is copied
+ * and updated instead: a row's document replaces any it had, a row without a
+ * document keeps the one it had, and documents of rows reduce did not see
+ * are deleted.  A row passed with only a digest keeps its document if the
+ * {@link IndexTableReduce#DIGEST} of that matches.  Otherwise, as when a
+ * column of the row was deleted, the row is read again from the table and
+ * its document replaced, or deleted if the row is gone.  Reduce must see
+ * every row of the table, partitioned the same way as when the base index
+ * was built.
  */
 public class IndexOutputFormat extends
     OutputFormatBase<Text, LuceneDocumentWrapper> {
   static final Log LOG = LogFactory.getLog(IndexOutputFormat.class);
 
+  /** Directory of the indexes to update.  If not set, new ones are built. */
+  public static final String BASE = "hbase.index.base";
+
+  private static final FieldSelector DIGEST_ONLY =
+    new MapFieldSelector(new String [] {IndexTableReduce.DIGEST});
+
+  // Table being indexed and the columns of it indexed, to read rows again.
+  private HTable table;
+  private Text [] columns;
+
   @Override
   public RecordWriter<Text, LuceneDocumentWrapper> getRecordWriter(
-    final FileSystem fs, JobConf job, String name, final Progressable progress)
+    final FileSystem fs, final JobConf job, String name,
+    final Progressable progress)
   throws IOException {
 
     final Path perm = new Path(job.getOutputPath(), name);
@@ -75,11 +115,29 @@ public class IndexOutputFormat extends
           + analyzerName);
     }
 
-    // build locally first
-    final IndexWriter writer = new IndexWriter(fs.startLocalOutput(perm, temp)
-        .toString(), analyzer, true);
+    // build locally first, starting from a copy of the base index if any
+    final Path local = fs.startLocalOutput(perm, temp);
+    String baseDir = job.get(BASE);
+    Path base = baseDir == null? null: new Path(baseDir, name);
+    if (base != null && !fs.exists(base)) {
+      LOG.warn("No index " + base + " to update; building a new one");
+      base = null;
+    }
+    final IndexReader reader;
+    if (base != null) {
+      LOG.info("Updating a copy of " + base);
+      FileUtil.copy(fs, base, new File(local.toString()), false, job);
+      reader = IndexReader.open(local.toString());
+    } else {
+      reader = null;
+    }
+    // When updating, commit only on close so the files the reader is
+    // reading stay around until then.
+    final IndexWriter writer = new IndexWriter(
+      FSDirectory.getDirectory(local.toString()), reader == null, analyzer,
+      reader == null);
 
-    // no delete, so no need for maxBufferedDeleteTerms
+    writer.setMaxBufferedDeleteTerms(indexConf.getMaxBufferedDeleteTerms());
     writer.setMaxBufferedDocs(indexConf.getMaxBufferedDocs());
     writer.setMaxFieldLength(indexConf.getMaxFieldLength());
     writer.setMaxMergeDocs(indexConf.getMaxMergeDocs());
@@ -97,20 +155,95 @@ public class IndexOutputFormat extends
     }
     writer.setUseCompoundFile(indexConf.isUseCompoundFile());
 
+    final String rowkeyName = indexConf.getRowkeyName();
+    final TermEnum rows =
+      reader == null? null: reader.terms(new Term(rowkeyName, ""));
+
     return new RecordWriter<Text, LuceneDocumentWrapper>() {
       private boolean closed;
       private long docCount = 0;
+      private long deleteCount = 0;
+      // Next row of the base index not yet seen by write.
+      private Term row = rows == null? null: rows.term();
 
-      public void write(@SuppressWarnings("unused") Text key,
-        LuceneDocumentWrapper value)
+      public void write(Text key, LuceneDocumentWrapper value)
       throws IOException {
+        boolean indexed = skipTo(key.toString());
         // unwrap and index doc
         Document doc = value.get();
-        writer.addDocument(doc);
-        docCount++;
+        String digest = value.getDigest();
+        if (doc == null && digest != null &&
+            !(indexed && sameDigest(key, digest))) {
+          // row has no newer cells but no document it matches, as when a
+          // cell was deleted: read it again
+          MapWritable columns = getRow(job, key);
+          if (!columns.isEmpty()) {
+            doc = IndexTableReduce.document(indexConf, key, columns);
+          } else if (indexed) {
+            writer.deleteDocuments(new Term(rowkeyName, key.toString()));
+            deleteCount++;
+          }
+        }
+        if (doc == null) {
+          // row has not changed
+        } else if (indexed) {
+          writer.updateDocument(new Term(rowkeyName, key.toString()), doc);
+          docCount++;
+        } else {
+          writer.addDocument(doc);
+          docCount++;
+        }
         progress.progress();
       }
 
+      /*
+       * @return True if the base index document of <code>key</code> has
+       * <code>digest</code>.  Documents indexed before digests were added
+       * have none, so they are replaced.
+       */
+      private boolean sameDigest(final Text key, final String digest)
+      throws IOException {
+        TermDocs docs = reader.termDocs(new Term(rowkeyName, key.toString()));
+        try {
+          while (docs.next()) {
+            if (digest.equals(reader.document(docs.doc(),
+                DIGEST_ONLY).get(IndexTableReduce.DIGEST))) {
+              return true;
+            }
+          }
+          return false;
+        } finally {
+          docs.close();
+        }
+      }
+
+      /*
+       * Delete documents of base index rows that sort before
+       * <code>key</code>: rows come to us sorted, so reduce did not see
+       * them.  A null key deletes all that are left.  Reduce sorts rows by
+       * their UTF-8 bytes and the index by UTF-16 chars, which only
+       * disagree on rows with chars outside the Basic Multilingual Plane.
+       * @param key
+       * @return True if the base index has a document for <code>key</code>.
+       */
+      private boolean skipTo(final String key) throws IOException {
+        while (this.row != null && this.row.field().equals(rowkeyName)) {
+          int c = key == null? -1: this.row.text().compareTo(key);
+          if (c > 0) {
+            return false;
+          }
+          if (c < 0) {
+            writer.deleteDocuments(this.row);
+            deleteCount++;
+          }
+          this.row = rows.next()? rows.term(): null;
+          if (c == 0) {
+            return true;
+          }
+        }
+        return false;
+      }
+
       public void close(final Reporter reporter) throws IOException {
         // spawn a thread to give progress heartbeats
         Thread prog = new Thread() {
@@ -131,6 +264,12 @@ public class IndexOutputFormat extends
         try {
           prog.start();
 
+          if (reader != null) {
+            skipTo(null);
+            rows.close();
+            reader.close();
+          }
+
           // optimize index
           if (indexConf.doOptimize()) {
             if (LOG.isInfoEnabled()) {
@@ -142,7 +281,8 @@ public class IndexOutputFormat extends
           // close index
           writer.close();
           if (LOG.isInfoEnabled()) {
-            LOG.info("Done indexing " + docCount + " docs.");
+            LOG.info("Done indexing " + docCount + " docs, deleting " +
+              deleteCount + ".");
           }
 
           // copy to perm destination in dfs
@@ -156,4 +296,43 @@ public class IndexOutputFormat extends
       }
     };
   }
+
+  /**
+   * Read <code>row</code> again from the table being indexed, with the
+   * columns and as of the timestamp the job scans.
+   * @param job
+   * @param row
+   * @return Columns of the row; empty if it has none.
+   * @throws IOException
+   */
+  MapWritable getRow(final JobConf job, final Text row) throws IOException {
+    if (this.table == null) {
+      this.table = new HTable(new HBaseConfiguration(job),
+        new Text(job.getInputPaths()[0].getName()));
+      String [] names = job.get(TableInputFormat.COLUMN_LIST).split(" ");
+      this.columns = new Text[names.length];
+      for (int i = 0; i < names.length; i++) {
+        this.columns[i] = new Text(names[i]);
+      }
+    }
+    // Rows sort by their bytes, so none sorts between row and row + 0.
+    Text stop = new Text(row);
+    stop.append(new byte [] {0}, 0, 1);
+    HScannerInterface scanner = this.table.obtainScanner(this.columns, row,
+      stop, job.getLong(TableInputFormat.TIMESTAMP,
+        HConstants.LATEST_TIMESTAMP));
+    MapWritable result = new MapWritable();
+    try {
+      HStoreKey key = new HStoreKey();
+      SortedMap<Text, byte []> cells = new TreeMap<Text, byte []>();
+      if (scanner.next(key, cells) && key.getRow().equals(row)) {
+        for (Map.Entry<Text, byte []> e: cells.entrySet()) {
+          result.put(e.getKey(), new ImmutableBytesWritable(e.getValue()));
+        }
+      }
+    } finally {
+      scanner.close();
+    }
+    return result;
+  }
 }
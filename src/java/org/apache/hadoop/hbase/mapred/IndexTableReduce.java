@@ -22,9 +22,13 @@ package org.apache.hadoop.hbase.mapred;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.MD5Hash;
 import org.apache.hadoop.io.MapWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
@@ -39,12 +43,20 @@ import org.apache.lucene.document.Field;
 
 /**
  * Construct a Lucene document per row, which is consumed by IndexOutputFormat
- * to build a Lucene index
+ * to build a Lucene index.  A row without columns is passed on with no
+ * document; when updating an index, its document is kept as is.  Each
+ * document stores a digest of the row's columns and values.  A row that
+ * {@link IndexUpdateTableMap} found to have no newer cells arrives as only
+ * that digest, and is passed on with it and no document so the update can
+ * tell whether the row still matches its document.
  */
 public class IndexTableReduce extends MapReduceBase implements
     Reducer<Text, MapWritable, Text, LuceneDocumentWrapper> {
   private static final Logger LOG = Logger.getLogger(IndexTableReduce.class);
 
+  /** Stored field holding the digest of the row's columns and values. */
+  static final String DIGEST = "hbase.index.digest";
+
   private IndexConfiguration indexConf;
 
   public void configure(JobConf job) {
@@ -70,6 +82,35 @@ public class IndexTableReduce extends MapReduceBase implements
       return;
     }
 
+    MapWritable columns = new MapWritable();
+    String digest = null;
+    while (values.hasNext()) {
+      MapWritable value = values.next();
+      Writable notNewer = value.remove(IndexUpdateTableMap.NOT_NEWER);
+      if (notNewer != null) {
+        digest = new String(((ImmutableBytesWritable)notNewer).get(),
+          HConstants.UTF8_ENCODING);
+      }
+      columns.putAll(value);
+    }
+    if (columns.isEmpty()) {
+      output.collect(key, new LuceneDocumentWrapper(null, digest));
+      return;
+    }
+    output.collect(key,
+      new LuceneDocumentWrapper(document(indexConf, key, columns)));
+  }
+
+  /**
+   * @param indexConf
+   * @param key Row.
+   * @param columns Values of the row keyed by column.
+   * @return Document of the row, with the {@link #DIGEST} of its columns.
+   * @throws IOException
+   */
+  static Document document(final IndexConfiguration indexConf,
+      final Text key, final MapWritable columns)
+  throws IOException {
     Document doc = new Document();
 
     // index and store row key, row key already UTF-8 encoded
@@ -78,30 +119,49 @@ public class IndexTableReduce extends MapReduceBase implements
     keyField.setOmitNorms(true);
     doc.add(keyField);
 
-    while (values.hasNext()) {
-      MapWritable value = values.next();
+    // each column (name-value pair) is a field (name-value pair)
+    for (Map.Entry<Writable, Writable> entry : columns.entrySet()) {
+      // name is already UTF-8 encoded
+      String column = ((Text) entry.getKey()).toString();
+      byte[] columnValue = ((ImmutableBytesWritable)entry.getValue()).get();
+      Field.Store store = indexConf.isStore(column)?
+        Field.Store.YES: Field.Store.NO;
+      Field.Index index = indexConf.isIndex(column)?
+        (indexConf.isTokenize(column)?
+          Field.Index.TOKENIZED: Field.Index.UN_TOKENIZED):
+          Field.Index.NO;
 
-      // each column (name-value pair) is a field (name-value pair)
-      for (Map.Entry<Writable, Writable> entry : value.entrySet()) {
-        // name is already UTF-8 encoded
-        String column = ((Text) entry.getKey()).toString();
-        byte[] columnValue = ((ImmutableBytesWritable)entry.getValue()).get();
-        Field.Store store = indexConf.isStore(column)?
-          Field.Store.YES: Field.Store.NO;
-        Field.Index index = indexConf.isIndex(column)?
-          (indexConf.isTokenize(column)?
-            Field.Index.TOKENIZED: Field.Index.UN_TOKENIZED):
-            Field.Index.NO;
+      // UTF-8 encode value
+      Field field = new Field(column, new String(columnValue,
+        HConstants.UTF8_ENCODING), store, index);
+      field.setBoost(indexConf.getBoost(column));
+      field.setOmitNorms(indexConf.isOmitNorms(column));
 
-        // UTF-8 encode value
-        Field field = new Field(column, new String(columnValue,
-          HConstants.UTF8_ENCODING), store, index);
-        field.setBoost(indexConf.getBoost(column));
-        field.setOmitNorms(indexConf.isOmitNorms(column));
+      doc.add(field);
+    }
+    doc.add(new Field(DIGEST, digest(columns), Field.Store.YES,
+      Field.Index.NO));
+    return doc;
+  }
 
-        doc.add(field);
-      }
+  /**
+   * @param columns Values of a row keyed by column.
+   * @return Hex digest of the columns and their values.
+   * @throws IOException
+   */
+  static String digest(final MapWritable columns) throws IOException {
+    // Sorted so the digest does not depend on the order of the columns.
+    SortedMap<String, byte []> sorted = new TreeMap<String, byte []>();
+    for (Map.Entry<Writable, Writable> e: columns.entrySet()) {
+      sorted.put(((Text)e.getKey()).toString(),
+        ((ImmutableBytesWritable)e.getValue()).get());
+    }
+    DataOutputBuffer out = new DataOutputBuffer();
+    for (Map.Entry<String, byte []> e: sorted.entrySet()) {
+      Text.writeString(out, e.getKey());
+      out.writeInt(e.getValue().length);
+      out.write(e.getValue());
     }
-    output.collect(key, new LuceneDocumentWrapper(doc));
+    return MD5Hash.digest(out.getData(), 0, out.getLength()).toString();
   }
 }
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.mapred;
+
+import java.io.IOException;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HStoreKey;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reporter;
+
+/**
+ * Pass every row to reduce: with its columns if it has a cell newer than
+ * the index was last built as of, otherwise with only a digest of its
+ * columns.  Reduce sees every row so the index update can tell which rows
+ * have been deleted.
+ *
+ * <p>The scanner sets the timestamp of the key of each row to that of its
+ * newest cell, so a row with a key newer than {@link #SINCE} has changed.
+ * A row with an older key may still have changed: a deleted cell leaves no
+ * newer cell behind.  The digest of such a row is compared with that of its
+ * document in the index being updated instead, and the row read again if
+ * they differ; see {@link IndexOutputFormat}.  Most rows of a table do not
+ * change between updates, so most rows cross the shuffle as a key and a
+ * digest only.
+ */
+public class IndexUpdateTableMap extends TableMap<Text, MapWritable> {
+  /**
+   * Timestamp the index was last built as of.  Defaults to -1: all rows are
+   * passed with their columns.
+   */
+  public static final String SINCE = "hbase.index.since";
+
+  /**
+   * Key of the digest passed in place of the columns of a row with no cell
+   * newer than {@link #SINCE}.  Column names hold a colon so this can not be
+   * a column.
+   */
+  static final Text NOT_NEWER = new Text("hbase.index.notnewer");
+
+  private long since = -1;
+
+  /** constructor */
+  public IndexUpdateTableMap() {
+    super();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void configure(JobConf job) {
+    super.configure(job);
+    this.since = job.getLong(SINCE, -1);
+  }
+
+  /**
+   * Pass the row to reduce, with only the digest of its columns if it has
+   * no cell newer than {@link #SINCE}.
+   *
+   * @see org.apache.hadoop.hbase.mapred.TableMap#map(org.apache.hadoop.hbase.HStoreKey, org.apache.hadoop.io.MapWritable, org.apache.hadoop.mapred.OutputCollector, org.apache.hadoop.mapred.Reporter)
+   */
+  @Override
+  public void map(HStoreKey key, MapWritable value,
+      OutputCollector<Text, MapWritable> output,
+      @SuppressWarnings("unused") Reporter reporter) throws IOException {
+    if (key.getTimestamp() <= this.since) {
+      MapWritable digest = new MapWritable();
+      digest.put(NOT_NEWER, new ImmutableBytesWritable(
+        IndexTableReduce.digest(value).getBytes(HConstants.UTF8_ENCODING)));
+      output.collect(key.getRow(), digest);
+    } else {
+      output.collect(key.getRow(), value);
+    }
+  }
+}
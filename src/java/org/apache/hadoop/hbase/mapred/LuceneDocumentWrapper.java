@@ -28,19 +28,36 @@ import org.apache.lucene.document.Document;
 
 /**
  * A utility class used to pass a lucene document from reduce to OutputFormat.
- * It doesn't really serialize/deserialize a lucene document.
+ * It doesn't really serialize/deserialize a lucene document.  The document
+ * is null for a row that has not changed since the index being updated was
+ * built.  A row that may not have changed has no document but the digest of
+ * its columns instead.
  */
 class LuceneDocumentWrapper implements Writable {
   private Document doc;
+  private String digest;
 
   public LuceneDocumentWrapper(Document doc) {
+    this(doc, null);
+  }
+
+  public LuceneDocumentWrapper(Document doc, String digest) {
     this.doc = doc;
+    this.digest = digest;
   }
 
   public Document get() {
     return doc;
   }
 
+  /**
+   * @return Digest of the columns of a row with no document that may have
+   * changed, as in {@link IndexTableReduce#DIGEST}; null otherwise.
+   */
+  public String getDigest() {
+    return digest;
+  }
+
   public void readFields(DataInput in) throws IOException {
     // intentionally left blank
   }
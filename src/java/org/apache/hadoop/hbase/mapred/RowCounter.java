@@ -45,6 +45,9 @@ import org.apache.hadoop.util.ToolRunner;
  * A job with a map to count rows.
  * Map outputs table rows IF the input row has columns that have content.  
  * Uses an {@link IdentityReducer}
+ *
+ * <p>To just get the count, {@link org.apache.hadoop.hbase.HTable#aggregate(Text[])}
+ * is cheaper: the region servers count their rows and no rows are moved.
  */
 public class RowCounter extends TableMap<Text, MapWritable> implements Tool {
   /* Name of this 'program'
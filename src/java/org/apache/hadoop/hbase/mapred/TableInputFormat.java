@@ -20,6 +20,8 @@
 package org.apache.hadoop.hbase.mapred;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -37,6 +39,9 @@ import org.apache.hadoop.mapred.RecordReader;
 import org.apache.hadoop.mapred.Reporter;
 
 import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionInterface;
+import org.apache.hadoop.hbase.HRegionLocation;
 import org.apache.hadoop.hbase.HTable;
 import org.apache.hadoop.hbase.HScannerInterface;
 import org.apache.hadoop.hbase.HStoreKey;
@@ -56,9 +61,22 @@ implements InputFormat<HStoreKey, MapWritable>, JobConfigurable {
    * @see org.apache.hadoop.hbase.HAbstractScanner for column name wildcards
    */
   public static final String COLUMN_LIST = "hbase.mapred.tablecolumns";
+
+  /**
+   * Number of splits to make of each region of the table.  Defaults to one.
+   */
+  public static final String SPLITS_PER_REGION =
+    "hbase.mapred.splitsperregion";
+
+  /**
+   * Timestamp to read the table as of; cells written after it are not seen.
+   * Defaults to the latest.
+   */
+  public static final String TIMESTAMP = "hbase.mapred.tabletimestamp";
   
   private Text m_tableName;
   Text[] m_cols;
+  long m_timestamp;
   HTable m_table;
 
   /**
@@ -78,9 +96,10 @@ implements InputFormat<HStoreKey, MapWritable>, JobConfigurable {
      */
     public TableRecordReader(Text startRow, Text endRow) throws IOException {
       if (endRow != null && endRow.getLength() > 0) {
-        this.m_scanner = m_table.obtainScanner(m_cols, startRow, endRow);
+        this.m_scanner = m_table.obtainScanner(m_cols, startRow, endRow,
+          m_timestamp);
       } else {
-        this.m_scanner = m_table.obtainScanner(m_cols, startRow);
+        this.m_scanner = m_table.obtainScanner(m_cols, startRow, m_timestamp);
       }
     }
 
@@ -157,7 +176,10 @@ implements InputFormat<HStoreKey, MapWritable>, JobConfigurable {
   }
 
   /**
-   * A split will be created for each HRegion of the input table
+   * {@link #SPLITS_PER_REGION} splits will be created for each HRegion of the
+   * input table, one if not set.  Regions are divided at rows the region
+   * server samples from its store files so splits of a region hold about the
+   * same amount of data.  Splits are located on the server of their region.
    *
    * @see org.apache.hadoop.mapred.InputFormat#getSplits(org.apache.hadoop.mapred.JobConf, int)
    */
@@ -167,15 +189,49 @@ implements InputFormat<HStoreKey, MapWritable>, JobConfigurable {
     if(startKeys == null || startKeys.length == 0) {
       throw new IOException("Expecting at least one region");
     }
-    InputSplit[] splits = new InputSplit[startKeys.length];
+    int perRegion = job.getInt(SPLITS_PER_REGION, 1);
+    List<InputSplit> splits = new ArrayList<InputSplit>();
     for(int i = 0; i < startKeys.length; i++) {
-      splits[i] = new TableSplit(m_tableName, startKeys[i],
-          ((i + 1) < startKeys.length) ? startKeys[i + 1] : new Text());
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("split: " + i + "->" + splits[i]);
+      Text endKey =
+        ((i + 1) < startKeys.length) ? startKeys[i + 1] : new Text();
+      HRegionLocation location = m_table.getRegionLocation(startKeys[i]);
+      String host =
+        location.getServerAddress().getInetSocketAddress().getHostName();
+      Text [] keys = getSplitKeys(location, perRegion);
+      Text start = startKeys[i];
+      for (int j = 0; j <= keys.length; j++) {
+        Text end = j < keys.length? keys[j]: endKey;
+        InputSplit split = new TableSplit(m_tableName, start, end, host);
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("split: " + splits.size() + "->" + split);
+        }
+        splits.add(split);
+        start = end;
       }
     }
-    return splits;
+    return splits.toArray(new InputSplit[splits.size()]);
+  }
+
+  /*
+   * @param location
+   * @param n
+   * @return Rows to divide the region at <code>location</code> into
+   * <code>n</code> splits at; empty if the region server could not say.
+   */
+  private Text [] getSplitKeys(final HRegionLocation location, final int n) {
+    if (n <= 1) {
+      return new Text[0];
+    }
+    try {
+      HRegionInterface server = m_table.getConnection().
+        getHRegionConnection(location.getServerAddress());
+      return server.getSplitKeys(location.getRegionInfo().getRegionName(), n);
+    } catch (IOException e) {
+      // Splitting a region is only an optimization.
+      LOG.warn("Failed getting split keys of " +
+        location.getRegionInfo().getRegionName() + "; making one split", e);
+      return new Text[0];
+    }
   }
 
   public void configure(JobConf job) {
@@ -187,6 +243,7 @@ implements InputFormat<HStoreKey, MapWritable>, JobConfigurable {
     for(int i = 0; i < m_cols.length; i++) {
       m_cols[i] = new Text(colNames[i]);
     }
+    m_timestamp = job.getLong(TIMESTAMP, HConstants.LATEST_TIMESTAMP);
     try {
       m_table = new HTable(new HBaseConfiguration(job), m_tableName);
     } catch (Exception e) {
@@ -20,6 +20,8 @@
 package org.apache.hadoop.hbase.mapred;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.hadoop.fs.FileSystem;
@@ -36,12 +38,16 @@ import org.apache.hadoop.util.Progressable;
 
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HTable;
+import org.apache.hadoop.hbase.io.BatchUpdate;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 
 import org.apache.log4j.Logger;
 
 /**
- * Convert Map/Reduce output and write it to an HBase table
+ * Convert Map/Reduce output and write it to an HBase table.
+ *
+ * <p>Rows are buffered and sent in batches, one call per region, once
+ * {@link #WRITE_BUFFER_SIZE} bytes have been written and on close.
  */
 public class TableOutputFormat
   extends OutputFormatBase<Text, MapWritable> {
@@ -49,6 +55,21 @@ public class TableOutputFormat
   /** JobConf parameter that specifies the output table */
   public static final String OUTPUT_TABLE = "hbase.mapred.outputtable";
 
+  /**
+   * JobConf parameter that specifies how many bytes of rows to buffer before
+   * sending them to the region servers.  Defaults to 2MB.  Zero sends each
+   * row as it is written.
+   */
+  public static final String WRITE_BUFFER_SIZE =
+    "hbase.mapred.outputbuffersize";
+
+  /**
+   * JobConf parameter that says whether region servers write the output to
+   * their write-ahead log.  Defaults to true.  If false, output not yet
+   * flushed is lost when a region server crashes; rerun the job if so.
+   */
+  public static final String WRITE_TO_LOG = "hbase.mapred.outputwritetolog";
+
   static final Logger LOG = Logger.getLogger(TableOutputFormat.class.getName());
 
   /** constructor */
@@ -63,6 +84,10 @@ public class TableOutputFormat
   protected class TableRecordWriter
     implements RecordWriter<Text, MapWritable> {
     private HTable m_table;
+    private final long m_bufferSize;
+    private final boolean m_writeToLog;
+    private List<BatchUpdate> m_buffer = new ArrayList<BatchUpdate>();
+    private long m_buffered = 0;
 
     /**
      * Instantiate a TableRecordWriter with the HBase HClient for writing.
@@ -70,23 +95,59 @@ public class TableOutputFormat
      * @param table
      */
     public TableRecordWriter(HTable table) {
+      this(table, 0, true);
+    }
+
+    /**
+     * Instantiate a TableRecordWriter that buffers rows.
+     *
+     * @param table
+     * @param bufferSize bytes of rows to buffer before sending them
+     * @param writeToLog false to skip the region servers' write-ahead log
+     */
+    public TableRecordWriter(HTable table, long bufferSize,
+        boolean writeToLog) {
       m_table = table;
+      m_bufferSize = bufferSize;
+      m_writeToLog = writeToLog;
     }
 
     /** {@inheritDoc} */
-    public void close(@SuppressWarnings("unused") Reporter reporter) {
-      // Nothing to do.
+    public void close(@SuppressWarnings("unused") Reporter reporter)
+    throws IOException {
+      flush();
     }
 
     /** {@inheritDoc} */
     public void write(Text key, MapWritable value) throws IOException {
-      long xid = m_table.startUpdate(key);              // start transaction
-
+      // Caller may reuse the key.
+      Text row = new Text(key);
+      BatchUpdate b = new BatchUpdate(m_buffer.size());
+      long xid = b.startUpdate(row);
+      m_buffered += row.getLength();
       for (Map.Entry<Writable, Writable> e: value.entrySet()) {
-        m_table.put(xid, (Text)e.getKey(),
-            ((ImmutableBytesWritable)e.getValue()).get());
+        Text column = (Text)e.getKey();
+        byte [] v = ((ImmutableBytesWritable)e.getValue()).get();
+        b.put(xid, column, v);
+        m_buffered += column.getLength() + v.length;
+      }
+      m_buffer.add(b);
+      if (m_buffered >= m_bufferSize) {
+        flush();
+      }
+    }
+
+    /*
+     * Send buffered rows to the region servers.
+     * @throws IOException
+     */
+    private void flush() throws IOException {
+      if (m_buffer.isEmpty()) {
+        return;
       }
-      m_table.commit(xid);                              // end transaction
+      m_table.commit(m_buffer, m_writeToLog);
+      m_buffer = new ArrayList<BatchUpdate>();
+      m_buffered = 0;
     }
   }
   
@@ -109,7 +170,9 @@ public class TableOutputFormat
       LOG.error(e);
       throw e;
     }
-    return new TableRecordWriter(table);
+    return new TableRecordWriter(table,
+      job.getLong(WRITE_BUFFER_SIZE, 2 * 1024 * 1024),
+      job.getBoolean(WRITE_TO_LOG, true));
   }
 
   /** {@inheritDoc} */
@@ -27,18 +27,21 @@ import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapred.InputSplit;
 
 /**
- * A table split corresponds to a key range [low, high)
+ * A table split corresponds to a key range [low, high) and carries the host
+ * name of the region server serving it so the map can be run there.
  */
 public class TableSplit implements InputSplit {
   private Text m_tableName;
   private Text m_startRow;
   private Text m_endRow;
+  private Text m_regionLocation;
 
   /** default constructor */
   public TableSplit() {
     m_tableName = new Text();
     m_startRow = new Text();
     m_endRow = new Text();
+    m_regionLocation = new Text();
   }
 
   /**
@@ -48,10 +51,23 @@ public class TableSplit implements InputSplit {
    * @param endRow
    */
   public TableSplit(Text tableName, Text startRow, Text endRow) {
+    this(tableName, startRow, endRow, "");
+  }
+
+  /**
+   * Constructor
+   * @param tableName
+   * @param startRow
+   * @param endRow
+   * @param location host name of the region server serving the rows
+   */
+  public TableSplit(Text tableName, Text startRow, Text endRow,
+      String location) {
     this();
     m_tableName.set(tableName);
     m_startRow.set(startRow);
     m_endRow.set(endRow);
+    m_regionLocation.set(location);
   }
 
   /** @return table name */
@@ -69,6 +85,11 @@ public class TableSplit implements InputSplit {
     return m_endRow;
   }
 
+  /** @return host name of the region server serving the rows or empty */
+  public String getRegionLocation() {
+    return m_regionLocation.toString();
+  }
+
   /** {@inheritDoc} */
   public long getLength() {
     // Not clear how to obtain this... seems to be used only for sorting splits
@@ -77,8 +98,10 @@ public class TableSplit implements InputSplit {
 
   /** {@inheritDoc} */
   public String[] getLocations() {
-    // Return a random node from the cluster for now
-    return new String[] { };
+    if (m_regionLocation.getLength() == 0) {
+      return new String[] { };
+    }
+    return new String[] { m_regionLocation.toString() };
   }
 
   /** {@inheritDoc} */
@@ -86,6 +109,7 @@ public class TableSplit implements InputSplit {
     m_tableName.readFields(in);
     m_startRow.readFields(in);
     m_endRow.readFields(in);
+    m_regionLocation.readFields(in);
   }
 
   /** {@inheritDoc} */
@@ -93,11 +117,13 @@ public class TableSplit implements InputSplit {
     m_tableName.write(out);
     m_startRow.write(out);
     m_endRow.write(out);
+    m_regionLocation.write(out);
   }
 
   /** {@inheritDoc} */
   @Override
   public String toString() {
-    return m_tableName +"," + m_startRow + "," + m_endRow;
+    return m_tableName +"," + m_startRow + "," + m_endRow + "," +
+      m_regionLocation;
   }
 }
@@ -71,10 +71,48 @@ or review the <code>org.apache.hadoop.hbase.mapred.TestTableMapReduce</code> uni
 specify source/sink table and column names in your configuration.</p>
 
 <p>Reading from hbase, the !TableInputFormat asks hbase for the list of
-regions and makes a map-per-region.  Writing, its better to have lots of
+regions and makes a map-per-region, to be run on the host of the region
+server serving the region.  To have more maps than there are regions, set
+<code>hbase.mapred.splitsperregion</code>; each region is then divided at
+rows sampled by its region server.  Writing, its better to have lots of
 reducers so load is spread across the hbase cluster.
 </p>
 
+<p>Writing to hbase, the !TableOutputFormat buffers rows and sends them a
+region at a time once <code>hbase.mapred.outputbuffersize</code> bytes have
+accumulated (2MB by default), and again when the task closes.  Set
+<code>hbase.mapred.outputwritetolog</code> to false to have the region servers
+skip their write-ahead log; edits not yet flushed from a region server's
+memcache are then lost if it crashes, so only do this for output you can
+regenerate by rerunning the job.
+</p>
+
+<h3>Bulk loading</h3>
+<p>Going through {@link org.apache.hadoop.hbase.mapred.TableOutputFormat TableOutputFormat},
+every cell is written to the write-ahead log and the memcache before being
+flushed and compacted.  For large imports, have the job write store files
+with {@link org.apache.hadoop.hbase.mapred.HStoreFileOutputFormat HStoreFileOutputFormat}
+instead and then hand them to the regions with
+{@link org.apache.hadoop.hbase.HBaseAdmin#bulkLoad(org.apache.hadoop.io.Text, org.apache.hadoop.fs.Path) HBaseAdmin.bulkLoad}.
+The job output directory must be on the filesystem hbase is running on.
+Rows must reach the output format sorted, as they do out of a reduce.  Each
+reducer writes a file per region it has rows for, so partitioning rows by
+key range keeps the number of files down.
+</p>
+
+<h3>Keeping an index up to date</h3>
+<p>Run with <code>-incremental</code>,
+{@link org.apache.hadoop.hbase.mapred.BuildTableIndex BuildTableIndex} updates
+the Lucene indexes it built last time instead of building them again.  The
+table is read as of the time the job starts, which is recorded in a
+<code>checkpoint</code> file under the index directory once the job succeeds.
+Rows with cells newer than the previous checkpoint have their documents
+rebuilt, as do rows whose columns no longer match their document, such as
+after a column is deleted; other rows are copied from the previous indexes,
+and documents of rows since deleted are dropped.  Set <code>hbase.mapred.tabletimestamp</code>
+to have any job read a table as of a given time.
+</p>
+
 <h2>Example Code</h2>
 <h3>Sample Row Counter</h3>
 <p>See {@link org.apache.hadoop.hbase.mapred.RowCounter}.  You should be able to run
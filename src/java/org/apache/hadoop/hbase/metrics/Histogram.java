@@ -0,0 +1,226 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free histogram of the recent non-negative long values, such as
+ * latencies, added to it.
+ *
+ * Values are counted in log-linear buckets: each power of two is split into
+ * {@link #SUB_BUCKETS} equal sub-buckets so reported percentiles are within
+ * 1/{@link #SUB_BUCKETS} of the true value.  Updating is a couple of atomic
+ * increments; there is no locking and no allocation but once per window.
+ *
+ * <p>Values are kept in intervals of the window length.  Readings cover the
+ * current interval and the one before it, so they describe the values added
+ * in the last one to two windows rather than since startup.
+ */
+public class Histogram {
+  /** Count of sub-buckets per power of two */
+  static final int SUB_BUCKETS = 8;
+  private static final int SUB_BITS = 3;
+  private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+  /** Default window length in milliseconds */
+  public static final long DEFAULT_WINDOW = 60 * 1000;
+
+  /*
+   * Values added during one window.
+   */
+  private static class Interval {
+    final long start;
+    final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    final AtomicLong count = new AtomicLong(0);
+    final AtomicLong sum = new AtomicLong(0);
+    final AtomicLong max = new AtomicLong(0);
+    // Interval before this one; cleared when this one is rolled over.
+    volatile Interval previous;
+
+    Interval(final long start, final Interval previous) {
+      this.start = start;
+      this.previous = previous;
+    }
+  }
+
+  private final long window;
+  private final AtomicReference<Interval> current;
+
+  /** Histogram over the last {@link #DEFAULT_WINDOW} to twice that. */
+  public Histogram() {
+    this(DEFAULT_WINDOW);
+  }
+
+  /**
+   * @param window Window length in milliseconds.
+   */
+  public Histogram(final long window) {
+    this.window = window;
+    this.current = new AtomicReference<Interval>(
+      new Interval(System.currentTimeMillis(), null));
+  }
+
+  /**
+   * Add a value.
+   * @param value Value to add.  Negative values are counted as zero.
+   */
+  public void update(final long value) {
+    long v = value < 0 ? 0 : value;
+    Interval i = getCurrent();
+    i.counts.incrementAndGet(bucket(v));
+    i.count.incrementAndGet();
+    i.sum.addAndGet(v);
+    long m = i.max.get();
+    while (v > m && !i.max.compareAndSet(m, v)) {
+      m = i.max.get();
+    }
+  }
+
+  /**
+   * Add the microseconds elapsed since <code>startNanos</code>.
+   * @param startNanos Start time as returned by {@link System#nanoTime()}.
+   */
+  public void updateSince(final long startNanos) {
+    update((System.nanoTime() - startNanos) / 1000);
+  }
+
+  /** @return count of recent values */
+  public long getCount() {
+    long c = 0;
+    for (Interval i: getIntervals()) {
+      c += i.count.get();
+    }
+    return c;
+  }
+
+  /** @return largest recent value */
+  public long getMax() {
+    long m = 0;
+    for (Interval i: getIntervals()) {
+      m = Math.max(m, i.max.get());
+    }
+    return m;
+  }
+
+  /** @return mean of recent values or zero if none */
+  public double getMean() {
+    long c = 0;
+    long s = 0;
+    for (Interval i: getIntervals()) {
+      c += i.count.get();
+      s += i.sum.get();
+    }
+    return c == 0 ? 0 : (double)s / c;
+  }
+
+  /**
+   * @param quantile Quantile wanted, e.g. 0.99.
+   * @return Estimated value at the passed quantile of recent values or zero
+   * if none.
+   */
+  public long getPercentile(final double quantile) {
+    Interval [] intervals = getIntervals();
+    long [] snapshot = new long[BUCKETS];
+    long total = 0;
+    long max = 0;
+    for (Interval interval: intervals) {
+      for (int i = 0; i < BUCKETS; i++) {
+        long c = interval.counts.get(i);
+        snapshot[i] += c;
+        total += c;
+      }
+      max = Math.max(max, interval.max.get());
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = (long)Math.ceil(quantile * total);
+    if (rank < 1) {
+      rank = 1;
+    }
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(upperBound(i), max);
+      }
+    }
+    return max;
+  }
+
+  /*
+   * @return The interval values are added to now, rolled over first if its
+   * window has passed.
+   */
+  private Interval getCurrent() {
+    long now = System.currentTimeMillis();
+    Interval i = this.current.get();
+    while (now - i.start >= this.window) {
+      // Keep the interval being replaced only if it is the one just before.
+      Interval next = new Interval(now,
+        now - i.start < 2 * this.window ? i : null);
+      if (this.current.compareAndSet(i, next)) {
+        i.previous = null;
+        return next;
+      }
+      i = this.current.get();
+    }
+    return i;
+  }
+
+  /*
+   * @return The current interval and the one before it, if any.
+   */
+  private Interval [] getIntervals() {
+    Interval i = getCurrent();
+    Interval p = i.previous;
+    return p == null ? new Interval [] {i} : new Interval [] {i, p};
+  }
+
+  /*
+   * Values below SUB_BUCKETS get a bucket each.  Above, the bucket is
+   * picked by the position of the highest set bit plus the SUB_BITS bits
+   * that follow it.
+   */
+  static int bucket(final long v) {
+    if (v < SUB_BUCKETS) {
+      return (int)v;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(v);
+    int sub = (int)(v >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  /*
+   * @return Largest value that falls into bucket <code>i</code>.
+   */
+  static long upperBound(final int i) {
+    if (i < SUB_BUCKETS) {
+      return i;
+    }
+    int exponent = i / SUB_BUCKETS + SUB_BITS - 1;
+    long sub = i % SUB_BUCKETS;
+    long width = 1L << (exponent - SUB_BITS);
+    long lower = (SUB_BUCKETS + sub) * width;
+    return lower + width - 1;
+  }
+}
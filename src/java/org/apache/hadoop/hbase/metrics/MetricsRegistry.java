@@ -0,0 +1,213 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Named counters, gauges and histograms.
+ *
+ * Histograms are read out as <code>name.count</code>, <code>name.mean</code>,
+ * <code>name.max</code>, <code>name.p50</code>, <code>name.p99</code> and
+ * <code>name.p999</code>.  These describe the values of the last one to two
+ * minutes, not all values since startup; see {@link Histogram}.  The
+ * registry is itself a read-only JMX bean with one attribute per value.
+ */
+public class MetricsRegistry implements DynamicMBean {
+  static final Log LOG = LogFactory.getLog(MetricsRegistry.class);
+
+  private final ConcurrentMap<String, Object> metrics =
+    new ConcurrentHashMap<String, Object>();
+  private ObjectName beanName = null;
+
+  /**
+   * @param name metric name
+   * @return The counter of the passed name, created if needed.
+   */
+  public Counter counter(final String name) {
+    return (Counter)getOrAdd(name, new Counter());
+  }
+
+  /**
+   * @param name metric name
+   * @return The histogram of the passed name, created if needed.
+   */
+  public Histogram histogram(final String name) {
+    return (Histogram)getOrAdd(name, new Histogram());
+  }
+
+  /**
+   * Add a gauge, replacing any existing metric of the same name.
+   * @param name metric name
+   * @param gauge gauge to add
+   */
+  public void gauge(final String name, final Gauge gauge) {
+    this.metrics.put(name, gauge);
+  }
+
+  /**
+   * Add a histogram made elsewhere, replacing any existing metric of the
+   * same name.
+   * @param name metric name
+   * @param histogram histogram to add
+   */
+  public void register(final String name, final Histogram histogram) {
+    this.metrics.put(name, histogram);
+  }
+
+  private Object getOrAdd(final String name, final Object metric) {
+    Object existing = this.metrics.putIfAbsent(name, metric);
+    return existing == null ? metric : existing;
+  }
+
+  /**
+   * @return Current value of all metrics, sorted by name.
+   */
+  public SortedMap<String, Number> snapshot() {
+    SortedMap<String, Number> result = new TreeMap<String, Number>();
+    for (Map.Entry<String, Object> e: this.metrics.entrySet()) {
+      String name = e.getKey();
+      Object m = e.getValue();
+      if (m instanceof Counter) {
+        result.put(name, Long.valueOf(((Counter)m).get()));
+      } else if (m instanceof Gauge) {
+        result.put(name, Long.valueOf(((Gauge)m).getValue()));
+      } else if (m instanceof Histogram) {
+        Histogram h = (Histogram)m;
+        result.put(name + ".count", Long.valueOf(h.getCount()));
+        result.put(name + ".mean", Double.valueOf(h.getMean()));
+        result.put(name + ".max", Long.valueOf(h.getMax()));
+        result.put(name + ".p50", Long.valueOf(h.getPercentile(0.5)));
+        result.put(name + ".p99", Long.valueOf(h.getPercentile(0.99)));
+        result.put(name + ".p999", Long.valueOf(h.getPercentile(0.999)));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Register with the platform JMX server as
+   * <code>hadoop.hbase:service=&lt;service>,name=&lt;name></code>.
+   * @param service service name, e.g. RegionServer
+   * @param name bean name
+   */
+  public synchronized void registerMBean(final String service,
+      final String name) {
+    unregisterMBean();
+    try {
+      ObjectName n = new ObjectName("hadoop.hbase:service=" + service +
+        ",name=" + name);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, n);
+      this.beanName = n;
+    } catch (Exception e) {
+      LOG.warn("Failed register of metrics bean " + name, e);
+    }
+  }
+
+  /** Remove from the JMX server if registered. */
+  public synchronized void unregisterMBean() {
+    if (this.beanName == null) {
+      return;
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.beanName);
+    } catch (Exception e) {
+      LOG.warn("Failed unregister of metrics bean " + this.beanName, e);
+    }
+    this.beanName = null;
+  }
+
+  //
+  // DynamicMBean
+  //
+
+  /** {@inheritDoc} */
+  public Object getAttribute(final String attribute)
+  throws AttributeNotFoundException {
+    Number n = snapshot().get(attribute);
+    if (n == null) {
+      throw new AttributeNotFoundException(attribute);
+    }
+    return n;
+  }
+
+  /** {@inheritDoc} */
+  public AttributeList getAttributes(final String[] attributes) {
+    SortedMap<String, Number> values = snapshot();
+    AttributeList result = new AttributeList();
+    for (int i = 0; i < attributes.length; i++) {
+      Number n = values.get(attributes[i]);
+      if (n != null) {
+        result.add(new Attribute(attributes[i], n));
+      }
+    }
+    return result;
+  }
+
+  /** {@inheritDoc} */
+  public MBeanInfo getMBeanInfo() {
+    List<MBeanAttributeInfo> attributes = new ArrayList<MBeanAttributeInfo>();
+    for (Map.Entry<String, Number> e: snapshot().entrySet()) {
+      attributes.add(new MBeanAttributeInfo(e.getKey(),
+        e.getValue().getClass().getName(), e.getKey(), true, false, false));
+    }
+    return new MBeanInfo(getClass().getName(), "HBase metrics",
+      attributes.toArray(new MBeanAttributeInfo[attributes.size()]),
+      null, new MBeanOperationInfo[0], null);
+  }
+
+  /** {@inheritDoc} */
+  public Object invoke(@SuppressWarnings("unused") final String actionName,
+      @SuppressWarnings("unused") final Object[] params,
+      @SuppressWarnings("unused") final String[] signature) {
+    throw new UnsupportedOperationException("No operations");
+  }
+
+  /** {@inheritDoc} */
+  public void setAttribute(final Attribute attribute)
+  throws AttributeNotFoundException {
+    throw new AttributeNotFoundException("Read-only: " + attribute.getName());
+  }
+
+  /** {@inheritDoc} */
+  public AttributeList setAttributes(
+      @SuppressWarnings("unused") final AttributeList attributes) {
+    return new AttributeList();
+  }
+}
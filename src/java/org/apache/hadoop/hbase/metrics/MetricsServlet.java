@@ -0,0 +1,71 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.hadoop.hbase.HConstants;
+
+/**
+ * Writes the {@link MetricsRegistry} found in the servlet context attribute
+ * {@link #METRICS_ATTRIBUTE} as a JSON object of metric name to value.
+ */
+public class MetricsServlet extends HttpServlet {
+  private static final long serialVersionUID = 1L;
+
+  /** Name of the servlet context attribute holding the registry */
+  public static final String METRICS_ATTRIBUTE = "metrics";
+
+  @Override
+  protected void doGet(@SuppressWarnings("unused") HttpServletRequest request,
+      HttpServletResponse response)
+  throws IOException {
+    MetricsRegistry metrics = (MetricsRegistry)
+      getServletContext().getAttribute(METRICS_ATTRIBUTE);
+    if (metrics == null) {
+      response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+        "No metrics");
+      return;
+    }
+    StringBuilder sb = new StringBuilder("{");
+    for (Iterator<Map.Entry<String, Number>> i =
+        metrics.snapshot().entrySet().iterator(); i.hasNext();) {
+      Map.Entry<String, Number> e = i.next();
+      sb.append('"').append(e.getKey()).append("\": ").append(e.getValue());
+      if (i.hasNext()) {
+        sb.append(",\n ");
+      }
+    }
+    sb.append("}\n");
+    byte [] bytes = sb.toString().getBytes(HConstants.UTF8_ENCODING);
+    response.setContentType("application/json");
+    response.setContentLength(bytes.length);
+    OutputStream out = response.getOutputStream();
+    out.write(bytes);
+    out.flush();
+  }
+}
@@ -34,7 +34,8 @@ import org.mortbay.http.SocketListener;
  * Servlet implementation class for hbase REST interface.
  * Presumes container ensures single thread through here at any one time
  * (Usually the default configuration).  In other words, code is not
- * written thread-safe.
+ * written thread-safe.  The exception is the list of open scanners, which
+ * a lease checker thread prunes of scanners left idle too long.
  * <p>This servlet has explicit dependency on Jetty server; it uses the
  * jetty implementation of MultipartResponse.
  * 
@@ -43,12 +44,8 @@ import org.mortbay.http.SocketListener;
  * <li>multipart/related response is not correct; the servlet setContentType
  * is broken.  I am unable to add parameters such as boundary or start to
  * multipart/related.  They get stripped.</li>
- * <li>Currently creating a scanner, need to specify a column.  Need to make
- * it so the HTable instance has current table's metadata to-hand so easy to
- * find the list of all column families so can make up list of columns if none
- * specified.</li>
  * <li>Minor items are we are decoding URLs in places where probably already
- * done and how to timeout scanners that are in the scanner list.</li>
+ * done.</li>
  * </ul>
  * @see <a href="http://wiki.apache.org/lucene-hadoop/Hbase/HbaseRest">Hbase REST Specification</a>
  */
@@ -60,6 +57,7 @@ implements javax.servlet.Servlet {
 
   private static final String SCANNER = "scanner";
   private static final String ROW = "row";
+  private static final String ROWS = "rows";
       
   /**
    * Default constructor
@@ -84,6 +82,13 @@ implements javax.servlet.Servlet {
     }
   }
 
+  public void destroy() {
+    if (scannerHandler != null) {
+      scannerHandler.close();
+    }
+    super.destroy();
+  }
+
   protected void doGet(HttpServletRequest request, HttpServletResponse response)
   throws IOException, ServletException {
     String [] pathSegments = getPathSegments(request);
@@ -92,6 +97,10 @@ implements javax.servlet.Servlet {
       // if it was a root request, then get some metadata about 
       // the entire instance.
       metaHandler.doGet(request, response, pathSegments);
+    } else if (pathSegments.length == 2 &&
+        pathSegments[1].toLowerCase().equals(SCANNER)) {
+      // a scan of the table streamed in one response
+      scannerHandler.doGet(request, response, pathSegments);
     } else {
       // otherwise, it must be a GET request suitable for the
       // table handler.
@@ -112,6 +121,10 @@ implements javax.servlet.Servlet {
       } else if (pathSegments[1].toLowerCase().equals(ROW) && pathSegments.length >= 3) {
         tableHandler.doPost(request, response, pathSegments);
         return;
+      } else if (pathSegments[1].toLowerCase().equals(ROWS)) {
+        // many rows in one request
+        tableHandler.doPost(request, response, pathSegments);
+        return;
       }
     }
 
@@ -54,6 +54,7 @@ public abstract class GenericHandler {
   protected static final String END_ROW = "end_row";
   protected static final String CONTENT_TYPE = "content-type";
   protected static final String ROW = "row";
+  protected static final String ROWS = "rows";
   protected static final String REGIONS = "regions";
   
   protected final Log LOG = LogFactory.getLog(this.getClass());
@@ -21,8 +21,12 @@ package org.apache.hadoop.hbase.rest;
 
 import java.io.IOException;
 import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -36,33 +40,57 @@ import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.HScannerInterface;
 import org.apache.hadoop.hbase.HStoreKey;
-import org.apache.hadoop.hbase.util.JenkinsHash;
+import org.apache.hadoop.hbase.LeaseListener;
+import org.apache.hadoop.hbase.Leases;
 import org.apache.hadoop.io.Text;
 import org.mortbay.servlet.MultiPartResponse;
 import org.znerd.xmlenc.XMLOutputter;
 
 /**
  * ScannderHandler fields all scanner related requests. 
+ * 
+ * <p>A GET to <code>/[table_name]/scanner</code> streams all rows in the
+ * requested range in one response.  A POST to the same URL opens a scanner
+ * that is then advanced by POSTs to its URL, <code>rows</code> rows at a
+ * time.  Scanners not advanced within
+ * <code>hbase.rest.scanner.lease.period</code> are closed.
  */
 public class ScannerHandler extends GenericHandler {
+  private static final String LIMIT = "limit";
+
+  private final Leases leases;
+  private final Random rand = new Random();
+  private final int defaultBatch;
 
   public ScannerHandler(HBaseConfiguration conf, HBaseAdmin admin) 
   throws ServletException{
     super(conf, admin);
+    this.defaultBatch = conf.getInt("hbase.rest.scanner.batch", 1);
+    this.leases = new Leases(
+      conf.getInt("hbase.rest.scanner.lease.period", 30 * 1000),
+      conf.getInt("hbase.server.thread.wakefrequency", 10 * 1000));
+    this.leases.setName("rest.scanner.leaseChecker");
+    this.leases.start();
   }
     
   private class ScannerRecord {
+    private final long id;
     private final HScannerInterface scanner;
     private HStoreKey key = null;
     private SortedMap<Text, byte []> value = null;
     
     private boolean isEmpty;
     
-    ScannerRecord(final HScannerInterface s) {
+    ScannerRecord(final long id, final HScannerInterface s) {
       this.isEmpty = false;
+      this.id = id;
       this.scanner = s;
     }
   
+    public long getId() {
+      return this.id;
+    }
+  
     public HScannerInterface getScanner() {
       return this.scanner;
     }
@@ -93,15 +121,44 @@ public class ScannerHandler extends GenericHandler {
   }
   
   /*
-   * Map of outstanding scanners keyed by scannerid.
+   * Closes a scanner when its lease expires.
+   */
+  private class ScannerListener implements LeaseListener {
+    private final String scannerid;
+    
+    ScannerListener(final String scannerid) {
+      this.scannerid = scannerid;
+    }
+    
+    /** {@inheritDoc} */
+    public void leaseExpired() {
+      LOG.info("Scanner " + this.scannerid + " lease expired");
+      ScannerRecord sr = scanners.remove(this.scannerid);
+      if (sr != null) {
+        try {
+          sr.getScanner().close();
+        } catch (IOException e) {
+          LOG.error("Closing scanner", e);
+        }
+      }
+    }
+  }
+  
+  /*
+   * Map of outstanding scanners keyed by scannerid.  Synchronized because
+   * the lease checker thread removes expired scanners.
    */
   private final Map<String, ScannerRecord> scanners =
-    new HashMap<String, ScannerRecord>();
+    Collections.synchronizedMap(new HashMap<String, ScannerRecord>());
   
   public void doGet(HttpServletRequest request, HttpServletResponse response, 
     String[] pathSegments)
   throws ServletException, IOException {
-    doMethodNotAllowed(response, "GET to a scanner not supported.");
+    if (pathSegments.length == 2) {
+      streamScan(request, response, pathSegments);
+    } else {
+      doMethodNotAllowed(response, "GET to a scanner not supported.");
+    }
   }
   
   public void doPost(HttpServletRequest request, HttpServletResponse response, 
@@ -132,8 +189,72 @@ public class ScannerHandler extends GenericHandler {
     deleteScanner(response, pathSegments[2]);
   }
   
+  /**
+   * Close all outstanding scanners and stop the lease checker.
+   */
+  public void close() {
+    this.leases.close();
+    List<ScannerRecord> records = null;
+    synchronized (this.scanners) {
+      records = new ArrayList<ScannerRecord>(this.scanners.values());
+      this.scanners.clear();
+    }
+    for (ScannerRecord sr: records) {
+      try {
+        sr.getScanner().close();
+      } catch (IOException e) {
+        LOG.error("Closing scanner", e);
+      }
+    }
+  }
+  
   /*
-   * Advance scanner and return current position.
+   * Write all rows in the requested range as they are read from the table.
+   * No content length is set so the container sends the response with
+   * chunked transfer encoding, a buffer-full at a time, rather than holding
+   * all rows in memory.
+   * @param request
+   * @param response
+   * @param pathSegments
+   * @throws IOException
+   */
+  private void streamScan(final HttpServletRequest request,
+      final HttpServletResponse response, final String [] pathSegments)
+  throws IOException {
+    if (ContentType.getContentType(request.getHeader(ACCEPT)) !=
+        ContentType.XML) {
+      doNotAcceptable(response, "Streaming scans are only returned as XML");
+      return;
+    }
+    long limit = request.getParameter(LIMIT) == null? Long.MAX_VALUE:
+      Long.parseLong(request.getParameter(LIMIT));
+    HTable table = getTable(getTableName(pathSegments));
+    HScannerInterface scanner = openScanner(table, request);
+    try {
+      setResponseHeader(response, 200, ContentType.XML.toString());
+      XMLOutputter outputter = getXMLOutputter(response.getWriter());
+      outputter.startTag(ROWS);
+      HStoreKey key = new HStoreKey();
+      SortedMap<Text, byte []> value = new TreeMap<Text, byte []>();
+      for (long count = 0; count < limit && scanner.next(key, value);
+          count++) {
+        outputRowXml(outputter, key, value);
+        value.clear();
+      }
+      outputter.endTag();
+      outputter.endDocument();
+      outputter.getWriter().close();
+    } finally {
+      scanner.close();
+    }
+  }
+  
+  /*
+   * Advance scanner and return current position.  The scanner is taken out
+   * of the map and its lease cancelled while the request runs, so its lease
+   * cannot run out during a long batch and no other request can use it at
+   * the same time.  Unless it is expended, it is put back with a new lease
+   * when the request is done.
    * @param request
    * @param response
    * @param scannerid
@@ -142,41 +263,93 @@ public class ScannerHandler extends GenericHandler {
   private void getScanner(final HttpServletRequest request,
       final HttpServletResponse response, final String scannerid)
   throws IOException {
-    ScannerRecord sr = this.scanners.get(scannerid);
+    ScannerRecord sr = this.scanners.remove(scannerid);
     if (sr == null) {
       doNotFound(response, "No such scanner.");
       return;
     }
-
-    if (sr.next()) {
-      switch (ContentType.getContentType(request.getHeader(ACCEPT))) {
-        case XML:
-          outputScannerEntryXML(response, sr);
-          break;
-        case MIME:
-          outputScannerEntryMime(response, sr);
-          break;
-        default:
-          doNotAcceptable(response);
+    this.leases.cancelLease(sr.getId(), sr.getId());
+    boolean expended = false;
+    try {
+      int batch = request.getParameter(ROWS) == null? this.defaultBatch:
+        Integer.parseInt(request.getParameter(ROWS));
+      if (!sr.next()) {
+        expended = true;
+        sr.getScanner().close();
+        doNotFound(response, "Scanner is expended");
+      } else if (batch <= 1) {
+        switch (ContentType.getContentType(request.getHeader(ACCEPT))) {
+          case XML:
+            outputScannerEntryXML(response, sr);
+            break;
+          case MIME:
+            outputScannerEntryMime(response, sr);
+            break;
+          default:
+            doNotAcceptable(response);
+        }
+      } else if (ContentType.getContentType(request.getHeader(ACCEPT)) ==
+          ContentType.XML) {
+        outputScannerEntriesXML(response, sr, batch);
+      } else {
+        doNotAcceptable(response, "Many rows are only returned as XML");
+      }
+    } finally {
+      if (!expended) {
+        this.scanners.put(scannerid, sr);
+        this.leases.createLease(sr.getId(), sr.getId(),
+          new ScannerListener(scannerid));
       }
-    }
-    else{
-      this.scanners.remove(scannerid);
-      doNotFound(response, "Scanner is expended");
     }
   }
 
   private void outputScannerEntryXML(final HttpServletResponse response,
     final ScannerRecord sr)
   throws IOException {
-    HStoreKey key = sr.getKey();
-    
     // respond with a 200 and Content-type: text/xml
     setResponseHeader(response, 200, ContentType.XML.toString());
     
     // setup an xml outputter
     XMLOutputter outputter = getXMLOutputter(response.getWriter());
     
+    outputRowXml(outputter, sr.getKey(), sr.getValue());
+    outputter.endDocument();
+    outputter.getWriter().close();
+  }
+
+  /*
+   * Output the current row of the scanner and up to <code>batch - 1</code>
+   * rows after it.
+   * @param response
+   * @param sr
+   * @param batch
+   * @throws IOException
+   */
+  private void outputScannerEntriesXML(final HttpServletResponse response,
+    final ScannerRecord sr, final int batch)
+  throws IOException {
+    setResponseHeader(response, 200, ContentType.XML.toString());
+    XMLOutputter outputter = getXMLOutputter(response.getWriter());
+    outputter.startTag(ROWS);
+    outputRowXml(outputter, sr.getKey(), sr.getValue());
+    for (int i = 1; i < batch && sr.next(); i++) {
+      outputRowXml(outputter, sr.getKey(), sr.getValue());
+    }
+    outputter.endTag();
+    outputter.endDocument();
+    outputter.getWriter().close();
+  }
+
+  /*
+   * Output a row element.
+   * @param outputter
+   * @param key
+   * @param value
+   * @throws IOException
+   */
+  private void outputRowXml(final XMLOutputter outputter, final HStoreKey key,
+    final SortedMap<Text, byte []> value)
+  throws IOException {
     outputter.startTag(ROW);
     
     // write the row key
@@ -193,10 +366,8 @@ public class ScannerHandler extends GenericHandler {
     
     doElement(outputter, "timestamp", Long.toString(key.getTimestamp()));
     
-    outputColumnsXml(outputter, sr.getValue());
+    outputColumnsXml(outputter, value);
     outputter.endTag();
-    outputter.endDocument();
-    outputter.getWriter().close();
   }
 
   private void outputScannerEntryMime(final HttpServletResponse response,
@@ -254,7 +425,44 @@ public class ScannerHandler extends GenericHandler {
   throws IOException, ServletException {
     // get the table
     HTable table = getTable(getTableName(pathSegments));
+    HScannerInterface scanner = openScanner(table, request);
     
+    // Make a scanner id the way the region servers do.  Its hex string is
+    // short and url friendly.
+    long id = 0;
+    String scannerid = null;
+    ScannerRecord sr = null;
+    synchronized (this.scanners) {
+      do {
+        id = this.rand.nextLong();
+        scannerid = Long.toHexString(id);
+      } while (this.scanners.containsKey(scannerid));
+      sr = new ScannerRecord(id, scanner);
+      // store the scanner for subsequent requests
+      this.scanners.put(scannerid, sr);
+    }
+    this.leases.createLease(id, id, new ScannerListener(scannerid));
+    
+    // set a 201 (Created) header and a Location pointing to the new
+    // scanner
+    response.setStatus(201);
+    response.addHeader("Location", request.getContextPath() + "/" +
+      pathSegments[0] + "/" + pathSegments[1] + "/" + scannerid);
+    response.getOutputStream().close();
+  }
+
+  /*
+   * Open a scanner on the rows, columns and timestamp given by the
+   * request parameters.  If no columns are given, all of the table's column
+   * families are scanned.
+   * @param table
+   * @param request
+   * @return Scanner
+   * @throws IOException
+   */
+  private HScannerInterface openScanner(final HTable table,
+      final HttpServletRequest request)
+  throws IOException {
     // get the list of columns we're supposed to interact with
     String[] raw_columns = request.getParameterValues(COLUMN);
     Text [] columns = null;
@@ -267,14 +475,13 @@ public class ScannerHandler extends GenericHandler {
           new Text(URLDecoder.decode(raw_columns[i], HConstants.UTF8_ENCODING));
       }
     } else {
-      // TODO: Need to put into the scanner all of the table's column
-      // families.  TODO: Verify this returns all rows.  For now just fail.
-      doMethodNotAllowed(response, "Unspecified columns parameter currently not supported!");
-      return;
+      columns = table.getMetadata().families().keySet().toArray(new Text [0]);
     }
 
     // TODO: Parse according to the timestamp format we agree on.    
-    String raw_ts = request.getParameter(TIMESTAMP);
+    long timestamp = request.getParameter(TIMESTAMP) == null?
+      HConstants.LATEST_TIMESTAMP:
+      Long.parseLong(request.getParameter(TIMESTAMP));
 
     // TODO: Are these decodings redundant?
     Text startRow = request.getParameter(START_ROW) == null?
@@ -287,25 +494,9 @@ public class ScannerHandler extends GenericHandler {
       new Text(URLDecoder.decode(request.getParameter(END_ROW),
         HConstants.UTF8_ENCODING));
 
-    HScannerInterface scanner = (request.getParameter(END_ROW) == null)?
-       table.obtainScanner(columns, startRow):
-       table.obtainScanner(columns, startRow, endRow);
-    
-    // Make a scanner id by hashing the object toString value (object name +
-    // an id).  Will make identifier less burdensome and more url friendly.
-    String scannerid =
-      Integer.toHexString(JenkinsHash.hash(scanner.toString().getBytes(), -1));
-    ScannerRecord sr = new ScannerRecord(scanner);
-    
-    // store the scanner for subsequent requests
-    this.scanners.put(scannerid, sr);
-    
-    // set a 201 (Created) header and a Location pointing to the new
-    // scanner
-    response.setStatus(201);
-    response.addHeader("Location", request.getContextPath() + "/" +
-      pathSegments[0] + "/" + pathSegments[1] + "/" + scannerid);
-    response.getOutputStream().close();
+    return (request.getParameter(END_ROW) == null)?
+       table.obtainScanner(columns, startRow, timestamp):
+       table.obtainScanner(columns, startRow, endRow, timestamp);
   }
 
   /*
@@ -321,6 +512,7 @@ public class ScannerHandler extends GenericHandler {
     if (sr == null) {
       doNotFound(response, "No such scanner");
     } else {
+      this.leases.cancelLease(sr.getId(), sr.getId());
       sr.getScanner().close();
       response.setStatus(200);
       response.getOutputStream().close();
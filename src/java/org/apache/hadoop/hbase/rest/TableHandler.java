@@ -22,8 +22,10 @@ package org.apache.hadoop.hbase.rest;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.net.URLDecoder;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -32,6 +34,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
 
 import org.apache.hadoop.hbase.HBaseAdmin;
 import org.apache.hadoop.hbase.HBaseConfiguration;
@@ -39,12 +43,16 @@ import org.apache.hadoop.hbase.HColumnDescriptor;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.HTable;
+import org.apache.hadoop.hbase.io.BatchUpdate;
 import org.apache.hadoop.io.Text;
 import org.mortbay.servlet.MultiPartResponse;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 import org.znerd.xmlenc.XMLOutputter;
 
 
@@ -54,10 +62,13 @@ import org.znerd.xmlenc.XMLOutputter;
  * this handler.
  */
 public class TableHandler extends GenericHandler {
+  private final long putBufferSize;
      
   public TableHandler(HBaseConfiguration conf, HBaseAdmin admin) 
   throws ServletException{
     super(conf, admin);
+    this.putBufferSize =
+      conf.getLong("hbase.rest.put.buffersize", 2 * 1024 * 1024);
   }
   
   public void doGet(HttpServletRequest request, HttpServletResponse response, 
@@ -86,7 +97,11 @@ public class TableHandler extends GenericHandler {
   public void doPost(HttpServletRequest request, HttpServletResponse response, 
     String[] pathSegments)
   throws ServletException, IOException {
-    putRow(request, response, pathSegments);
+    if (pathSegments[1].toLowerCase().equals(ROWS)) {
+      putRows(request, response, pathSegments);
+    } else {
+      putRow(request, response, pathSegments);
+    }
   }
   
   public void doPut(HttpServletRequest request, HttpServletResponse response, 
@@ -346,6 +361,289 @@ public class TableHandler extends GenericHandler {
     }
   }
 
+  /*
+   * @param request
+   * @param response
+   * @param pathSegments info path split on the '/' character.  First segment
+   * is the tablename, second is 'rows', and optional third is a timestamp.
+   * Put many rows sent in one request.
+   */
+  private void putRows(final HttpServletRequest request,
+    final HttpServletResponse response, final String [] pathSegments)
+  throws IOException, ServletException {
+    switch(ContentType.getContentType(request.getHeader(CONTENT_TYPE))) {
+      case XML:
+        putRowsXml(request, response, pathSegments);
+        break;
+      default:
+        doNotAcceptable(response, "Unsupported Accept Header Content: " +
+          request.getHeader(CONTENT_TYPE));
+    }
+  }
+
+  /*
+   * Put rows sent as:
+   * <pre>
+   * &lt;rows>
+   *  &lt;row>
+   *   &lt;name>row&lt;/name>
+   *   &lt;column>&lt;name>info:a&lt;/name>&lt;value>base64 value&lt;/value>&lt;/column>
+   *  &lt;/row>
+   * &lt;/rows>
+   * </pre>
+   * The request is parsed as it is read and rows are committed a buffer-full
+   * at a time, so any number of rows can be sent.  The response lists the
+   * status of each row in the order sent: 200 if it was committed, 400 if it
+   * could not be made sense of, or 500 if its commit failed.  Statuses are
+   * written out as their rows are committed rather than kept to the end.
+   * Documents with a DOCTYPE are refused.
+   * @param request
+   * @param response
+   * @param pathSegments
+   */
+  private void putRowsXml(final HttpServletRequest request,
+    final HttpServletResponse response, final String [] pathSegments)
+  throws IOException, ServletException {
+    HTable table = getTable(pathSegments[0]);
+    long timestamp = pathSegments.length >= 3?
+      Long.parseLong(pathSegments[2]): HConstants.LATEST_TIMESTAMP;
+    RowsParser parser = new RowsParser(table, timestamp, response);
+    SAXParser saxParser = null;
+    try {
+      SAXParserFactory factory = SAXParserFactory.newInstance();
+      // Rows documents have no use for a DTD or entities; refuse any DOCTYPE
+      // so neither external nor nested internal entities get expanded.
+      factory.setFeature(
+        "http://apache.org/xml/features/disallow-doctype-decl", true);
+      factory.setFeature(
+        "http://apache.org/xml/features/nonvalidating/load-external-dtd",
+        false);
+      factory.setFeature(
+        "http://xml.org/sax/features/external-general-entities", false);
+      factory.setFeature(
+        "http://xml.org/sax/features/external-parameter-entities", false);
+      saxParser = factory.newSAXParser();
+    } catch (javax.xml.parsers.ParserConfigurationException e) {
+      throw new ServletException(e);
+    } catch (SAXException e) {
+      throw new ServletException(e);
+    }
+    try {
+      saxParser.parse(request.getInputStream(), parser);
+    } catch (SAXException e) {
+      if (e.getException() instanceof IOException) {
+        // Failed writing the response.
+        throw (IOException)e.getException();
+      }
+      // Rows read before the document went bad still get committed and
+      // their status reported.
+      parser.failed(e.getMessage());
+      if (!parser.hasStatus()) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+          e.getMessage());
+        return;
+      }
+    }
+    parser.flush();
+    parser.finish();
+  }
+
+  /*
+   * SAX handler that turns each row element into a BatchUpdate and commits
+   * them once putBufferSize bytes have been read.  The name, status code and
+   * message of each row are written to the response once the row is
+   * committed, or once MAX_PENDING_STATUS rows are waiting on a commit.
+   */
+  private class RowsParser extends DefaultHandler {
+    // Most rows whose status is kept before it is written out.
+    private static final int MAX_PENDING_STATUS = 1000;
+
+    private final HTable table;
+    private final long timestamp;
+    private final HttpServletResponse response;
+    private XMLOutputter outputter = null;
+    // Statuses not yet written out, in the order their rows were sent.
+    private final List<String []> status = new ArrayList<String []>();
+    private final List<BatchUpdate> buffer = new ArrayList<BatchUpdate>();
+    private long buffered = 0;
+    private final StringBuilder text = new StringBuilder();
+    private boolean inRow = false;
+    private String row = null;
+    private List<Text> columns = new ArrayList<Text>();
+    private List<byte []> values = new ArrayList<byte []>();
+    private String column = null;
+    private byte [] value = null;
+    private boolean inColumn = false;
+    private String error = null;
+
+    RowsParser(final HTable table, final long timestamp,
+        final HttpServletResponse response) {
+      this.table = table;
+      this.timestamp = timestamp;
+      this.response = response;
+    }
+
+    /** @return True if any row status has been kept or written out. */
+    boolean hasStatus() {
+      return this.outputter != null || !this.status.isEmpty();
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName,
+        Attributes attributes) {
+      this.text.setLength(0);
+      if (qName.equals(ROW)) {
+        this.inRow = true;
+        this.row = null;
+        this.columns.clear();
+        this.values.clear();
+        this.error = null;
+      } else if (qName.equals(COLUMN)) {
+        this.inColumn = true;
+        this.column = null;
+        this.value = new byte[0];
+      }
+    }
+
+    @Override
+    public void characters(char [] ch, int start, int length) {
+      this.text.append(ch, start, length);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName)
+    throws SAXException {
+      if (qName.equals("name")) {
+        if (this.inColumn) {
+          this.column = this.text.toString();
+        } else {
+          this.row = this.text.toString();
+        }
+      } else if (qName.equals("value")) {
+        String v = this.text.toString().trim();
+        this.value = v.length() == 0? new byte[0]:
+          org.apache.hadoop.hbase.util.Base64.decode(v);
+        if (this.value == null) {
+          this.error = "Value of column " + this.column + " is not base64";
+        }
+      } else if (qName.equals(COLUMN)) {
+        this.inColumn = false;
+        if (this.column == null || this.column.length() == 0) {
+          this.error = "Column without a name";
+        } else {
+          this.columns.add(new Text(this.column));
+          this.values.add(this.value);
+        }
+      } else if (qName.equals(ROW)) {
+        try {
+          endRow();
+        } catch (IOException e) {
+          throw new SAXException(e);
+        }
+      }
+      this.text.setLength(0);
+    }
+
+    /*
+     * Buffer the row just read, or record why it cannot be.
+     */
+    private void endRow() throws IOException {
+      this.inRow = false;
+      if (this.row == null || this.row.length() == 0) {
+        this.error = "Row without a name";
+      } else if (this.error == null && this.columns.isEmpty()) {
+        this.error = "Row without columns";
+      }
+      if (this.error != null) {
+        this.status.add(new String [] {this.row == null? "": this.row, "400",
+          this.error});
+      } else {
+        Text r = new Text(this.row);
+        BatchUpdate b = new BatchUpdate(this.buffer.size());
+        long lockid = b.startUpdate(r);
+        this.buffered += r.getLength();
+        for (int i = 0; i < this.columns.size(); i++) {
+          b.put(lockid, this.columns.get(i), this.values.get(i));
+          this.buffered += this.columns.get(i).getLength() +
+            this.values.get(i).length;
+        }
+        this.buffer.add(b);
+        this.status.add(new String [] {this.row, "200", null});
+      }
+      if (this.buffered >= putBufferSize ||
+          this.status.size() >= MAX_PENDING_STATUS) {
+        flush();
+      }
+    }
+
+    /*
+     * Commit buffered rows and write out the status of every row read so
+     * far.  If the commit fails, all rows in the buffer are marked failed.
+     */
+    void flush() throws IOException {
+      if (!this.buffer.isEmpty()) {
+        try {
+          this.table.commit(this.buffer, this.timestamp, true);
+        } catch (IOException e) {
+          LOG.warn("Failed commit of " + this.buffer.size() + " rows", e);
+          for (String [] s: this.status) {
+            if (s[1].equals("200")) {
+              s[1] = "500";
+              s[2] = e.getMessage();
+            }
+          }
+        }
+        this.buffer.clear();
+        this.buffered = 0;
+      }
+      if (this.status.isEmpty()) {
+        return;
+      }
+      if (this.outputter == null) {
+        setResponseHeader(this.response, 200, ContentType.XML.toString());
+        this.outputter = getXMLOutputter(this.response.getWriter());
+        this.outputter.startTag(ROWS);
+      }
+      for (String [] s: this.status) {
+        this.outputter.startTag(ROW);
+        doElement(this.outputter, "name", s[0]);
+        doElement(this.outputter, "status", s[1]);
+        if (s[2] != null) {
+          doElement(this.outputter, "message", s[2]);
+        }
+        this.outputter.endTag();
+      }
+      this.outputter.getWriter().flush();
+      this.status.clear();
+    }
+
+    /*
+     * End the response.  Call after the last flush.
+     */
+    void finish() throws IOException {
+      if (this.outputter == null) {
+        // No rows at all.
+        setResponseHeader(this.response, 200, ContentType.XML.toString());
+        this.outputter = getXMLOutputter(this.response.getWriter());
+        this.outputter.startTag(ROWS);
+      }
+      this.outputter.endTag();
+      this.outputter.endDocument();
+      this.outputter.getWriter().close();
+    }
+
+    /*
+     * The document could not be parsed past the current row.
+     * @param message
+     */
+    void failed(final String message) {
+      if (this.inRow) {
+        this.status.add(new String [] {this.row == null? "": this.row, "400",
+          message});
+      }
+    }
+  }
+
   /*
    * Return region offsets.
    * @param request
@@ -93,6 +93,15 @@ struct ScanEntry {
   2:map<Text, Bytes> columns
 }
 
+/**
+ * A BatchMutation object is used to apply a number of Mutations to a single
+ * row.
+ */
+struct BatchMutation {
+  1:Text row,
+  2:list<Mutation> mutations
+}
+
 //
 // Exceptions
 //
@@ -244,6 +253,22 @@ service Hbase {
   map<Text, Bytes> getRowTs(1:Text tableName, 2:Text row, 3:i64 timestamp)
     throws (1:IOError io)
 
+  /** 
+   * Get the specified columns of many rows of the specified table at the
+   * latest timestamp.  The rows are fetched in parallel.
+   * 
+   * @param tableName name of table
+   * @param rows row keys
+   * @param columns columns to return.  If a column name is a column family,
+   * all columns of the family are returned.  If empty, all columns are
+   * returned.
+   * @return a ScanEntry per row found, in the order asked for.  Rows that
+   * do not exist or have none of the columns are left out.
+   */
+  list<ScanEntry> getRows(1:Text tableName, 2:list<Text> rows,
+                          3:list<Text> columns)
+    throws (1:IOError io)
+
   /** 
    * Put a single value at the specified table, row, and column.
    * To put muliple values in a single transaction, or to specify 
@@ -284,6 +309,33 @@ service Hbase {
   void mutateRowTs(1:Text tableName, 2:Text row, 3:list<Mutation> mutations, 4:i64 timestamp)
     throws (1:IOError io)
 
+  /** 
+   * Apply a series of batches (each a series of mutations on a single row)
+   * in a single call.  The batches are grouped by region and each region
+   * is sent its batches at once.  Each row is updated atomically but the
+   * call is not: if an exception is thrown, some rows may have been
+   * updated.  Default current timestamp is used.
+   *
+   * @param tableName name of table
+   * @param rowBatches list of row batches
+   */
+  void mutateRows(1:Text tableName, 2:list<BatchMutation> rowBatches)
+    throws (1:IOError io)
+
+  /** 
+   * Apply a series of batches (each a series of mutations on a single row)
+   * in a single call.  The batches are grouped by region and each region
+   * is sent its batches at once.  Each row is updated atomically but the
+   * call is not: if an exception is thrown, some rows may have been
+   * updated.  The specified timestamp is used.
+   *
+   * @param tableName name of table
+   * @param rowBatches list of row batches
+   * @param timestamp timestamp
+   */
+  void mutateRowsTs(1:Text tableName, 2:list<BatchMutation> rowBatches, 3:i64 timestamp)
+    throws (1:IOError io)
+
   /** 
    * Delete all cells that match the passed row and column.
    *
@@ -426,6 +478,19 @@ service Hbase {
   ScanEntry scannerGet(1:ScannerID id)
     throws (1:IOError io, 2:IllegalArgument ia, 3:NotFound nf)
 
+  /**
+   * Returns up to nbRows rows from the scanner's current location and
+   * advances past them.  Fewer rows are returned when the scanner reaches
+   * the end; an empty list means there are no more rows.
+   *
+   * @param id id of a scanner returned by scannerOpen
+   * @param nbRows number of rows to return
+   * @return a list of ScanEntry objects, one per row
+   * @throws IllegalArgument if ScannerID is invalid
+   */
+  list<ScanEntry> scannerGetList(1:ScannerID id, 2:i32 nbRows)
+    throws (1:IOError io, 2:IllegalArgument ia)
+
   /**
    * Closes the server-state associated with an open scanner.
    *
@@ -0,0 +1,338 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hbase.thrift;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.facebook.thrift.TException;
+import com.facebook.thrift.TProcessor;
+import com.facebook.thrift.TProcessorFactory;
+import com.facebook.thrift.protocol.TProtocolFactory;
+import com.facebook.thrift.server.TServer;
+import com.facebook.thrift.transport.TIOStreamTransport;
+import com.facebook.thrift.transport.TTransport;
+import com.facebook.thrift.transport.TTransportFactory;
+
+/**
+ * Thrift server that serves all connections from one selector thread and
+ * runs calls on a fixed pool of worker threads.  An idle connection costs a
+ * socket and a few bytes, not a thread, so many short-lived or idle clients
+ * can be connected at once.
+ *
+ * <p>Clients must use the framed transport: every call and every reply is
+ * preceded by its length as a four byte big-endian integer.  A connection
+ * has at most one call in progress; its socket is not read until the reply
+ * has been written.
+ */
+public class NonblockingServer extends TServer {
+  static final Log LOG = LogFactory.getLog(NonblockingServer.class);
+
+  private final int port;
+  private final int maxFrameSize;
+  private final ExecutorService workers;
+  // Connections whose call has completed, to be picked up by the selector.
+  private final Queue<Connection> completed =
+    new ConcurrentLinkedQueue<Connection>();
+  private Selector selector;
+  private ServerSocketChannel serverChannel;
+  private volatile boolean stopped = false;
+
+  /**
+   * @param processor Processor to run calls with.
+   * @param port Port to listen on.
+   * @param protocolFactory Protocol calls and replies are encoded with.
+   * @param workerCount Count of threads to run calls on.
+   * @param maxFrameSize Largest call accepted, in bytes.  Connections sending
+   * larger calls are closed.
+   * @throws IOException
+   */
+  public NonblockingServer(final TProcessor processor, final int port,
+      final TProtocolFactory protocolFactory, final int workerCount,
+      final int maxFrameSize)
+  throws IOException {
+    super(new TProcessorFactory(processor), null, new TTransportFactory(),
+      protocolFactory);
+    this.port = port;
+    this.maxFrameSize = maxFrameSize;
+    final AtomicInteger threadCount = new AtomicInteger(0);
+    this.workers = Executors.newFixedThreadPool(workerCount,
+      new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(r,
+            "NonblockingServer.worker-" + threadCount.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        }
+      });
+    this.selector = Selector.open();
+    this.serverChannel = ServerSocketChannel.open();
+    this.serverChannel.configureBlocking(false);
+    this.serverChannel.socket().setReuseAddress(true);
+    this.serverChannel.socket().bind(new InetSocketAddress(port));
+    this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+  }
+
+  /** @return Port we are listening on */
+  public int getPort() {
+    return this.serverChannel.socket().getLocalPort();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void serve() {
+    LOG.info("Serving on port " + this.port);
+    try {
+      while (!this.stopped) {
+        this.selector.select();
+        for (Connection c = null; (c = this.completed.poll()) != null;) {
+          c.replyReady();
+        }
+        Iterator<SelectionKey> i = this.selector.selectedKeys().iterator();
+        while (i.hasNext()) {
+          SelectionKey key = i.next();
+          i.remove();
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.isAcceptable()) {
+            accept();
+            continue;
+          }
+          Connection c = (Connection)key.attachment();
+          try {
+            if (key.isReadable()) {
+              c.read();
+            } else if (key.isWritable()) {
+              c.write();
+            }
+          } catch (IOException e) {
+            LOG.debug("Closing connection", e);
+            c.close();
+          }
+        }
+      }
+    } catch (IOException e) {
+      LOG.error("Selector failed", e);
+    } finally {
+      shutdown();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void stop() {
+    this.stopped = true;
+    this.selector.wakeup();
+  }
+
+  /*
+   * Accept a pending connection.
+   */
+  private void accept() {
+    SocketChannel channel = null;
+    try {
+      channel = this.serverChannel.accept();
+      if (channel == null) {
+        return;
+      }
+      channel.configureBlocking(false);
+      channel.socket().setTcpNoDelay(true);
+      SelectionKey key = channel.register(this.selector, SelectionKey.OP_READ);
+      key.attach(new Connection(channel, key));
+    } catch (IOException e) {
+      LOG.warn("Failed accept", e);
+      if (channel != null) {
+        try {
+          channel.close();
+        } catch (IOException ex) {
+          // Nothing to do.
+        }
+      }
+    }
+  }
+
+  /*
+   * Close the listener, all connections and the worker pool.
+   */
+  private void shutdown() {
+    this.workers.shutdownNow();
+    for (SelectionKey key: this.selector.keys()) {
+      try {
+        key.channel().close();
+      } catch (IOException e) {
+        // Nothing to do.
+      }
+    }
+    try {
+      this.selector.close();
+    } catch (IOException e) {
+      LOG.warn("Failed close of selector", e);
+    }
+    LOG.info("Stopped serving on port " + this.port);
+  }
+
+  /*
+   * A client connection.  Reads a call frame, runs it on a worker and writes
+   * the reply frame.  Everything but running the call is done on the
+   * selector thread.
+   */
+  private class Connection {
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    // Holds the frame size while reading it, then the call, then the reply.
+    private ByteBuffer buffer = ByteBuffer.allocate(4);
+    private boolean readingSize = true;
+    // Set by the worker; null if the call failed and we are to close.
+    private volatile byte [] reply = null;
+
+    Connection(final SocketChannel channel, final SelectionKey key) {
+      this.channel = channel;
+      this.key = key;
+    }
+
+    /*
+     * Read what is available of the call.  If the call is complete, stop
+     * reading and hand it to a worker.
+     */
+    void read() throws IOException {
+      if (this.channel.read(this.buffer) < 0) {
+        close();
+        return;
+      }
+      if (this.buffer.hasRemaining()) {
+        return;
+      }
+      if (this.readingSize) {
+        this.buffer.flip();
+        int size = this.buffer.getInt();
+        if (size < 0 || size > maxFrameSize) {
+          LOG.warn("Closing connection from " +
+            this.channel.socket().getRemoteSocketAddress() + ": frame size " +
+            size + " is out of bounds, maximum is " + maxFrameSize + ".  " +
+            "Is the client using the framed transport?");
+          close();
+          return;
+        }
+        this.buffer = ByteBuffer.allocate(size);
+        this.readingSize = false;
+        if (size > 0 && this.channel.read(this.buffer) < 0) {
+          close();
+          return;
+        }
+        if (this.buffer.hasRemaining()) {
+          return;
+        }
+      }
+      this.key.interestOps(0);
+      final byte [] call = this.buffer.array();
+      this.buffer = null;
+      workers.execute(new Runnable() {
+        public void run() {
+          invoke(call);
+        }
+      });
+    }
+
+    /*
+     * Run a call.  Called on a worker thread.
+     */
+    void invoke(final byte [] call) {
+      TTransport in = new TIOStreamTransport(new ByteArrayInputStream(call));
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      TTransport outTransport = new TIOStreamTransport(out);
+      byte [] result = null;
+      try {
+        processorFactory_.getProcessor(in).process(
+          inputProtocolFactory_.getProtocol(in),
+          outputProtocolFactory_.getProtocol(outTransport));
+        result = out.toByteArray();
+      } catch (TException e) {
+        LOG.warn("Failed call; closing connection", e);
+      } catch (RuntimeException e) {
+        LOG.error("Failed call; closing connection", e);
+      }
+      this.reply = result;
+      completed.add(this);
+      selector.wakeup();
+    }
+
+    /*
+     * Call has run.  Start writing the reply.  Called on the selector thread.
+     */
+    void replyReady() {
+      if (this.reply == null) {
+        close();
+        return;
+      }
+      this.buffer = ByteBuffer.allocate(4 + this.reply.length);
+      this.buffer.putInt(this.reply.length);
+      this.buffer.put(this.reply);
+      this.buffer.flip();
+      this.reply = null;
+      try {
+        write();
+      } catch (IOException e) {
+        LOG.debug("Closing connection", e);
+        close();
+      }
+    }
+
+    /*
+     * Write what we can of the reply.  If it is all written, go back to
+     * reading calls.
+     */
+    void write() throws IOException {
+      this.channel.write(this.buffer);
+      if (this.buffer.hasRemaining()) {
+        this.key.interestOps(SelectionKey.OP_WRITE);
+        return;
+      }
+      this.buffer = ByteBuffer.allocate(4);
+      this.readingSize = true;
+      this.key.interestOps(SelectionKey.OP_READ);
+    }
+
+    void close() {
+      this.key.cancel();
+      try {
+        this.channel.close();
+      } catch (IOException e) {
+        // Nothing to do.
+      }
+    }
+  }
+}
@@ -24,12 +24,17 @@ import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hbase.AsyncHTable;
 import org.apache.hadoop.hbase.HBaseAdmin;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HColumnDescriptor;
@@ -39,7 +44,9 @@ import org.apache.hadoop.hbase.HStoreKey;
 import org.apache.hadoop.hbase.HTable;
 import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.MasterNotRunningException;
+import org.apache.hadoop.hbase.io.BatchUpdate;
 import org.apache.hadoop.hbase.thrift.generated.AlreadyExists;
+import org.apache.hadoop.hbase.thrift.generated.BatchMutation;
 import org.apache.hadoop.hbase.thrift.generated.ColumnDescriptor;
 import org.apache.hadoop.hbase.thrift.generated.Hbase;
 import org.apache.hadoop.hbase.thrift.generated.IOError;
@@ -76,9 +83,16 @@ public class ThriftServer {
     // nextScannerId and scannerMap are used to manage scanner state
     protected int nextScannerId = 0;
     protected HashMap<Integer, HScannerInterface> scannerMap = null;
+    // One HTable per table, shared by all calls.  Updates go through
+    // HTable.commit(BatchUpdate, long), which is safe to call concurrently.
+    protected final ConcurrentHashMap<Text, HTable> tables =
+      new ConcurrentHashMap<Text, HTable>();
+    protected final HashMap<Text, AsyncHTable> asyncTables =
+      new HashMap<Text, AsyncHTable>();
     
     /**
-     * Creates and returns an HTable instance from a given table name.
+     * Returns the HTable instance for a given table name, making it on first
+     * use.
      * 
      * @param tableName
      *          name of table
@@ -88,7 +102,38 @@ public class ThriftServer {
      */
     protected HTable getTable(final byte[] tableName) throws IOError,
         IOException {
-      return new HTable(this.conf, getText(tableName));
+      Text name = getText(tableName);
+      HTable table = this.tables.get(name);
+      if (table == null) {
+        table = new HTable(this.conf, name);
+        HTable existing = this.tables.putIfAbsent(name, table);
+        if (existing != null) {
+          table = existing;
+        }
+      }
+      return table;
+    }
+    
+    /**
+     * Returns the AsyncHTable instance for a given table name, making it on
+     * first use.  Used to fetch many rows in parallel.
+     * 
+     * @param tableName
+     *          name of table
+     * @return AsyncHTable object
+     * @throws IOException
+     */
+    protected AsyncHTable getAsyncTable(final byte[] tableName)
+        throws IOError, IOException {
+      Text name = getText(tableName);
+      synchronized (this.asyncTables) {
+        AsyncHTable table = this.asyncTables.get(name);
+        if (table == null) {
+          table = new AsyncHTable(this.conf, name);
+          this.asyncTables.put(name, table);
+        }
+        return table;
+      }
     }
     
     /**
@@ -154,6 +199,45 @@ public class ThriftServer {
       return new Text(buf);
     }
     
+    /**
+     * Converts a row and its cells to a ScanEntry.
+     * 
+     * @param row
+     * @param cells
+     * @return ScanEntry object
+     */
+    ScanEntry toScanEntry(final Text row, final SortedMap<Text, byte[]> cells) {
+      ScanEntry entry = new ScanEntry();
+      entry.row = row.getBytes();
+      entry.columns = new HashMap<byte[], byte[]>(cells.size());
+      for (SortedMap.Entry<Text, byte[]> e : cells.entrySet()) {
+        entry.columns.put(e.getKey().getBytes(), e.getValue());
+      }
+      return entry;
+    }
+    
+    /**
+     * Makes a BatchUpdate applying the passed mutations to a row.
+     * 
+     * @param row
+     * @param mutations
+     * @return BatchUpdate object
+     * @throws IOError
+     */
+    BatchUpdate toBatchUpdate(final byte[] row, final List<Mutation> mutations)
+        throws IOError {
+      BatchUpdate b = new BatchUpdate(0);
+      long lockid = b.startUpdate(getText(row));
+      for (Mutation m : mutations) {
+        if (m.isDelete) {
+          b.delete(lockid, getText(m.column));
+        } else {
+          b.put(lockid, getText(m.column), m.value);
+        }
+      }
+      return b;
+    }
+    
     //
     // The Thrift Hbase.Iface interface is implemented below.
     // Documentation for the methods and datastructures is the Hbase.thrift file
@@ -275,6 +359,66 @@ public class ThriftServer {
       }
     }
     
+    public ArrayList<ScanEntry> getRows(byte[] tableName,
+        ArrayList<byte[]> rows, ArrayList<byte[]> columns) throws IOError {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("getRows: table=" + new String(tableName) + ", rows="
+            + rows.size() + ", columns=" + columns);
+      }
+      ArrayList<Text> wanted = new ArrayList<Text>();
+      for (int i = 0; columns != null && i < columns.size(); i++) {
+        wanted.add(getText(columns.get(i)));
+      }
+      try {
+        AsyncHTable table = getAsyncTable(tableName);
+        List<Future<SortedMap<Text, byte[]>>> futures =
+          new ArrayList<Future<SortedMap<Text, byte[]>>>(rows.size());
+        for (byte[] row : rows) {
+          futures.add(table.getRow(getText(row), null));
+        }
+        ArrayList<ScanEntry> entries = new ArrayList<ScanEntry>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+          SortedMap<Text, byte[]> cells = new TreeMap<Text, byte[]>();
+          for (Entry<Text, byte[]> e : futures.get(i).get().entrySet()) {
+            if (isWanted(e.getKey(), wanted)) {
+              cells.put(e.getKey(), e.getValue());
+            }
+          }
+          if (!cells.isEmpty()) {
+            entries.add(toScanEntry(getText(rows.get(i)), cells));
+          }
+        }
+        return entries;
+      } catch (ExecutionException e) {
+        throw new IOError(e.getCause().getMessage());
+      } catch (InterruptedException e) {
+        throw new IOError(e.getMessage());
+      } catch (IOException e) {
+        throw new IOError(e.getMessage());
+      }
+    }
+    
+    /*
+     * @param column
+     * @param wanted Columns or column families.  If empty, all columns are
+     * wanted.
+     * @return True if <code>column</code> is one of <code>wanted</code> or
+     * in one of its families.
+     */
+    private boolean isWanted(final Text column, final List<Text> wanted) {
+      if (wanted.isEmpty()) {
+        return true;
+      }
+      String c = column.toString();
+      for (Text w : wanted) {
+        String name = w.toString();
+        if (name.endsWith(":") ? c.startsWith(name) : c.equals(name)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    
     public void put(byte[] tableName, byte[] row, byte[] column, byte[] value)
         throws IOError {
       if (LOG.isDebugEnabled()) {
@@ -284,9 +428,10 @@ public class ThriftServer {
       }
       try {
         HTable table = getTable(tableName);
-        long lockid = table.startUpdate(getText(row));
-        table.put(lockid, getText(column), value);
-        table.commit(lockid);
+        BatchUpdate b = new BatchUpdate(0);
+        long lockid = b.startUpdate(getText(row));
+        b.put(lockid, getText(column), value);
+        table.commit(b, HConstants.LATEST_TIMESTAMP);
       } catch (IOException e) {
         throw new IOError(e.getMessage());
       }
@@ -367,6 +512,13 @@ public class ThriftServer {
           throw new NotFound();
         }
         admin.deleteTable(tableStr);
+        this.tables.remove(tableStr);
+        synchronized (this.asyncTables) {
+          AsyncHTable table = this.asyncTables.remove(tableStr);
+          if (table != null) {
+            table.close();
+          }
+        }
       } catch (IOException e) {
         throw new IOError(e.getMessage());
       }
@@ -393,24 +545,34 @@ public class ThriftServer {
         }
       }
       
-      Long lockid = null;
-      HTable table = null;
-      
       try {
-        table = getTable(tableName);
-        lockid = table.startUpdate(getText(row));
-        for (Mutation m : mutations) {
-          if (m.isDelete) {
-            table.delete(lockid, getText(m.column));
-          } else {
-            table.put(lockid, getText(m.column), m.value);
-          }
-        }
-        table.commit(lockid, timestamp);
+        HTable table = getTable(tableName);
+        table.commit(toBatchUpdate(row, mutations), timestamp);
       } catch (IOException e) {
-        if (lockid != null) {
-          table.abort(lockid);
+        throw new IOError(e.getMessage());
+      }
+    }
+    
+    public void mutateRows(byte[] tableName, ArrayList<BatchMutation> rowBatches)
+        throws IOError {
+      mutateRowsTs(tableName, rowBatches, HConstants.LATEST_TIMESTAMP);
+    }
+    
+    public void mutateRowsTs(byte[] tableName,
+        ArrayList<BatchMutation> rowBatches, long timestamp) throws IOError {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("mutateRowsTs: table=" + new String(tableName) + ", ts="
+            + timestamp + " rows=" + rowBatches.size());
+      }
+      try {
+        HTable table = getTable(tableName);
+        List<BatchUpdate> updates =
+          new ArrayList<BatchUpdate>(rowBatches.size());
+        for (BatchMutation batch : rowBatches) {
+          updates.add(toBatchUpdate(batch.row, batch.mutations));
         }
+        table.commit(updates, timestamp, true);
+      } catch (IOException e) {
         throw new IOError(e.getMessage());
       }
     }
@@ -448,14 +610,31 @@ public class ThriftServer {
         throw new IOError(e.getMessage());
       }
       
-      ScanEntry retval = new ScanEntry();
-      retval.row = key.getRow().getBytes();
-      retval.columns = new HashMap<byte[], byte[]>(results.size());
+      return toScanEntry(key.getRow(), results);
+    }
+    
+    public ArrayList<ScanEntry> scannerGetList(int id, int nbRows)
+        throws IllegalArgument, IOError {
+      LOG.debug("scannerGetList: id=" + id + ", nbRows=" + nbRows);
+      HScannerInterface scanner = getScanner(id);
+      if (scanner == null) {
+        throw new IllegalArgument("scanner ID is invalid");
+      }
       
-      for (SortedMap.Entry<Text, byte[]> e : results.entrySet()) {
-        retval.columns.put(e.getKey().getBytes(), e.getValue());
+      ArrayList<ScanEntry> entries = new ArrayList<ScanEntry>();
+      try {
+        while (entries.size() < nbRows) {
+          HStoreKey key = new HStoreKey();
+          TreeMap<Text, byte[]> results = new TreeMap<Text, byte[]>();
+          if (!scanner.next(key, results)) {
+            break;
+          }
+          entries.add(toScanEntry(key.getRow(), results));
+        }
+      } catch (IOException e) {
+        throw new IOError(e.getMessage());
       }
-      return retval;
+      return entries;
     }
     
     public int scannerOpen(byte[] tableName, byte[] startRow,
@@ -577,12 +756,17 @@ public class ThriftServer {
       System.err.println(message);
     }
     System.out.println("Usage: java org.apache.hadoop.hbase.thrift.ThriftServer " +
-      "--help | [--port=PORT] start");
+      "--help | [--port=PORT] [--nonblocking [--workers=N]] start");
     System.out.println("Arguments:");
     System.out.println(" start Start thrift server");
     System.out.println(" stop  Stop thrift server");
     System.out.println("Options:");
     System.out.println(" port  Port to listen on. Default: 9090");
+    System.out.println(" nonblocking  Serve all connections from one " +
+      "selector thread.");
+    System.out.println("              Clients must use the framed transport.");
+    System.out.println(" workers  Count of threads running calls when " +
+      "nonblocking. Default: 20");
     // System.out.println(" bind  Address to bind on. Default: 0.0.0.0.");
     System.out.println(" help  Print this message and exit");
     System.exit(0);
@@ -604,6 +788,9 @@ public class ThriftServer {
     // (but hopefully something not as painful as cli options).
 //    final String addressArgKey = "--bind=";
     final String portArgKey = "--port=";
+    final String workersArgKey = "--workers=";
+    boolean nonblocking = false;
+    int workers = 20;
     for (String cmd: args) {
 //      if (cmd.startsWith(addressArgKey)) {
 //        bindAddress = cmd.substring(addressArgKey.length());
@@ -612,6 +799,12 @@ public class ThriftServer {
       if (cmd.startsWith(portArgKey)) {
         port = Integer.parseInt(cmd.substring(portArgKey.length()));
         continue;
+      } else if (cmd.equals("--nonblocking")) {
+        nonblocking = true;
+        continue;
+      } else if (cmd.startsWith(workersArgKey)) {
+        workers = Integer.parseInt(cmd.substring(workersArgKey.length()));
+        continue;
       } else if (cmd.equals("--help") || cmd.equals("-h")) {
         printUsageAndExit();
       } else if (cmd.equals("start")) {
@@ -626,14 +819,20 @@ public class ThriftServer {
       printUsageAndExit();
     }
     Log LOG = LogFactory.getLog("ThriftServer");
-    LOG.info("starting HBase Thrift server on port " +
-      Integer.toString(port));
+    LOG.info("starting HBase " + (nonblocking? "nonblocking ": "") +
+      "Thrift server on port " + Integer.toString(port));
     HBaseHandler handler = new HBaseHandler();
     Hbase.Processor processor = new Hbase.Processor(handler);
-    TServerTransport serverTransport = new TServerSocket(port);
     TProtocolFactory protFactory = new TBinaryProtocol.Factory(true, true);
-    TServer server = new TThreadPoolServer(processor, serverTransport,
-      protFactory);
+    TServer server = null;
+    if (nonblocking) {
+      server = new NonblockingServer(processor, port, protFactory, workers,
+        handler.conf.getInt("hbase.thrift.maxframesize",
+          16 * 1024 * 1024));
+    } else {
+      TServerTransport serverTransport = new TServerSocket(port);
+      server = new TThreadPoolServer(processor, serverTransport, protFactory);
+    }
     server.serve();
   }
   
@@ -135,6 +135,20 @@ public class Hbase {
      */
     public AbstractMap<byte[],byte[]> getRowTs(byte[] tableName, byte[] row, long timestamp) throws IOError, TException;
 
+    /**
+     * Get the specified columns of many rows of the specified table at the
+     * latest timestamp.  The rows are fetched in parallel.
+     * 
+     * @param tableName name of table
+     * @param rows row keys
+     * @param columns columns to return.  If a column name is a column family,
+     * all columns of the family are returned.  If empty, all columns are
+     * returned.
+     * @return a ScanEntry per row found, in the order asked for.  Rows that
+     * do not exist or have none of the columns are left out.
+     */
+    public ArrayList<ScanEntry> getRows(byte[] tableName, ArrayList<byte[]> rows, ArrayList<byte[]> columns) throws IOError, TException;
+
     /**
      * Put a single value at the specified table, row, and column.
      * To put muliple values in a single transaction, or to specify
@@ -172,6 +186,31 @@ public class Hbase {
      */
     public void mutateRowTs(byte[] tableName, byte[] row, ArrayList<Mutation> mutations, long timestamp) throws IOError, TException;
 
+    /**
+     * Apply a series of batches (each a series of mutations on a single row)
+     * in a single call.  The batches are grouped by region and each region
+     * is sent its batches at once.  Each row is updated atomically but the
+     * call is not: if an exception is thrown, some rows may have been
+     * updated.  Default current timestamp is used.
+     * 
+     * @param tableName name of table
+     * @param rowBatches list of row batches
+     */
+    public void mutateRows(byte[] tableName, ArrayList<BatchMutation> rowBatches) throws IOError, TException;
+
+    /**
+     * Apply a series of batches (each a series of mutations on a single row)
+     * in a single call.  The batches are grouped by region and each region
+     * is sent its batches at once.  Each row is updated atomically but the
+     * call is not: if an exception is thrown, some rows may have been
+     * updated.  The specified timestamp is used.
+     * 
+     * @param tableName name of table
+     * @param rowBatches list of row batches
+     * @param timestamp timestamp
+     */
+    public void mutateRowsTs(byte[] tableName, ArrayList<BatchMutation> rowBatches, long timestamp) throws IOError, TException;
+
     /**
      * Delete all cells that match the passed row and column.
      * 
@@ -293,6 +332,18 @@ public class Hbase {
      */
     public ScanEntry scannerGet(int id) throws IOError, IllegalArgument, NotFound, TException;
 
+    /**
+     * Returns up to nbRows rows from the scanner's current location and
+     * advances past them.  Fewer rows are returned when the scanner reaches
+     * the end; an empty list means there are no more rows.
+     * 
+     * @param id id of a scanner returned by scannerOpen
+     * @param nbRows number of rows to return
+     * @return a list of ScanEntry objects, one per row
+     * @throws IllegalArgument if ScannerID is invalid
+     */
+    public ArrayList<ScanEntry> scannerGetList(int id, int nbRows) throws IOError, IllegalArgument, TException;
+
     /**
      * Closes the server-state associated with an open scanner.
      * 
@@ -704,6 +755,44 @@ public class Hbase {
       throw new TApplicationException(TApplicationException.MISSING_RESULT, "getRowTs failed: unknown result");
     }
 
+    public ArrayList<ScanEntry> getRows(byte[] tableName, ArrayList<byte[]> rows, ArrayList<byte[]> columns) throws IOError, TException
+    {
+      send_getRows(tableName, rows, columns);
+      return recv_getRows();
+    }
+
+    public void send_getRows(byte[] tableName, ArrayList<byte[]> rows, ArrayList<byte[]> columns) throws TException
+    {
+      oprot_.writeMessageBegin(new TMessage("getRows", TMessageType.CALL, seqid_));
+      getRows_args args = new getRows_args();
+      args.tableName = tableName;
+      args.rows = rows;
+      args.columns = columns;
+      args.write(oprot_);
+      oprot_.writeMessageEnd();
+      oprot_.getTransport().flush();
+    }
+
+    public ArrayList<ScanEntry> recv_getRows() throws IOError, TException
+    {
+      TMessage msg = iprot_.readMessageBegin();
+      if (msg.type == TMessageType.EXCEPTION) {
+        TApplicationException x = TApplicationException.read(iprot_);
+        iprot_.readMessageEnd();
+        throw x;
+      }
+      getRows_result result = new getRows_result();
+      result.read(iprot_);
+      iprot_.readMessageEnd();
+      if (result.__isset.success) {
+        return result.success;
+      }
+      if (result.__isset.io) {
+        throw result.io;
+      }
+      throw new TApplicationException(TApplicationException.MISSING_RESULT, "getRows failed: unknown result");
+    }
+
     public void put(byte[] tableName, byte[] row, byte[] column, byte[] value) throws IOError, TException
     {
       send_put(tableName, row, column, value);
@@ -811,6 +900,75 @@ public class Hbase {
       return;
     }
 
+    public void mutateRows(byte[] tableName, ArrayList<BatchMutation> rowBatches) throws IOError, TException
+    {
+      send_mutateRows(tableName, rowBatches);
+      recv_mutateRows();
+    }
+
+    public void send_mutateRows(byte[] tableName, ArrayList<BatchMutation> rowBatches) throws TException
+    {
+      oprot_.writeMessageBegin(new TMessage("mutateRows", TMessageType.CALL, seqid_));
+      mutateRows_args args = new mutateRows_args();
+      args.tableName = tableName;
+      args.rowBatches = rowBatches;
+      args.write(oprot_);
+      oprot_.writeMessageEnd();
+      oprot_.getTransport().flush();
+    }
+
+    public void recv_mutateRows() throws IOError, TException
+    {
+      TMessage msg = iprot_.readMessageBegin();
+      if (msg.type == TMessageType.EXCEPTION) {
+        TApplicationException x = TApplicationException.read(iprot_);
+        iprot_.readMessageEnd();
+        throw x;
+      }
+      mutateRows_result result = new mutateRows_result();
+      result.read(iprot_);
+      iprot_.readMessageEnd();
+      if (result.__isset.io) {
+        throw result.io;
+      }
+      return;
+    }
+
+    public void mutateRowsTs(byte[] tableName, ArrayList<BatchMutation> rowBatches, long timestamp) throws IOError, TException
+    {
+      send_mutateRowsTs(tableName, rowBatches, timestamp);
+      recv_mutateRowsTs();
+    }
+
+    public void send_mutateRowsTs(byte[] tableName, ArrayList<BatchMutation> rowBatches, long timestamp) throws TException
+    {
+      oprot_.writeMessageBegin(new TMessage("mutateRowsTs", TMessageType.CALL, seqid_));
+      mutateRowsTs_args args = new mutateRowsTs_args();
+      args.tableName = tableName;
+      args.rowBatches = rowBatches;
+      args.timestamp = timestamp;
+      args.write(oprot_);
+      oprot_.writeMessageEnd();
+      oprot_.getTransport().flush();
+    }
+
+    public void recv_mutateRowsTs() throws IOError, TException
+    {
+      TMessage msg = iprot_.readMessageBegin();
+      if (msg.type == TMessageType.EXCEPTION) {
+        TApplicationException x = TApplicationException.read(iprot_);
+        iprot_.readMessageEnd();
+        throw x;
+      }
+      mutateRowsTs_result result = new mutateRowsTs_result();
+      result.read(iprot_);
+      iprot_.readMessageEnd();
+      if (result.__isset.io) {
+        throw result.io;
+      }
+      return;
+    }
+
     public void deleteAll(byte[] tableName, byte[] row, byte[] column) throws IOError, TException
     {
       send_deleteAll(tableName, row, column);
@@ -1149,6 +1307,46 @@ public class Hbase {
       throw new TApplicationException(TApplicationException.MISSING_RESULT, "scannerGet failed: unknown result");
     }
 
+    public ArrayList<ScanEntry> scannerGetList(int id, int nbRows) throws IOError, IllegalArgument, TException
+    {
+      send_scannerGetList(id, nbRows);
+      return recv_scannerGetList();
+    }
+
+    public void send_scannerGetList(int id, int nbRows) throws TException
+    {
+      oprot_.writeMessageBegin(new TMessage("scannerGetList", TMessageType.CALL, seqid_));
+      scannerGetList_args args = new scannerGetList_args();
+      args.id = id;
+      args.nbRows = nbRows;
+      args.write(oprot_);
+      oprot_.writeMessageEnd();
+      oprot_.getTransport().flush();
+    }
+
+    public ArrayList<ScanEntry> recv_scannerGetList() throws IOError, IllegalArgument, TException
+    {
+      TMessage msg = iprot_.readMessageBegin();
+      if (msg.type == TMessageType.EXCEPTION) {
+        TApplicationException x = TApplicationException.read(iprot_);
+        iprot_.readMessageEnd();
+        throw x;
+      }
+      scannerGetList_result result = new scannerGetList_result();
+      result.read(iprot_);
+      iprot_.readMessageEnd();
+      if (result.__isset.success) {
+        return result.success;
+      }
+      if (result.__isset.io) {
+        throw result.io;
+      }
+      if (result.__isset.ia) {
+        throw result.ia;
+      }
+      throw new TApplicationException(TApplicationException.MISSING_RESULT, "scannerGetList failed: unknown result");
+    }
+
     public void scannerClose(int id) throws IOError, IllegalArgument, TException
     {
       send_scannerClose(id);
@@ -1200,9 +1398,12 @@ public class Hbase {
       processMap_.put("getVerTs", new getVerTs());
       processMap_.put("getRow", new getRow());
       processMap_.put("getRowTs", new getRowTs());
+      processMap_.put("getRows", new getRows());
       processMap_.put("put", new put());
       processMap_.put("mutateRow", new mutateRow());
       processMap_.put("mutateRowTs", new mutateRowTs());
+      processMap_.put("mutateRows", new mutateRows());
+      processMap_.put("mutateRowsTs", new mutateRowsTs());
       processMap_.put("deleteAll", new deleteAll());
       processMap_.put("deleteAllTs", new deleteAllTs());
       processMap_.put("deleteAllRow", new deleteAllRow());
@@ -1212,6 +1413,7 @@ public class Hbase {
       processMap_.put("scannerOpenTs", new scannerOpenTs());
       processMap_.put("scannerOpenWithStopTs", new scannerOpenWithStopTs());
       processMap_.put("scannerGet", new scannerGet());
+      processMap_.put("scannerGetList", new scannerGetList());
       processMap_.put("scannerClose", new scannerClose());
     }
 
@@ -1476,6 +1678,28 @@ public class Hbase {
 
     }
 
+    private class getRows implements ProcessFunction {
+      public void process(int seqid, TProtocol iprot, TProtocol oprot) throws TException
+      {
+        getRows_args args = new getRows_args();
+        args.read(iprot);
+        iprot.readMessageEnd();
+        getRows_result result = new getRows_result();
+        try {
+          result.success = iface_.getRows(args.tableName, args.rows, args.columns);
+          result.__isset.success = true;
+        } catch (IOError io) {
+          result.io = io;
+          result.__isset.io = true;
+        }
+        oprot.writeMessageBegin(new TMessage("getRows", TMessageType.REPLY, seqid));
+        result.write(oprot);
+        oprot.writeMessageEnd();
+        oprot.getTransport().flush();
+      }
+
+    }
+
     private class put implements ProcessFunction {
       public void process(int seqid, TProtocol iprot, TProtocol oprot) throws TException
       {
@@ -1539,6 +1763,48 @@ public class Hbase {
 
     }
 
+    private class mutateRows implements ProcessFunction {
+      public void process(int seqid, TProtocol iprot, TProtocol oprot) throws TException
+      {
+        mutateRows_args args = new mutateRows_args();
+        args.read(iprot);
+        iprot.readMessageEnd();
+        mutateRows_result result = new mutateRows_result();
+        try {
+          iface_.mutateRows(args.tableName, args.rowBatches);
+        } catch (IOError io) {
+          result.io = io;
+          result.__isset.io = true;
+        }
+        oprot.writeMessageBegin(new TMessage("mutateRows", TMessageType.REPLY, seqid));
+        result.write(oprot);
+        oprot.writeMessageEnd();
+        oprot.getTransport().flush();
+      }
+
+    }
+
+    private class mutateRowsTs implements ProcessFunction {
+      public void process(int seqid, TProtocol iprot, TProtocol oprot) throws TException
+      {
+        mutateRowsTs_args args = new mutateRowsTs_args();
+        args.read(iprot);
+        iprot.readMessageEnd();
+        mutateRowsTs_result result = new mutateRowsTs_result();
+        try {
+          iface_.mutateRowsTs(args.tableName, args.rowBatches, args.timestamp);
+        } catch (IOError io) {
+          result.io = io;
+          result.__isset.io = true;
+        }
+        oprot.writeMessageBegin(new TMessage("mutateRowsTs", TMessageType.REPLY, seqid));
+        result.write(oprot);
+        oprot.writeMessageEnd();
+        oprot.getTransport().flush();
+      }
+
+    }
+
     private class deleteAll implements ProcessFunction {
       public void process(int seqid, TProtocol iprot, TProtocol oprot) throws TException
       {
@@ -1739,6 +2005,31 @@ public class Hbase {
 
     }
 
+    private class scannerGetList implements ProcessFunction {
+      public void process(int seqid, TProtocol iprot, TProtocol oprot) throws TException
+      {
+        scannerGetList_args args = new scannerGetList_args();
+        args.read(iprot);
+        iprot.readMessageEnd();
+        scannerGetList_result result = new scannerGetList_result();
+        try {
+          result.success = iface_.scannerGetList(args.id, args.nbRows);
+          result.__isset.success = true;
+        } catch (IOError io) {
+          result.io = io;
+          result.__isset.io = true;
+        } catch (IllegalArgument ia) {
+          result.ia = ia;
+          result.__isset.ia = true;
+        }
+        oprot.writeMessageBegin(new TMessage("scannerGetList", TMessageType.REPLY, seqid));
+        result.write(oprot);
+        oprot.writeMessageEnd();
+        oprot.getTransport().flush();
+      }
+
+    }
+
     private class scannerClose implements ProcessFunction {
       public void process(int seqid, TProtocol iprot, TProtocol oprot) throws TException
       {
@@ -4004,38 +4295,33 @@ public class Hbase {
 
   }
 
-  public static class put_args implements TBase, java.io.Serializable   {
+  public static class getRows_args implements TBase, java.io.Serializable   {
     public byte[] tableName;
-    public byte[] row;
-    public byte[] column;
-    public byte[] value;
+    public ArrayList<byte[]> rows;
+    public ArrayList<byte[]> columns;
 
     public final Isset __isset = new Isset();
     public static final class Isset {
       public boolean tableName = false;
-      public boolean row = false;
-      public boolean column = false;
-      public boolean value = false;
+      public boolean rows = false;
+      public boolean columns = false;
     }
 
-    public put_args() {
+    public getRows_args() {
     }
 
-    public put_args(
+    public getRows_args(
       byte[] tableName,
-      byte[] row,
-      byte[] column,
-      byte[] value)
+      ArrayList<byte[]> rows,
+      ArrayList<byte[]> columns)
     {
       this();
       this.tableName = tableName;
       this.__isset.tableName = true;
-      this.row = row;
-      this.__isset.row = true;
-      this.column = column;
-      this.__isset.column = true;
-      this.value = value;
-      this.__isset.value = true;
+      this.rows = rows;
+      this.__isset.rows = true;
+      this.columns = columns;
+      this.__isset.columns = true;
     }
 
     public void read(TProtocol iprot) throws TException {
@@ -4058,25 +4344,37 @@ public class Hbase {
             }
             break;
           case 2:
-            if (field.type == TType.STRING) {
-              this.row = iprot.readBinary();
-              this.__isset.row = true;
+            if (field.type == TType.LIST) {
+              {
+                TList _list64 = iprot.readListBegin();
+                this.rows = new ArrayList<byte[]>(_list64.size);
+                for (int _i65 = 0; _i65 < _list64.size; ++_i65)
+                {
+                  byte[] _elem66 = null;
+                  _elem66 = iprot.readBinary();
+                  this.rows.add(_elem66);
+                }
+                iprot.readListEnd();
+              }
+              this.__isset.rows = true;
             } else { 
               TProtocolUtil.skip(iprot, field.type);
             }
             break;
           case 3:
-            if (field.type == TType.STRING) {
-              this.column = iprot.readBinary();
-              this.__isset.column = true;
-            } else { 
-              TProtocolUtil.skip(iprot, field.type);
-            }
-            break;
-          case 4:
-            if (field.type == TType.STRING) {
-              this.value = iprot.readBinary();
-              this.__isset.value = true;
+            if (field.type == TType.LIST) {
+              {
+                TList _list67 = iprot.readListBegin();
+                this.columns = new ArrayList<byte[]>(_list67.size);
+                for (int _i68 = 0; _i68 < _list67.size; ++_i68)
+                {
+                  byte[] _elem69 = null;
+                  _elem69 = iprot.readBinary();
+                  this.columns.add(_elem69);
+                }
+                iprot.readListEnd();
+              }
+              this.__isset.columns = true;
             } else { 
               TProtocolUtil.skip(iprot, field.type);
             }
@@ -4091,7 +4389,7 @@ public class Hbase {
     }
 
     public void write(TProtocol oprot) throws TException {
-      TStruct struct = new TStruct("put_args");
+      TStruct struct = new TStruct("getRows_args");
       oprot.writeStructBegin(struct);
       TField field = new TField();
       if (this.tableName != null) {
@@ -4102,9 +4400,271 @@ public class Hbase {
         oprot.writeBinary(this.tableName);
         oprot.writeFieldEnd();
       }
-      if (this.row != null) {
-        field.name = "row";
-        field.type = TType.STRING;
+      if (this.rows != null) {
+        field.name = "rows";
+        field.type = TType.LIST;
+        field.id = 2;
+        oprot.writeFieldBegin(field);
+        {
+          oprot.writeListBegin(new TList(TType.STRING, this.rows.size()));
+          for (byte[] _iter70 : this.rows)          {
+            oprot.writeBinary(_iter70);
+          }
+          oprot.writeListEnd();
+        }
+        oprot.writeFieldEnd();
+      }
+      if (this.columns != null) {
+        field.name = "columns";
+        field.type = TType.LIST;
+        field.id = 3;
+        oprot.writeFieldBegin(field);
+        {
+          oprot.writeListBegin(new TList(TType.STRING, this.columns.size()));
+          for (byte[] _iter71 : this.columns)          {
+            oprot.writeBinary(_iter71);
+          }
+          oprot.writeListEnd();
+        }
+        oprot.writeFieldEnd();
+      }
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    public String toString() {
+      StringBuilder sb = new StringBuilder("getRows_args(");
+      sb.append("tableName:");
+      sb.append(this.tableName);
+      sb.append(",rows:");
+      sb.append(this.rows);
+      sb.append(",columns:");
+      sb.append(this.columns);
+      sb.append(")");
+      return sb.toString();
+    }
+
+  }
+
+  public static class getRows_result implements TBase, java.io.Serializable   {
+    public ArrayList<ScanEntry> success;
+    public IOError io;
+
+    public final Isset __isset = new Isset();
+    public static final class Isset {
+      public boolean success = false;
+      public boolean io = false;
+    }
+
+    public getRows_result() {
+    }
+
+    public getRows_result(
+      ArrayList<ScanEntry> success,
+      IOError io)
+    {
+      this();
+      this.success = success;
+      this.__isset.success = true;
+      this.io = io;
+      this.__isset.io = true;
+    }
+
+    public void read(TProtocol iprot) throws TException {
+      TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == TType.STOP) { 
+          break;
+        }
+        switch (field.id)
+        {
+          case 0:
+            if (field.type == TType.LIST) {
+              {
+                TList _list72 = iprot.readListBegin();
+                this.success = new ArrayList<ScanEntry>(_list72.size);
+                for (int _i73 = 0; _i73 < _list72.size; ++_i73)
+                {
+                  ScanEntry _elem74 = new ScanEntry();
+                  _elem74 = new ScanEntry();
+                  _elem74.read(iprot);
+                  this.success.add(_elem74);
+                }
+                iprot.readListEnd();
+              }
+              this.__isset.success = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 1:
+            if (field.type == TType.STRUCT) {
+              this.io = new IOError();
+              this.io.read(iprot);
+              this.__isset.io = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          default:
+            TProtocolUtil.skip(iprot, field.type);
+            break;
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+    }
+
+    public void write(TProtocol oprot) throws TException {
+      TStruct struct = new TStruct("getRows_result");
+      oprot.writeStructBegin(struct);
+      TField field = new TField();
+
+      if (this.__isset.success) {
+        if (this.success != null) {
+          field.name = "success";
+          field.type = TType.LIST;
+          field.id = 0;
+          oprot.writeFieldBegin(field);
+          {
+            oprot.writeListBegin(new TList(TType.STRUCT, this.success.size()));
+            for (ScanEntry _iter75 : this.success)            {
+              _iter75.write(oprot);
+            }
+            oprot.writeListEnd();
+          }
+          oprot.writeFieldEnd();
+        }
+      } else if (this.__isset.io) {
+        if (this.io != null) {
+          field.name = "io";
+          field.type = TType.STRUCT;
+          field.id = 1;
+          oprot.writeFieldBegin(field);
+          this.io.write(oprot);
+          oprot.writeFieldEnd();
+        }
+      }
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    public String toString() {
+      StringBuilder sb = new StringBuilder("getRows_result(");
+      sb.append("success:");
+      sb.append(this.success);
+      sb.append(",io:");
+      sb.append(this.io.toString());
+      sb.append(")");
+      return sb.toString();
+    }
+
+  }
+
+  public static class put_args implements TBase, java.io.Serializable   {
+    public byte[] tableName;
+    public byte[] row;
+    public byte[] column;
+    public byte[] value;
+
+    public final Isset __isset = new Isset();
+    public static final class Isset {
+      public boolean tableName = false;
+      public boolean row = false;
+      public boolean column = false;
+      public boolean value = false;
+    }
+
+    public put_args() {
+    }
+
+    public put_args(
+      byte[] tableName,
+      byte[] row,
+      byte[] column,
+      byte[] value)
+    {
+      this();
+      this.tableName = tableName;
+      this.__isset.tableName = true;
+      this.row = row;
+      this.__isset.row = true;
+      this.column = column;
+      this.__isset.column = true;
+      this.value = value;
+      this.__isset.value = true;
+    }
+
+    public void read(TProtocol iprot) throws TException {
+      TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == TType.STOP) { 
+          break;
+        }
+        switch (field.id)
+        {
+          case 1:
+            if (field.type == TType.STRING) {
+              this.tableName = iprot.readBinary();
+              this.__isset.tableName = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 2:
+            if (field.type == TType.STRING) {
+              this.row = iprot.readBinary();
+              this.__isset.row = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 3:
+            if (field.type == TType.STRING) {
+              this.column = iprot.readBinary();
+              this.__isset.column = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 4:
+            if (field.type == TType.STRING) {
+              this.value = iprot.readBinary();
+              this.__isset.value = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          default:
+            TProtocolUtil.skip(iprot, field.type);
+            break;
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+    }
+
+    public void write(TProtocol oprot) throws TException {
+      TStruct struct = new TStruct("put_args");
+      oprot.writeStructBegin(struct);
+      TField field = new TField();
+      if (this.tableName != null) {
+        field.name = "tableName";
+        field.type = TType.STRING;
+        field.id = 1;
+        oprot.writeFieldBegin(field);
+        oprot.writeBinary(this.tableName);
+        oprot.writeFieldEnd();
+      }
+      if (this.row != null) {
+        field.name = "row";
+        field.type = TType.STRING;
         field.id = 2;
         oprot.writeFieldBegin(field);
         oprot.writeBinary(this.row);
@@ -4450,22 +5010,441 @@ public class Hbase {
       public boolean timestamp = false;
     }
 
-    public mutateRowTs_args() {
+    public mutateRowTs_args() {
+    }
+
+    public mutateRowTs_args(
+      byte[] tableName,
+      byte[] row,
+      ArrayList<Mutation> mutations,
+      long timestamp)
+    {
+      this();
+      this.tableName = tableName;
+      this.__isset.tableName = true;
+      this.row = row;
+      this.__isset.row = true;
+      this.mutations = mutations;
+      this.__isset.mutations = true;
+      this.timestamp = timestamp;
+      this.__isset.timestamp = true;
+    }
+
+    public void read(TProtocol iprot) throws TException {
+      TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == TType.STOP) { 
+          break;
+        }
+        switch (field.id)
+        {
+          case 1:
+            if (field.type == TType.STRING) {
+              this.tableName = iprot.readBinary();
+              this.__isset.tableName = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 2:
+            if (field.type == TType.STRING) {
+              this.row = iprot.readBinary();
+              this.__isset.row = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 3:
+            if (field.type == TType.LIST) {
+              {
+                TList _list44 = iprot.readListBegin();
+                this.mutations = new ArrayList<Mutation>(_list44.size);
+                for (int _i45 = 0; _i45 < _list44.size; ++_i45)
+                {
+                  Mutation _elem46 = new Mutation();
+                  _elem46 = new Mutation();
+                  _elem46.read(iprot);
+                  this.mutations.add(_elem46);
+                }
+                iprot.readListEnd();
+              }
+              this.__isset.mutations = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 4:
+            if (field.type == TType.I64) {
+              this.timestamp = iprot.readI64();
+              this.__isset.timestamp = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          default:
+            TProtocolUtil.skip(iprot, field.type);
+            break;
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+    }
+
+    public void write(TProtocol oprot) throws TException {
+      TStruct struct = new TStruct("mutateRowTs_args");
+      oprot.writeStructBegin(struct);
+      TField field = new TField();
+      if (this.tableName != null) {
+        field.name = "tableName";
+        field.type = TType.STRING;
+        field.id = 1;
+        oprot.writeFieldBegin(field);
+        oprot.writeBinary(this.tableName);
+        oprot.writeFieldEnd();
+      }
+      if (this.row != null) {
+        field.name = "row";
+        field.type = TType.STRING;
+        field.id = 2;
+        oprot.writeFieldBegin(field);
+        oprot.writeBinary(this.row);
+        oprot.writeFieldEnd();
+      }
+      if (this.mutations != null) {
+        field.name = "mutations";
+        field.type = TType.LIST;
+        field.id = 3;
+        oprot.writeFieldBegin(field);
+        {
+          oprot.writeListBegin(new TList(TType.STRUCT, this.mutations.size()));
+          for (Mutation _iter47 : this.mutations)          {
+            _iter47.write(oprot);
+          }
+          oprot.writeListEnd();
+        }
+        oprot.writeFieldEnd();
+      }
+      field.name = "timestamp";
+      field.type = TType.I64;
+      field.id = 4;
+      oprot.writeFieldBegin(field);
+      oprot.writeI64(this.timestamp);
+      oprot.writeFieldEnd();
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    public String toString() {
+      StringBuilder sb = new StringBuilder("mutateRowTs_args(");
+      sb.append("tableName:");
+      sb.append(this.tableName);
+      sb.append(",row:");
+      sb.append(this.row);
+      sb.append(",mutations:");
+      sb.append(this.mutations);
+      sb.append(",timestamp:");
+      sb.append(this.timestamp);
+      sb.append(")");
+      return sb.toString();
+    }
+
+  }
+
+  public static class mutateRowTs_result implements TBase, java.io.Serializable   {
+    public IOError io;
+
+    public final Isset __isset = new Isset();
+    public static final class Isset {
+      public boolean io = false;
+    }
+
+    public mutateRowTs_result() {
+    }
+
+    public mutateRowTs_result(
+      IOError io)
+    {
+      this();
+      this.io = io;
+      this.__isset.io = true;
+    }
+
+    public void read(TProtocol iprot) throws TException {
+      TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == TType.STOP) { 
+          break;
+        }
+        switch (field.id)
+        {
+          case 1:
+            if (field.type == TType.STRUCT) {
+              this.io = new IOError();
+              this.io.read(iprot);
+              this.__isset.io = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          default:
+            TProtocolUtil.skip(iprot, field.type);
+            break;
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+    }
+
+    public void write(TProtocol oprot) throws TException {
+      TStruct struct = new TStruct("mutateRowTs_result");
+      oprot.writeStructBegin(struct);
+      TField field = new TField();
+
+      if (this.__isset.io) {
+        if (this.io != null) {
+          field.name = "io";
+          field.type = TType.STRUCT;
+          field.id = 1;
+          oprot.writeFieldBegin(field);
+          this.io.write(oprot);
+          oprot.writeFieldEnd();
+        }
+      }
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    public String toString() {
+      StringBuilder sb = new StringBuilder("mutateRowTs_result(");
+      sb.append("io:");
+      sb.append(this.io.toString());
+      sb.append(")");
+      return sb.toString();
+    }
+
+  }
+
+  public static class mutateRows_args implements TBase, java.io.Serializable   {
+    public byte[] tableName;
+    public ArrayList<BatchMutation> rowBatches;
+
+    public final Isset __isset = new Isset();
+    public static final class Isset {
+      public boolean tableName = false;
+      public boolean rowBatches = false;
+    }
+
+    public mutateRows_args() {
+    }
+
+    public mutateRows_args(
+      byte[] tableName,
+      ArrayList<BatchMutation> rowBatches)
+    {
+      this();
+      this.tableName = tableName;
+      this.__isset.tableName = true;
+      this.rowBatches = rowBatches;
+      this.__isset.rowBatches = true;
+    }
+
+    public void read(TProtocol iprot) throws TException {
+      TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == TType.STOP) { 
+          break;
+        }
+        switch (field.id)
+        {
+          case 1:
+            if (field.type == TType.STRING) {
+              this.tableName = iprot.readBinary();
+              this.__isset.tableName = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 2:
+            if (field.type == TType.LIST) {
+              {
+                TList _list76 = iprot.readListBegin();
+                this.rowBatches = new ArrayList<BatchMutation>(_list76.size);
+                for (int _i77 = 0; _i77 < _list76.size; ++_i77)
+                {
+                  BatchMutation _elem78 = new BatchMutation();
+                  _elem78 = new BatchMutation();
+                  _elem78.read(iprot);
+                  this.rowBatches.add(_elem78);
+                }
+                iprot.readListEnd();
+              }
+              this.__isset.rowBatches = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          default:
+            TProtocolUtil.skip(iprot, field.type);
+            break;
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+    }
+
+    public void write(TProtocol oprot) throws TException {
+      TStruct struct = new TStruct("mutateRows_args");
+      oprot.writeStructBegin(struct);
+      TField field = new TField();
+      if (this.tableName != null) {
+        field.name = "tableName";
+        field.type = TType.STRING;
+        field.id = 1;
+        oprot.writeFieldBegin(field);
+        oprot.writeBinary(this.tableName);
+        oprot.writeFieldEnd();
+      }
+      if (this.rowBatches != null) {
+        field.name = "rowBatches";
+        field.type = TType.LIST;
+        field.id = 2;
+        oprot.writeFieldBegin(field);
+        {
+          oprot.writeListBegin(new TList(TType.STRUCT, this.rowBatches.size()));
+          for (BatchMutation _iter79 : this.rowBatches)          {
+            _iter79.write(oprot);
+          }
+          oprot.writeListEnd();
+        }
+        oprot.writeFieldEnd();
+      }
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    public String toString() {
+      StringBuilder sb = new StringBuilder("mutateRows_args(");
+      sb.append("tableName:");
+      sb.append(this.tableName);
+      sb.append(",rowBatches:");
+      sb.append(this.rowBatches);
+      sb.append(")");
+      return sb.toString();
+    }
+
+  }
+
+  public static class mutateRows_result implements TBase, java.io.Serializable   {
+    public IOError io;
+
+    public final Isset __isset = new Isset();
+    public static final class Isset {
+      public boolean io = false;
+    }
+
+    public mutateRows_result() {
+    }
+
+    public mutateRows_result(
+      IOError io)
+    {
+      this();
+      this.io = io;
+      this.__isset.io = true;
+    }
+
+    public void read(TProtocol iprot) throws TException {
+      TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == TType.STOP) { 
+          break;
+        }
+        switch (field.id)
+        {
+          case 1:
+            if (field.type == TType.STRUCT) {
+              this.io = new IOError();
+              this.io.read(iprot);
+              this.__isset.io = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          default:
+            TProtocolUtil.skip(iprot, field.type);
+            break;
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+    }
+
+    public void write(TProtocol oprot) throws TException {
+      TStruct struct = new TStruct("mutateRows_result");
+      oprot.writeStructBegin(struct);
+      TField field = new TField();
+
+      if (this.__isset.io) {
+        if (this.io != null) {
+          field.name = "io";
+          field.type = TType.STRUCT;
+          field.id = 1;
+          oprot.writeFieldBegin(field);
+          this.io.write(oprot);
+          oprot.writeFieldEnd();
+        }
+      }
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    public String toString() {
+      StringBuilder sb = new StringBuilder("mutateRows_result(");
+      sb.append("io:");
+      sb.append(this.io.toString());
+      sb.append(")");
+      return sb.toString();
+    }
+
+  }
+
+  public static class mutateRowsTs_args implements TBase, java.io.Serializable   {
+    public byte[] tableName;
+    public ArrayList<BatchMutation> rowBatches;
+    public long timestamp;
+
+    public final Isset __isset = new Isset();
+    public static final class Isset {
+      public boolean tableName = false;
+      public boolean rowBatches = false;
+      public boolean timestamp = false;
+    }
+
+    public mutateRowsTs_args() {
     }
 
-    public mutateRowTs_args(
+    public mutateRowsTs_args(
       byte[] tableName,
-      byte[] row,
-      ArrayList<Mutation> mutations,
+      ArrayList<BatchMutation> rowBatches,
       long timestamp)
     {
       this();
       this.tableName = tableName;
       this.__isset.tableName = true;
-      this.row = row;
-      this.__isset.row = true;
-      this.mutations = mutations;
-      this.__isset.mutations = true;
+      this.rowBatches = rowBatches;
+      this.__isset.rowBatches = true;
       this.timestamp = timestamp;
       this.__isset.timestamp = true;
     }
@@ -4490,33 +5469,25 @@ public class Hbase {
             }
             break;
           case 2:
-            if (field.type == TType.STRING) {
-              this.row = iprot.readBinary();
-              this.__isset.row = true;
-            } else { 
-              TProtocolUtil.skip(iprot, field.type);
-            }
-            break;
-          case 3:
             if (field.type == TType.LIST) {
               {
-                TList _list44 = iprot.readListBegin();
-                this.mutations = new ArrayList<Mutation>(_list44.size);
-                for (int _i45 = 0; _i45 < _list44.size; ++_i45)
+                TList _list80 = iprot.readListBegin();
+                this.rowBatches = new ArrayList<BatchMutation>(_list80.size);
+                for (int _i81 = 0; _i81 < _list80.size; ++_i81)
                 {
-                  Mutation _elem46 = new Mutation();
-                  _elem46 = new Mutation();
-                  _elem46.read(iprot);
-                  this.mutations.add(_elem46);
+                  BatchMutation _elem82 = new BatchMutation();
+                  _elem82 = new BatchMutation();
+                  _elem82.read(iprot);
+                  this.rowBatches.add(_elem82);
                 }
                 iprot.readListEnd();
               }
-              this.__isset.mutations = true;
+              this.__isset.rowBatches = true;
             } else { 
               TProtocolUtil.skip(iprot, field.type);
             }
             break;
-          case 4:
+          case 3:
             if (field.type == TType.I64) {
               this.timestamp = iprot.readI64();
               this.__isset.timestamp = true;
@@ -4534,7 +5505,7 @@ public class Hbase {
     }
 
     public void write(TProtocol oprot) throws TException {
-      TStruct struct = new TStruct("mutateRowTs_args");
+      TStruct struct = new TStruct("mutateRowsTs_args");
       oprot.writeStructBegin(struct);
       TField field = new TField();
       if (this.tableName != null) {
@@ -4545,23 +5516,15 @@ public class Hbase {
         oprot.writeBinary(this.tableName);
         oprot.writeFieldEnd();
       }
-      if (this.row != null) {
-        field.name = "row";
-        field.type = TType.STRING;
-        field.id = 2;
-        oprot.writeFieldBegin(field);
-        oprot.writeBinary(this.row);
-        oprot.writeFieldEnd();
-      }
-      if (this.mutations != null) {
-        field.name = "mutations";
+      if (this.rowBatches != null) {
+        field.name = "rowBatches";
         field.type = TType.LIST;
-        field.id = 3;
+        field.id = 2;
         oprot.writeFieldBegin(field);
         {
-          oprot.writeListBegin(new TList(TType.STRUCT, this.mutations.size()));
-          for (Mutation _iter47 : this.mutations)          {
-            _iter47.write(oprot);
+          oprot.writeListBegin(new TList(TType.STRUCT, this.rowBatches.size()));
+          for (BatchMutation _iter83 : this.rowBatches)          {
+            _iter83.write(oprot);
           }
           oprot.writeListEnd();
         }
@@ -4569,7 +5532,7 @@ public class Hbase {
       }
       field.name = "timestamp";
       field.type = TType.I64;
-      field.id = 4;
+      field.id = 3;
       oprot.writeFieldBegin(field);
       oprot.writeI64(this.timestamp);
       oprot.writeFieldEnd();
@@ -4578,13 +5541,11 @@ public class Hbase {
     }
 
     public String toString() {
-      StringBuilder sb = new StringBuilder("mutateRowTs_args(");
+      StringBuilder sb = new StringBuilder("mutateRowsTs_args(");
       sb.append("tableName:");
       sb.append(this.tableName);
-      sb.append(",row:");
-      sb.append(this.row);
-      sb.append(",mutations:");
-      sb.append(this.mutations);
+      sb.append(",rowBatches:");
+      sb.append(this.rowBatches);
       sb.append(",timestamp:");
       sb.append(this.timestamp);
       sb.append(")");
@@ -4593,7 +5554,7 @@ public class Hbase {
 
   }
 
-  public static class mutateRowTs_result implements TBase, java.io.Serializable   {
+  public static class mutateRowsTs_result implements TBase, java.io.Serializable   {
     public IOError io;
 
     public final Isset __isset = new Isset();
@@ -4601,10 +5562,10 @@ public class Hbase {
       public boolean io = false;
     }
 
-    public mutateRowTs_result() {
+    public mutateRowsTs_result() {
     }
 
-    public mutateRowTs_result(
+    public mutateRowsTs_result(
       IOError io)
     {
       this();
@@ -4642,7 +5603,7 @@ public class Hbase {
     }
 
     public void write(TProtocol oprot) throws TException {
-      TStruct struct = new TStruct("mutateRowTs_result");
+      TStruct struct = new TStruct("mutateRowsTs_result");
       oprot.writeStructBegin(struct);
       TField field = new TField();
 
@@ -4661,7 +5622,7 @@ public class Hbase {
     }
 
     public String toString() {
-      StringBuilder sb = new StringBuilder("mutateRowTs_result(");
+      StringBuilder sb = new StringBuilder("mutateRowsTs_result(");
       sb.append("io:");
       sb.append(this.io.toString());
       sb.append(")");
@@ -6697,6 +7658,241 @@ public class Hbase {
 
   }
 
+  public static class scannerGetList_args implements TBase, java.io.Serializable   {
+    public int id;
+    public int nbRows;
+
+    public final Isset __isset = new Isset();
+    public static final class Isset {
+      public boolean id = false;
+      public boolean nbRows = false;
+    }
+
+    public scannerGetList_args() {
+    }
+
+    public scannerGetList_args(
+      int id,
+      int nbRows)
+    {
+      this();
+      this.id = id;
+      this.__isset.id = true;
+      this.nbRows = nbRows;
+      this.__isset.nbRows = true;
+    }
+
+    public void read(TProtocol iprot) throws TException {
+      TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == TType.STOP) { 
+          break;
+        }
+        switch (field.id)
+        {
+          case 1:
+            if (field.type == TType.I32) {
+              this.id = iprot.readI32();
+              this.__isset.id = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 2:
+            if (field.type == TType.I32) {
+              this.nbRows = iprot.readI32();
+              this.__isset.nbRows = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          default:
+            TProtocolUtil.skip(iprot, field.type);
+            break;
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+    }
+
+    public void write(TProtocol oprot) throws TException {
+      TStruct struct = new TStruct("scannerGetList_args");
+      oprot.writeStructBegin(struct);
+      TField field = new TField();
+      field.name = "id";
+      field.type = TType.I32;
+      field.id = 1;
+      oprot.writeFieldBegin(field);
+      oprot.writeI32(this.id);
+      oprot.writeFieldEnd();
+      field.name = "nbRows";
+      field.type = TType.I32;
+      field.id = 2;
+      oprot.writeFieldBegin(field);
+      oprot.writeI32(this.nbRows);
+      oprot.writeFieldEnd();
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    public String toString() {
+      StringBuilder sb = new StringBuilder("scannerGetList_args(");
+      sb.append("id:");
+      sb.append(this.id);
+      sb.append(",nbRows:");
+      sb.append(this.nbRows);
+      sb.append(")");
+      return sb.toString();
+    }
+
+  }
+
+  public static class scannerGetList_result implements TBase, java.io.Serializable   {
+    public ArrayList<ScanEntry> success;
+    public IOError io;
+    public IllegalArgument ia;
+
+    public final Isset __isset = new Isset();
+    public static final class Isset {
+      public boolean success = false;
+      public boolean io = false;
+      public boolean ia = false;
+    }
+
+    public scannerGetList_result() {
+    }
+
+    public scannerGetList_result(
+      ArrayList<ScanEntry> success,
+      IOError io,
+      IllegalArgument ia)
+    {
+      this();
+      this.success = success;
+      this.__isset.success = true;
+      this.io = io;
+      this.__isset.io = true;
+      this.ia = ia;
+      this.__isset.ia = true;
+    }
+
+    public void read(TProtocol iprot) throws TException {
+      TField field;
+      iprot.readStructBegin();
+      while (true)
+      {
+        field = iprot.readFieldBegin();
+        if (field.type == TType.STOP) { 
+          break;
+        }
+        switch (field.id)
+        {
+          case 0:
+            if (field.type == TType.LIST) {
+              {
+                TList _list84 = iprot.readListBegin();
+                this.success = new ArrayList<ScanEntry>(_list84.size);
+                for (int _i85 = 0; _i85 < _list84.size; ++_i85)
+                {
+                  ScanEntry _elem86 = new ScanEntry();
+                  _elem86 = new ScanEntry();
+                  _elem86.read(iprot);
+                  this.success.add(_elem86);
+                }
+                iprot.readListEnd();
+              }
+              this.__isset.success = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 1:
+            if (field.type == TType.STRUCT) {
+              this.io = new IOError();
+              this.io.read(iprot);
+              this.__isset.io = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          case 2:
+            if (field.type == TType.STRUCT) {
+              this.ia = new IllegalArgument();
+              this.ia.read(iprot);
+              this.__isset.ia = true;
+            } else { 
+              TProtocolUtil.skip(iprot, field.type);
+            }
+            break;
+          default:
+            TProtocolUtil.skip(iprot, field.type);
+            break;
+        }
+        iprot.readFieldEnd();
+      }
+      iprot.readStructEnd();
+    }
+
+    public void write(TProtocol oprot) throws TException {
+      TStruct struct = new TStruct("scannerGetList_result");
+      oprot.writeStructBegin(struct);
+      TField field = new TField();
+
+      if (this.__isset.success) {
+        if (this.success != null) {
+          field.name = "success";
+          field.type = TType.LIST;
+          field.id = 0;
+          oprot.writeFieldBegin(field);
+          {
+            oprot.writeListBegin(new TList(TType.STRUCT, this.success.size()));
+            for (ScanEntry _iter87 : this.success)            {
+              _iter87.write(oprot);
+            }
+            oprot.writeListEnd();
+          }
+          oprot.writeFieldEnd();
+        }
+      } else if (this.__isset.io) {
+        if (this.io != null) {
+          field.name = "io";
+          field.type = TType.STRUCT;
+          field.id = 1;
+          oprot.writeFieldBegin(field);
+          this.io.write(oprot);
+          oprot.writeFieldEnd();
+        }
+      } else if (this.__isset.ia) {
+        if (this.ia != null) {
+          field.name = "ia";
+          field.type = TType.STRUCT;
+          field.id = 2;
+          oprot.writeFieldBegin(field);
+          this.ia.write(oprot);
+          oprot.writeFieldEnd();
+        }
+      }
+      oprot.writeFieldStop();
+      oprot.writeStructEnd();
+    }
+
+    public String toString() {
+      StringBuilder sb = new StringBuilder("scannerGetList_result(");
+      sb.append("success:");
+      sb.append(this.success);
+      sb.append(",io:");
+      sb.append(this.io.toString());
+      sb.append(",ia:");
+      sb.append(this.ia.toString());
+      sb.append(")");
+      return sb.toString();
+    }
+
+  }
+
   public static class scannerClose_args implements TBase, java.io.Serializable   {
     public int id;
 
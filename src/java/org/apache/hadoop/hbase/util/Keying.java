@@ -19,10 +19,13 @@
  */
 package org.apache.hadoop.hbase.util;
 
+import java.math.BigInteger;
 import java.util.StringTokenizer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.hadoop.io.Text;
+
 /**
  * Utility creating hbase friendly keys.
  * Use fabricating row names or column qualifiers.
@@ -89,6 +92,75 @@ public class Keying {
     return m.group(1) + reverseHostname(m.group(2)) + m.group(3);
   }
   
+  /**
+   * Makes split keys that divide a space of fixed-width, lower-case
+   * hexadecimal keys -- hashes, for example -- into evenly sized regions.
+   * 
+   * @param regions Count of regions wanted
+   * @param width Count of hex digits in a key
+   * @return <code>regions - 1</code> split keys of <code>width</code> hex
+   * digits each, in order
+   * @see org.apache.hadoop.hbase.HBaseAdmin#createTable(org.apache.hadoop.hbase.HTableDescriptor, Text[])
+   */
+  public static Text [] hexSplitKeys(final int regions, final int width) {
+    if (regions < 1 || width < 1) {
+      throw new IllegalArgumentException("regions and width must be > 0");
+    }
+    BigInteger space = BigInteger.valueOf(16).pow(width);
+    if (space.compareTo(BigInteger.valueOf(regions)) < 0) {
+      throw new IllegalArgumentException("Cannot make " + regions +
+        " regions of " + width + " digit hex keys");
+    }
+    Text [] keys = new Text[regions - 1];
+    for (int i = 1; i < regions; i++) {
+      String key = space.multiply(BigInteger.valueOf(i)).
+        divide(BigInteger.valueOf(regions)).toString(16);
+      keys[i - 1] = new Text(pad(key, width));
+    }
+    return keys;
+  }
+
+  /**
+   * Makes split keys that divide a range of zero-padded decimal keys into
+   * evenly sized regions.
+   * 
+   * @param min Smallest key
+   * @param max Largest key
+   * @param regions Count of regions wanted
+   * @param width Count of digits in a key; keys are zero-padded to this
+   * width so they sort numerically
+   * @return <code>regions - 1</code> split keys in order
+   * @see org.apache.hadoop.hbase.HBaseAdmin#createTable(org.apache.hadoop.hbase.HTableDescriptor, Text[])
+   */
+  public static Text [] numericSplitKeys(final long min, final long max,
+      final int regions, final int width) {
+    if (regions < 1 || min < 0 || max - min + 1 < regions) {
+      throw new IllegalArgumentException("Cannot make " + regions +
+        " regions of keys " + min + " to " + max);
+    }
+    if (Long.toString(max).length() > width) {
+      throw new IllegalArgumentException(max + " is wider than " + width +
+        " digits");
+    }
+    BigInteger span = BigInteger.valueOf(max).subtract(BigInteger.valueOf(min)).
+      add(BigInteger.ONE);
+    Text [] keys = new Text[regions - 1];
+    for (int i = 1; i < regions; i++) {
+      long key = min + span.multiply(BigInteger.valueOf(i)).
+        divide(BigInteger.valueOf(regions)).longValue();
+      keys[i - 1] = new Text(pad(Long.toString(key), width));
+    }
+    return keys;
+  }
+
+  private static String pad(final String s, final int width) {
+    StringBuilder sb = new StringBuilder(width);
+    for (int i = s.length(); i < width; i++) {
+      sb.append('0');
+    }
+    return sb.append(s).toString();
+  }
+  
   private static Matcher getMatcher(final String u) {
     if (u == null || u.length() <= 0) {
       return null;
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import org.apache.hadoop.dfs.MiniDFSCluster;
+import org.apache.hadoop.hbase.filter.RegExpRowFilter;
+import org.apache.hadoop.hbase.io.AggregateResult;
+import org.apache.hadoop.hbase.util.Writables;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Tests aggregating rows inside a region.
+ */
+public class TestAggregate extends HBaseTestCase {
+  private MiniDFSCluster cluster = null;
+
+  /** {@inheritDoc} */
+  @Override
+  public void setUp() throws Exception {
+    this.cluster = new MiniDFSCluster(conf, 2, true, (String[])null);
+    // Make the hbase rootdir match the minidfs we just span up
+    this.conf.set(HConstants.HBASE_DIR,
+      this.cluster.getFileSystem().getHomeDirectory().toString());
+    super.setUp();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void tearDown() throws Exception {
+    if (this.cluster != null) {
+      StaticTestEnvironment.shutdownDfs(cluster);
+    }
+    super.tearDown();
+  }
+
+  /**
+   * Aggregate over ranges of rows, some in the memcache and some flushed.
+   * @throws Exception
+   */
+  public void testAggregate() throws Exception {
+    HRegion r = createNewHRegion(createTableDescriptor(getName()), null, null);
+    try {
+      Text number = new Text(COLFAMILY_NAME1 + "number");
+      Text other = new Text(COLFAMILY_NAME2 + "other");
+      HRegionIncommon updater = new HRegionIncommon(r);
+      // Rows row00 to row09 hold their number; row05 is not numeric.
+      for (int i = 0; i < 10; i++) {
+        long lockid = updater.startUpdate(new Text("row0" + i));
+        updater.put(lockid, number, (i == 5? "five": Integer.toString(i)).
+          getBytes(HConstants.UTF8_ENCODING));
+        updater.commit(lockid);
+        if (i == 4) {
+          r.flushcache();
+        }
+      }
+      // A row without the column aggregated.
+      long lockid = updater.startUpdate(new Text("row10"));
+      updater.put(lockid, other, "7".getBytes(HConstants.UTF8_ENCODING));
+      updater.commit(lockid);
+
+      Text [] cols = new Text [] {number};
+      AggregateResult all = r.aggregate(cols, HConstants.EMPTY_START_ROW,
+        HConstants.EMPTY_TEXT, HConstants.LATEST_TIMESTAMP, null);
+      assertEquals(10, all.getRowCount());
+      assertEquals(9, all.getValueCount());
+      assertEquals(40, all.getSum());
+      assertEquals(0, all.getMin());
+      assertEquals(9, all.getMax());
+
+      AggregateResult range = r.aggregate(cols, new Text("row02"),
+        new Text("row05"), HConstants.LATEST_TIMESTAMP, null);
+      assertEquals(3, range.getRowCount());
+      assertEquals(2 + 3 + 4, range.getSum());
+      assertEquals(2, range.getMin());
+      assertEquals(4, range.getMax());
+
+      AggregateResult filtered = r.aggregate(cols, HConstants.EMPTY_START_ROW,
+        HConstants.EMPTY_TEXT, HConstants.LATEST_TIMESTAMP,
+        new RegExpRowFilter("row0[78]"));
+      assertEquals(2, filtered.getRowCount());
+      assertEquals(15, filtered.getSum());
+
+      // Partials survive the wire and merge into the whole.
+      AggregateResult merged = (AggregateResult)Writables.getWritable(
+        Writables.getBytes(range), new AggregateResult());
+      merged.merge(r.aggregate(cols, HConstants.EMPTY_START_ROW,
+        new Text("row02"), HConstants.LATEST_TIMESTAMP, null));
+      merged.merge(r.aggregate(cols, new Text("row05"),
+        HConstants.EMPTY_TEXT, HConstants.LATEST_TIMESTAMP, null));
+      assertEquals(all.toString(), merged.toString());
+
+      AggregateResult none = r.aggregate(cols, new Text("zzz"),
+        HConstants.EMPTY_TEXT, HConstants.LATEST_TIMESTAMP, null);
+      assertEquals(0, none.getRowCount());
+      assertEquals(0, none.getValueCount());
+      none.merge(all);
+      assertEquals(all.toString(), none.toString());
+    } finally {
+      r.close();
+      r.getLog().closeAndDelete();
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.hbase.io.BatchUpdate;
+import org.apache.hadoop.io.Text;
+
+/** Tests the asynchronous client */
+public class TestAsyncHTable extends HBaseClusterTestCase {
+  private static final Text COLUMN = new Text("contents:");
+  private static final int ROWS = 100;
+
+  /**
+   * @throws Exception
+   */
+  public void testAsyncOperations() throws Exception {
+    HTableDescriptor desc = new HTableDescriptor(getName());
+    desc.addFamily(new HColumnDescriptor(COLUMN.toString()));
+    new HBaseAdmin(conf).createTable(desc);
+
+    AsyncHTable table = new AsyncHTable(conf, new Text(getName()));
+    try {
+      // Issue all updates before waiting on any of them.
+      List<Future<Boolean>> updates = new ArrayList<Future<Boolean>>();
+      for (int i = 0; i < ROWS; i++) {
+        BatchUpdate b = new BatchUpdate();
+        long lockid = b.startUpdate(row(i));
+        b.put(lockid, COLUMN, value(i));
+        updates.add(table.batchUpdate(b, null));
+      }
+      for (Future<Boolean> f: updates) {
+        assertTrue(f.get().booleanValue());
+      }
+
+      // Gets with callbacks.
+      final CountDownLatch latch = new CountDownLatch(ROWS);
+      final AtomicInteger correct = new AtomicInteger(0);
+      for (int i = 0; i < ROWS; i++) {
+        final String expected = new String(value(i), HConstants.UTF8_ENCODING);
+        table.get(row(i), COLUMN, new AsyncHTable.Callback<byte []>() {
+          public void onSuccess(byte [] result) {
+            try {
+              if (result != null && expected.equals(
+                  new String(result, HConstants.UTF8_ENCODING))) {
+                correct.incrementAndGet();
+              }
+            } catch (IOException e) {
+              // Counted as incorrect.
+            }
+            latch.countDown();
+          }
+
+          public void onFailure(IOException e) {
+            latch.countDown();
+          }
+        });
+      }
+      assertTrue(latch.await(60, TimeUnit.SECONDS));
+      assertEquals(ROWS, correct.get());
+
+      // getRow and a missing row.
+      SortedMap<Text, byte []> r = table.getRow(row(7), null).get();
+      assertEquals(1, r.size());
+      assertTrue(table.getRow(new Text("missing"), null).get().isEmpty());
+      assertNull(table.get(new Text("missing"), COLUMN, null).get());
+
+      // Scanner next requests come back in row order.
+      AsyncHTable.AsyncScanner scanner = table.obtainScanner(
+        new Text [] {COLUMN}, HConstants.EMPTY_START_ROW,
+        HConstants.LATEST_TIMESTAMP, null);
+      List<Future<Map.Entry<HStoreKey, SortedMap<Text, byte []>>>> nexts =
+        new ArrayList<Future<Map.Entry<HStoreKey, SortedMap<Text, byte []>>>>();
+      for (int i = 0; i < ROWS + 1; i++) {
+        nexts.add(scanner.next(null));
+      }
+      scanner.close(null).get();
+      for (int i = 0; i < ROWS; i++) {
+        assertEquals(row(i), nexts.get(i).get().getKey().getRow());
+      }
+      assertNull(nexts.get(ROWS).get());
+    } finally {
+      table.close();
+    }
+
+    // Closing fails operations still queued so no caller waits forever.
+    conf.setInt("hbase.client.async.threads", 1);
+    table = new AsyncHTable(conf, new Text(getName()));
+    List<Future<?>> outstanding = new ArrayList<Future<?>>();
+    final AtomicInteger failures = new AtomicInteger(0);
+    AsyncHTable.Callback<byte []> callback =
+      new AsyncHTable.Callback<byte []>() {
+        public void onSuccess(@SuppressWarnings("unused") byte [] result) {
+          // Ran before the close.
+        }
+
+        public void onFailure(@SuppressWarnings("unused") IOException e) {
+          failures.incrementAndGet();
+        }
+      };
+    for (int i = 0; i < ROWS; i++) {
+      outstanding.add(table.get(row(i), COLUMN, callback));
+    }
+    AsyncHTable.AsyncScanner scanner = table.obtainScanner(
+      new Text [] {COLUMN}, HConstants.EMPTY_START_ROW,
+      HConstants.LATEST_TIMESTAMP, null);
+    for (int i = 0; i < ROWS; i++) {
+      outstanding.add(scanner.next(null));
+    }
+    table.close();
+    int failed = 0;
+    for (Future<?> f: outstanding) {
+      assertTrue(f.isDone());
+      try {
+        f.get(1, TimeUnit.SECONDS);
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof IOException);
+        failed++;
+      }
+    }
+    assertTrue(failed > 0);
+    assertTrue(failures.get() > 0);
+  }
+
+  private static Text row(final int i) {
+    return new Text(String.format("row_%04d", Integer.valueOf(i)));
+  }
+
+  private static byte [] value(final int i) throws IOException {
+    return ("value_" + i).getBytes(HConstants.UTF8_ENCODING);
+  }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.io.IOException;
+import java.util.SortedMap;
+
+import org.apache.hadoop.dfs.MiniDFSCluster;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.io.MapFile;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Tests adopting store files written outside a region.
+ */
+public class TestBulkLoad extends HBaseTestCase {
+  private static final Text END_KEY = new Text("ggg");
+
+  private MiniDFSCluster cluster = null;
+
+  /** {@inheritDoc} */
+  @Override
+  public void setUp() throws Exception {
+    this.cluster = new MiniDFSCluster(conf, 2, true, (String[])null);
+    // Make the hbase rootdir match the minidfs we just span up
+    this.conf.set(HConstants.HBASE_DIR,
+      this.cluster.getFileSystem().getHomeDirectory().toString());
+    super.setUp();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void tearDown() throws Exception {
+    if (this.cluster != null) {
+      StaticTestEnvironment.shutdownDfs(cluster);
+    }
+    super.tearDown();
+  }
+
+  /**
+   * Load a file into a region that has edits in its memcache and check both
+   * are there, also after the region is reopened.
+   * @throws Exception
+   */
+  public void testBulkLoad() throws Exception {
+    HRegion r = createNewHRegion(createTableDescriptor(getName()), null,
+      END_KEY);
+    try {
+      Text column = new Text(COLFAMILY_NAME1 + "bulk");
+      Text family = new Text(COLFAMILY_NAME1);
+      Text memcacheRow = new Text("bbb1");
+      HRegionIncommon updater = new HRegionIncommon(r);
+      long lockid = updater.startUpdate(memcacheRow);
+      updater.put(lockid, column,
+        "memcache".getBytes(HConstants.UTF8_ENCODING));
+      updater.commit(lockid);
+
+      Path good = new Path(this.testDir, "good");
+      writeFile(good, column, "aaa", "fff");
+      Path bad = new Path(this.testDir, "bad");
+      writeFile(bad, column, "fff", "zzz");
+
+      // Nothing is moved if any file does not fit the region.
+      try {
+        r.bulkLoad(new Text [] {family, family}, new Path [] {good, bad});
+        fail("Loaded rows outside the region");
+      } catch (WrongRegionException e) {
+        // Expected
+      }
+      assertTrue(this.fs.exists(good));
+      assertTrue(this.fs.exists(bad));
+      assertEquals(0, r.getStorefilesCount());
+
+      r.bulkLoad(new Text [] {family}, new Path [] {good});
+      assertFalse(this.fs.exists(good));
+      // The memcache was flushed ahead of the loaded file.
+      assertEquals(2, r.getStorefilesCount());
+      assertLoaded(r, column, memcacheRow);
+      assertBounds(r, family);
+
+      r.close();
+      r = openClosedRegion(r);
+      assertLoaded(r, column, memcacheRow);
+      assertBounds(r, family);
+    } finally {
+      r.close();
+      r.getLog().closeAndDelete();
+    }
+  }
+
+  private void assertLoaded(final HRegion r, final Text column,
+      final Text memcacheRow)
+  throws IOException {
+    assertEquals("memcache",
+      new String(r.get(memcacheRow, column), HConstants.UTF8_ENCODING));
+    for (char c = 'a'; c <= 'f'; c++) {
+      Text row = new Text("" + c + c + c);
+      assertEquals(row.toString(),
+        new String(r.get(row, column), HConstants.UTF8_ENCODING));
+    }
+  }
+
+  /*
+   * Check the loaded file has its bounds recorded, though the family has no
+   * bloom filter.
+   */
+  private void assertBounds(final HRegion r, final Text family)
+  throws IOException {
+    // The loaded file sorts after the flushed memcache.
+    SortedMap<Long, HStoreFile> files =
+      r.stores.get(HStoreKey.extractFamily(family).toText()).getStorefiles();
+    HStoreFile loaded = files.get(files.lastKey());
+    HStoreFile.Bounds b = loaded.getBounds();
+    assertNotNull(b);
+    assertEquals("aaa", b.getFirstKey().getRow().toString());
+    assertEquals("fff", b.getLastKey().getRow().toString());
+  }
+
+  /*
+   * Write a store file holding a cell per row from <code>first</code> to
+   * <code>last</code>; rows are three of the same letter and values are
+   * the row.
+   */
+  private void writeFile(final Path p, final Text column, final String first,
+      final String last)
+  throws IOException {
+    MapFile.Writer w = new MapFile.Writer(this.conf, this.fs, p.toString(),
+      HStoreKey.class, ImmutableBytesWritable.class);
+    long now = System.currentTimeMillis();
+    try {
+      for (char c = first.charAt(0); c <= last.charAt(0); c++) {
+        String row = "" + c + c + c;
+        w.append(new HStoreKey(new Text(row), column, now),
+          new ImmutableBytesWritable(row.getBytes(HConstants.UTF8_ENCODING)));
+      }
+    } finally {
+      w.close();
+    }
+  }
+}
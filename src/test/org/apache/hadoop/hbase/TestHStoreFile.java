@@ -169,6 +169,58 @@ public class TestHStoreFile extends HBaseTestCase {
     assertEquals(key.getRow().toString(), finalKey.toString());
   }
 
+  /**
+   * Test that key and timestamp bounds written to the info file are read back
+   * and that info files without bounds still load.
+   * @throws IOException
+   */
+  public void testBounds() throws IOException {
+    Text family = new Text("colfamily");
+    HStoreFile hsf = new HStoreFile(this.conf, this.fs, this.dir, getName(),
+        family, 1234567890L, null);
+    this.fs.mkdirs(hsf.getInfoFilePath().getParent());
+    HStoreFile.Bounds bounds = new HStoreFile.Bounds();
+    assertTrue(bounds.isEmpty());
+    // Add keys in sort order as a flush or compaction would.
+    bounds.add(new HStoreKey(new Text("bbb"), family, 20));
+    bounds.add(new HStoreKey(new Text("ccc"), family, 50));
+    bounds.add(new HStoreKey(new Text("ddd"), family, 10));
+    hsf.writeInfo(this.fs, 99, bounds);
+
+    HStoreFile other = new HStoreFile(this.conf, this.fs, this.dir, getName(),
+        family, 1234567890L, null);
+    assertNull(other.getBounds());
+    assertEquals(99, other.loadInfo(this.fs));
+    HStoreFile.Bounds b = other.getBounds();
+    assertNotNull(b);
+    assertEquals("bbb", b.getFirstKey().getRow().toString());
+    assertEquals("ddd", b.getLastKey().getRow().toString());
+    assertEquals(10, b.getMinTimestamp());
+    assertEquals(50, b.getMaxTimestamp());
+    assertTrue(b.mayContain(new Text("ccc"), 10));
+    assertTrue(b.mayContain(new Text("bbb"), HConstants.LATEST_TIMESTAMP));
+    assertFalse(b.mayContain(new Text("aaa"), HConstants.LATEST_TIMESTAMP));
+    assertFalse(b.mayContain(new Text("eee"), HConstants.LATEST_TIMESTAMP));
+    assertFalse(b.mayContain(new Text("ccc"), 9));
+    assertTrue(b.mayContainFrom(new Text("aaa"), 10));
+    assertTrue(b.mayContainFrom(new Text(), 10));
+    assertFalse(b.mayContainFrom(new Text("eee"), 10));
+    assertTrue(b.mayContainUpTo(new Text("zzz")));
+    assertFalse(b.mayContainUpTo(new Text("aaa")));
+
+    // Rewriting the sequence id keeps the bounds.
+    other.writeInfo(this.fs, 98);
+    HStoreFile third = new HStoreFile(this.conf, this.fs, this.dir, getName(),
+        family, 1234567890L, null);
+    assertEquals(98, third.loadInfo(this.fs));
+    assertEquals(b.toString(), third.getBounds().toString());
+
+    // Info file written without bounds loads with null bounds.
+    hsf.writeInfo(this.fs, 97, null);
+    assertEquals(97, third.loadInfo(this.fs));
+    assertNull(third.getBounds());
+  }
+
   /**
    * Write a file and then assert that we can read from top and bottom halves
    * using two HalfMapFiles.
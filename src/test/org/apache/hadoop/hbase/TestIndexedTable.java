@@ -0,0 +1,118 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.hadoop.io.Text;
+
+/**
+ * Tests that updates to a table with an indexed family keep its index table
+ * up to date.
+ */
+public class TestIndexedTable extends HBaseClusterTestCase {
+  private static final Text COLOR = new Text("color:");
+  private static final Text OTHER = new Text("other:");
+
+  private HTable table = null;
+  private TableIndex index = null;
+
+  /** {@inheritDoc} */
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    HTableDescriptor desc = new HTableDescriptor(getName());
+    desc.addFamily(new HColumnDescriptor(COLOR, 1,
+      HColumnDescriptor.CompressionType.NONE, false, Integer.MAX_VALUE,
+      null, true));
+    desc.addFamily(new HColumnDescriptor(OTHER.toString()));
+    HBaseAdmin admin = new HBaseAdmin(conf);
+    admin.createTable(desc);
+    assertTrue(admin.tableExists(TableIndex.getIndexTableName(desc.getName())));
+    this.table = new HTable(conf, desc.getName());
+    this.index = new TableIndex(conf, desc.getName());
+  }
+
+  /**
+   * Look up rows by value as rows are added, changed and deleted.
+   * @throws IOException
+   */
+  public void testIndex() throws IOException {
+    put("row1", COLOR, "blue");
+    put("row2", COLOR, "red");
+    put("row3", COLOR, "blue");
+    put("row4", OTHER, "blue");
+
+    // Updates return once the index has them.
+    assertRows(this.index.getRows(COLOR, bytes("blue")), "row1", "row3");
+    assertRows(this.index.getRows(COLOR, bytes("red")), "row2");
+    assertRows(this.index.getRows(COLOR, bytes("green")));
+    // Range lookups are sorted by value, then row.
+    assertRows(this.index.getRows(COLOR, null, null), "row1", "row3", "row2");
+    assertRows(this.index.getRows(COLOR, bytes("c"), null), "row2");
+    assertRows(this.index.getRows(COLOR, null, bytes("red")), "row1", "row3");
+
+    // Changing a value moves the row in the index.
+    put("row1", COLOR, "red");
+    assertRows(this.index.getRows(COLOR, bytes("blue")), "row3");
+    assertRows(this.index.getRows(COLOR, bytes("red")), "row1", "row2");
+
+    // Deleting a cell or a row removes it from the index.
+    this.table.deleteAll(new Text("row2"), COLOR);
+    this.table.deleteAll(new Text("row3"));
+    assertRows(this.index.getRows(COLOR, bytes("blue")));
+    assertRows(this.index.getRows(COLOR, bytes("red")), "row1");
+
+    // Rebuild puts back lost index rows and removes stale ones.
+    HTable indexTable =
+      new HTable(conf, TableIndex.getIndexTableName(this.table.getTableName()));
+    indexTable.deleteAll(TableIndex.getKey(COLOR, bytes("red"),
+      new Text("row1")));
+    long lockid = indexTable.startUpdate(TableIndex.getKey(COLOR,
+      bytes("green"), new Text("row9")));
+    indexTable.put(lockid, TableIndex.ROW_COLUMN, bytes("row9"));
+    indexTable.commit(lockid);
+    assertRows(this.index.getRows(COLOR, bytes("red")));
+    assertRows(this.index.getRows(COLOR, bytes("green")), "row9");
+    assertTrue(this.index.rebuild() > 0);
+    assertRows(this.index.getRows(COLOR, bytes("red")), "row1");
+    assertRows(this.index.getRows(COLOR, bytes("green")));
+  }
+
+  private void put(final String row, final Text column, final String value)
+  throws IOException {
+    long lockid = this.table.startUpdate(new Text(row));
+    this.table.put(lockid, column, bytes(value));
+    this.table.commit(lockid);
+  }
+
+  private static byte [] bytes(final String s) throws IOException {
+    return s.getBytes(HConstants.UTF8_ENCODING);
+  }
+
+  private static void assertRows(final List<Text> rows,
+      final String... expected) {
+    assertEquals(rows.toString(), expected.length, rows.size());
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], rows.get(i).toString());
+    }
+  }
+}
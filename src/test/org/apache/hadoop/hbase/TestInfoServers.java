@@ -65,6 +65,8 @@ public class TestInfoServers extends HBaseTestCase {
         infoServer.getPort();
       assertHasExpectedContent(new URL("http://localhost:" + port +
         "/index.html"), "Region Server");
+      assertHasExpectedContent(new URL("http://localhost:" + port +
+        "/metrics"), "regions");
     } finally {
       miniHbase.shutdown();
     }
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.io.IOException;
+
+import org.apache.hadoop.dfs.MiniDFSCluster;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HColumnDescriptor.CompressionType;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Tests the bloom filter a store reads on first use when the saved filter
+ * is damaged or missing.
+ */
+public class TestLazyBloomFilter extends HBaseTestCase {
+  private static final Text FAMILY = new Text(COLFAMILY_NAME1);
+  private static final Text COLUMN = new Text(COLFAMILY_NAME1 + "a");
+  // Family name without the colon, as stores and their directories are named
+  private static final Text STORE = new Text(FAMILY.toString().substring(0,
+    FAMILY.getLength() - 1));
+  private MiniDFSCluster cluster = null;
+
+  /** {@inheritDoc} */
+  @Override
+  public void setUp() throws Exception {
+    this.cluster = new MiniDFSCluster(conf, 2, true, (String[])null);
+    // Make the hbase rootdir match the minidfs we just span up
+    this.conf.set(HConstants.HBASE_DIR,
+      this.cluster.getFileSystem().getHomeDirectory().toString());
+    super.setUp();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void tearDown() throws Exception {
+    if (this.cluster != null) {
+      StaticTestEnvironment.shutdownDfs(cluster);
+    }
+    super.tearDown();
+  }
+
+  /**
+   * A damaged filter is rebuilt from the store files, flushes after it are
+   * not refused, and a missing filter is rebuilt on the next open.
+   * @throws Exception
+   */
+  public void testRebuild() throws Exception {
+    HTableDescriptor desc = new HTableDescriptor(getName());
+    desc.addFamily(new HColumnDescriptor(FAMILY, 1, CompressionType.NONE,
+      false, Integer.MAX_VALUE, new BloomFilterDescriptor(
+        BloomFilterDescriptor.BloomFilterType.BLOOMFILTER, 1000)));
+    HRegion r = createNewHRegion(desc, null, null);
+    HLog log = r.getLog();
+    try {
+      put(r, 0, 50);
+      r.flushcache();
+      assertRows(r, 50);
+      r.close();
+
+      Path filterFile = new Path(HStoreFile.getFilterDir(r.basedir,
+        r.getRegionInfo().getEncodedName(), STORE), "filter");
+      assertTrue(this.fs.exists(filterFile));
+      FSDataOutputStream out = this.fs.create(filterFile);
+      try {
+        out.writeInt(1);
+      } finally {
+        out.close();
+      }
+
+      // The first use of the filter is the flush's additions.
+      r = openClosedRegion(r);
+      put(r, 50, 100);
+      r.flushcache();
+      assertRows(r, 100);
+      r.close();
+
+      this.fs.delete(filterFile);
+      r = openClosedRegion(r);
+      assertRows(r, 100);
+      assertTrue(r.stores.get(STORE).bloomFilter.isAvailable());
+    } finally {
+      r.close();
+      log.closeAndDelete();
+    }
+  }
+
+  private static void put(final HRegion r, final int from, final int to)
+  throws IOException {
+    HRegionIncommon updater = new HRegionIncommon(r);
+    for (int i = from; i < to; i++) {
+      long lockid = updater.startUpdate(row(i));
+      updater.put(lockid, COLUMN, row(i).getBytes());
+      updater.commit(lockid);
+    }
+  }
+
+  private static void assertRows(final HRegion r, final int count)
+  throws IOException {
+    for (int i = 0; i < count; i++) {
+      byte [] value = r.get(row(i), COLUMN);
+      assertNotNull("row " + i, value);
+      assertEquals(row(i).toString(), new String(value));
+    }
+  }
+
+  private static Text row(final int i) {
+    return new Text(String.format("row%03d", Integer.valueOf(i)));
+  }
+}
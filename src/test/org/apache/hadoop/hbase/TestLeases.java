@@ -0,0 +1,119 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+/** Tests lease expiry, renewal and cancellation */
+public class TestLeases extends TestCase {
+  private static final int PERIOD = 500;
+  private static final int CHECK = 50;
+
+  private Leases leases;
+
+  /** {@inheritDoc} */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    this.leases = new Leases(PERIOD, CHECK);
+    this.leases.start();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected void tearDown() throws Exception {
+    this.leases.close();
+    super.tearDown();
+  }
+
+  /**
+   * A lease that is not renewed expires once and can't then be renewed.
+   * @throws Exception
+   */
+  public void testExpiry() throws Exception {
+    Counter c = new Counter();
+    this.leases.createLease(1, 1, c);
+    Thread.sleep(PERIOD * 3);
+    assertEquals(1, c.count.get());
+    try {
+      this.leases.renewLease(1, 1);
+      fail("Renewed expired lease");
+    } catch (IOException e) {
+      // Expected
+    }
+    // Name is free again.
+    this.leases.createLease(1, 1, c);
+  }
+
+  /**
+   * A lease renewed more often than the period does not expire.
+   * @throws Exception
+   */
+  public void testRenewal() throws Exception {
+    Counter c = new Counter();
+    this.leases.createLease(1, 2, c);
+    for (int i = 0; i < 10; i++) {
+      Thread.sleep(PERIOD / 5);
+      this.leases.renewLease(1, 2);
+    }
+    assertEquals(0, c.count.get());
+    Thread.sleep(PERIOD * 3);
+    assertEquals(1, c.count.get());
+  }
+
+  /**
+   * A cancelled lease does not call its listener.
+   * @throws Exception
+   */
+  public void testCancel() throws Exception {
+    Counter c = new Counter();
+    this.leases.createLease(1, 3, c);
+    this.leases.cancelLease(1, 3);
+    Thread.sleep(PERIOD * 3);
+    assertEquals(0, c.count.get());
+  }
+
+  /**
+   * Only one lease may be held on a name.
+   * @throws Exception
+   */
+  public void testStillHeld() throws Exception {
+    Counter c = new Counter();
+    this.leases.createLease(1, 4, c);
+    try {
+      this.leases.createLease(1, 4, c);
+      fail("Created lease twice");
+    } catch (Leases.LeaseStillHeldException e) {
+      assertEquals("1/4", e.getName());
+    }
+  }
+
+  private static class Counter implements LeaseListener {
+    final AtomicInteger count = new AtomicInteger(0);
+
+    /** {@inheritDoc} */
+    public void leaseExpired() {
+      count.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.apache.hadoop.hbase.HServerLoad.RegionLoad;
+import org.apache.hadoop.io.Text;
+
+/** Tests the region balancer's choice of moves */
+public class TestLoadBalancer extends TestCase {
+  /** Balanced servers are left alone */
+  public void testBalanced() {
+    Map<String, HServerLoad> loads = new HashMap<String, HServerLoad>();
+    loads.put("a", load("a", 5, 10, 10));
+    loads.put("b", load("b", 5, 10, 10));
+    assertEquals(0, LoadBalancer.plan(loads, 0.2f, 10).size());
+  }
+
+  /** Regions move off the server with too many */
+  public void testRegionCount() {
+    Map<String, HServerLoad> loads = new HashMap<String, HServerLoad>();
+    loads.put("a", load("a", 10, 10, 10));
+    loads.put("b", load("b", 2, 10, 10));
+    List<LoadBalancer.Move> moves = LoadBalancer.plan(loads, 0.2f, 10);
+    assertEquals(3, moves.size());
+    for (LoadBalancer.Move m: moves) {
+      assertEquals("a", m.from);
+      assertEquals("b", m.to);
+    }
+    assertEquals(2, LoadBalancer.plan(loads, 0.2f, 2).size());
+  }
+
+  /** A server with the same count of regions but all the requests sheds some */
+  public void testRequests() {
+    Map<String, HServerLoad> loads = new HashMap<String, HServerLoad>();
+    loads.put("a", load("a", 4, 1000, 10));
+    loads.put("b", load("b", 4, 0, 10));
+    List<LoadBalancer.Move> moves = LoadBalancer.plan(loads, 0.2f, 10);
+    assertTrue(moves.size() > 0);
+    assertEquals("a", moves.get(0).from);
+  }
+
+  /** Catalog regions stay put */
+  public void testCatalogNotMoved() {
+    Map<String, HServerLoad> loads = new HashMap<String, HServerLoad>();
+    HServerLoad a = new HServerLoad(0, 3);
+    a.addRegionLoad(
+      new RegionLoad(new Text("-ROOT-,,0"), 1000, 0, 0, 1, 10, 0));
+    a.addRegionLoad(
+      new RegionLoad(new Text(".META.,,1"), 1000, 0, 0, 1, 10, 0));
+    a.addRegionLoad(new RegionLoad(new Text("t,,1"), 0, 0, 0, 0, 0, 0));
+    loads.put("a", a);
+    loads.put("b", new HServerLoad(0, 0));
+    for (LoadBalancer.Move m: LoadBalancer.plan(loads, 0.2f, 10)) {
+      assertEquals("t,,1", m.regionName.toString());
+    }
+  }
+
+  /** @throws Exception */
+  public void testSerialization() throws Exception {
+    HServerLoad load = load("a", 3, 7, 11);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    load.write(new DataOutputStream(bytes));
+    HServerLoad copy = new HServerLoad();
+    copy.readFields(new DataInputStream(
+      new ByteArrayInputStream(bytes.toByteArray())));
+    assertEquals(load.getNumberOfRegions(), copy.getNumberOfRegions());
+    assertEquals(load.getNumberOfRequests(), copy.getNumberOfRequests());
+    assertEquals(3, copy.getRegionLoad().size());
+    RegionLoad rl = copy.getRegionLoad().iterator().next();
+    assertEquals("a,0,1", rl.getName().toString());
+    assertEquals(7, rl.getRequests());
+    assertEquals(11, rl.getStorefileSizeMB());
+  }
+
+  /** @throws Exception */
+  public void testRegionLoadSerialization() throws Exception {
+    RegionLoad load =
+      new RegionLoad(new Text("t,,1"), 100000, 2, 64, 3, 500, 1500);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    load.write(new DataOutputStream(bytes));
+    RegionLoad copy = new RegionLoad();
+    copy.readFields(new DataInputStream(
+      new ByteArrayInputStream(bytes.toByteArray())));
+    assertEquals("t,,1", copy.getName().toString());
+    assertEquals(100000, copy.getReadRequests());
+    assertEquals(2, copy.getWriteRequests());
+    assertEquals(100002, copy.getRequests());
+    assertEquals(64, copy.getMemcacheSizeMB());
+    assertEquals(3, copy.getStorefiles());
+    assertEquals(500, copy.getStorefileSizeMB());
+    assertEquals(1500, copy.getBlockedUpdateMillis());
+  }
+
+  private HServerLoad load(final String server, final int regions,
+      final int requestsPerRegion, final int sizePerRegion) {
+    HServerLoad load = new HServerLoad(regions * requestsPerRegion, regions);
+    for (int i = 0; i < regions; i++) {
+      load.addRegionLoad(new RegionLoad(new Text(server + "," + i + ",1"),
+        requestsPerRegion, 0, 0, 1, sizePerRegion, 0));
+    }
+    return load;
+  }
+}
@@ -0,0 +1,230 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.dfs.MiniDFSCluster;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HServerLoad.RegionLoad;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Tests merging regions of an online table and the master's choice of
+ * regions to merge.
+ */
+public class TestOnlineMerge extends HBaseTestCase {
+  private static final Text MIDDLE = new Text("ggg");
+
+  private MiniDFSCluster cluster = null;
+
+  /** {@inheritDoc} */
+  @Override
+  public void setUp() throws Exception {
+    this.cluster = new MiniDFSCluster(conf, 2, true, (String[])null);
+    // Make the hbase rootdir match the minidfs we just span up
+    this.conf.set(HConstants.HBASE_DIR,
+      this.cluster.getFileSystem().getHomeDirectory().toString());
+    super.setUp();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void tearDown() throws Exception {
+    if (this.cluster != null) {
+      StaticTestEnvironment.shutdownDfs(cluster);
+    }
+    super.tearDown();
+  }
+
+  /**
+   * Merge two regions with several store files each and check all rows
+   * can be read from the merged region.
+   * @throws Exception
+   */
+  public void testMergeOnline() throws Exception {
+    HTableDescriptor htd = createTableDescriptor(getName());
+    // Regions share a log as they would on a region server.
+    HLog log = new HLog(this.fs, new Path(this.testDir, "log"), this.conf,
+      null);
+    HRegion a = createRegion(htd, null, MIDDLE, log);
+    HRegion b = createRegion(htd, MIDDLE, null, log);
+    HRegion merged = null;
+    try {
+      for (int i = 0; i < 2; i++) {
+        addContent(a, COLFAMILY_NAME1);
+        a.flushcache();
+        addContent(b, COLFAMILY_NAME1);
+        b.flushcache();
+      }
+      addContent(b, COLFAMILY_NAME2);
+      b.flushcache();
+      Text firstRow = new Text(START_KEY);
+      Text middleRow = new Text(MIDDLE.toString() + PUNCTUATION);
+      Text column = new Text(COLFAMILY_NAME1);
+      assertNotNull(a.get(firstRow, column));
+      assertNotNull(b.get(middleRow, column));
+
+      // Not adjacent the other way round
+      try {
+        HRegion.mergeOnline(b, a, null);
+        fail("Merged regions out of order");
+      } catch (IOException e) {
+        // Expected
+      }
+
+      merged = HRegion.mergeOnline(a, b, null);
+      assertNotNull(merged);
+      assertTrue(a.isClosed());
+      assertTrue(b.isClosed());
+      // The old regions stay until the merged region drops its references.
+      assertTrue(this.fs.exists(a.getRegionDir()));
+      assertTrue(this.fs.exists(b.getRegionDir()));
+      assertEquals(0, merged.getStartKey().getLength());
+      assertEquals(0, merged.getEndKey().getLength());
+
+      merged = openClosedRegion(merged);
+      assertEquals(5, merged.getStorefilesCount());
+      assertNotNull(merged.get(firstRow, column));
+      assertNotNull(merged.get(middleRow, column));
+      assertNotNull(merged.get(middleRow, new Text(COLFAMILY_NAME2)));
+
+      // Compacting replaces the references with files of the merged region.
+      merged.compactStores();
+      assertEquals(2, merged.getStorefilesCount());
+      assertNotNull(merged.get(firstRow, column));
+      assertNotNull(merged.get(middleRow, column));
+    } finally {
+      if (merged != null) {
+        merged.close();
+      }
+      log.closeAndDelete();
+    }
+  }
+
+  /**
+   * A merge that fails after the regions are closed leaves nothing of the
+   * new region and the old regions as they were.
+   * @throws Exception
+   */
+  public void testMergeFailure() throws Exception {
+    HTableDescriptor htd = createTableDescriptor(getName());
+    HLog log = new HLog(this.fs, new Path(this.testDir, "log"), this.conf,
+      null);
+    final HRegion a = createRegion(htd, null, MIDDLE, log);
+    final HRegion b = createRegion(htd, MIDDLE, null, log);
+    try {
+      addContent(a, COLFAMILY_NAME1);
+      a.flushcache();
+      addContent(b, COLFAMILY_NAME1);
+      b.flushcache();
+      Text firstRow = new Text(START_KEY);
+      Text middleRow = new Text(MIDDLE.toString() + PUNCTUATION);
+      Text column = new Text(COLFAMILY_NAME1);
+      Text family = htd.families().get(column).getFamilyName();
+
+      // Hide a store file of b once b is closed so the merge can not read it.
+      final Path infoDir = HStoreFile.getInfoDir(b.basedir,
+        b.getRegionInfo().getEncodedName(), family);
+      final Path [] infoFiles = this.fs.listPaths(new Path [] {infoDir});
+      assertEquals(1, infoFiles.length);
+      final Path hidden = new Path(this.testDir, "hidden");
+      RegionUnavailableListener listener = new RegionUnavailableListener() {
+        public void closing(final Text regionName) {
+          // Nothing to do
+        }
+
+        public void closed(final Text regionName) {
+          if (regionName.equals(b.getRegionName())) {
+            try {
+              assertTrue(fs.rename(infoFiles[0], hidden));
+            } catch (IOException e) {
+              throw new RuntimeException(e);
+            }
+          }
+        }
+      };
+      try {
+        HRegion.mergeOnline(a, b, listener);
+        fail("Merged with a missing store file");
+      } catch (IOException e) {
+        // Expected
+      }
+      assertTrue(a.isClosed());
+      assertTrue(b.isClosed());
+      Path [] regionDirs = this.fs.listPaths(new Path [] {a.basedir});
+      assertEquals(2, regionDirs.length);
+
+      assertTrue(this.fs.rename(hidden, infoFiles[0]));
+      HRegion reopenedA = openClosedRegion(a);
+      HRegion reopenedB = openClosedRegion(b);
+      try {
+        assertNotNull(reopenedA.get(firstRow, column));
+        assertNotNull(reopenedB.get(middleRow, column));
+      } finally {
+        reopenedA.close();
+        reopenedB.close();
+      }
+    } finally {
+      log.closeAndDelete();
+    }
+  }
+
+  private HRegion createRegion(final HTableDescriptor htd, final Text startKey,
+      final Text endKey, final HLog log)
+  throws IOException {
+    HRegion r = createNewHRegion(htd, startKey, endKey);
+    r.close();
+    r.getLog().closeAndDelete();
+    return new HRegion(r.basedir, log, this.fs, this.conf, r.getRegionInfo(),
+      null, null);
+  }
+
+  /** Only small adjacent regions are merged and each only once */
+  public void testPlanMerges() {
+    HTableDescriptor htd = createTableDescriptor(getName());
+    Text [] keys = new Text [] {new Text(), new Text("b"), new Text("c"),
+      new Text("d"), new Text("e"), new Text()};
+    int [] sizes = new int [] {1, 1, 1, 100, 1};
+    List<HRegionLocation> regions = new ArrayList<HRegionLocation>();
+    Map<Text, RegionLoad> loads = new HashMap<Text, RegionLoad>();
+    for (int i = 0; i < sizes.length; i++) {
+      HRegionInfo info = new HRegionInfo(htd, keys[i], keys[i + 1]);
+      regions.add(new HRegionLocation(info, new HServerAddress("h:1")));
+      loads.put(info.getRegionName(),
+        new RegionLoad(info.getRegionName(), 0, 0, 0, 1, sizes[i], 0));
+    }
+    List<HRegionLocation []> pairs = HMaster.planMerges(regions, loads, 10, 10);
+    assertEquals(1, pairs.size());
+    assertEquals(keys[0], pairs.get(0)[0].getRegionInfo().getStartKey());
+    assertEquals(keys[1], pairs.get(0)[1].getRegionInfo().getStartKey());
+    // Nothing under the size
+    assertEquals(0, HMaster.planMerges(regions, loads, 2, 10).size());
+    // Unknown load
+    loads.remove(regions.get(0).getRegionInfo().getRegionName());
+    pairs = HMaster.planMerges(regions, loads, 10, 10);
+    assertEquals(1, pairs.size());
+    assertEquals(keys[1], pairs.get(0)[0].getRegionInfo().getStartKey());
+  }
+}
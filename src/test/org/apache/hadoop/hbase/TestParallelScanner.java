@@ -0,0 +1,131 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.hadoop.io.Text;
+
+/**
+ * Tests parallel scanners over a table of several regions.
+ */
+public class TestParallelScanner extends HBaseClusterTestCase {
+  private static final Text CONTENTS = new Text("contents:");
+  private static final int ROWS_PER_REGION = 10;
+  private static final Text [] SPLIT_KEYS =
+    new Text [] {new Text("row1"), new Text("row2"), new Text("row3")};
+  private static final int LEASE_PERIOD = 3 * 1000;
+
+  private HTable table = null;
+
+  /** constructor */
+  public TestParallelScanner() {
+    super();
+    // Expire scanners quickly so a slow consumer outlives them
+    conf.setInt("hbase.regionserver.lease.period", LEASE_PERIOD);
+    // Keep each region scan blocked on its queue after one row
+    conf.setInt("hbase.client.scanner.prefetch.rows", 1);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    HTableDescriptor desc = new HTableDescriptor(getName());
+    desc.addFamily(new HColumnDescriptor(CONTENTS.toString()));
+    new HBaseAdmin(conf).createTable(desc, SPLIT_KEYS);
+    this.table = new HTable(conf, desc.getName());
+    assertEquals(SPLIT_KEYS.length + 1, this.table.getStartKeys().length);
+    // row00 to row39, ten rows in each region
+    for (int i = 0; i < (SPLIT_KEYS.length + 1) * ROWS_PER_REGION; i++) {
+      long lockid = this.table.startUpdate(new Text(row(i)));
+      this.table.put(lockid, CONTENTS,
+        row(i).getBytes(HConstants.UTF8_ENCODING));
+      this.table.commit(lockid);
+    }
+  }
+
+  /**
+   * Ordered scanners return every row in key order; unordered scanners
+   * return every row once.  Also checks that a consumer slower than the
+   * scanner lease period still sees every row.
+   * @throws Exception
+   */
+  public void testParallelScanner() throws Exception {
+    int count = (SPLIT_KEYS.length + 1) * ROWS_PER_REGION;
+    Text [] columns = new Text [] {CONTENTS};
+
+    HScannerInterface scanner = this.table.obtainParallelScanner(columns,
+      HConstants.EMPTY_START_ROW, 2, true);
+    try {
+      HStoreKey key = new HStoreKey();
+      SortedMap<Text, byte []> results = new TreeMap<Text, byte []>();
+      for (int i = 0; i < count; i++) {
+        assertTrue(scanner.next(key, results));
+        assertEquals(row(i), key.getRow().toString());
+        assertEquals(row(i),
+          new String(results.get(CONTENTS), HConstants.UTF8_ENCODING));
+      }
+      assertFalse(scanner.next(key, results));
+    } finally {
+      scanner.close();
+    }
+
+    scanner = this.table.obtainParallelScanner(columns, new Text("row15"), 3,
+      false);
+    try {
+      TreeSet<String> rows = new TreeSet<String>();
+      HStoreKey key = new HStoreKey();
+      SortedMap<Text, byte []> results = new TreeMap<Text, byte []>();
+      while (scanner.next(key, results)) {
+        assertTrue(rows.add(key.getRow().toString()));
+      }
+      assertEquals(count - 15, rows.size());
+      assertEquals(row(15), rows.first());
+      assertEquals(row(count - 1), rows.last());
+    } finally {
+      scanner.close();
+    }
+
+    scanner = this.table.obtainParallelScanner(columns,
+      HConstants.EMPTY_START_ROW, 4, true);
+    try {
+      HStoreKey key = new HStoreKey();
+      SortedMap<Text, byte []> results = new TreeMap<Text, byte []>();
+      for (int i = 0; i < count; i++) {
+        assertTrue(scanner.next(key, results));
+        assertEquals(row(i), key.getRow().toString());
+        if (i == 0 || i == ROWS_PER_REGION + 5) {
+          // Let the server-side scanners of every region expire
+          Thread.sleep(3 * LEASE_PERIOD);
+        }
+      }
+      assertFalse(scanner.next(key, results));
+    } finally {
+      scanner.close();
+    }
+  }
+
+  private static String row(final int i) {
+    return "row" + (i < 10? "0": "") + i;
+  }
+}
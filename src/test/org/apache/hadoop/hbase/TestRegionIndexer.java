@@ -0,0 +1,195 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+
+import junit.framework.TestCase;
+
+import org.apache.hadoop.hbase.io.BatchUpdate;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Tests that index changes to a row are sent in order and that failed sends
+ * are reported.
+ */
+public class TestRegionIndexer extends TestCase {
+  private static final Text COLOR = new Text("color:");
+  private static final Text ROW = new Text("row1");
+
+  /**
+   * Indexer that records the index rows it sends instead of sending them,
+   * failing a given number of times first.  The first send waits on a gate.
+   */
+  private static class RecordingIndexer extends RegionIndexer {
+    final List<Text> sent = Collections.synchronizedList(new ArrayList<Text>());
+    final CountDownLatch gate = new CountDownLatch(1);
+    volatile int failures = 0;
+
+    RecordingIndexer(final HBaseConfiguration conf,
+        final HTableDescriptor desc) {
+      super(conf, desc);
+    }
+
+    @Override
+    void commit(final List<BatchUpdate> updates) throws IOException {
+      try {
+        this.gate.await();
+      } catch (InterruptedException e) {
+        throw new IOException(e.toString());
+      }
+      if (this.failures > 0) {
+        this.failures--;
+        throw new IOException("injected index failure");
+      }
+      for (BatchUpdate b: updates) {
+        this.sent.add(b.getRow());
+      }
+    }
+  }
+
+  private HBaseConfiguration conf;
+  private HTableDescriptor desc;
+
+  /** {@inheritDoc} */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    this.conf = new HBaseConfiguration();
+    this.desc = new HTableDescriptor(getName());
+    this.desc.addFamily(new HColumnDescriptor(COLOR, 1,
+      HColumnDescriptor.CompressionType.NONE, false, Integer.MAX_VALUE,
+      null, true));
+  }
+
+  /**
+   * Changes to a row made while earlier ones are being sent are sent after
+   * them.
+   * @throws Exception
+   */
+  public void testOrder() throws Exception {
+    final RecordingIndexer indexer = new RecordingIndexer(this.conf, this.desc);
+    final RegionIndexer.Changes first =
+      indexer.update(ROW, cells(null), cells("blue"));
+    RegionIndexer.Changes second =
+      indexer.update(ROW, cells("blue"), cells("red"));
+    assertNull(indexer.update(ROW, cells("red"), cells("red")));
+    assertEquals(1, indexer.getInFlight());
+    Thread t = new Thread() {
+      @Override
+      public void run() {
+        try {
+          indexer.send(first);
+        } catch (IOException e) {
+          fail(e.toString());
+        }
+      }
+    };
+    // Send the second changes while the first wait on the gate.
+    t.start();
+    new Thread() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(500);
+        } catch (InterruptedException e) {
+          // continue
+        }
+        indexer.gate.countDown();
+      }
+    }.start();
+    indexer.send(second);
+    t.join();
+    assertEquals(3, indexer.sent.size());
+    assertEquals(key("blue"), indexer.sent.get(0));
+    assertEquals(key("blue"), indexer.sent.get(1));
+    assertEquals(key("red"), indexer.sent.get(2));
+    assertEquals(0, indexer.getInFlight());
+    indexer.close(false);
+  }
+
+  /**
+   * A failed send is reported to the caller and does not hold up later
+   * changes.
+   * @throws Exception
+   */
+  public void testFailure() throws Exception {
+    RecordingIndexer indexer = new RecordingIndexer(this.conf, this.desc);
+    indexer.gate.countDown();
+    indexer.failures = 1;
+    try {
+      indexer.send(indexer.update(ROW, cells(null), cells("blue")));
+      fail("Failed send not reported");
+    } catch (IOException e) {
+      // expected
+    }
+    assertTrue(indexer.sent.isEmpty());
+    assertEquals(0, indexer.getInFlight());
+    indexer.send(indexer.update(ROW, cells("blue"), cells("red")));
+    assertEquals(2, indexer.sent.size());
+    indexer.close(false);
+  }
+
+  /**
+   * Close waits for changes being sent.
+   * @throws Exception
+   */
+  public void testClose() throws Exception {
+    final RecordingIndexer indexer = new RecordingIndexer(this.conf, this.desc);
+    final RegionIndexer.Changes changes =
+      indexer.update(ROW, cells(null), cells("blue"));
+    Thread t = new Thread() {
+      @Override
+      public void run() {
+        try {
+          indexer.send(changes);
+        } catch (IOException e) {
+          fail(e.toString());
+        }
+      }
+    };
+    t.start();
+    indexer.gate.countDown();
+    indexer.close(false);
+    assertEquals(1, indexer.sent.size());
+    assertEquals(0, indexer.getInFlight());
+    t.join();
+  }
+
+  private static Map<Text, byte []> cells(final String color)
+  throws IOException {
+    Map<Text, byte []> cells = new TreeMap<Text, byte []>();
+    if (color != null) {
+      cells.put(COLOR, color.getBytes(HConstants.UTF8_ENCODING));
+    }
+    return cells;
+  }
+
+  private static Text key(final String color) throws IOException {
+    return TableIndex.getKey(COLOR, color.getBytes(HConstants.UTF8_ENCODING),
+      ROW);
+  }
+}
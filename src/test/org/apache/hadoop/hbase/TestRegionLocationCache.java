@@ -0,0 +1,142 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hadoop.io.Text;
+
+/**
+ * Tests the client cache of region locations: read-ahead of neighbouring
+ * regions, relocating one region at a time and concurrent lookups.
+ */
+public class TestRegionLocationCache extends HBaseClusterTestCase {
+  private static final Text CONTENTS = new Text("contents:");
+  private static final Text [] SPLIT_KEYS =
+    new Text [] {new Text("row1"), new Text("row2"), new Text("row3")};
+
+  private Text tableName;
+
+  /** constructor */
+  public TestRegionLocationCache() {
+    super();
+    // Read ahead one region past the one looked up
+    conf.setInt("hbase.client.prefetch.limit", 2);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    HTableDescriptor desc = new HTableDescriptor(getName());
+    desc.addFamily(new HColumnDescriptor(CONTENTS.toString()));
+    new HBaseAdmin(conf).createTable(desc, SPLIT_KEYS);
+    this.tableName = desc.getName();
+  }
+
+  /**
+   * A miss caches the next region too unless it is cached already;
+   * relocating a region leaves the others cached; concurrent lookups and
+   * relocations always find the region holding the row.
+   * @throws Exception
+   */
+  public void testLocations() throws Exception {
+    final HConnection connection = HConnectionManager.getConnection(conf);
+    // Creating the table looked up all its regions; start from nothing.
+    connection.close(this.tableName);
+    assertEquals(0, cached(connection));
+
+    HRegionLocation first =
+      connection.locateRegion(this.tableName, new Text("row0"));
+    assertRegion(first, "row0");
+    assertEquals(2, cached(connection));
+    HRegionLocation second =
+      connection.locateRegion(this.tableName, new Text("row15"));
+    assertRegion(second, "row15");
+    assertEquals(2, cached(connection));
+
+    HRegionLocation third =
+      connection.locateRegion(this.tableName, new Text("row25"));
+    assertRegion(third, "row25");
+    assertEquals(SPLIT_KEYS.length + 1, cached(connection));
+    HRegionLocation fourth =
+      connection.locateRegion(this.tableName, new Text("row35"));
+
+    // Only the relocated region is looked up again; the region after it is
+    // cached so is not read again.
+    HRegionLocation relocated =
+      connection.relocateRegion(this.tableName, new Text("row15"));
+    assertRegion(relocated, "row15");
+    assertNotSame(second, relocated);
+    assertSame(first, connection.locateRegion(this.tableName, new Text("row0")));
+    assertSame(third,
+      connection.locateRegion(this.tableName, new Text("row25")));
+    assertSame(fourth,
+      connection.locateRegion(this.tableName, new Text("row35")));
+    assertEquals(SPLIT_KEYS.length + 1, cached(connection));
+
+    final List<Throwable> errors =
+      Collections.synchronizedList(new ArrayList<Throwable>());
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int i = 0; i < 8; i++) {
+      final boolean relocate = i == 0;
+      threads.add(new Thread() {
+        @Override
+        public void run() {
+          Random rand = new Random();
+          try {
+            for (int j = 0; j < 200; j++) {
+              Text row = new Text("row" + rand.nextInt(40));
+              HRegionLocation location = relocate?
+                connection.relocateRegion(tableName, row):
+                connection.locateRegion(tableName, row);
+              assertRegion(location, row.toString());
+            }
+          } catch (Throwable t) {
+            errors.add(t);
+          }
+        }
+      });
+    }
+    for (Thread t: threads) {
+      t.start();
+    }
+    for (Thread t: threads) {
+      t.join();
+    }
+    assertTrue(errors.toString(), errors.isEmpty());
+    assertEquals(SPLIT_KEYS.length + 1, cached(connection));
+  }
+
+  private int cached(final HConnection connection) {
+    return HConnectionManager.getCachedRegionCount(connection, this.tableName);
+  }
+
+  static void assertRegion(final HRegionLocation location, final String row) {
+    assertNotNull(row, location);
+    HRegionInfo info = location.getRegionInfo();
+    Text r = new Text(row);
+    assertTrue(row + " in " + info.getRegionName(),
+      HRegion.rowIsInRange(info, r));
+  }
+}
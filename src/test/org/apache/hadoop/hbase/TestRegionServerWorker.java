@@ -0,0 +1,136 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that the region server worker survives failed master messages and
+ * stops when the file system goes away.
+ */
+public class TestRegionServerWorker extends TestCase {
+  private static final int RETRIES = 2;
+
+  /**
+   * Region server whose quiesce fails a given number of times and whose file
+   * system check can be made to fail.
+   */
+  private static class FailingServer extends HRegionServer {
+    final AtomicInteger quiesceCalls = new AtomicInteger(0);
+    volatile int failures = 0;
+    volatile boolean fileSystemOk = true;
+
+    FailingServer(final HBaseConfiguration conf) throws IOException {
+      super(new HServerAddress("0.0.0.0:0"), conf);
+    }
+
+    @Override
+    void closeUserRegions() {
+      if (this.quiesceCalls.incrementAndGet() <= this.failures) {
+        throw new RuntimeException("injected quiesce failure");
+      }
+    }
+
+    @Override
+    protected boolean checkFileSystem() {
+      return this.fileSystemOk;
+    }
+  }
+
+  private FailingServer server;
+  private Thread workerThread;
+
+  /** {@inheritDoc} */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    HBaseConfiguration conf = new HBaseConfiguration();
+    conf.setInt(HConstants.THREAD_WAKE_FREQUENCY, 100);
+    conf.setInt("hbase.client.retries.number", RETRIES);
+    this.server = new FailingServer(conf);
+    this.workerThread = new Thread(this.server.new Worker(2));
+    this.workerThread.setDaemon(true);
+    this.workerThread.start();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected void tearDown() throws Exception {
+    this.server.stopRequested.set(true);
+    this.workerThread.join(10 * 1000);
+    super.tearDown();
+  }
+
+  /**
+   * A quiesce that fails is retried and the worker carries on.
+   * @throws Exception
+   */
+  public void testRetry() throws Exception {
+    this.server.failures = 1;
+    quiesce();
+    waitFor(2);
+    // The worker still takes messages
+    quiesce();
+    waitFor(3);
+    assertTrue(this.workerThread.isAlive());
+  }
+
+  /**
+   * A quiesce that keeps failing is given up on; the worker carries on while
+   * the file system is fine.
+   * @throws Exception
+   */
+  public void testGiveUp() throws Exception {
+    this.server.failures = Integer.MAX_VALUE;
+    quiesce();
+    waitFor(RETRIES + 1);
+    Thread.sleep(500);
+    assertEquals(RETRIES + 1, this.server.quiesceCalls.get());
+    assertTrue(this.workerThread.isAlive());
+  }
+
+  /**
+   * The worker stops once a failed message finds the file system gone.
+   * @throws Exception
+   */
+  public void testFileSystemFailure() throws Exception {
+    this.server.failures = Integer.MAX_VALUE;
+    this.server.fileSystemOk = false;
+    quiesce();
+    this.workerThread.join(10 * 1000);
+    assertFalse(this.workerThread.isAlive());
+    assertEquals(RETRIES + 1, this.server.quiesceCalls.get());
+  }
+
+  private void quiesce() {
+    this.server.toDo.add(new HRegionServer.ToDoEntry(
+      new HMsg(HMsg.MSG_REGIONSERVER_QUIESCE)));
+  }
+
+  private void waitFor(final int calls) throws InterruptedException {
+    for (int i = 0; i < 100 && this.server.quiesceCalls.get() < calls; i++) {
+      Thread.sleep(100);
+    }
+    assertEquals(calls, this.server.quiesceCalls.get());
+  }
+}
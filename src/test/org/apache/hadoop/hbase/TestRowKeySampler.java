@@ -0,0 +1,101 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import org.apache.hadoop.io.Text;
+
+import junit.framework.TestCase;
+
+/** Tests choosing a load split point from sampled row keys */
+public class TestRowKeySampler extends TestCase {
+  private static final Text EMPTY = new Text();
+
+  /**
+   * The split point divides requests, not distinct rows.
+   */
+  public void testMidKeyFollowsLoad() {
+    RowKeySampler sampler = new RowKeySampler(1000);
+    for (int i = 0; i < 10000; i++) {
+      // 90% of requests go to rows under "b".
+      sampler.add(new Text(i % 10 == 0 ? "c" + i : "b" + (i % 100)));
+    }
+    assertEquals(10000, sampler.getCount());
+    Text mid = sampler.getMidKey(EMPTY, EMPTY);
+    assertNotNull(mid);
+    assertTrue(mid.toString(), mid.toString().startsWith("b"));
+  }
+
+  /**
+   * The split point must lie strictly inside the region.
+   */
+  public void testMidKeyInsideRegion() {
+    RowKeySampler sampler = new RowKeySampler(100);
+    Text start = new Text("m");
+    for (int i = 0; i < 50; i++) {
+      sampler.add(start);
+    }
+    assertNull(sampler.getMidKey(start, EMPTY));
+    sampler.add(new Text("n"));
+    assertEquals(new Text("n"), sampler.getMidKey(start, EMPTY));
+    assertNull(sampler.getMidKey(start, new Text("n")));
+  }
+
+  /**
+   * Requests counted from many threads are all counted and the sample stays
+   * uniform.
+   * @throws InterruptedException
+   */
+  public void testConcurrentAdd() throws InterruptedException {
+    final RowKeySampler sampler = new RowKeySampler(1000);
+    Thread [] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final int offset = t * 25000;
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 25000; i++) {
+            sampler.add(new Text(String.format("%06d",
+              Integer.valueOf(offset + i))));
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread t: threads) {
+      t.join();
+    }
+    assertEquals(100000, sampler.getCount());
+    // Rows are spread evenly, so the median should be near the middle.
+    int mid = Integer.parseInt(sampler.getMidKey(EMPTY, EMPTY).toString());
+    assertTrue(Integer.toString(mid), mid > 40000 && mid < 60000);
+  }
+
+  /**
+   * Reset starts a new, empty window.
+   */
+  public void testReset() {
+    RowKeySampler sampler = new RowKeySampler(10);
+    sampler.add(new Text("a"));
+    sampler.reset(42);
+    assertEquals(0, sampler.getCount());
+    assertEquals(42, sampler.getStartTime());
+    assertNull(sampler.getMidKey(EMPTY, EMPTY));
+  }
+}
@@ -115,6 +115,18 @@ public class TestScannerAPI extends HBaseClusterTestCase {
     } finally {
       scanner.close();
     }
+    scanner = table.obtainParallelScanner(columns, startRow, 2, true);
+    try {
+      assertEquals(values.size(), verify(scanner));
+    } finally {
+      scanner.close();
+    }
+    scanner = table.obtainParallelScanner(columns, startRow, 2, false);
+    try {
+      assertEquals(values.size(), verify(scanner));
+    } finally {
+      scanner.close();
+    }
     scanner = table.obtainScanner(columns, startRow);
     try {
       for (Iterator<Map.Entry<HStoreKey, SortedMap<Text, byte[]>>> iterator =
@@ -140,7 +152,8 @@ public class TestScannerAPI extends HBaseClusterTestCase {
     }
   }
   
-  private void verify(HScannerInterface scanner) throws IOException {
+  private int verify(HScannerInterface scanner) throws IOException {
+    int count = 0;
     HStoreKey key = new HStoreKey();
     SortedMap<Text, byte[]> results = new TreeMap<Text, byte[]>();
     while (scanner.next(key, results)) {
@@ -156,6 +169,8 @@ public class TestScannerAPI extends HBaseClusterTestCase {
             results.get(column)));
       }
       results.clear();
+      count++;
     }
+    return count;
   }
 }
@@ -91,6 +91,7 @@ public class TestSplit extends HBaseTestCase {
     region.flushcache();
     Text midkey = new Text();
     assertTrue(region.needsSplit(midkey));
+    assertSplitKeys(region, 4);
     HRegion [] regions = split(region);
     try {
       // Need to open the regions.
@@ -106,6 +107,10 @@ public class TestSplit extends HBaseTestCase {
       // Test I can get scanner and that it starts at right place.
       assertScan(regions[0], COLFAMILY_NAME3, new Text(START_KEY));
       assertScan(regions[1], COLFAMILY_NAME3, midkey);
+      // Split keys of a daughter come from the half of the parent it
+      // references.
+      assertSplitKeys(regions[0], 4);
+      assertSplitKeys(regions[1], 4);
       // Now prove can't split regions that have references.
       Text[] midkeys = new Text[regions.length];
       for (int i = 0; i < regions.length; i++) {
@@ -173,6 +178,23 @@ public class TestSplit extends HBaseTestCase {
     }
   }
   
+  /*
+   * Assert region has <code>n - 1</code> keys to divide it at, in order and
+   * inside the region.
+   */
+  private void assertSplitKeys(final HRegion r, final int n)
+  throws IOException {
+    Text [] keys = r.getSplitKeys(n);
+    assertEquals(n - 1, keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      assertTrue(HRegion.rowIsInRange(r.getRegionInfo(), keys[i]));
+      assertTrue(keys[i].compareTo(r.getStartKey()) > 0);
+      if (i > 0) {
+        assertTrue(keys[i].compareTo(keys[i - 1]) > 0);
+      }
+    }
+  }
+
   private void assertGet(final HRegion r, final String family, final Text k)
   throws IOException {
     // Now I have k, get values out and assert they are as expected.
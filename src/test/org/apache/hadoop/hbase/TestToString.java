@@ -45,7 +45,8 @@ public class TestToString extends TestCase {
     System. out.println(htd.toString());
     assertEquals("Table descriptor", "name: -ROOT-, families: {info:={name: " +
       "info, max versions: 1, compression: NONE, in memory: false, max " +
-      "length: 2147483647, bloom filter: none}}", htd.toString());
+      "length: 2147483647, bloom filter: none, " +
+      "indexed: false}}", htd.toString());
   }
   
   /**
@@ -58,6 +59,6 @@ public class TestToString extends TestCase {
       "regionname: -ROOT-,,0, startKey: <>, endKey: <>, encodedName: 70236052, tableDesc: " +
       "{name: -ROOT-, families: {info:={name: info, max versions: 1, " +
       "compression: NONE, in memory: false, max length: 2147483647, bloom " +
-      "filter: none}}}", hri.toString());
+      "filter: none, indexed: false}}}", hri.toString());
   }
 }
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase;
+
+import org.apache.hadoop.dfs.MiniDFSCluster;
+import org.apache.hadoop.hbase.io.BatchUpdate;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Tests updates that skip the write-ahead log.
+ */
+public class TestUnloggedUpdates extends HBaseTestCase {
+  private MiniDFSCluster cluster = null;
+
+  /** {@inheritDoc} */
+  @Override
+  public void setUp() throws Exception {
+    this.cluster = new MiniDFSCluster(conf, 2, true, (String[])null);
+    // Make the hbase rootdir match the minidfs we just span up
+    this.conf.set(HConstants.HBASE_DIR,
+      this.cluster.getFileSystem().getHomeDirectory().toString());
+    super.setUp();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void tearDown() throws Exception {
+    if (this.cluster != null) {
+      StaticTestEnvironment.shutdownDfs(cluster);
+    }
+    super.tearDown();
+  }
+
+  /**
+   * Unlogged updates are readable but leave no log entries.
+   * @throws Exception
+   */
+  public void testUnloggedUpdates() throws Exception {
+    HRegion r = createNewHRegion(createTableDescriptor(getName()), null, null);
+    try {
+      Text column = new Text(COLFAMILY_NAME1 + "a");
+      int entries = r.getLog().getNumEntries();
+      r.batchUpdate(HConstants.LATEST_TIMESTAMP,
+        createUpdate(new Text("unlogged"), column), false);
+      assertEquals(entries, r.getLog().getNumEntries());
+      r.batchUpdate(HConstants.LATEST_TIMESTAMP,
+        createUpdate(new Text("logged"), column), true);
+      assertEquals(entries + 1, r.getLog().getNumEntries());
+
+      for (String row: new String [] {"unlogged", "logged"}) {
+        assertEquals(row,
+          new String(r.get(new Text(row), column), HConstants.UTF8_ENCODING));
+      }
+    } finally {
+      r.close();
+      r.getLog().closeAndDelete();
+    }
+  }
+
+  private BatchUpdate createUpdate(final Text row, final Text column)
+  throws Exception {
+    BatchUpdate b = new BatchUpdate(0);
+    long lockid = b.startUpdate(row);
+    b.put(lockid, column, row.toString().getBytes(HConstants.UTF8_ENCODING));
+    return b;
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.TreeMap;
+
+import org.apache.hadoop.io.Text;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the column value filter
+ */
+public class TestColumnValueFilter extends TestCase {
+  private static final Text ROW = new Text("row");
+  private static final Text COLUMN = new Text("a:b");
+  private static final Text OTHER_COLUMN = new Text("a:c");
+  private static final byte [] LESS = "abc".getBytes();
+  private static final byte [] VALUE = "abd".getBytes();
+  private static final byte [] GREATER = "abda".getBytes();
+
+  RowFilterInterface mainFilter;
+
+  /** {@inheritDoc} */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    mainFilter = new ColumnValueFilter(COLUMN,
+      ColumnValueFilter.CompareOp.GREATER_OR_EQUAL, VALUE);
+  }
+
+  /**
+   * Tests comparison of column values
+   * @throws Exception
+   */
+  public void testCompare() throws Exception {
+    compareTests(mainFilter);
+    RowFilterInterface less = new ColumnValueFilter(COLUMN,
+      ColumnValueFilter.CompareOp.LESS, VALUE);
+    assertFalse(less.filter(ROW, COLUMN, LESS));
+    assertTrue(less.filter(ROW, COLUMN, VALUE));
+    RowFilterInterface notEqual = new ColumnValueFilter(COLUMN,
+      ColumnValueFilter.CompareOp.NOT_EQUAL, VALUE);
+    assertFalse(notEqual.filter(ROW, COLUMN, GREATER));
+    assertTrue(notEqual.filter(ROW, COLUMN, VALUE));
+  }
+
+  /**
+   * Tests serialization
+   * @throws Exception
+   */
+  public void testSerialization() throws Exception {
+    // Decompose mainFilter to bytes.
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(stream);
+    mainFilter.write(out);
+    out.close();
+    byte[] buffer = stream.toByteArray();
+
+    // Recompose mainFilter.
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer));
+    RowFilterInterface newFilter = new ColumnValueFilter();
+    newFilter.readFields(in);
+
+    // Ensure the serialization preserved the filter by running a full test.
+    compareTests(newFilter);
+  }
+
+  /**
+   * Tests the filtered column must be scanned
+   */
+  public void testValidate() {
+    mainFilter.validate(new Text [] {OTHER_COLUMN, COLUMN});
+    try {
+      mainFilter.validate(new Text [] {OTHER_COLUMN});
+      fail("Validated a filter on a column not scanned");
+    } catch (InvalidRowFilterException e) {
+      // Expected
+    }
+  }
+
+  private void compareTests(RowFilterInterface filter) throws Exception {
+    assertTrue("Less", filter.filter(ROW, COLUMN, LESS));
+    assertFalse("Equal", filter.filter(ROW, COLUMN, VALUE));
+    assertFalse("Greater", filter.filter(ROW, COLUMN, GREATER));
+    assertFalse("Other column", filter.filter(ROW, OTHER_COLUMN, LESS));
+    assertFalse("Row only", filter.filter(ROW));
+    assertFalse("FilterAllRemaining", filter.filterAllRemaining());
+
+    TreeMap<Text, byte []> columns = new TreeMap<Text, byte []>();
+    columns.put(OTHER_COLUMN, VALUE);
+    assertTrue("Row without column", filter.filterNotNull(columns));
+    columns.put(COLUMN, VALUE);
+    assertFalse("Row with column", filter.filterNotNull(columns));
+  }
+}
@@ -31,6 +31,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.hbase.HBaseAdmin;
 import org.apache.hadoop.hbase.HBaseClusterTestCase;
 import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HTable;
 import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.hql.generated.ParseException;
 import org.apache.hadoop.hbase.hql.generated.HQLParser;
@@ -104,6 +105,21 @@ public class TestHQL extends HBaseClusterTestCase {
         sglQuotedColumnFamily + "');", tmpTableName, sglQuotedColumnFamily);
   }
 
+  /**
+   * Create a table split into regions up front.
+   * @throws Exception
+   */
+  public void testCreatePreSplitTable() throws Exception {
+    final String tableName = getName();
+    createTable("create table " + tableName + " (" + tableName + ") " +
+      "splits ('b', 'm');", tableName, tableName);
+    Text [] startKeys =
+      new HTable(this.conf, new Text(tableName)).getStartKeys();
+    assertEquals(3, startKeys.length);
+    assertEquals(new Text("b"), startKeys[1]);
+    assertEquals(new Text("m"), startKeys[2]);
+  }
+
   /**
    * @throws Exception
    */
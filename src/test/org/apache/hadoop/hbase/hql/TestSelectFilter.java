@@ -0,0 +1,144 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.hql;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.filter.RowFilterInterface;
+import org.apache.hadoop.hbase.hql.generated.HQLParser;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Tests WHERE conditions are turned into filters run on the region servers.
+ */
+public class TestSelectFilter extends TestCase {
+  private static final Text COLUMN = new Text("a:x");
+
+  private SelectCommand parse(final String query) throws Exception {
+    StringWriter out = new StringWriter();
+    TableFormatterFactory tff =
+      new TableFormatterFactory(out, new HBaseConfiguration());
+    return (SelectCommand)new HQLParser(query, out, tff.get()).
+      terminatedCommand();
+  }
+
+  /*
+   * @return True if the filter passes the row with <code>value</code> in
+   * COLUMN.
+   */
+  private boolean passes(final RowFilterInterface filter, final String row,
+      final String value) {
+    Text r = new Text(row);
+    TreeMap<Text, byte []> columns = new TreeMap<Text, byte []>();
+    columns.put(COLUMN, value.getBytes());
+    return !filter.filter(r) && !filter.filter(r, COLUMN, value.getBytes()) &&
+      !filter.filterNotNull(columns);
+  }
+
+  /**
+   * Row range, row regex and column comparison all end up in the filter.
+   * @throws Exception
+   */
+  public void testConditions() throws Exception {
+    SelectCommand select = parse("select a: from t where row >= 'b' and " +
+      "row < 'd' and row like '.*1' and a:x > '5';");
+    List<String []> plan = new ArrayList<String []>();
+    RowFilterInterface filter = select.getFilter(plan);
+    assertEquals(4, plan.size());
+    for (String [] p: plan) {
+      assertTrue(p[0] + " " + p[1], p[1].startsWith("server"));
+    }
+    assertTrue(passes(filter, "b1", "6"));
+    assertTrue(passes(filter, "c1", "9"));
+    assertFalse("value", passes(filter, "c1", "4"));
+    assertFalse("regex", passes(filter, "c2", "6"));
+    assertFalse("stop row", passes(filter, "d1", "6"));
+  }
+
+  /**
+   * Column equality and limit.
+   * @throws Exception
+   */
+  public void testEqualsAndLimit() throws Exception {
+    SelectCommand select =
+      parse("select a: from t where a:x = 'v' and row != 'r' limit = 2;");
+    RowFilterInterface filter = select.getFilter(null);
+    assertTrue(passes(filter, "q", "v"));
+    assertFalse("value", passes(filter, "q", "w"));
+    assertFalse("row", passes(filter, "r", "v"));
+  }
+
+  /**
+   * Values long enough that Text pads its backing array are compared as
+   * given.
+   * @throws Exception
+   */
+  public void testLongValues() throws Exception {
+    String v = "abcdefghijklmnop";
+    RowFilterInterface filter =
+      parse("select a: from t where a:x = '" + v + "';").getFilter(null);
+    assertTrue(passes(filter, "r", v));
+    assertFalse(passes(filter, "r", v + "q"));
+    filter =
+      parse("select a: from t where a:x >= '" + v + "';").getFilter(null);
+    assertTrue(passes(filter, "r", v));
+    assertTrue(passes(filter, "r", "b"));
+    assertFalse(passes(filter, "r", "abc"));
+  }
+
+  /**
+   * A condition on a bare family, or a second equality on the same column,
+   * is refused before anything is scanned.
+   * @throws Exception
+   */
+  public void testRefusedConditions() throws Exception {
+    HBaseConfiguration conf = new HBaseConfiguration();
+    ReturnMsg msg = parse("select a: from t where a = 'v';").execute(conf);
+    assertEquals(0, msg.getType());
+    assertTrue(msg.getMsg(), msg.getMsg().startsWith("Syntax error"));
+    msg = parse("select a: from t where a:x = 'v' and a:x = 'w';").
+      execute(conf);
+    assertEquals(0, msg.getType());
+    assertTrue(msg.getMsg(), msg.getMsg().startsWith("Syntax error"));
+    // A column with an empty qualifier is a column.
+    RowFilterInterface filter =
+      parse("select a: from t where a: = 'v';").getFilter(null);
+    assertNotNull(filter);
+  }
+
+  /**
+   * A row equality starts the scan at the row and stops it after.
+   * @throws Exception
+   */
+  public void testRowLookup() throws Exception {
+    SelectCommand select = parse("explain select * from t where row = 'r';");
+    List<String []> plan = new ArrayList<String []>();
+    RowFilterInterface filter = select.getFilter(plan);
+    assertEquals(1, plan.size());
+    assertTrue(passes(filter, "r", "v"));
+    assertFalse(passes(filter, "s", "v"));
+  }
+}
@@ -25,6 +25,8 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import junit.framework.TestCase;
 
@@ -70,6 +72,19 @@ public class TestHbaseObjectWritable extends TestCase {
     obj = doType(conf, new StopRowFilter(new Text("")),
         RowFilterInterface.class);
     assertTrue(obj instanceof StopRowFilter);
+    // Do a row result.
+    SortedMap<Text, byte []> cells = new TreeMap<Text, byte []>();
+    cells.put(new Text("a:1"), bytes);
+    cells.put(new Text("a:2"), new byte [0]);
+    obj = doType(conf, new RowResult(new Text("row"), COUNT, cells),
+      RowResult.class);
+    assertTrue(obj instanceof RowResult);
+    RowResult rr = (RowResult)obj;
+    assertEquals(new Text("row"), rr.getRow());
+    assertEquals(COUNT, rr.getTimestamp());
+    assertEquals(2, rr.size());
+    assertTrue(rr.get(new Text("a:1"))[0] == A);
+    assertEquals(0, rr.get(new Text("a:2")).length);
   }
   
   private Object doType(final HBaseConfiguration conf, final Object value,
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.mapred;
+
+import java.io.IOException;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HStoreKey;
+import org.apache.hadoop.hbase.StaticTestEnvironment;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.io.MapFile;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.JobConf;
+
+/** Tests writing store files for bulk load */
+public class TestHStoreFileOutputFormat extends TestCase {
+  private static final Text A = new Text("a:");
+  private static final Text B = new Text("b:");
+
+  private JobConf job;
+  private FileSystem fs;
+  private Path dir;
+
+  /** {@inheritDoc} */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    this.job = new JobConf();
+    this.fs = FileSystem.getLocal(this.job);
+    this.dir = new Path(this.job.get(StaticTestEnvironment.TEST_DIRECTORY_KEY,
+      "test/build/data"), getName());
+    this.fs.delete(this.dir);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected void tearDown() throws Exception {
+    this.fs.delete(this.dir);
+    super.tearDown();
+  }
+
+  /**
+   * Rows are written to a file per family and region, in store key order.
+   * @throws IOException
+   */
+  public void testFilePerFamilyAndRegion() throws IOException {
+    TreeMap<Text, HColumnDescriptor> families =
+      new TreeMap<Text, HColumnDescriptor>();
+    families.put(A, new HColumnDescriptor(A.toString()));
+    families.put(B, new HColumnDescriptor(B.toString()));
+    HStoreFileOutputFormat.HStoreFileRecordWriter w =
+      new HStoreFileOutputFormat.HStoreFileRecordWriter(this.job, this.fs,
+        this.dir, "part-0", null, new Text [] {new Text(), new Text("m")},
+        families);
+    for (String row: new String [] {"c", "k", "p", "x"}) {
+      MapWritable value = new MapWritable();
+      // Columns out of order; the writer sorts them.
+      value.put(new Text("a:2"), new ImmutableBytesWritable(row.getBytes()));
+      value.put(new Text("a:1"), new ImmutableBytesWritable(row.getBytes()));
+      if (row.compareTo("m") > 0) {
+        value.put(new Text("b:1"), new ImmutableBytesWritable(row.getBytes()));
+      }
+      w.write(new Text(row), value);
+    }
+    try {
+      w.write(new Text("a"), new MapWritable());
+      fail("Wrote rows out of order");
+    } catch (IOException e) {
+      // Expected
+    }
+    w.close(null);
+
+    FileStatus [] as = this.fs.listStatus(new Path(this.dir, "a"));
+    assertEquals(2, as.length);
+    assertEquals(4, countCells(as[0].getPath()));
+    assertEquals(4, countCells(as[1].getPath()));
+    FileStatus [] bs = this.fs.listStatus(new Path(this.dir, "b"));
+    assertEquals(1, bs.length);
+    assertEquals(2, countCells(bs[0].getPath()));
+  }
+
+  /*
+   * @param p
+   * @return Number of cells in MapFile <code>p</code>.  Checks keys are in
+   * order and all of one region.
+   */
+  private int countCells(final Path p) throws IOException {
+    MapFile.Reader r = new MapFile.Reader(this.fs, p.toString(), this.job);
+    try {
+      int count = 0;
+      HStoreKey last = null;
+      HStoreKey key = new HStoreKey();
+      ImmutableBytesWritable value = new ImmutableBytesWritable();
+      while (r.next(key, value)) {
+        if (last != null) {
+          assertTrue(key.compareTo(last) > 0);
+          assertEquals(last.getRow().compareTo(new Text("m")) < 0,
+            key.getRow().compareTo(new Text("m")) < 0);
+        }
+        last = new HStoreKey(key);
+        count++;
+      }
+      return count;
+    } finally {
+      r.close();
+    }
+  }
+}
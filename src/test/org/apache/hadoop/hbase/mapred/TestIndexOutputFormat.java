@@ -0,0 +1,299 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.mapred;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HStoreKey;
+import org.apache.hadoop.hbase.StaticTestEnvironment;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.RecordWriter;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+
+/** Tests building and updating an index */
+public class TestIndexOutputFormat extends TestCase {
+  private static final String ROWKEY = new IndexConfiguration().getRowkeyName();
+  private static final String COLUMN = "a:";
+  private static final String COLUMN_B = "b:";
+  private static final long TIMESTAMP = 10;
+
+  private JobConf job;
+  private FileSystem fs;
+  private Path dir;
+
+  /** {@inheritDoc} */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    this.job = new JobConf();
+    this.fs = FileSystem.getLocal(this.job);
+    this.dir = new Path(this.job.get(StaticTestEnvironment.TEST_DIRECTORY_KEY,
+      "test/build/data"), getName());
+    this.fs.delete(this.dir);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected void tearDown() throws Exception {
+    this.fs.delete(this.dir);
+    super.tearDown();
+  }
+
+  /**
+   * Changed rows are replaced, unchanged rows kept and missing rows deleted.
+   * @throws IOException
+   */
+  public void testUpdate() throws IOException {
+    Path base = new Path(this.dir, "base");
+    write(base, null, new String [] {"a", "b", "c", "e"},
+      new String [] {"1", "1", "1", "1"});
+    assertEquals(4, count(base, "1"));
+
+    // b changes, c is deleted, d is added, a and e are unchanged
+    Path update = new Path(this.dir, "update");
+    write(update, base, new String [] {"a", "b", "d", "e"},
+      new String [] {null, "2", "2", null});
+    IndexReader reader = IndexReader.open(
+      new Path(update, "part-00000").toString());
+    try {
+      assertEquals(4, reader.numDocs());
+      assertEquals("1", value(reader, "a"));
+      assertEquals("2", value(reader, "b"));
+      assertNull(value(reader, "c"));
+      assertEquals("2", value(reader, "d"));
+      assertEquals("1", value(reader, "e"));
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * A row with no cell newer than the base index but with a column deleted
+   * since gets a new document; a row with no changes keeps its own.
+   * @throws IOException
+   */
+  public void testDeletedColumn() throws IOException {
+    Path base = new Path(this.dir, "base");
+    index(base, null, -1, new String [][] {{"r", "blue", "red"},
+      {"s", "blue", null}});
+
+    // b: of r is deleted: r's newest cell is as old as before.
+    Path update = new Path(this.dir, "update");
+    index(update, base, TIMESTAMP, new String [][] {{"r", "blue", null},
+      {"s", "blue", null}});
+    IndexReader reader = IndexReader.open(
+      new Path(update, "part-00000").toString());
+    try {
+      assertEquals(2, reader.numDocs());
+      assertEquals(0, docs(reader, new Term(COLUMN_B, "red")));
+      assertEquals(2, docs(reader, new Term(COLUMN, "blue")));
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * A row with no cell newer than the base index is passed to reduce as only
+   * the digest of its columns.
+   * @throws IOException
+   */
+  public void testNotNewerSendsDigest() throws IOException {
+    JobConf c = new JobConf(this.job);
+    c.setLong(IndexUpdateTableMap.SINCE, TIMESTAMP);
+    IndexUpdateTableMap map = new IndexUpdateTableMap();
+    map.configure(c);
+    final MapWritable columns = columns(new String [] {"r", "blue", "red"});
+    final List<MapWritable> mapped = new ArrayList<MapWritable>();
+    OutputCollector<Text, MapWritable> collector =
+      new OutputCollector<Text, MapWritable>() {
+        public void collect(Text key, MapWritable value) {
+          mapped.add(value);
+        }
+      };
+    map.map(new HStoreKey(new Text("r"), TIMESTAMP), columns, collector,
+      Reporter.NULL);
+    map.map(new HStoreKey(new Text("r"), TIMESTAMP + 1), columns, collector,
+      Reporter.NULL);
+    assertEquals(2, mapped.size());
+    assertEquals(1, mapped.get(0).size());
+    assertEquals(IndexTableReduce.digest(columns), new String(
+      ((ImmutableBytesWritable)mapped.get(0).get(IndexUpdateTableMap.NOT_NEWER)).
+        get(), HConstants.UTF8_ENCODING));
+    assertSame(columns, mapped.get(1));
+  }
+
+  /*
+   * Index <code>rows</code> into <code>output</code> through the update map
+   * and reduce.  Rows read again by the output format are read from
+   * <code>rows</code>.  Each row is {row, value of COLUMN, value of COLUMN_B}, where
+   * a null value leaves out the column.  All cells are stamped TIMESTAMP.
+   */
+  private void index(final Path output, final Path base, final long since,
+      final String [][] rows)
+  throws IOException {
+    JobConf c = new JobConf(this.job);
+    c.setOutputPath(output);
+    if (base != null) {
+      c.set(IndexOutputFormat.BASE, base.toString());
+    }
+    c.setLong(IndexUpdateTableMap.SINCE, since);
+    IndexUpdateTableMap map = new IndexUpdateTableMap();
+    map.configure(c);
+    IndexTableReduce reduce = new IndexTableReduce();
+    reduce.configure(c);
+    final Map<Text, MapWritable> table = new HashMap<Text, MapWritable>();
+    for (String [] r: rows) {
+      table.put(new Text(r[0]), columns(r));
+    }
+    final RecordWriter<Text, LuceneDocumentWrapper> w =
+      new IndexOutputFormat() {
+        @Override
+        MapWritable getRow(JobConf job, Text row) {
+          return table.containsKey(row)? table.get(row): new MapWritable();
+        }
+      }.getRecordWriter(this.fs, c, "part-00000", Reporter.NULL);
+    final List<MapWritable> mapped = new ArrayList<MapWritable>();
+    for (String [] r: rows) {
+      mapped.clear();
+      map.map(new HStoreKey(new Text(r[0]), TIMESTAMP), columns(r),
+        new OutputCollector<Text, MapWritable>() {
+          public void collect(Text key, MapWritable value) {
+            mapped.add(value);
+          }
+        }, Reporter.NULL);
+      reduce.reduce(new Text(r[0]), mapped.iterator(),
+        new OutputCollector<Text, LuceneDocumentWrapper>() {
+          public void collect(Text key, LuceneDocumentWrapper value)
+          throws IOException {
+            w.write(key, value);
+          }
+        }, Reporter.NULL);
+    }
+    w.close(Reporter.NULL);
+  }
+
+  /*
+   * @param r {row, value of COLUMN, value of COLUMN_B}
+   * @return Columns of the row, leaving out those with a null value.
+   */
+  private MapWritable columns(final String [] r) {
+    MapWritable columns = new MapWritable();
+    String [] names = new String [] {COLUMN, COLUMN_B};
+    for (int i = 0; i < names.length; i++) {
+      if (r[i + 1] != null) {
+        columns.put(new Text(names[i]),
+          new ImmutableBytesWritable(r[i + 1].getBytes()));
+      }
+    }
+    return columns;
+  }
+
+  /*
+   * @return Count of live documents with <code>term</code>.
+   */
+  private int docs(final IndexReader reader, final Term term)
+  throws IOException {
+    TermDocs docs = reader.termDocs(term);
+    try {
+      int count = 0;
+      while (docs.next()) {
+        count++;
+      }
+      return count;
+    } finally {
+      docs.close();
+    }
+  }
+
+  /*
+   * Write an index of <code>rows</code> to <code>output</code>.  A null value
+   * marks a row as unchanged.
+   */
+  private void write(final Path output, final Path base, final String [] rows,
+      final String [] values)
+  throws IOException {
+    JobConf c = new JobConf(this.job);
+    c.setOutputPath(output);
+    if (base != null) {
+      c.set(IndexOutputFormat.BASE, base.toString());
+    }
+    RecordWriter<Text, LuceneDocumentWrapper> w = new IndexOutputFormat().
+      getRecordWriter(this.fs, c, "part-00000", Reporter.NULL);
+    for (int i = 0; i < rows.length; i++) {
+      Document doc = null;
+      if (values[i] != null) {
+        doc = new Document();
+        doc.add(new Field(ROWKEY, rows[i], Field.Store.YES,
+          Field.Index.UN_TOKENIZED));
+        doc.add(new Field(COLUMN, values[i], Field.Store.YES,
+          Field.Index.UN_TOKENIZED));
+      }
+      w.write(new Text(rows[i]), new LuceneDocumentWrapper(doc));
+    }
+    w.close(Reporter.NULL);
+  }
+
+  private int count(final Path index, final String value) throws IOException {
+    IndexReader reader = IndexReader.open(
+      new Path(index, "part-00000").toString());
+    try {
+      return reader.docFreq(new Term(COLUMN, value));
+    } finally {
+      reader.close();
+    }
+  }
+
+  /*
+   * @return Value of the only live document of <code>row</code>, or null if
+   * it has none.
+   */
+  private String value(final IndexReader reader, final String row)
+  throws IOException {
+    TermDocs docs = reader.termDocs(new Term(ROWKEY, row));
+    try {
+      if (!docs.next()) {
+        return null;
+      }
+      String value = reader.document(docs.doc()).get(COLUMN);
+      assertFalse("More than one document for " + row, docs.next());
+      return value;
+    } finally {
+      docs.close();
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.mapred;
+
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.apache.hadoop.hbase.util.Writables;
+import org.apache.hadoop.io.Text;
+
+/** Tests a table split keeps its location */
+public class TestTableSplit extends TestCase {
+  /**
+   * @throws IOException
+   */
+  public void testLocation() throws IOException {
+    TableSplit split = new TableSplit(new Text("t"), new Text("a"),
+      new Text("b"), "host.example.com");
+    TableSplit copy = (TableSplit)Writables.getWritable(
+      Writables.getBytes(split), new TableSplit());
+    assertEquals(new Text("a"), copy.getStartRow());
+    assertEquals(new Text("b"), copy.getEndRow());
+    assertEquals(1, copy.getLocations().length);
+    assertEquals("host.example.com", copy.getLocations()[0]);
+
+    split = new TableSplit(new Text("t"), new Text("a"), new Text("b"));
+    copy = (TableSplit)Writables.getWritable(Writables.getBytes(split),
+      new TableSplit());
+    assertEquals(0, copy.getLocations().length);
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.metrics;
+
+import junit.framework.TestCase;
+
+/** Tests histogram bucketing and percentiles */
+public class TestHistogram extends TestCase {
+  /** Every value must land in a bucket whose bound is at or above it */
+  public void testBuckets() {
+    long [] values = {0, 1, 7, 8, 9, 15, 16, 17, 1000, 123456789L,
+      Long.MAX_VALUE};
+    for (int i = 0; i < values.length; i++) {
+      int b = Histogram.bucket(values[i]);
+      long upper = Histogram.upperBound(b);
+      assertTrue(values[i] + " above " + upper, values[i] <= upper);
+      if (b > 0) {
+        assertTrue(values[i] + " below " + upper,
+          values[i] > Histogram.upperBound(b - 1));
+      }
+    }
+  }
+
+  /** Percentiles must be within the bucket resolution */
+  public void testPercentiles() {
+    Histogram h = new Histogram();
+    assertEquals(0, h.getPercentile(0.99));
+    for (int i = 1; i <= 10000; i++) {
+      h.update(i);
+    }
+    assertEquals(10000, h.getCount());
+    assertEquals(10000, h.getMax());
+    assertEquals(5000.5, h.getMean(), 0.001);
+    assertWithin(5000, h.getPercentile(0.5));
+    assertWithin(9900, h.getPercentile(0.99));
+    assertWithin(9990, h.getPercentile(0.999));
+    assertEquals(10000, h.getPercentile(1.0));
+  }
+
+  /**
+   * Values older than two windows no longer count.
+   * @throws InterruptedException
+   */
+  public void testWindow() throws InterruptedException {
+    Histogram h = new Histogram(200);
+    for (int i = 0; i < 100; i++) {
+      h.update(1000);
+    }
+    assertEquals(1000, h.getPercentile(0.5));
+    // One window on, the old values still count alongside the new ones.
+    Thread.sleep(250);
+    h.update(10);
+    assertEquals(101, h.getCount());
+    assertEquals(1000, h.getMax());
+    // Two windows on, only the new values count.
+    Thread.sleep(250);
+    h.update(10);
+    assertEquals(2, h.getCount());
+    assertEquals(10, h.getMax());
+    assertEquals(10, h.getPercentile(0.99));
+    Thread.sleep(450);
+    assertEquals(0, h.getCount());
+    assertEquals(0, h.getPercentile(0.5));
+  }
+
+  private void assertWithin(final long expected, final long actual) {
+    assertTrue("expected " + expected + " but was " + actual,
+      actual >= expected &&
+      actual <= expected + expected / Histogram.SUB_BUCKETS);
+  }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.hadoop.hbase.HBaseAdmin;
+import org.apache.hadoop.hbase.HBaseClusterTestCase;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Base for tests of the REST handlers.  Makes a table named after the test
+ * and stands in for the servlet container: requests and responses are stubs
+ * that record what the handler does with them.
+ */
+public abstract class RestClusterTestCase extends HBaseClusterTestCase {
+  protected static final Text CONTENTS = new Text("contents:");
+
+  protected HBaseAdmin admin;
+  protected Text tableName;
+
+  /** {@inheritDoc} */
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    this.admin = new HBaseAdmin(conf);
+    HTableDescriptor desc = new HTableDescriptor(getName());
+    desc.addFamily(new HColumnDescriptor(CONTENTS.toString()));
+    this.admin.createTable(desc);
+    this.tableName = desc.getName();
+  }
+
+  /*
+   * @param params Request parameters
+   * @param body Request body, or null
+   * @return Request that accepts and sends XML.
+   */
+  protected static HttpServletRequest request(final Map<String, String> params,
+      final byte [] body) {
+    final ByteArrayInputStream in =
+      new ByteArrayInputStream(body == null? new byte[0]: body);
+    return (HttpServletRequest)Proxy.newProxyInstance(
+      HttpServletRequest.class.getClassLoader(),
+      new Class [] {HttpServletRequest.class},
+      new InvocationHandler() {
+        public Object invoke(Object proxy, Method m, Object [] args) {
+          String name = m.getName();
+          if (name.equals("getParameter")) {
+            return params.get(args[0]);
+          } else if (name.equals("getParameterValues")) {
+            String v = params.get(args[0]);
+            return v == null? null: new String [] {v};
+          } else if (name.equals("getHeader")) {
+            return "text/xml";
+          } else if (name.equals("getContextPath")) {
+            return "/api";
+          } else if (name.equals("getInputStream")) {
+            return new ServletInputStream() {
+              @Override
+              public int read() {
+                return in.read();
+              }
+            };
+          }
+          return null;
+        }
+      });
+  }
+
+  /** Records what a handler does with its response. */
+  protected static class Response {
+    int status = 200;
+    String message = null;
+    final Map<String, String> headers = new HashMap<String, String>();
+    final StringWriter body = new StringWriter();
+    final HttpServletResponse stub;
+
+    Response() {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      this.stub = (HttpServletResponse)Proxy.newProxyInstance(
+        HttpServletResponse.class.getClassLoader(),
+        new Class [] {HttpServletResponse.class},
+        new InvocationHandler() {
+          public Object invoke(Object proxy, Method m, Object [] args) {
+            String name = m.getName();
+            if (name.equals("setStatus")) {
+              status = ((Integer)args[0]).intValue();
+            } else if (name.equals("sendError")) {
+              status = ((Integer)args[0]).intValue();
+              message = args.length > 1? (String)args[1]: null;
+            } else if (name.equals("addHeader") || name.equals("setHeader")) {
+              headers.put((String)args[0], (String)args[1]);
+            } else if (name.equals("getWriter")) {
+              return new PrintWriter(body);
+            } else if (name.equals("getOutputStream")) {
+              return new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                  out.write(b);
+                }
+              };
+            }
+            return null;
+          }
+        });
+    }
+
+    /*
+     * @return The body without the line breaks and indentation the handlers
+     * put around every tag.
+     */
+    String text() {
+      return this.body.toString().replaceAll("\n *", "");
+    }
+
+    /*
+     * @param s
+     * @return Count of times <code>s</code> is in the body, as in
+     * {@link #text()}.
+     */
+    int count(final String s) {
+      String b = text();
+      int count = 0;
+      for (int i = b.indexOf(s); i >= 0; i = b.indexOf(s, i + s.length())) {
+        count++;
+      }
+      return count;
+    }
+  }
+
+  /*
+   * @param s
+   * @return UTF-8 bytes of <code>s</code>
+   */
+  protected static byte [] bytes(final String s) throws IOException {
+    return s.getBytes(HConstants.UTF8_ENCODING);
+  }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.rest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HTable;
+import org.apache.hadoop.hbase.io.BatchUpdate;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Tests streamed scans, scanners returning many rows per request and
+ * scanner leases.
+ */
+public class TestScannerHandler extends RestClusterTestCase {
+  private static final int ROWS = 10;
+  private static final int LEASE_PERIOD = 3 * 1000;
+
+  private ScannerHandler handler;
+
+  /** constructor */
+  public TestScannerHandler() {
+    super();
+    conf.setInt("hbase.rest.scanner.lease.period", LEASE_PERIOD);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    HTable table = new HTable(conf, this.tableName);
+    for (int i = 0; i < ROWS; i++) {
+      BatchUpdate b = new BatchUpdate();
+      long lockid = b.startUpdate(new Text("row" + i));
+      b.put(lockid, CONTENTS, ("value" + i).getBytes(HConstants.UTF8_ENCODING));
+      table.commit(b, HConstants.LATEST_TIMESTAMP);
+    }
+    this.handler = new ScannerHandler(conf, this.admin);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void tearDown() throws Exception {
+    if (this.handler != null) {
+      this.handler.close();
+    }
+    super.tearDown();
+  }
+
+  /**
+   * A GET on the scanner returns all rows, or up to the limit, in one
+   * response.
+   * @throws Exception
+   */
+  public void testStreamingGet() throws Exception {
+    Map<String, String> params = new HashMap<String, String>();
+    Response response = new Response();
+    this.handler.doGet(request(params, null), response.stub, path());
+    assertEquals(200, response.status);
+    assertEquals(ROWS, response.count("<row>"));
+
+    params.put("limit", "3");
+    response = new Response();
+    this.handler.doGet(request(params, null), response.stub, path());
+    assertEquals(200, response.status);
+    assertEquals(3, response.count("<row>"));
+  }
+
+  /**
+   * Each POST returns up to the requested count of rows, then the scanner is
+   * expended.
+   * @throws Exception
+   */
+  public void testBatchedPost() throws Exception {
+    String id = openScanner();
+    assertEquals(4, next(id, 4).count("<row>"));
+    assertEquals(4, next(id, 4).count("<row>"));
+    assertEquals(2, next(id, 4).count("<row>"));
+    assertEquals(404, next(id, 4).status);
+    // An expended scanner is gone.
+    assertEquals(404, next(id, 1).status);
+  }
+
+  /**
+   * A scanner in use is kept past its lease period; an idle one is closed.
+   * @throws Exception
+   */
+  public void testLeases() throws Exception {
+    String id = openScanner();
+    for (int i = 0; i < 3; i++) {
+      Thread.sleep(LEASE_PERIOD / 2);
+      Response response = next(id, 1);
+      assertEquals(200, response.status);
+      assertEquals(1, response.count("<row>"));
+    }
+    Thread.sleep(LEASE_PERIOD * 2);
+    assertEquals(404, next(id, 1).status);
+  }
+
+  private String [] path() {
+    return new String [] {this.tableName.toString(), "scanner"};
+  }
+
+  /*
+   * @return Id of a new scanner over the table.
+   */
+  private String openScanner() throws Exception {
+    Response response = new Response();
+    this.handler.doPost(request(new HashMap<String, String>(), null),
+      response.stub, path());
+    assertEquals(201, response.status);
+    String location = response.headers.get("Location");
+    assertNotNull(location);
+    return location.substring(location.lastIndexOf('/') + 1);
+  }
+
+  /*
+   * @return Response to asking scanner <code>id</code> for
+   * <code>rows</code> rows.
+   */
+  private Response next(final String id, final int rows) throws Exception {
+    Map<String, String> params = new HashMap<String, String>();
+    params.put("rows", Integer.toString(rows));
+    Response response = new Response();
+    this.handler.doPost(request(params, null), response.stub,
+      new String [] {this.tableName.toString(), "scanner", id});
+    return response;
+  }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2008 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.rest;
+
+import java.util.HashMap;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HScannerInterface;
+import org.apache.hadoop.hbase.HTable;
+import org.apache.hadoop.hbase.util.Base64;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Tests putting many rows in one request.
+ */
+public class TestTableHandler extends RestClusterTestCase {
+  private static final String VALUE =
+    Base64.encodeBytes("value".getBytes());
+
+  /*
+   * @param row
+   * @return Row element holding one cell of <code>row</code>.
+   */
+  private static String row(final String row) {
+    return "<row><name>" + row + "</name><column><name>" + CONTENTS +
+      "</name><value>" + VALUE + "</value></column></row>";
+  }
+
+  private Response putRows(final TableHandler handler, final String doc)
+  throws Exception {
+    Response response = new Response();
+    handler.doPost(request(new HashMap<String, String>(), bytes(doc)),
+      response.stub, new String [] {this.tableName.toString(), "rows"});
+    return response;
+  }
+
+  /**
+   * Good rows are committed and bad rows reported, each in the order sent.
+   * @throws Exception
+   */
+  public void testPutRows() throws Exception {
+    // Commit every row as soon as it is read.
+    conf.setLong("hbase.rest.put.buffersize", 1);
+    TableHandler handler = new TableHandler(conf, this.admin);
+    Response response = putRows(handler, "<rows>" + row("a") +
+      "<row><name>b</name></row>" + row("c") + "</rows>");
+    assertEquals(200, response.status);
+    assertEquals(3, response.count("<row>"));
+    assertEquals(2, response.count("<status>200</status>"));
+    assertEquals(1, response.count("<status>400</status>"));
+    String body = response.text();
+    assertTrue(body, body.indexOf("<name>a</name>") <
+      body.indexOf("<name>b</name>"));
+    assertTrue(body, body.indexOf("<name>b</name>") <
+      body.indexOf("<name>c</name>"));
+
+    HTable table = new HTable(conf, this.tableName);
+    assertEquals("value", new String(table.get(new Text("a"), CONTENTS),
+      HConstants.UTF8_ENCODING));
+    assertEquals("value", new String(table.get(new Text("c"), CONTENTS),
+      HConstants.UTF8_ENCODING));
+    assertNull(table.get(new Text("b"), CONTENTS));
+
+    // More rows than are kept waiting on a commit.
+    StringBuilder doc = new StringBuilder("<rows>");
+    for (int i = 0; i < 2500; i++) {
+      doc.append("<row><name>bad" + i + "</name></row>");
+    }
+    doc.append("</rows>");
+    response = putRows(handler, doc.toString());
+    assertEquals(200, response.status);
+    assertEquals(2500, response.count("<status>400</status>"));
+  }
+
+  /**
+   * Documents with a DOCTYPE are refused before any entity is expanded or
+   * any row committed.
+   * @throws Exception
+   */
+  public void testRefusesDoctype() throws Exception {
+    TableHandler handler = new TableHandler(conf, this.admin);
+    Response response = putRows(handler,
+      "<?xml version=\"1.0\"?><!DOCTYPE rows [" +
+      "<!ENTITY e SYSTEM \"file:///etc/passwd\">]><rows>" + row("&e;") +
+      "</rows>");
+    assertEquals(400, response.status);
+
+    response = putRows(handler,
+      "<?xml version=\"1.0\"?><!DOCTYPE rows [<!ENTITY a \"aaaaaaaaaa\">" +
+      "<!ENTITY b \"&a;&a;&a;&a;&a;&a;&a;&a;&a;&a;\">]><rows>" + row("&b;") +
+      "</rows>");
+    assertEquals(400, response.status);
+
+    HTable table = new HTable(conf, this.tableName);
+    HScannerInterface scanner = table.obtainScanner(new Text [] {CONTENTS},
+      HConstants.EMPTY_START_ROW);
+    try {
+      assertFalse(scanner.iterator().hasNext());
+    } finally {
+      scanner.close();
+    }
+  }
+}
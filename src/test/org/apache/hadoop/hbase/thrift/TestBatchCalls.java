@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hbase.thrift;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.apache.hadoop.hbase.thrift.generated.BatchMutation;
+import org.apache.hadoop.hbase.thrift.generated.Hbase;
+import org.apache.hadoop.hbase.thrift.generated.IllegalArgument;
+import org.apache.hadoop.hbase.thrift.generated.Mutation;
+import org.apache.hadoop.hbase.thrift.generated.ScanEntry;
+
+import com.facebook.thrift.protocol.TBinaryProtocol;
+import com.facebook.thrift.transport.TFramedTransport;
+import com.facebook.thrift.transport.TSocket;
+import com.facebook.thrift.transport.TTransport;
+
+/**
+ * Tests the calls that carry many rows get their arguments and results
+ * across the wire.  The handler is a stub that records its arguments.
+ */
+public class TestBatchCalls extends TestCase {
+  private NonblockingServer server;
+  private Thread serverThread;
+  private TTransport transport;
+  private Hbase.Client client;
+  // Arguments of the last call made on the stub handler.
+  private Object [] lastArgs;
+
+  /** {@inheritDoc} */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    Hbase.Iface handler = (Hbase.Iface)Proxy.newProxyInstance(
+      Hbase.Iface.class.getClassLoader(), new Class [] {Hbase.Iface.class},
+      new InvocationHandler() {
+        public Object invoke(Object proxy, Method m, Object [] args)
+        throws Throwable {
+          lastArgs = args;
+          return stub(m.getName(), args);
+        }
+      });
+    this.server = new NonblockingServer(new Hbase.Processor(handler), 0,
+      new TBinaryProtocol.Factory(), 2, 1024 * 1024);
+    this.serverThread = new Thread(new Runnable() {
+      public void run() {
+        server.serve();
+      }
+    });
+    this.serverThread.start();
+    this.transport = new TFramedTransport(new TSocket("localhost",
+      this.server.getPort()));
+    this.transport.open();
+    this.client = new Hbase.Client(new TBinaryProtocol(this.transport));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected void tearDown() throws Exception {
+    this.transport.close();
+    this.server.stop();
+    this.serverThread.join();
+    super.tearDown();
+  }
+
+  /*
+   * Results for the stub handler.  getRows returns an entry per requested
+   * row with a cell per requested column; scannerGetList returns as many
+   * rows as asked for, or throws if the scanner id is negative.
+   */
+  private Object stub(final String method, final Object [] args)
+  throws IllegalArgument {
+    if (method.equals("getRows")) {
+      List<ScanEntry> entries = new ArrayList<ScanEntry>();
+      for (Object row: (List<?>)args[1]) {
+        entries.add(entry((byte [])row, (List<?>)args[2]));
+      }
+      return entries;
+    } else if (method.equals("scannerGetList")) {
+      if (((Integer)args[0]).intValue() < 0) {
+        throw new IllegalArgument("scanner ID is invalid");
+      }
+      List<ScanEntry> entries = new ArrayList<ScanEntry>();
+      for (int i = 0; i < ((Integer)args[1]).intValue(); i++) {
+        List<byte []> columns = new ArrayList<byte []>();
+        columns.add("a:".getBytes());
+        entries.add(entry(("row" + i).getBytes(), columns));
+      }
+      return entries;
+    }
+    return null;
+  }
+
+  private ScanEntry entry(final byte [] row, final List<?> columns) {
+    HashMap<byte [], byte []> cells = new HashMap<byte [], byte []>();
+    for (Object column: columns) {
+      cells.put((byte [])column, row);
+    }
+    return new ScanEntry(row, cells);
+  }
+
+  /**
+   * @throws Exception
+   */
+  public void testGetRows() throws Exception {
+    ArrayList<byte []> rows = new ArrayList<byte []>();
+    rows.add("r1".getBytes());
+    rows.add("r2".getBytes());
+    ArrayList<byte []> columns = new ArrayList<byte []>();
+    columns.add("a:x".getBytes());
+    columns.add("b:".getBytes());
+    List<ScanEntry> entries = this.client.getRows("t".getBytes(), rows,
+      columns);
+    assertEquals(2, entries.size());
+    for (int i = 0; i < entries.size(); i++) {
+      ScanEntry e = entries.get(i);
+      assertEquals("r" + (i + 1), new String(e.row));
+      assertEquals(2, e.columns.size());
+      for (Map.Entry<byte [], byte []> cell: e.columns.entrySet()) {
+        assertEquals(new String(e.row), new String(cell.getValue()));
+      }
+    }
+  }
+
+  /**
+   * @throws Exception
+   */
+  public void testMutateRowsTs() throws Exception {
+    ArrayList<BatchMutation> batches = new ArrayList<BatchMutation>();
+    for (int i = 0; i < 3; i++) {
+      ArrayList<Mutation> mutations = new ArrayList<Mutation>();
+      mutations.add(new Mutation(false, "a:".getBytes(),
+        Integer.toString(i).getBytes()));
+      mutations.add(new Mutation(true, "b:".getBytes(), null));
+      batches.add(new BatchMutation(("row" + i).getBytes(), mutations));
+    }
+    this.client.mutateRowsTs("t".getBytes(), batches, 1234L);
+    assertEquals("t", new String((byte [])this.lastArgs[0]));
+    List<?> received = (List<?>)this.lastArgs[1];
+    assertEquals(3, received.size());
+    for (int i = 0; i < received.size(); i++) {
+      BatchMutation b = (BatchMutation)received.get(i);
+      assertEquals("row" + i, new String(b.row));
+      assertEquals(2, b.mutations.size());
+      assertFalse(b.mutations.get(0).isDelete);
+      assertEquals(Integer.toString(i), new String(b.mutations.get(0).value));
+      assertTrue(b.mutations.get(1).isDelete);
+    }
+    assertEquals(Long.valueOf(1234L), this.lastArgs[2]);
+  }
+
+  /**
+   * @throws Exception
+   */
+  public void testScannerGetList() throws Exception {
+    List<ScanEntry> entries = this.client.scannerGetList(1, 5);
+    assertEquals(5, entries.size());
+    assertEquals("row4", new String(entries.get(4).row));
+    assertEquals(0, this.client.scannerGetList(1, 0).size());
+    try {
+      this.client.scannerGetList(-1, 5);
+      fail("Invalid scanner accepted");
+    } catch (IllegalArgument e) {
+      assertEquals("scanner ID is invalid", e.message);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hbase.thrift;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import com.facebook.thrift.TException;
+import com.facebook.thrift.TProcessor;
+import com.facebook.thrift.protocol.TBinaryProtocol;
+import com.facebook.thrift.protocol.TProtocol;
+import com.facebook.thrift.transport.TFramedTransport;
+import com.facebook.thrift.transport.TSocket;
+import com.facebook.thrift.transport.TTransport;
+
+/**
+ * Tests the nonblocking Thrift server with a processor that echoes strings.
+ */
+public class TestNonblockingServer extends TestCase {
+  private static final int MAX_FRAME_SIZE = 1024;
+
+  private NonblockingServer server;
+  private Thread serverThread;
+
+  /** {@inheritDoc} */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    TProcessor echo = new TProcessor() {
+      public boolean process(TProtocol in, TProtocol out) throws TException {
+        out.writeString(in.readString());
+        out.getTransport().flush();
+        return true;
+      }
+    };
+    this.server = new NonblockingServer(echo, 0,
+      new TBinaryProtocol.Factory(), 2, MAX_FRAME_SIZE);
+    this.serverThread = new Thread(new Runnable() {
+      public void run() {
+        server.serve();
+      }
+    });
+    this.serverThread.start();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected void tearDown() throws Exception {
+    this.server.stop();
+    this.serverThread.join();
+    super.tearDown();
+  }
+
+  /**
+   * More clients than workers each make several calls over one connection.
+   * @throws Exception
+   */
+  public void testManyClients() throws Exception {
+    List<TTransport> transports = new ArrayList<TTransport>();
+    List<TProtocol> clients = new ArrayList<TProtocol>();
+    for (int i = 0; i < 10; i++) {
+      TTransport t = new TFramedTransport(new TSocket("localhost",
+        this.server.getPort()));
+      t.open();
+      transports.add(t);
+      clients.add(new TBinaryProtocol(t));
+    }
+    for (int call = 0; call < 3; call++) {
+      // All clients have a call in before any reply is read.
+      for (int i = 0; i < clients.size(); i++) {
+        clients.get(i).writeString("client " + i + " call " + call);
+        transports.get(i).flush();
+      }
+      for (int i = 0; i < clients.size(); i++) {
+        assertEquals("client " + i + " call " + call,
+          clients.get(i).readString());
+      }
+    }
+    for (TTransport t: transports) {
+      t.close();
+    }
+  }
+
+  /**
+   * A call bigger than the maximum frame size gets the connection closed.
+   * @throws IOException
+   */
+  public void testFrameTooLarge() throws IOException {
+    Socket s = new Socket("localhost", this.server.getPort());
+    try {
+      DataOutputStream out = new DataOutputStream(s.getOutputStream());
+      out.writeInt(MAX_FRAME_SIZE + 1);
+      out.flush();
+      try {
+        new DataInputStream(s.getInputStream()).readInt();
+        fail("Connection not closed");
+      } catch (EOFException e) {
+        // Expected
+      }
+    } finally {
+      s.close();
+    }
+  }
+}
@@ -21,6 +21,8 @@ package org.apache.hadoop.hbase.util;
 
 import junit.framework.TestCase;
 
+import org.apache.hadoop.io.Text;
+
 /**
  * Tests url transformations
  */
@@ -55,6 +57,36 @@ public class TestKeying extends TestCase {
     checkTransform("filename");
   }
   
+  /**
+   * Test split keys are evenly spaced, sorted and of fixed width
+   * @throws Exception
+   */
+  public void testSplitKeys() throws Exception {
+    Text [] keys = Keying.hexSplitKeys(4, 2);
+    assertEquals(3, keys.length);
+    assertEquals("40", keys[0].toString());
+    assertEquals("80", keys[1].toString());
+    assertEquals("c0", keys[2].toString());
+    assertEquals(0, Keying.hexSplitKeys(1, 8).length);
+    keys = Keying.hexSplitKeys(1000, 32);
+    for (int i = 1; i < keys.length; i++) {
+      assertEquals(32, keys[i].getLength());
+      assertTrue(keys[i - 1].compareTo(keys[i]) < 0);
+    }
+
+    keys = Keying.numericSplitKeys(0, 999, 4, 5);
+    assertEquals(3, keys.length);
+    assertEquals("00250", keys[0].toString());
+    assertEquals("00500", keys[1].toString());
+    assertEquals("00750", keys[2].toString());
+    try {
+      Keying.numericSplitKeys(0, 100000, 4, 5);
+      fail("Keys wider than width");
+    } catch (IllegalArgumentException e) {
+      // Expected
+    }
+  }
+  
   private void checkTransform(final String u) {
     String k = Keying.createKey(u);
     String uri = Keying.keyToUri(k);
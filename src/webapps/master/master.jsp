@@ -6,6 +6,7 @@
   import="org.apache.hadoop.hbase.HMaster.MetaRegion"
   import="org.apache.hadoop.hbase.HBaseAdmin"
   import="org.apache.hadoop.hbase.HServerInfo"
+  import="org.apache.hadoop.hbase.HServerLoad"
   import="org.apache.hadoop.hbase.HServerAddress"
   import="org.apache.hadoop.hbase.HRegionInfo"
   import="org.apache.hadoop.hbase.HBaseConfiguration"
@@ -74,10 +75,15 @@
 <% if (serverToServerInfos != null && serverToServerInfos.size() > 0) { %>
 <% int totalRegions = 0;
    int totalRequests = 0; 
+   int totalMemcacheSizeMB = 0;
+   int totalStorefiles = 0;
+   int totalStorefileSizeMB = 0;
+   final Map<HServerLoad.RegionLoad, String> regionToServer =
+     new HashMap<HServerLoad.RegionLoad, String>();
 %>
 
 <table>
-<tr><th rowspan=<%= serverToServerInfos.size() + 1%>></th><th>Address</th><th>Start Code</th><th>Load</th></tr>
+<tr><th rowspan=<%= serverToServerInfos.size() + 1%>></th><th>Address</th><th>Start Code</th><th>Load</th><th>Memcache (MB)</th><th>Store Files</th><th>Store File Size (MB)</th></tr>
 
 <%   for (Map.Entry<String, HServerInfo> e: serverToServerInfos.entrySet()) {
        HServerInfo hsi = e.getValue();
@@ -87,15 +93,44 @@
        String load = hsi.getLoad().toString();
        totalRegions += hsi.getLoad().getNumberOfRegions();
        totalRequests += hsi.getLoad().getNumberOfRequests();
+       totalMemcacheSizeMB += hsi.getLoad().getMemcacheSizeMB();
+       totalStorefiles += hsi.getLoad().getStorefiles();
+       totalStorefileSizeMB += hsi.getLoad().getStorefileSizeMB();
        long startCode = hsi.getStartCode();
        String address = hsi.getServerAddress().toString();
+       for (HServerLoad.RegionLoad rl: hsi.getLoad().getRegionLoad()) {
+         regionToServer.put(rl, address);
+       }
 %>
-<tr><td><a href="<%= url %>"><%= address %></a></td><td><%= startCode %></td><td><%= load %></td></tr>
+<tr><td><a href="<%= url %>"><%= address %></a></td><td><%= startCode %></td><td><%= load %></td><td><%= hsi.getLoad().getMemcacheSizeMB() %></td><td><%= hsi.getLoad().getStorefiles() %></td><td><%= hsi.getLoad().getStorefileSizeMB() %></td></tr>
 <%   } %>
-<tr><th>Total: </th><td>servers: <%= serverToServerInfos.size() %></td><td>&nbsp;</td><td>requests: <%= totalRequests %> regions: <%= totalRegions %></td></tr>
+<tr><th>Total: </th><td>servers: <%= serverToServerInfos.size() %></td><td>&nbsp;</td><td>requests: <%= totalRequests %> regions: <%= totalRegions %></td><td><%= totalMemcacheSizeMB %></td><td><%= totalStorefiles %></td><td><%= totalStorefileSizeMB %></td></tr>
 </table>
 
 <p>Load is requests per <em>hbase.regionsserver.msginterval</em> (<%=interval%> second(s)) and count of regions loaded</p>
+
+<h2>Busiest Regions</h2>
+<% List<HServerLoad.RegionLoad> busiest =
+     new ArrayList<HServerLoad.RegionLoad>(regionToServer.keySet());
+   Collections.sort(busiest, new Comparator<HServerLoad.RegionLoad>() {
+     public int compare(HServerLoad.RegionLoad a, HServerLoad.RegionLoad b) {
+       int diff = b.getRequests() - a.getRequests();
+       return diff != 0? diff:
+         b.getBlockedUpdateMillis() - a.getBlockedUpdateMillis();
+     }
+   });
+   if (busiest.size() > 20) {
+     busiest = busiest.subList(0, 20);
+   }
+%>
+<table>
+<tr><th>Name</th><th>Server</th><th>Reads</th><th>Writes</th><th>Memcache (MB)</th><th>Store Files</th><th>Store File Size (MB)</th><th>Blocked Updates (ms)</th></tr>
+<% for (HServerLoad.RegionLoad rl: busiest) { %>
+<tr><td><%= rl.getName().toString() %></td><td><%= regionToServer.get(rl) %></td><td><%= rl.getReadRequests() %></td><td><%= rl.getWriteRequests() %></td><td><%= rl.getMemcacheSizeMB() %></td><td><%= rl.getStorefiles() %></td><td><%= rl.getStorefileSizeMB() %></td><td><%= rl.getBlockedUpdateMillis() %></td></tr>
+<% } %>
+</table>
+
+<p>Reads, writes and time updates were blocked waiting on a memcache flush are per <em>hbase.regionsserver.msginterval</em></p>
 <% } %>
 </body>
 </html>